@@ -9,6 +9,7 @@ import org.protege.editor.core.editorkit.RecentEditorKitManager;
 import org.protege.editor.core.log.LogBanner;
 import org.protege.editor.core.log.LogManager;
 import org.protege.editor.core.log.LogViewImpl;
+import org.protege.editor.core.log.StartupTimeline;
 import org.protege.editor.core.platform.OSGi;
 import org.protege.editor.core.platform.OSUtils;
 import org.protege.editor.core.platform.PlatformArguments;
@@ -36,6 +37,7 @@ import java.net.URI;
 import java.net.URISyntaxException;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /*
  * Copyright (C) 2007, University of Manchester
@@ -84,6 +86,8 @@ public class ProtegeApplication implements BundleActivator {
 
     private boolean initialized = false;
 
+    private final StartupTimeline startupTimeline = new StartupTimeline();
+
     public void start(final BundleContext context) {
         logManager.bind();
         context.addFrameworkListener(event -> {
@@ -98,7 +102,7 @@ public class ProtegeApplication implements BundleActivator {
     public void reallyStart(BundleContext context) {
         try {
             ProtegeApplication.context = context;
-            displayPlatform();
+            startupTimeline.time("display-platform", this::displayPlatform);
             initApplication();
 
 
@@ -107,11 +111,13 @@ public class ProtegeApplication implements BundleActivator {
             }
 
             ProtegeManager.getInstance().initialise(this);
-            startApplication();
+            startupTimeline.time("start-application", this::startApplication);
 
 
         } catch (Throwable t) {
             logger.error("Exception caught starting Protege", t);
+        } finally {
+            startupTimeline.write();
         }
     }
 
@@ -123,6 +129,7 @@ public class ProtegeApplication implements BundleActivator {
         RecentEditorKitManager.getInstance().dispose();
         PluginUtilities.getInstance().dispose();
         ProtegeManager.getInstance().dispose();
+        PreferencesManager.getInstance().flush();
         logManager.unbind();
     }
 
@@ -252,12 +259,17 @@ public class ProtegeApplication implements BundleActivator {
 
     protected ProtegeApplication initApplication() throws Exception {
         try {
-            PluginUtilities.getInstance().initialise(context);
+            startupTimeline.time("plugin-registry", () -> PluginUtilities.getInstance().initialise(context));
             loadDefaults();
-            initializeLookAndFeel();
+            // Loading the recent editor kits instantiates the editor kit factories and checks the recent
+            // documents.  This is independent of the look and feel, so it is done at the same time.
+            CompletableFuture<Void> recentEditorKits = CompletableFuture.runAsync(
+                    () -> startupTimeline.time("recent-editor-kits", ProtegeApplication::loadRecentEditorKits),
+                    task -> new Thread(task, "Recent Editor Kit Loader").start());
+            startupTimeline.time("look-and-feel", this::initializeLookAndFeel);
             setupExceptionHandler();
             processCommandLineURIs();  // plugins may set arguments
-            loadRecentEditorKits();
+            recentEditorKits.join();
         } finally {
             initialized = true;
         }
@@ -555,6 +567,8 @@ public class ProtegeApplication implements BundleActivator {
                 return false;
             }
         }
+        // Preferences are written behind.  Write them while the framework (and its class loaders) is still running.
+        PreferencesManager.getInstance().flush();
         try {
             boolean forceExit = !OSGi.systemExitHandledByLauncher(); // this call fails after context.getBundle(0).stop()
             context.getBundle(0).stop();
@@ -0,0 +1,105 @@
+package org.protege.editor.core.log;
+
+import org.protege.editor.core.util.ProtegeDirectories;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records how long each phase of application startup takes.
+ * <p>
+ * The launcher records the installation and activation of bundles in a timeline file (see
+ * {@code org.protege.osgi.framework.StartupTimeline}), which cannot be shared with bundles.  This class records the
+ * phases of application startup and appends them to the same file, in the same tab separated format: the offset of
+ * the start of the phase from the start of the JVM, its duration (both in milliseconds), the phase, the item (empty
+ * for application phases) and the thread.
+ */
+public class StartupTimeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(StartupTimeline.class);
+
+    public static final String TIMELINE_FILE_PROPERTY = "org.protege.startup.timeline.file";
+
+    private static final String HEADER = "offset_ms\tduration_ms\tphase\titem\tthread";
+
+    private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final List<String> lines = new ArrayList<>();
+
+    /**
+     * Runs the specified task and records its duration under the specified phase.
+     */
+    public <E extends Exception> void time(@Nonnull String phase, @Nonnull Task<E> task) throws E {
+        checkNotNull(phase);
+        long startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            logger.info("Startup phase {} took {} ms", phase, durationMillis);
+            String line = (startTime - jvmStartTime) + "\t" + durationMillis + "\t" + phase + "\t\t"
+                    + Thread.currentThread().getName();
+            synchronized (lines) {
+                lines.add(line);
+            }
+        }
+    }
+
+    /**
+     * Writes the recorded phases to the timeline file.  They are appended to the launcher's entries if the launcher
+     * wrote a timeline file, otherwise they replace the contents of the default timeline file.  Failures are logged.
+     */
+    public void write() {
+        String launcherFile = System.getProperty(TIMELINE_FILE_PROPERTY);
+        Path file = launcherFile != null ? Paths.get(launcherFile) : getDefaultTimelineFile();
+        List<String> toWrite;
+        synchronized (lines) {
+            toWrite = new ArrayList<>(lines);
+        }
+        try {
+            boolean append = launcherFile != null && Files.exists(file);
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file,
+                                                                 StandardCharsets.UTF_8,
+                                                                 StandardOpenOption.CREATE,
+                                                                 append ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING,
+                                                                 StandardOpenOption.WRITE)) {
+                if (!append) {
+                    writer.write(HEADER);
+                    writer.newLine();
+                }
+                for (String line : toWrite) {
+                    writer.write(line);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            logger.warn("The startup timeline could not be written to {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Path getDefaultTimelineFile() {
+        return new File(new File(ProtegeDirectories.getDataDirectory(), "logs"), "startup-timeline.tsv").toPath();
+    }
+
+    public interface Task<E extends Exception> {
+
+        void run() throws E;
+    }
+}
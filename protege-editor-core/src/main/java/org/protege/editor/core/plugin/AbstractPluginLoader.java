@@ -34,6 +34,10 @@ public abstract class AbstractPluginLoader<E> {
 
     private String extensionPointId;
 
+    private Set<E> plugins;
+
+    private long pluginsGeneration;
+
 
     /**
      * Creates a loader that will load (a subset) of the plugins
@@ -50,16 +54,26 @@ public abstract class AbstractPluginLoader<E> {
 
 
     /**
-     * Gets the plugins
+     * Gets the plugins.  The plugins are created when they are first requested, and
+     * the same plugins are returned by later calls unless the available extensions
+     * have changed since.
      * @return A <code>Set</code> containing the plugins
      */
     public Set<E> getPlugins() {
-        PluginExtensionFilter filter = new PluginExtensionFilter(pluginId, extensionPointId, getExtensionMatcher());
-        Set<E> result = new HashSet<>();
-        for (IExtension ext : filter.getExtensions()) {
-            result.add(createInstance(ext));
+        PluginExtensionCache extensionCache = PluginUtilities.getInstance().getExtensionCache();
+        synchronized (this) {
+            long generation = extensionCache.getGeneration();
+            if (plugins == null || pluginsGeneration != generation) {
+                PluginExtensionFilter filter = new PluginExtensionFilter(pluginId, extensionPointId, getExtensionMatcher());
+                Set<E> result = new HashSet<>();
+                for (IExtension ext : filter.getExtensions()) {
+                    result.add(createInstance(ext));
+                }
+                plugins = result;
+                pluginsGeneration = generation;
+            }
+            return new HashSet<>(plugins);
         }
-        return result;
     }
 
 
@@ -32,4 +32,15 @@ public class DefaultPluginExtensionMatcher implements PluginExtensionMatcher {
     public boolean matches(IExtension extension) {
         return true;
     }
+
+
+    @Override
+    public int hashCode() {
+        return DefaultPluginExtensionMatcher.class.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj != null && obj.getClass() == getClass();
+    }
 }
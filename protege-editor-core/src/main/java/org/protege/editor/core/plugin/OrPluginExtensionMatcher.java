@@ -2,6 +2,8 @@ package org.protege.editor.core.plugin;
 
 import org.eclipse.core.runtime.IExtension;
 
+import java.util.Arrays;
+
 public class OrPluginExtensionMatcher implements PluginExtensionMatcher {
     private PluginExtensionMatcher[] extensionMatchers;
     
@@ -18,4 +20,20 @@ public class OrPluginExtensionMatcher implements PluginExtensionMatcher {
         return false;
     }
 
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(extensionMatchers);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        return Arrays.equals(extensionMatchers, ((OrPluginExtensionMatcher) obj).extensionMatchers);
+    }
 }
@@ -0,0 +1,176 @@
+package org.protege.editor.core.plugin;
+
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.IExtensionPoint;
+import org.eclipse.core.runtime.IRegistryEventListener;
+import org.osgi.framework.BundleEvent;
+import org.osgi.framework.BundleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Caches the extensions that match a {@link PluginExtensionFilter}, so that the extension registry is not searched,
+ * and extension attributes are not examined by matchers, every time that a plugin loader is used.
+ * <p>
+ * Extensions are cached by plugin id, extension point id and matcher.  The matchers that are provided by Protégé
+ * compare by value, so loaders that create a new matcher for each search share cache entries.  Matchers that do
+ * not implement equality only share an entry with themselves; the number of entries is bounded, so these cannot
+ * fill the cache.
+ * <p>
+ * The cache is cleared, and its generation advanced, when a bundle is installed, resolved, updated, unresolved or
+ * uninstalled, and when extensions or extension points are added to or removed from the registry.
+ */
+public class PluginExtensionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PluginExtensionCache.class);
+
+    private static final int MAX_CACHED_FILTERS = 256;
+
+    private final Map<FilterKey, Set<IExtension>> extensions = new LinkedHashMap<FilterKey, Set<IExtension>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FilterKey, Set<IExtension>> eldest) {
+            return size() > MAX_CACHED_FILTERS;
+        }
+    };
+
+    private long generation = 0;
+
+    private final BundleListener bundleListener = event -> {
+        switch (event.getType()) {
+            case BundleEvent.INSTALLED:
+            case BundleEvent.RESOLVED:
+            case BundleEvent.UPDATED:
+            case BundleEvent.UNRESOLVED:
+            case BundleEvent.UNINSTALLED:
+                invalidate();
+                break;
+            default:
+                break;
+        }
+    };
+
+    private final IRegistryEventListener registryListener = new IRegistryEventListener() {
+        @Override
+        public void added(IExtension[] extensions) {
+            invalidate();
+        }
+
+        @Override
+        public void removed(IExtension[] extensions) {
+            invalidate();
+        }
+
+        @Override
+        public void added(IExtensionPoint[] extensionPoints) {
+            invalidate();
+        }
+
+        @Override
+        public void removed(IExtensionPoint[] extensionPoints) {
+            invalidate();
+        }
+    };
+
+    /**
+     * Gets the extensions that match the specified filter.
+     * @param pluginId The id of the plugin that declares the extension point.
+     * @param extensionPointId The id of the extension point.
+     * @param matcher The matcher that the extensions must match.
+     * @param search Searches the registry for the matching extensions, if they are not cached.
+     * @return The (unmodifiable) set of matching extensions.
+     */
+    @Nonnull
+    public Set<IExtension> getExtensions(@Nonnull String pluginId,
+                                         @Nonnull String extensionPointId,
+                                         @Nonnull PluginExtensionMatcher matcher,
+                                         @Nonnull Supplier<Set<IExtension>> search) {
+        FilterKey key = new FilterKey(pluginId, extensionPointId, matcher);
+        long searchGeneration;
+        synchronized (extensions) {
+            Set<IExtension> cached = extensions.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            searchGeneration = generation;
+        }
+        Set<IExtension> result = Collections.unmodifiableSet(new HashSet<>(search.get()));
+        synchronized (extensions) {
+            // Do not cache the result of a search that was overtaken by a change to the registry
+            if (searchGeneration == generation) {
+                extensions.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the generation of the cache.  This is advanced each time that the cache is cleared, so values that have
+     * been derived from cached extensions can be recomputed when the generation changes.
+     */
+    public long getGeneration() {
+        synchronized (extensions) {
+            return generation;
+        }
+    }
+
+    /**
+     * Clears the cache and advances its generation.
+     */
+    public void invalidate() {
+        synchronized (extensions) {
+            generation++;
+            extensions.clear();
+        }
+        logger.debug("Cleared plugin extension cache");
+    }
+
+    @Nonnull
+    public BundleListener getBundleListener() {
+        return bundleListener;
+    }
+
+    @Nonnull
+    public IRegistryEventListener getRegistryListener() {
+        return registryListener;
+    }
+
+    private static final class FilterKey {
+
+        private final String pluginId;
+
+        private final String extensionPointId;
+
+        private final PluginExtensionMatcher matcher;
+
+        private FilterKey(String pluginId, String extensionPointId, PluginExtensionMatcher matcher) {
+            this.pluginId = checkNotNull(pluginId);
+            this.extensionPointId = checkNotNull(extensionPointId);
+            this.matcher = checkNotNull(matcher);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(pluginId, extensionPointId, matcher);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof FilterKey)) {
+                return false;
+            }
+            FilterKey other = (FilterKey) obj;
+            return pluginId.equals(other.pluginId)
+                    && extensionPointId.equals(other.extensionPointId)
+                    && matcher.equals(other.matcher);
+        }
+    }
+}
@@ -54,9 +54,18 @@ public class PluginExtensionFilter {
     /**
      * Gets the <code>Extension</code>s that extend the specified extension point of
      * the specified plugin and match the criteria specified by the
-     * <code>PluginExtensionMatcher</code>.
+     * <code>PluginExtensionMatcher</code>.  The matching extensions are cached
+     * (see {@link PluginExtensionCache}).
+     * @return An unmodifiable set of extensions.
      */
     public Set<IExtension> getExtensions() {
+        return PluginUtilities.getInstance().getExtensionCache().getExtensions(pluginId,
+                                                                               extensionPointId,
+                                                                               extensionMatcher,
+                                                                               this::searchExtensions);
+    }
+
+    private Set<IExtension> searchExtensions() {
         Set<IExtension> result = new HashSet<>();
         IExtensionRegistry registry = PluginUtilities.getInstance().getExtensionRegistry();
         IExtensionPoint extpt = registry.getExtensionPoint(pluginId, extensionPointId);
@@ -73,4 +73,21 @@ public class PluginParameterExtensionMatcher implements PluginExtensionMatcher {
         }
         return true;
     }
+
+
+    @Override
+    public int hashCode() {
+        return keyValueMap.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (obj == null || obj.getClass() != getClass()) {
+            return false;
+        }
+        return keyValueMap.equals(((PluginParameterExtensionMatcher) obj).keyValueMap);
+    }
 }
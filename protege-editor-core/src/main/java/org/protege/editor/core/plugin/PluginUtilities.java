@@ -35,6 +35,10 @@ public class PluginUtilities {
     
     private ServiceTracker packageServiceTracker;
 
+    private final PluginExtensionCache extensionCache = new PluginExtensionCache();
+
+    private IExtensionRegistry listenedRegistry;
+
 
     private PluginUtilities() {
 
@@ -52,6 +56,8 @@ public class PluginUtilities {
     }
 
     public void dispose() {
+        if (context != null) context.removeBundleListener(extensionCache.getBundleListener());
+        if (listenedRegistry != null) listenedRegistry.removeListener(extensionCache.getRegistryListener());
         if (registryServiceTracker != null) registryServiceTracker.close();
         if (packageServiceTracker != null)  packageServiceTracker.close();
         instance = null;
@@ -71,6 +77,14 @@ public class PluginUtilities {
      */
     public void initialise(BundleContext context) {
         this.context = context;
+        context.addBundleListener(extensionCache.getBundleListener());
+    }
+
+    /**
+     * Gets the cache of the extensions that match plugin extension filters.
+     */
+    public PluginExtensionCache getExtensionCache() {
+        return extensionCache;
     }
     
     public Bundle getBundle(IExtension extension) {
@@ -94,12 +108,22 @@ public class PluginUtilities {
         return bundles[0];  // if there is more than one we need more work...
     }
     
-    public IExtensionRegistry getExtensionRegistry() {
+    public synchronized IExtensionRegistry getExtensionRegistry() {
         if (registryServiceTracker == null) {
             registryServiceTracker = new ServiceTracker(context, IExtensionRegistry.class.getName(), null);
             registryServiceTracker.open();
         }
-        return (IExtensionRegistry) registryServiceTracker.getService();
+        IExtensionRegistry registry = (IExtensionRegistry) registryServiceTracker.getService();
+        if (registry != null && registry != listenedRegistry) {
+            // Cached extensions are cleared when extensions are added to or removed from the registry
+            if (listenedRegistry != null) {
+                listenedRegistry.removeListener(extensionCache.getRegistryListener());
+            }
+            registry.addListener(extensionCache.getRegistryListener());
+            listenedRegistry = registry;
+            extensionCache.invalidate();
+        }
+        return registry;
     }
     
     public PackageAdmin getPackageAdmin() {
@@ -0,0 +1,385 @@
+package org.protege.editor.core.prefs;
+
+import com.google.common.collect.ImmutableMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.prefs.BackingStoreException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Preferences that are backed by a <code>java.util.prefs</code> node, which is read once, when the preferences are
+ * created, into an immutable in-memory snapshot.  Reads are served from the snapshot, without touching the backing
+ * store.  Writes replace the snapshot and are written to the backing store later, in the background, by a
+ * {@link PreferencesWriteQueue}, so they do not wait for I/O.
+ * <p>
+ * Values are held in the snapshot as strings, encoded in the same way as <code>java.util.prefs</code> encodes
+ * them, and lists are held as the child nodes that <code>java.util.prefs</code> would hold them in, so that the
+ * backing store is compatible with {@link JavaBackedPreferencesImpl}.  The preferences are assumed not to be changed
+ * in the backing store by anything else while they are in use.
+ * </p>
+ */
+class CachedPreferencesImpl implements Preferences {
+
+    private static final String LIST_SIZE_KEY = "listSize";
+
+    private final Supplier<java.util.prefs.Preferences> node;
+
+    private final PreferencesWriteQueue writeQueue;
+
+    private final List<PreferencesListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Creates preferences, reading the backing node into memory.
+     * @param node Supplies the backing node.  It is asked for the node each time that writes are applied, so that
+     *             it may recreate the node if it has been removed.
+     * @param writeQueue The queue that writes are submitted to.
+     */
+    CachedPreferencesImpl(@Nonnull Supplier<java.util.prefs.Preferences> node,
+                          @Nonnull PreferencesWriteQueue writeQueue) {
+        this.node = checkNotNull(node);
+        this.writeQueue = checkNotNull(writeQueue);
+        this.snapshot = Snapshot.load(node.get());
+    }
+
+
+    public void clear() {
+        synchronized (this) {
+            snapshot = Snapshot.EMPTY;
+            writeQueue.submit(() -> {
+                try {
+                    node.get().removeNode();
+                } catch (BackingStoreException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+        }
+        fireChanged(null);
+    }
+
+
+    /**
+     * Discards the in-memory values, without writing anything, after the backing store has been cleared by other
+     * means.
+     */
+    void reset() {
+        snapshot = Snapshot.EMPTY;
+        fireChanged(null);
+    }
+
+
+    public String getString(String key, String def) {
+        return snapshot.values.getOrDefault(key, def);
+    }
+
+
+    public void putString(String key, String val) {
+        if (val == null) {
+            remove(key);
+        }
+        else {
+            put(key, val);
+        }
+    }
+
+
+    public List<String> getStringList(String key, List<String> def) {
+        Map<String, String> listValues = snapshot.lists.get(key);
+        if (listValues == null) {
+            return def;
+        }
+        int size = parseInt(listValues.get(LIST_SIZE_KEY), 0);
+        List<String> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(listValues.getOrDefault(Integer.toString(i), ""));
+        }
+        return list;
+    }
+
+
+    public void putStringList(String key, List<String> val) {
+        List<String> values = new ArrayList<>(val);
+        for (String value : values) {
+            checkValue(value);
+        }
+        putList(key, values);
+    }
+
+
+    public int getInt(String key, int def) {
+        return parseInt(snapshot.values.get(key), def);
+    }
+
+
+    public void putInt(String key, int val) {
+        put(key, Integer.toString(val));
+    }
+
+
+    public float getFloat(String key, float def) {
+        String value = snapshot.values.get(key);
+        if (value != null) {
+            try {
+                return Float.parseFloat(value);
+            } catch (NumberFormatException e) {
+                // Use the default, as java.util.prefs does
+            }
+        }
+        return def;
+    }
+
+
+    public void putFloat(String key, float val) {
+        put(key, Float.toString(val));
+    }
+
+
+    public long getLong(String key, long def) {
+        String value = snapshot.values.get(key);
+        if (value != null) {
+            try {
+                return Long.parseLong(value);
+            } catch (NumberFormatException e) {
+                // Use the default, as java.util.prefs does
+            }
+        }
+        return def;
+    }
+
+
+    public void putLong(String key, long val) {
+        put(key, Long.toString(val));
+    }
+
+
+    public double getDouble(String key, double def) {
+        String value = snapshot.values.get(key);
+        if (value != null) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                // Use the default, as java.util.prefs does
+            }
+        }
+        return def;
+    }
+
+
+    public void putDouble(String key, double val) {
+        put(key, Double.toString(val));
+    }
+
+
+    public boolean getBoolean(String key, boolean def) {
+        String value = snapshot.values.get(key);
+        if ("true".equalsIgnoreCase(value)) {
+            return true;
+        }
+        else if ("false".equalsIgnoreCase(value)) {
+            return false;
+        }
+        return def;
+    }
+
+
+    public void putBoolean(String key, boolean val) {
+        put(key, String.valueOf(val));
+    }
+
+
+    public byte [] getByteArray(String key, byte [] def) {
+        return decode(snapshot.values.get(key), def);
+    }
+
+
+    public void putByteArray(String key, byte [] val) {
+        put(key, encode(val));
+    }
+
+
+    public List<byte []> getByteArrayList(String key, List<byte []> def) {
+        Map<String, String> listValues = snapshot.lists.get(key);
+        if (listValues == null) {
+            return def;
+        }
+        int size = parseInt(listValues.get(LIST_SIZE_KEY), 0);
+        List<byte []> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            list.add(decode(listValues.get(Integer.toString(i)), new byte [] {0}));
+        }
+        return list;
+    }
+
+
+    public void putByteArrayList(String key, List<byte []> val) {
+        List<String> values = new ArrayList<>(val.size());
+        for (byte [] bytes : val) {
+            values.add(checkValue(encode(bytes)));
+        }
+        putList(key, values);
+    }
+
+
+    public void addPreferencesListener(PreferencesListener listener) {
+        listeners.add(checkNotNull(listener));
+    }
+
+
+    public void removePreferencesListener(PreferencesListener listener) {
+        listeners.remove(listener);
+    }
+
+
+    private void put(String key, String value) {
+        checkKey(key);
+        checkValue(value);
+        update(key, values -> values.put(key, value), backingNode -> backingNode.put(key, value));
+    }
+
+
+    private void remove(String key) {
+        checkKey(key);
+        update(key, values -> values.remove(key), backingNode -> backingNode.remove(key));
+    }
+
+
+    private void update(String key,
+                        Consumer<Map<String, String>> valuesUpdate,
+                        Consumer<java.util.prefs.Preferences> backingStoreUpdate) {
+        synchronized (this) {
+            Map<String, String> values = new HashMap<>(snapshot.values);
+            valuesUpdate.accept(values);
+            snapshot = new Snapshot(ImmutableMap.copyOf(values), snapshot.lists);
+            writeQueue.submit(() -> backingStoreUpdate.accept(node.get()));
+        }
+        fireChanged(key);
+    }
+
+
+    private void putList(String key, List<String> values) {
+        checkKey(key);
+        synchronized (this) {
+            // As in the backing store, entries beyond the end of the list are left in place, but are not read
+            Map<String, String> listValues = new HashMap<>(snapshot.lists.getOrDefault(key, ImmutableMap.of()));
+            listValues.put(LIST_SIZE_KEY, Integer.toString(values.size()));
+            for (int i = 0; i < values.size(); i++) {
+                listValues.put(Integer.toString(i), values.get(i));
+            }
+            Map<String, ImmutableMap<String, String>> lists = new HashMap<>(snapshot.lists);
+            lists.put(key, ImmutableMap.copyOf(listValues));
+            snapshot = new Snapshot(snapshot.values, ImmutableMap.copyOf(lists));
+            writeQueue.submit(() -> {
+                java.util.prefs.Preferences listNode = node.get().node(key);
+                listNode.put(LIST_SIZE_KEY, Integer.toString(values.size()));
+                for (int i = 0; i < values.size(); i++) {
+                    listNode.put(Integer.toString(i), values.get(i));
+                }
+            });
+        }
+        fireChanged(key);
+    }
+
+
+    private void fireChanged(@Nullable String key) {
+        for (PreferencesListener listener : listeners) {
+            listener.preferenceChanged(this, key);
+        }
+    }
+
+
+    // Writes are applied later, so invalid keys and values are rejected now, as java.util.prefs would reject them
+
+    private static void checkKey(String key) {
+        checkNotNull(key, "Null key");
+        if (key.length() > java.util.prefs.Preferences.MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key too long: " + key);
+        }
+    }
+
+
+    private static String checkValue(String value) {
+        checkNotNull(value, "Null value");
+        if (value.length() > java.util.prefs.Preferences.MAX_VALUE_LENGTH) {
+            throw new IllegalArgumentException("Value too long: " + value);
+        }
+        return value;
+    }
+
+
+    private static int parseInt(@Nullable String value, int def) {
+        if (value != null) {
+            try {
+                return Integer.parseInt(value);
+            } catch (NumberFormatException e) {
+                // Use the default, as java.util.prefs does
+            }
+        }
+        return def;
+    }
+
+
+    private static String encode(byte [] bytes) {
+        return Base64.getEncoder().encodeToString(bytes);
+    }
+
+
+    private static byte [] decode(@Nullable String value, byte [] def) {
+        if (value != null) {
+            try {
+                return Base64.getDecoder().decode(value);
+            } catch (IllegalArgumentException e) {
+                // Use the default, as java.util.prefs does
+            }
+        }
+        return def;
+    }
+
+
+    /**
+     * The values of a node, and the values of its child nodes (which hold lists).
+     */
+    private static class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(ImmutableMap.of(), ImmutableMap.of());
+
+        private final ImmutableMap<String, String> values;
+
+        private final ImmutableMap<String, ImmutableMap<String, String>> lists;
+
+        private Snapshot(ImmutableMap<String, String> values,
+                         ImmutableMap<String, ImmutableMap<String, String>> lists) {
+            this.values = values;
+            this.lists = lists;
+        }
+
+        private static Snapshot load(java.util.prefs.Preferences node) {
+            try {
+                ImmutableMap.Builder<String, ImmutableMap<String, String>> lists = ImmutableMap.builder();
+                for (String childName : node.childrenNames()) {
+                    lists.put(childName, loadValues(node.node(childName)));
+                }
+                return new Snapshot(loadValues(node), lists.build());
+            } catch (BackingStoreException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private static ImmutableMap<String, String> loadValues(java.util.prefs.Preferences node) throws BackingStoreException {
+            ImmutableMap.Builder<String, String> values = ImmutableMap.builder();
+            for (String key : node.keys()) {
+                String value = node.get(key, null);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+            return values.build();
+        }
+    }
+}
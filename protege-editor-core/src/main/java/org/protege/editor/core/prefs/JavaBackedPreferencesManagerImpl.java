@@ -9,11 +9,18 @@ package org.protege.editor.core.prefs;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.prefs.BackingStoreException;
 
 /**
  * Author: Matthew Horridge<br> The University Of Manchester<br> Information Management Group<br> Date:
  * 12-Aug-2008<br><br>
+ * <p>
+ * Preferences are read into memory the first time that they are asked for, and the same {@link Preferences} object
+ * is returned each time that they are asked for after that.  Changes are written to the backing store in the
+ * background.
+ * </p>
  */
 public class JavaBackedPreferencesManagerImpl extends PreferencesManager {
 
@@ -21,25 +28,42 @@ public class JavaBackedPreferencesManagerImpl extends PreferencesManager {
 
     private Logger logger = LoggerFactory.getLogger(JavaBackedPreferencesManagerImpl.class);
 
+    private final PreferencesWriteQueue writeQueue = new PreferencesWriteQueue(
+            JavaBackedPreferencesManagerImpl::getProtegePreferencesRoot);
+
+    private final Map<String, Map<String, CachedPreferencesImpl>> preferencesBySet = new ConcurrentHashMap<>();
+
     @SuppressWarnings("rawtypes")
     public Preferences getApplicationPreferences(Class c) {
-        return new JavaBackedPreferencesImpl(APPLICATION_PREFERENCES, c.getName());
+        return getPreferencesForSet(APPLICATION_PREFERENCES, c.getName());
     }
 
 
     public Preferences getApplicationPreferences(String preferencesId) {
-        return new JavaBackedPreferencesImpl(APPLICATION_PREFERENCES, preferencesId);
+        return getPreferencesForSet(APPLICATION_PREFERENCES, preferencesId);
     }
 
 
     @SuppressWarnings({"rawtypes"})
     public Preferences getPreferencesForSet(String setId, Class c) {
-        return new JavaBackedPreferencesImpl(setId, c.getName());
+        return getPreferencesForSet(setId, c.getName());
     }
 
 
     public Preferences getPreferencesForSet(String setId, String preferencesId) {
-        return new JavaBackedPreferencesImpl(setId, preferencesId);
+        return preferencesBySet.computeIfAbsent(setId, id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(preferencesId, id -> new CachedPreferencesImpl(
+                        () -> getProtegePreferencesRoot().node(setId).node(preferencesId),
+                        writeQueue));
+    }
+
+
+    /**
+     * Writes any changes that have not yet been written to the backing store, and waits for them to be written.
+     */
+    @Override
+    public void flush() {
+        writeQueue.flush();
     }
 
     /**
@@ -47,16 +71,25 @@ public class JavaBackedPreferencesManagerImpl extends PreferencesManager {
      */
     @Override
     public void resetPreferencesToFactorySettings() {
+        // Pending changes are written first, so that they cannot recreate the preferences after they are removed
+        writeQueue.flush();
         try {
             java.util.prefs.Preferences userRoot = java.util.prefs.Preferences.userRoot();
             java.util.prefs.Preferences protegePreferencesRoot = userRoot.node(JavaBackedPreferencesImpl.PROTEGE_PREFS_KEY);
             protegePreferencesRoot.removeNode();
+            userRoot.flush();
 
 
         }
         catch (BackingStoreException e) {
             logger.error("An error occurred whilst clearing the preferences: {}", e);
         }
+        preferencesBySet.values().forEach(preferences -> preferences.values().forEach(CachedPreferencesImpl::reset));
+    }
+
+
+    private static java.util.prefs.Preferences getProtegePreferencesRoot() {
+        return java.util.prefs.Preferences.userRoot().node(JavaBackedPreferencesImpl.PROTEGE_PREFS_KEY);
     }
 
 }
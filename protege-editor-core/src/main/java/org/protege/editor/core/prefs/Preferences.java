@@ -85,4 +85,18 @@ public interface Preferences extends Serializable {
 
 
     void putByteArrayList(String key, List<byte []> val);
+
+    // listeners
+
+
+    /**
+     * Adds a listener that is notified when these preferences are changed.  Preferences that do not support
+     * listeners ignore them.
+     */
+    default void addPreferencesListener(PreferencesListener listener) {
+    }
+
+
+    default void removePreferencesListener(PreferencesListener listener) {
+    }
 }
@@ -0,0 +1,17 @@
+package org.protege.editor.core.prefs;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Receives notification of changes to {@link Preferences}.
+ */
+public interface PreferencesListener {
+
+    /**
+     * Called, on the thread that made the change, after a preference has been changed.
+     * @param preferences The preferences that were changed.
+     * @param key The key of the preference that was changed, or <code>null</code> if the preferences were cleared.
+     */
+    void preferenceChanged(@Nonnull Preferences preferences, @Nullable String key);
+}
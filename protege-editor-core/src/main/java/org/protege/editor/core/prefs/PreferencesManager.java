@@ -93,4 +93,12 @@ public abstract class PreferencesManager {
      * Resets the preferences to the factory settings.  In most cases this will simply wipe out all preferences.
      */
     public abstract void resetPreferencesToFactorySettings();
+
+
+    /**
+     * Writes any changes to preferences that have not yet been written to the backing store, and waits for them
+     * to be written.  Preferences managers that write changes immediately need not override this method.
+     */
+    public void flush() {
+    }
 }
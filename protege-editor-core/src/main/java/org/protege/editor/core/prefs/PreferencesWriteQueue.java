@@ -0,0 +1,102 @@
+package org.protege.editor.core.prefs;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+import java.util.prefs.BackingStoreException;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Writes changes to the <code>java.util.prefs</code> backing store in the background.  Writes are collected for a
+ * short delay, so that bursts of changes are written as one batch, and each batch is flushed to the backing store
+ * once.  Writes are applied in the order in which they were submitted.  Pending writes are also written when the
+ * virtual machine shuts down.
+ */
+class PreferencesWriteQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(PreferencesWriteQueue.class);
+
+    private static final long FLUSH_DELAY_MS = 500;
+
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Preferences Writer %d")
+                    .setDaemon(true)
+                    .build());
+
+    private final Supplier<java.util.prefs.Preferences> flushRoot;
+
+    private final Object writeLock = new Object();
+
+    private final List<Runnable> pendingWrites = new ArrayList<>();
+
+    private boolean flushScheduled = false;
+
+    /**
+     * Creates a write queue.
+     * @param flushRoot The node that is flushed (with its descendants) after each batch of writes.
+     */
+    PreferencesWriteQueue(@Nonnull Supplier<java.util.prefs.Preferences> flushRoot) {
+        this.flushRoot = checkNotNull(flushRoot);
+        Runtime.getRuntime().addShutdownHook(new Thread(this::writePending, "Preferences Shutdown Writer"));
+    }
+
+    /**
+     * Submits a write, which is applied to the backing store later, on the writer thread.
+     */
+    synchronized void submit(@Nonnull Runnable write) {
+        pendingWrites.add(checkNotNull(write));
+        if (!flushScheduled) {
+            flushScheduled = true;
+            executor.schedule(this::writePending, FLUSH_DELAY_MS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Writes any pending writes to the backing store, and waits for them to be written.
+     */
+    void flush() {
+        try {
+            executor.submit(this::writePending).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.error("An error occurred whilst writing preferences: {}", e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private void writePending() {
+        // Writes are applied by one thread at a time (the writer thread, or the shutdown hook), and batches are taken
+        // under the same lock, so that writes are applied in the order in which they were submitted
+        synchronized (writeLock) {
+            List<Runnable> writes;
+            synchronized (this) {
+                writes = new ArrayList<>(pendingWrites);
+                pendingWrites.clear();
+                flushScheduled = false;
+            }
+            if (writes.isEmpty()) {
+                return;
+            }
+            for (Runnable write : writes) {
+                try {
+                    write.run();
+                } catch (RuntimeException e) {
+                    logger.error("An error occurred whilst writing preferences: {}", e.getMessage(), e);
+                }
+            }
+            try {
+                flushRoot.get().flush();
+            } catch (BackingStoreException | IllegalStateException e) {
+                logger.error("An error occurred whilst flushing preferences: {}", e.getMessage(), e);
+            }
+        }
+    }
+}
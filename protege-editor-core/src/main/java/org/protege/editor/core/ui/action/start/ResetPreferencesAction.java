@@ -1,7 +1,7 @@
 package org.protege.editor.core.ui.action.start;
 
 import org.protege.editor.core.ProtegeApplication;
-import org.protege.editor.core.prefs.JavaBackedPreferencesImpl;
+import org.protege.editor.core.prefs.PreferencesManager;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
@@ -9,7 +9,6 @@ import javax.swing.text.html.HTMLDocument;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.net.URL;
-import java.util.prefs.Preferences;
 
 public class ResetPreferencesAction extends AltStartupAction {
 
@@ -42,12 +41,9 @@ public class ResetPreferencesAction extends AltStartupAction {
 					JOptionPane.YES_NO_OPTION,
 					JOptionPane.QUESTION_MESSAGE);
 			if (ret == JOptionPane.YES_OPTION) {
-				Preferences p = Preferences.userRoot();
-				Preferences q = p.node(JavaBackedPreferencesImpl.PROTEGE_PREFS_KEY);
-				q.removeNode();
-				p.sync();
-				p.flush();
-				q.flush();
+				// Reset through the preferences manager, so that changes that are waiting to be written are not
+				// written after the preferences have been removed
+				PreferencesManager.getInstance().resetPreferencesToFactorySettings();
 				JOptionPane.showMessageDialog(getParent(), "Preferences Reset");
 				ProtegeApplication.handleQuit();
 			}
@@ -0,0 +1,108 @@
+package org.protege.editor.core.plugin;
+
+import org.eclipse.core.runtime.IExtension;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.BundleEvent;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PluginExtensionCache_TestCase {
+
+    private static final String PLUGIN_ID = "org.protege.editor.core.application";
+
+    private static final String EXTENSION_POINT_ID = "ViewComponent";
+
+    @Mock
+    private IExtension extension;
+
+    @Mock
+    private Bundle bundle;
+
+    private PluginExtensionCache cache;
+
+    private AtomicInteger searchCount;
+
+    private Supplier<Set<IExtension>> search;
+
+    @Before
+    public void setUp() {
+        cache = new PluginExtensionCache();
+        searchCount = new AtomicInteger();
+        search = () -> {
+            searchCount.incrementAndGet();
+            return Collections.singleton(extension);
+        };
+    }
+
+    @Test
+    public void shouldShareEntryBetweenEqualMatchers() {
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, matcher("editorKitId", "OWLEditorKit"), search);
+        Set<IExtension> extensions = cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, matcher("editorKitId", "OWLEditorKit"), search);
+        assertThat(extensions, is(Collections.singleton(extension)));
+        assertThat(searchCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldNotShareEntryBetweenDifferentMatchers() {
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, matcher("editorKitId", "OWLEditorKit"), search);
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, matcher("editorKitId", "any"), search);
+        cache.getExtensions(PLUGIN_ID, "TabbedWorkspaceTab", matcher("editorKitId", "any"), search);
+        assertThat(searchCount.get(), is(3));
+    }
+
+    @Test
+    public void shouldShareEntryBetweenEqualDisjunctions() {
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID,
+                            new OrPluginExtensionMatcher(matcher("editorKitId", "any"), new DefaultPluginExtensionMatcher()),
+                            search);
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID,
+                            new OrPluginExtensionMatcher(matcher("editorKitId", "any"), new DefaultPluginExtensionMatcher()),
+                            search);
+        assertThat(searchCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldSearchAgainAfterBundleEvent() {
+        long generation = cache.getGeneration();
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, new DefaultPluginExtensionMatcher(), search);
+        cache.getBundleListener().bundleChanged(new BundleEvent(BundleEvent.INSTALLED, bundle));
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, new DefaultPluginExtensionMatcher(), search);
+        assertThat(searchCount.get(), is(2));
+        assertThat(cache.getGeneration(), is(not(generation)));
+    }
+
+    @Test
+    public void shouldIgnoreBundleStartEvents() {
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, new DefaultPluginExtensionMatcher(), search);
+        cache.getBundleListener().bundleChanged(new BundleEvent(BundleEvent.STARTED, bundle));
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, new DefaultPluginExtensionMatcher(), search);
+        assertThat(searchCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldSearchAgainAfterRegistryChange() {
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, new DefaultPluginExtensionMatcher(), search);
+        cache.getRegistryListener().added(new IExtension[]{extension});
+        cache.getExtensions(PLUGIN_ID, EXTENSION_POINT_ID, new DefaultPluginExtensionMatcher(), search);
+        assertThat(searchCount.get(), is(2));
+    }
+
+    private static PluginParameterExtensionMatcher matcher(String parameter, String value) {
+        PluginParameterExtensionMatcher matcher = new PluginParameterExtensionMatcher();
+        matcher.put(parameter, value);
+        return matcher;
+    }
+}
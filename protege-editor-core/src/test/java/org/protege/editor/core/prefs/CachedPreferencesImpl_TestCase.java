@@ -0,0 +1,129 @@
+package org.protege.editor.core.prefs;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.prefs.BackingStoreException;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.mockito.Mockito.*;
+
+public class CachedPreferencesImpl_TestCase {
+
+    private static final String NODE_NAME = "cachedPreferencesTest#2801936457";
+
+    private Supplier<java.util.prefs.Preferences> node;
+
+    private PreferencesWriteQueue writeQueue;
+
+    @Before
+    public void setUp() throws BackingStoreException {
+        node = () -> java.util.prefs.Preferences.userRoot().node(NODE_NAME);
+        node.get().removeNode();
+        writeQueue = new PreferencesWriteQueue(java.util.prefs.Preferences::userRoot);
+    }
+
+    @After
+    public void tearDown() throws BackingStoreException {
+        writeQueue.flush();
+        node.get().removeNode();
+    }
+
+    @Test
+    public void shouldLoadExistingValues() {
+        node.get().put("name", "value");
+        node.get().putInt("count", 3);
+        node.get().node("list").put("listSize", "2");
+        node.get().node("list").put("0", "A");
+        node.get().node("list").put("1", "B");
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        assertThat(prefs.getString("name", null), is("value"));
+        assertThat(prefs.getInt("count", 0), is(3));
+        assertThat(prefs.getStringList("list", Collections.emptyList()), is(Arrays.asList("A", "B")));
+    }
+
+    @Test
+    public void shouldServeReadsFromSnapshot() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        node.get().put("name", "value");
+        assertThat(prefs.getString("name", "default"), is("default"));
+    }
+
+    @Test
+    public void shouldReturnWrittenValuesBeforeTheyArePersisted() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        prefs.putBoolean("flag", true);
+        prefs.putDouble("ratio", 0.5);
+        prefs.putByteArray("bytes", new byte [] {1, 2, 3});
+        assertThat(prefs.getBoolean("flag", false), is(true));
+        assertThat(prefs.getDouble("ratio", 0), is(0.5));
+        assertThat(prefs.getByteArray("bytes", null), is(new byte [] {1, 2, 3}));
+    }
+
+    @Test
+    public void shouldPersistWritesWhenFlushed() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        prefs.putString("name", "value");
+        prefs.putLong("size", 42L);
+        prefs.putByteArray("bytes", new byte [] {1, 2, 3});
+        List<String> list = Arrays.asList("One", "Two", "Three");
+        prefs.putStringList("list", list);
+        writeQueue.flush();
+        assertThat(node.get().get("name", null), is("value"));
+        assertThat(node.get().getLong("size", 0), is(42L));
+        assertThat(node.get().getByteArray("bytes", null), is(new byte [] {1, 2, 3}));
+        assertThat(node.get().node("list").getInt("listSize", 0), is(3));
+        assertThat(node.get().node("list").get("2", null), is("Three"));
+    }
+
+    @Test
+    public void shouldRemoveValueWhenPutNull() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        prefs.putString("name", "value");
+        prefs.putString("name", null);
+        writeQueue.flush();
+        assertThat(prefs.getString("name", null), is(nullValue()));
+        assertThat(node.get().get("name", null), is(nullValue()));
+    }
+
+    @Test
+    public void shouldClearValues() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        prefs.putString("name", "value");
+        prefs.putStringList("list", Arrays.asList("A", "B"));
+        prefs.clear();
+        List<String> defaultList = Arrays.asList("X");
+        assertThat(prefs.getString("name", null), is(nullValue()));
+        assertThat(prefs.getStringList("list", defaultList), is(defaultList));
+        writeQueue.flush();
+        assertThat(new CachedPreferencesImpl(node, writeQueue).getString("name", null), is(nullValue()));
+    }
+
+    @Test
+    public void shouldNotifyListeners() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        PreferencesListener listener = mock(PreferencesListener.class);
+        prefs.addPreferencesListener(listener);
+        prefs.putInt("count", 1);
+        prefs.clear();
+        prefs.removePreferencesListener(listener);
+        prefs.putInt("count", 2);
+        verify(listener, times(1)).preferenceChanged(prefs, "count");
+        verify(listener, times(1)).preferenceChanged(prefs, null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldRejectTooLongKey() {
+        CachedPreferencesImpl prefs = new CachedPreferencesImpl(node, writeQueue);
+        char [] key = new char [java.util.prefs.Preferences.MAX_KEY_LENGTH + 1];
+        Arrays.fill(key, 'k');
+        prefs.putString(new String(key), "value");
+    }
+}
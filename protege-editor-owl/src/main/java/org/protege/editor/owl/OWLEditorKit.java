@@ -277,14 +277,8 @@ public class OWLEditorKit extends AbstractEditorKit<OWLEditorKitFactory> {
                     saveErrors.put(ontology, e);
                 }
             }
-            for (OWLOntology ontology : ontologiesToSave) {
-                try {
-                    getOWLModelManager().save(ontology);
-                } catch (OWLOntologyStorageException e) {
-                    //noinspection ThrowableResultOfMethodCallIgnored
-                    saveErrors.put(ontology, e);
-                }
-            }
+            // Saves independent ontologies concurrently
+            saveErrors.putAll(getOWLModelManager().save(ontologiesToSave));
             getWorkspace().save();
             newPhysicalURIs.forEach(this::addRecent);
             newPhysicalURIs.clear();
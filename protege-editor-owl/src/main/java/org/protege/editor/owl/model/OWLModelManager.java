@@ -4,6 +4,7 @@ import org.protege.editor.core.ModelManager;
 import org.protege.editor.owl.model.entity.OWLEntityFactory;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.protege.editor.owl.model.event.OntologyChangeDelivery;
 import org.protege.editor.owl.model.find.OWLEntityFinder;
 import org.protege.editor.owl.model.hierarchy.OWLHierarchyManager;
 import org.protege.editor.owl.model.history.HistoryManager;
@@ -27,10 +28,7 @@ import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import javax.annotation.Nonnull;
 import java.io.File;
 import java.net.URI;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
+import java.util.*;
 
 
 /**
@@ -97,6 +95,25 @@ public interface OWLModelManager extends ModelManager, HasActiveOntology {
      */
     void save(OWLOntology ont) throws OWLOntologyStorageException;
 
+    /**
+     * Saves the specified ontologies.  Implementations may save independent ontologies concurrently.  A failure to
+     * save one ontology does not prevent the remaining ontologies from being saved.
+     * @param ontologies The ontologies to save.
+     * @return A map of ontologies that could not be saved to the exception that describes the problem.  Ontologies
+     * that are not contained in the map were saved successfully.
+     */
+    default Map<OWLOntology, OWLOntologyStorageException> save(Collection<OWLOntology> ontologies) {
+        Map<OWLOntology, OWLOntologyStorageException> errors = new LinkedHashMap<>();
+        for(OWLOntology ontology : ontologies) {
+            try {
+                save(ontology);
+            } catch (OWLOntologyStorageException e) {
+                errors.put(ontology, e);
+            }
+        }
+        return errors;
+    }
+
     /**
      * Checks if the ontology has been changed since it was loaded or last saved.
      * @param ontology
@@ -234,6 +251,36 @@ public interface OWLModelManager extends ModelManager, HasActiveOntology {
      */
     void addOntologyChangeListener(OWLOntologyChangeListener listener);
 
+    /**
+     * Adds an ontology change listener that receives changes in the specified way.  Listeners that only invalidate
+     * or refresh state should consider {@link OntologyChangeDelivery#COALESCED} delivery, which delivers bursts of
+     * changes as a single list.
+     * @param listener The listener.
+     * @param delivery The way in which changes should be delivered to the listener.
+     */
+    default void addOntologyChangeListener(OWLOntologyChangeListener listener, OntologyChangeDelivery delivery) {
+        addOntologyChangeListener(listener);
+    }
+
+    /**
+     * Starts a composite change, which is a sequence of change lists that form one logical operation.  The changes
+     * that are applied before the matching call to {@link #endCompositeChange()} are undone as one step (see
+     * {@link HistoryManager#startCompositeChange()}), and are delivered to coalesced listeners as a single list when
+     * the composite change ends.  Calls may be nested, and each call must be matched by a call to
+     * {@link #endCompositeChange()}, usually in a finally block.  Both calls must be made on the thread that applies
+     * the changes.
+     */
+    default void startCompositeChange() {
+        getHistoryManager().startCompositeChange();
+    }
+
+    /**
+     * Ends a composite change that was started with {@link #startCompositeChange()}.
+     */
+    default void endCompositeChange() {
+        getHistoryManager().endCompositeChange();
+    }
+
 
     /**
      * Removes a previously added listener.
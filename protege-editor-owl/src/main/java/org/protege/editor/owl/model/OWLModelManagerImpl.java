@@ -15,6 +15,8 @@ import org.protege.editor.owl.model.entity.OWLEntityFactory;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.protege.editor.owl.model.event.OntologyChangeDelivery;
+import org.protege.editor.owl.model.event.OntologyChangeDispatcher;
 import org.protege.editor.owl.model.find.OWLEntityFinder;
 import org.protege.editor.owl.model.find.OWLEntityFinderImpl;
 import org.protege.editor.owl.model.hierarchy.OWLHierarchyManager;
@@ -25,9 +27,12 @@ import org.protege.editor.owl.model.idrange.ActiveOntologyIdRangesPolicyManager;
 import org.protege.editor.owl.model.inference.OWLReasonerManager;
 import org.protege.editor.owl.model.inference.OWLReasonerManagerImpl;
 import org.protege.editor.owl.model.inference.ReasonerPreferences;
+import org.protege.editor.owl.model.inference.ReasonerQueryCache;
 import org.protege.editor.owl.model.io.*;
+import org.protege.editor.owl.model.journal.ChangeJournalManager;
 import org.protege.editor.owl.model.library.OntologyCatalogManager;
 import org.protege.editor.owl.model.prefix.PrefixedNameRenderer;
+import org.protege.editor.owl.model.selection.SelectionPrefetcher;
 import org.protege.editor.owl.model.selection.ontologies.ImportsClosureOntologySelectionStrategy;
 import org.protege.editor.owl.model.selection.ontologies.OntologySelectionStrategy;
 import org.protege.editor.owl.model.util.ListenerManager;
@@ -77,6 +82,8 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
 
     private final HistoryManager historyManager;
 
+    private final ChangeJournalManager changeJournalManager;
+
     private final OWLReasonerManager owlReasonerManager;
 
     /**
@@ -112,6 +119,8 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
 
     private final ListenerManager<OWLOntologyChangeListener> changeListenerManager = new ListenerManager<>();
 
+    private final OntologyChangeDispatcher changeDispatcher;
+
     private final List<IOListener> ioListeners = new ArrayList<>();
 
     private final ActiveOntologyIdRangesPolicyManager idRangesPolocyManager;
@@ -156,6 +165,9 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
 
         manager = OntologyManagerFactory.createManager();
         manager.addOntologyChangeListener(this);
+        // Listeners that are added to the model manager are notified after the model manager itself
+        changeDispatcher = new OntologyChangeDispatcher(changeListenerManager);
+        manager.addOntologyChangeListener(changeDispatcher);
         objectRenderer = new OWLObjectRendererImpl(this);
         prefixedNameRenderer = PrefixedNameRenderer.builder().withOwlPrefixes().withWellKnownPrefixes().build();
         owlEntityRenderingCache = new OWLEntityRenderingCacheImpl();
@@ -183,6 +195,13 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
 
         put(OntologySourcesManager.ID, new OntologySourcesManager(this));
 
+        put(ReasonerQueryCache.ID, new ReasonerQueryCache(this));
+
+        put(SelectionPrefetcher.ID, new SelectionPrefetcher(this));
+
+        changeJournalManager = new ChangeJournalManager(this);
+        put(ChangeJournalManager.ID, changeJournalManager);
+
 
     }
 
@@ -261,6 +280,9 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
                 entityRenderer.dispose();
             }
             owlReasonerManager.dispose();
+            if(historyManager instanceof HistoryManagerImpl) {
+                ((HistoryManagerImpl) historyManager).dispose();
+            }
         } catch(Exception e) {
             logger.error("An error occurred whilst disposing of the model manager: {}", e.getMessage(), e);
         }
@@ -270,6 +292,7 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
         modelManagerListenerManager.dumpWarningForAllListeners(logger, "(Listeners should be removed in the plugin dispose method!)");
 
         changeListenerManager.dumpWarningForAllListeners(logger, "(Listeners should be removed in the plugin dispose method!)");
+        changeDispatcher.dispose();
     }
 
     public void removeIOListener(IOListener listener) {
@@ -342,6 +365,10 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
                 logger.info("Loading for ontology and imports closure successfully completed in {} ms", stopwatch.elapsed(TimeUnit.MILLISECONDS));
                 DocumentFormatUpdater formatUpdater = new DocumentFormatUpdater(new DocumentFormatMapper());
                 formatUpdater.updateFormat(ontology);
+                Set<OWLOntology> recovered = changeJournalManager.recoverUnsavedChanges(ontology.getImportsClosure());
+                if(!recovered.isEmpty()) {
+                    logger.info("Recovered unsaved changes to {} ontologies from the previous session", recovered.size());
+                }
             });
             logger.info(LogBanner.end());
             SwingUtilities.invokeLater(idRangesPolocyManager::reload);
@@ -568,38 +595,62 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
     }
 
     public void save(OWLOntology ont) throws OWLOntologyStorageException {
-        final URI documentURI = manager.getOntologyDocumentIRI(ont).toURI();
-
-        fireBeforeSaveEvent(ont.getOntologyID(), documentURI);
-
+        Map<OWLOntology, OWLOntologyStorageException> errors = save(Collections.singleton(ont));
+        if(errors.containsKey(ont)) {
+            throw errors.get(ont);
+        }
+    }
 
-        final OWLDocumentFormat format;
-        final OWLDocumentFormat previousFormat = manager.getOntologyFormat(ont);
-        if(previousFormat == null) {
-            format = new RDFXMLDocumentFormat();
-            logger.info("No document format for {} has been found.  " + "Using the {} format.", ont.getOntologyID(), format);
+    @Override
+    public Map<OWLOntology, OWLOntologyStorageException> save(Collection<OWLOntology> ontologies) {
+        Map<OWLOntology, URI> documentURIs = new LinkedHashMap<>();
+        Map<OWLOntology, OWLDocumentFormat> formats = new HashMap<>();
+        OntologySaver.Builder saverBuilder = OntologySaver.builder();
+        for(OWLOntology ont : ontologies) {
+            final URI documentURI = manager.getOntologyDocumentIRI(ont).toURI();
+            documentURIs.put(ont, documentURI);
+
+            fireBeforeSaveEvent(ont.getOntologyID(), documentURI);
+
+            final OWLDocumentFormat format;
+            final OWLDocumentFormat previousFormat = manager.getOntologyFormat(ont);
+            if(previousFormat == null) {
+                format = new RDFXMLDocumentFormat();
+                logger.info("No document format for {} has been found.  " + "Using the {} format.", ont.getOntologyID(), format);
+            }
+            else {
+                format = previousFormat;
+            }
+            formats.put(ont, format);
+            /*
+             * Using the addMissingTypes call here for RDF/XML files can result in OWL Full output
+             * and can also result in data corruption.
+             *
+             * See http://protegewiki.stanford.edu/wiki/OWL2RDFParserDeclarationRequirement
+             */
+            saverBuilder.addOntology(ont, format, IRI.create(documentURI));
         }
-        else {
-            format = previousFormat;
+        if(documentURIs.isEmpty()) {
+            return Collections.emptyMap();
         }
-        /*
-         * Using the addMissingTypes call here for RDF/XML files can result in OWL Full output
-         * and can also result in data corruption.
-         *
-         * See http://protegewiki.stanford.edu/wiki/OWL2RDFParserDeclarationRequirement
-         */
-        IRI documentIRI = IRI.create(documentURI);
-        OntologySaver saver = OntologySaver.builder().addOntology(ont, format, documentIRI).build();
-        saver.saveOntologies();
+        Map<OWLOntology, OWLOntologyStorageException> errors = saverBuilder.build().saveOntologiesAndCollectErrors();
 
-        manager.setOntologyDocumentIRI(ont, documentIRI);
-        logger.info("Saved ontology {} to {} in {} format", ont.getOntologyID(), documentIRI, format);
-
-        dirtyOntologies.remove(ont.getOntologyID());
+        for(Map.Entry<OWLOntology, URI> entry : documentURIs.entrySet()) {
+            OWLOntology ont = entry.getKey();
+            if(errors.containsKey(ont)) {
+                continue;
+            }
+            URI documentURI = entry.getValue();
+            IRI documentIRI = IRI.create(documentURI);
+            manager.setOntologyDocumentIRI(ont, documentIRI);
+            logger.info("Saved ontology {} to {} in {} format", ont.getOntologyID(), documentIRI, formats.get(ont));
 
-        fireEvent(EventType.ONTOLOGY_SAVED);
-        fireAfterSaveEvent(ont.getOntologyID(), documentURI);
+            dirtyOntologies.remove(ont.getOntologyID());
 
+            fireEvent(EventType.ONTOLOGY_SAVED);
+            fireAfterSaveEvent(ont.getOntologyID(), documentURI);
+        }
+        return errors;
     }
 
     @Override
@@ -734,6 +785,7 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
         }
         deprecationCache.handleOntologyChanges(changes, getActiveOntologies());
         getHistoryManager().logChanges(changes);
+        changeJournalManager.handleChanges(changes);
         boolean refreshActiveOntology = false;
         for(OWLOntologyChange change : changes) {
             if(change instanceof SetOntologyID) {
@@ -759,8 +811,34 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
     }
 
     public void addOntologyChangeListener(OWLOntologyChangeListener listener) {
-        manager.addOntologyChangeListener(listener);
-        changeListenerManager.recordListenerAdded(listener);
+        addOntologyChangeListener(listener, OntologyChangeDelivery.SYNCHRONOUS);
+    }
+
+    @Override
+    public void addOntologyChangeListener(OWLOntologyChangeListener listener, OntologyChangeDelivery delivery) {
+        changeDispatcher.addListener(listener, delivery);
+    }
+
+    @Override
+    public void startCompositeChange() {
+        getHistoryManager().startCompositeChange();
+        changeDispatcher.startCompositeChange();
+    }
+
+    @Override
+    public void endCompositeChange() {
+        try {
+            changeDispatcher.endCompositeChange();
+        } finally {
+            getHistoryManager().endCompositeChange();
+        }
+    }
+
+    /**
+     * Gets the time that each ontology change listener has spent handling changes.
+     */
+    public List<ListenerManager.ListenerTiming> getOntologyChangeListenerTimings() {
+        return changeListenerManager.getListenerTimings();
     }
 
 
@@ -771,8 +849,7 @@ public class OWLModelManagerImpl extends AbstractModelManager implements OWLMode
     //////////////////////////////////////////////////////////////////////////////////////
 
     public void removeOntologyChangeListener(OWLOntologyChangeListener listener) {
-        manager.removeOntologyChangeListener(listener);
-        changeListenerManager.recordListenerRemoved(listener);
+        changeDispatcher.removeListener(listener);
     }
 
     public void addListener(OWLModelManagerListener listener) {
@@ -83,6 +83,8 @@ public class OWLWorkspace extends TabbedWorkspace implements SendErrorReportHand
 
     public static final String REASONER_STOP = "Stop reasoner";
 
+    public static final String REASONER_AUTO_CLASSIFY = "Auto-classify";
+
     public static final String REASONER_EXPLAIN = "Explain inconsistent ontology";
 
     private static final String WINDOW_MODIFIED = "Window.documentModified";
@@ -568,6 +570,16 @@ public class OWLWorkspace extends TabbedWorkspace implements SendErrorReportHand
         configureAction.putValue(Action.NAME, "Configure...");
         reasonerMenu.add(configureAction);
 
+        ReasonerPreferences reasonerPreferences = mngr.getOWLReasonerManager().getReasonerPreferences();
+        JCheckBoxMenuItem autoClassifyItem = new JCheckBoxMenuItem(REASONER_AUTO_CLASSIFY);
+        autoClassifyItem.setToolTipText("Automatically resynchronize the reasoner, in the background, after edits");
+        autoClassifyItem.setSelected(reasonerPreferences.isAutoClassify());
+        autoClassifyItem.addActionListener(e -> {
+            reasonerPreferences.setAutoClassify(autoClassifyItem.isSelected());
+            reasonerPreferences.save();
+        });
+        reasonerMenu.add(autoClassifyItem);
+
         if (extraReasonerMenuActions != null && extraReasonerMenuActions.size() > 0) {
             reasonerMenu.addSeparator();
             for (ProtegeAction action : extraReasonerMenuActions) {
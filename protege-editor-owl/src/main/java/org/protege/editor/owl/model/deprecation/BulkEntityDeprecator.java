@@ -0,0 +1,142 @@
+package org.protege.editor.owl.model.deprecation;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import org.protege.editor.core.log.LogBanner;
+import org.protege.editor.owl.model.entity.HomeOntologySupplier;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.AxiomSubjectProvider;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Deprecates many entities at once, with the same deprecation profile.
+ * <p>
+ * Each entity is deprecated as an {@link EntityDeprecator} would deprecate it, except that the usage of all of the
+ * deprecated entities is replaced with their replacements in one pass over the ontologies, with the ontologies
+ * searched in parallel.  An axiom that mentions several deprecated entities is rewritten once, with all of their
+ * replacements (other than the replacement for the entity that the axiom is about, if it is also deprecated).  Axioms
+ * that are removed by the deprecation of an entity (e.g. its logical definition) are not rewritten.
+ * </p>
+ */
+public class BulkEntityDeprecator<E extends OWLEntity> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkEntityDeprecator.class);
+
+    @Nonnull
+    private final ImmutableList<DeprecateEntityInfo<E>> infos;
+
+    @Nonnull
+    private final DeprecationProfile profile;
+
+    @Nonnull
+    private final ImmutableSet<OWLOntology> ontologies;
+
+    @Nonnull
+    private final HomeOntologySupplier homeOntologySupplier;
+
+    @Nonnull
+    private final OWLDataFactory dataFactory;
+
+    public BulkEntityDeprecator(@Nonnull List<DeprecateEntityInfo<E>> infos,
+                                @Nonnull DeprecationProfile profile,
+                                @Nonnull Set<OWLOntology> ontologies,
+                                @Nonnull HomeOntologySupplier homeOntologySupplier,
+                                @Nonnull OWLDataFactory dataFactory) {
+        this.infos = ImmutableList.copyOf(checkNotNull(infos));
+        this.profile = checkNotNull(profile);
+        this.ontologies = ImmutableSet.copyOf(checkNotNull(ontologies));
+        this.homeOntologySupplier = checkNotNull(homeOntologySupplier);
+        this.dataFactory = checkNotNull(dataFactory);
+    }
+
+    /**
+     * Gets the changes that deprecate the entities.  As with {@link EntityDeprecator}, the changes are not minimised.
+     * They are intended to be applied with a {@link org.protege.editor.owl.model.refactor.BulkChangeApplier}, which
+     * minimises them as a whole.
+     */
+    public List<OWLOntologyChange> getChanges() {
+        logger.info(LogBanner.start("Deprecating entities"));
+        logger.info("[Deprecate Entities] Deprecating {} entities", infos.size());
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<OWLOntologyChange> deprecationChanges = new ArrayList<>();
+        for (DeprecateEntityInfo<E> info : infos) {
+            new EntityDeprecator<>(info, profile, ontologies, homeOntologySupplier, dataFactory)
+                    .addChangesExcludingUsageReplacement(deprecationChanges);
+        }
+        // As with a single entity, the usage replacement comes first
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        switchUsageOfDeprecatedEntitiesWithReplacements(deprecationChanges, changes);
+        changes.addAll(deprecationChanges);
+        logger.info("[Deprecate Entities] Generated {} changes to deprecate {} entities in {} ms",
+                    changes.size(),
+                    infos.size(),
+                    stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        logger.info(LogBanner.end());
+        return changes;
+    }
+
+    /**
+     * Replaces logical axioms that mention deprecated entities with axioms that mention their replacements.
+     *
+     * @param deprecationChanges The other changes that deprecate the entities.  Axioms that these changes remove
+     *                           are not replaced.
+     * @param changes A list of changes that the enacting changes will be added to.
+     */
+    private void switchUsageOfDeprecatedEntitiesWithReplacements(@Nonnull List<OWLOntologyChange> deprecationChanges,
+                                                                 @Nonnull List<OWLOntologyChange> changes) {
+        Map<OWLEntity, IRI> replacementMap = new HashMap<>();
+        infos.forEach(info -> info.getReplacementEntity().ifPresent(
+                replacementEntity -> replacementMap.put(info.getEntityToDeprecate(), replacementEntity.getIRI())));
+        if (replacementMap.isEmpty()) {
+            return;
+        }
+        Set<OWLOntologyChange> removals = deprecationChanges.stream()
+                                                            .filter(OWLOntologyChange::isRemoveAxiom)
+                                                            .collect(toSet());
+        ontologies.parallelStream()
+                  .map(o -> getUsageReplacementChanges(o, replacementMap, removals))
+                  .collect(toList())
+                  .forEach(changes::addAll);
+    }
+
+    private List<OWLOntologyChange> getUsageReplacementChanges(@Nonnull OWLOntology o,
+                                                               @Nonnull Map<OWLEntity, IRI> replacementMap,
+                                                               @Nonnull Set<OWLOntologyChange> removals) {
+        Set<OWLAxiom> axioms = new LinkedHashSet<>();
+        replacementMap.keySet().forEach(entity -> axioms.addAll(o.getReferencingAxioms(entity)));
+        OWLObjectDuplicator duplicator = new OWLObjectDuplicator(replacementMap, dataFactory);
+        AxiomSubjectProvider subjectProvider = new AxiomSubjectProvider();
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (OWLAxiom ax : axioms) {
+            // Only replace entities in logical axioms - annotations remain on the deprecated entities
+            if (!ax.isLogicalAxiom() || removals.contains(new RemoveAxiom(o, ax))) {
+                continue;
+            }
+            // Don't replace the entity that an axiom defines
+            OWLObject subject = subjectProvider.getSubject(ax);
+            OWLObjectDuplicator axiomDuplicator = duplicator;
+            if (replacementMap.containsKey(subject)) {
+                Map<OWLEntity, IRI> axiomReplacementMap = new HashMap<>(replacementMap);
+                axiomReplacementMap.remove(subject);
+                axiomDuplicator = new OWLObjectDuplicator(axiomReplacementMap, dataFactory);
+            }
+            OWLAxiom replacementAx = axiomDuplicator.duplicateObject(ax);
+            if (!replacementAx.equals(ax)) {
+                changes.add(new RemoveAxiom(o, ax));
+                changes.add(new AddAxiom(o, replacementAx));
+            }
+        }
+        return changes;
+    }
+}
@@ -59,6 +59,19 @@ public class EntityDeprecator<E extends OWLEntity> {
         List<OWLOntologyChange> changes = new ArrayList<>();
 
         switchUsageOfDeprecatedEntityWithReplacement(changes);
+        addChangesExcludingUsageReplacement(changes);
+
+        logger.info(LogBanner.end());
+        return changes;
+    }
+
+    /**
+     * Adds the changes that deprecate the entity, other than the changes that replace the usage of the deprecated
+     * entity with its replacement.  This allows the usage of many deprecated entities to be replaced at once.
+     *
+     * @param changes A list of changes that the enacting changes will be added to.
+     */
+    void addChangesExcludingUsageReplacement(@Nonnull List<OWLOntologyChange> changes) {
         updateDeprecatedEntityLogicalDefinition(changes);
         updateDeprecatedEntityAnnotations(changes);
 
@@ -73,9 +86,6 @@ public class EntityDeprecator<E extends OWLEntity> {
 
         // Re-parenting is optional and specified by the profile (the GO workflow does not do this)
         reparentDeprecatedEntity(changes);
-
-        logger.info(LogBanner.end());
-        return changes;
     }
 
     /**
@@ -11,6 +11,7 @@ import org.protege.editor.owl.model.annotation.EntityCreationMetadataPreferences
 import org.protege.editor.owl.model.annotation.EntityCreationMetadataPreferencesManager;
 import org.protege.editor.owl.model.annotation.EntityCreationMetadataProvider;
 import org.protege.editor.owl.model.annotation.PreferencesBasedEntityCreationMetadataProviderFactory;
+import org.protege.editor.owl.model.idrange.IdRange;
 import org.protege.editor.owl.model.user.OrcidPreferencesManager;
 import org.protege.editor.owl.model.user.UserNamePreferencesManager;
 import org.protege.editor.owl.model.user.UserPreferences;
@@ -131,7 +132,53 @@ public class CustomOWLEntityFactory implements OWLEntityFactory {
         }
     }
     
-    protected <T extends OWLEntity> EntityNameInfo generateName(Class<T> type, String shortName, IRI baseURI) throws AutoIDException, URISyntaxException, OWLEntityCreationException {
+    /**
+     * Reserves ids with the {@link NumericIdIndex}, in the id range of the new entity preferences, and hands them to
+     * the iterative auto id generator.  Ids are only reserved when fragments are auto-generated by that generator.
+     */
+    @Override
+    public void reserveIds(EntityType<?> entityType, int count) {
+        AutoIDGenerator generator = getAutoIDGenerator();
+        if (!isFragmentAutoGenerated() || !(generator instanceof IterativeAutoIDGenerator)) {
+            return;
+        }
+        IterativeAutoIDGenerator iterativeGenerator = (IterativeAutoIDGenerator) generator;
+        Class<? extends OWLEntity> type = getEntityClass(entityType);
+        IRI baseIRI = getBaseIRI(null);
+        String prefix = getIRIBase(baseIRI) + iterativeGenerator.getPrefix(type).replace(" ", "_");
+        String suffix = iterativeGenerator.getSuffix(type).replace(" ", "_");
+        int end = EntityCreationPreferences.getAutoIDEnd();
+        IdRange range = IdRange.getIdRange(EntityCreationPreferences.getAutoIDStart(),
+                                           end == -1 ? Integer.MAX_VALUE : end);
+        List<Long> ids = NumericIdIndex.getInstance(mngr).reserveIds(prefix, suffix, range, count);
+        iterativeGenerator.setReservedIds(type, ids);
+    }
+
+
+    private static Class<? extends OWLEntity> getEntityClass(EntityType<?> entityType) {
+        if (entityType == EntityType.CLASS) {
+            return OWLClass.class;
+        }
+        else if (entityType == EntityType.OBJECT_PROPERTY) {
+            return OWLObjectProperty.class;
+        }
+        else if (entityType == EntityType.DATA_PROPERTY) {
+            return OWLDataProperty.class;
+        }
+        else if (entityType == EntityType.ANNOTATION_PROPERTY) {
+            return OWLAnnotationProperty.class;
+        }
+        else if (entityType == EntityType.NAMED_INDIVIDUAL) {
+            return OWLNamedIndividual.class;
+        }
+        else if (entityType == EntityType.DATATYPE) {
+            return OWLDatatype.class;
+        }
+        throw new RuntimeException("Unknown EntityType: " + entityType);
+    }
+
+
+    private IRI getBaseIRI(IRI baseURI) {
         if (baseURI == null){
             if (useDefaultBaseIRI() || mngr.getActiveOntology().getOntologyID().isAnonymous()){
                 baseURI = getDefaultBaseIRI();
@@ -140,10 +187,17 @@ public class CustomOWLEntityFactory implements OWLEntityFactory {
                 baseURI = mngr.getActiveOntology().getOntologyID().getOntologyIRI().get();
             }
         }
+        return baseURI;
+    }
+
+
+    protected <T extends OWLEntity> EntityNameInfo generateName(Class<T> type, String shortName, IRI baseURI) throws AutoIDException, URISyntaxException, OWLEntityCreationException {
+        baseURI = getBaseIRI(baseURI);
 
         IRI iri;
         String id = null;
         if (isFragmentAutoGenerated()){
+            installFreeIdFinder(type, baseURI);
         	Set<IRI> tried = new HashSet<>();
             do{
                 id = getAutoIDGenerator().getNextID(type);
@@ -206,8 +260,38 @@ public class CustomOWLEntityFactory implements OWLEntityFactory {
     }
 
 
+    /**
+     * Lets the iterative auto id generator skip ids that are already used in one step, rather than generating and
+     * probing one IRI per used id.  The IRIs that are generated are still checked against the ontologies.  Ids are
+     * looked for in the id range of the new entity preferences, which is where the id ranges policy of the active
+     * ontology puts the range of the current user, so the search stops at the end of the range.
+     */
+    private void installFreeIdFinder(Class<? extends OWLEntity> type, IRI baseIRI) {
+        AutoIDGenerator generator = getAutoIDGenerator();
+        if (!(generator instanceof IterativeAutoIDGenerator)) {
+            return;
+        }
+        IterativeAutoIDGenerator iterativeGenerator = (IterativeAutoIDGenerator) generator;
+        String prefix = getIRIBase(baseIRI) + iterativeGenerator.getPrefix(type).replace(" ", "_");
+        String suffix = iterativeGenerator.getSuffix(type).replace(" ", "_");
+        NumericIdIndex index = NumericIdIndex.getInstance(mngr);
+        iterativeGenerator.setFreeIdFinder(id -> {
+            int end = EntityCreationPreferences.getAutoIDEnd();
+            if (end == -1) {
+                return index.getNextFreeId(prefix, suffix, id);
+            }
+            return index.getNextFreeId(prefix, suffix, IdRange.getIdRange(EntityCreationPreferences.getAutoIDStart(), end), id);
+        });
+    }
+
+
     protected IRI createIRI(String fragment, IRI baseIRI) throws URISyntaxException {
         fragment = fragment.replace(" ", "_");
+        return IRI.create(new URI(getIRIBase(baseIRI) + fragment));
+    }
+
+
+    private String getIRIBase(IRI baseIRI) {
         if (baseIRI == null){
             if (useDefaultBaseIRI()){
                 baseIRI = EntityCreationPreferences.getDefaultBaseIRI();
@@ -220,7 +304,7 @@ public class CustomOWLEntityFactory implements OWLEntityFactory {
         if (!base.endsWith("#") && !base.endsWith("/")) {
             base += EntityCreationPreferences.getDefaultSeparator();
         }
-        return IRI.create(new URI(base + fragment));
+        return base;
     }
 
 
@@ -2,7 +2,14 @@ package org.protege.editor.owl.model.entity;
 
 import org.semanticweb.owlapi.model.OWLEntity;
 
+import javax.annotation.Nonnull;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.Stack;
+import java.util.function.LongUnaryOperator;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 /*
 * Copyright (C) 2007, University of Manchester
@@ -28,6 +35,12 @@ public class IterativeAutoIDGenerator extends AbstractIDGenerator implements Rev
 
     private Stack<Long> checkpoints = new Stack<>();
 
+    private LongUnaryOperator freeIdFinder = LongUnaryOperator.identity();
+
+    private Class<? extends OWLEntity> reservedIdType;
+
+    private final Deque<Long> reservedIds = new ArrayDeque<>();
+
 
     public IterativeAutoIDGenerator() {
         id = EntityCreationPreferences.getAutoIDStart();
@@ -35,7 +48,36 @@ public class IterativeAutoIDGenerator extends AbstractIDGenerator implements Rev
     }
 
 
+    /**
+     * Sets the function that finds the first free id at or after the next id, so that ids that are already used
+     * are skipped in one step.  By default, the next id is used as it is.
+     * @see NumericIdIndex#getNextFreeId(String, String, long)
+     */
+    public void setFreeIdFinder(@Nonnull LongUnaryOperator freeIdFinder) {
+        this.freeIdFinder = checkNotNull(freeIdFinder);
+    }
+
+
+    /**
+     * Sets ids that have been reserved for entities of the specified type (for example, by
+     * {@link NumericIdIndex#reserveIds(String, String, org.protege.editor.owl.model.idrange.IdRange, int)}), so that
+     * many entities can be created without looking for a free id for each one.  The reserved ids are handed out, in
+     * order, before any other ids, to entities of that type.  Any ids that were reserved before are discarded.
+     */
+    public void setReservedIds(@Nonnull Class<? extends OWLEntity> type, @Nonnull Collection<Long> ids) {
+        reservedIdType = checkNotNull(type);
+        reservedIds.clear();
+        reservedIds.addAll(ids);
+    }
+
+
     protected long getRawID(Class<? extends OWLEntity> type) throws AutoIDException{
+        if (type.equals(reservedIdType) && !reservedIds.isEmpty()) {
+            long reservedId = reservedIds.poll();
+            id = Math.max(id, reservedId + 1);
+            saveAutoIDStart(reservedId);
+            return reservedId;
+        }
     	//check if start id prefs have changed meanwhile
     	if (previousStartId != EntityCreationPreferences.getAutoIDStart()) {
     		id = EntityCreationPreferences.getAutoIDStart();
@@ -43,16 +85,21 @@ public class IterativeAutoIDGenerator extends AbstractIDGenerator implements Rev
     		checkpoints.removeAllElements();
     		checkpoints.push(id);
     	}
-    	
+    	id = freeIdFinder.applyAsLong(id);
     	long end = EntityCreationPreferences.getAutoIDEnd();
         if (end != -1 && id > end){
             throw new AutoIDException("You have run out of IDs for creating new entities - max = " + end);
         }
+        saveAutoIDStart(id);
+        return id++;
+    }
+
+
+    private void saveAutoIDStart(long usedId) {
         if (EntityCreationPreferences.getSaveAutoIDStart()) {
-        	previousStartId = id + 1;
+        	previousStartId = usedId + 1;
         	EntityCreationPreferences.setAutoIDStart((int) (previousStartId));
         }
-        return id++;
     }
 
 
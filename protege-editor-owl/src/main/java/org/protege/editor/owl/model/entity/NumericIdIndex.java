@@ -0,0 +1,313 @@
+package org.protege.editor.owl.model.entity;
+
+import org.protege.editor.core.Disposable;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import com.googlecode.javaewah.ChunkIterator;
+import com.googlecode.javaewah.EWAHCompressedBitmap;
+import org.protege.editor.owl.model.idrange.IdRange;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An index of the numeric ids that are used by the IRIs of entities in the loaded ontologies, so that the next free
+ * id for an auto-generated entity IRI can be found without probing candidate IRIs one by one.
+ * <p>
+ * Ids are indexed per IRI prefix and suffix, where an IRI has an id if it consists of the prefix, followed by a
+ * sequence of digits, followed by the suffix (for example, <code>http://purl.obolibrary.org/obo/GO_</code>,
+ * <code>0008150</code> and the empty suffix).  The used ids for a prefix are held in a compressed (run-length
+ * encoded) bitmap, which is built the first time that the prefix is requested, from the signatures of the ontologies
+ * in parallel.  Allocated ids tend to form long runs, so the bitmap stays small, and the first free id after a run
+ * is found by skipping the run in one step.  Ids are marked as used when axioms that mention them are added.  Ids are not unmarked when axioms are removed, so an id that has been
+ * used in this session is not handed out again.  The index is cleared when ontologies are loaded, created or
+ * reloaded, or the active ontology changes.
+ * </p>
+ */
+public class NumericIdIndex implements Disposable {
+
+    private static final Logger logger = LoggerFactory.getLogger(NumericIdIndex.class);
+
+    private static final String ID = NumericIdIndex.class.getName();
+
+    /**
+     * The maximum number of digits of an id that is indexed.  Longer ids do not fit in the bitmaps.
+     */
+    private static final int MAX_INDEXED_DIGIT_COUNT = 9;
+
+    private final Supplier<? extends Collection<OWLOntology>> ontologiesSupplier;
+
+    private final Map<PrefixKey, EWAHCompressedBitmap> usedIds = new HashMap<>();
+
+    private OWLModelManager mngr;
+
+    private final OWLOntologyChangeListener ontologyChangeListener = this::handleOntologyChanges;
+
+    private final OWLModelManagerListener modelManagerListener = event -> {
+        if (event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)
+                || event.isType(EventType.ONTOLOGY_LOADED)
+                || event.isType(EventType.ONTOLOGY_CREATED)
+                || event.isType(EventType.ONTOLOGY_RELOADED)) {
+            invalidate();
+        }
+    };
+
+    /**
+     * Gets the index of the ontologies that are loaded into the specified model manager.
+     */
+    public static synchronized NumericIdIndex getInstance(@Nonnull OWLModelManager mngr) {
+        NumericIdIndex instance = mngr.get(ID);
+        if (instance == null) {
+            instance = new NumericIdIndex(mngr::getOntologies);
+            instance.mngr = mngr;
+            mngr.addOntologyChangeListener(instance.ontologyChangeListener);
+            mngr.addListener(instance.modelManagerListener);
+            mngr.put(ID, instance);
+        }
+        return instance;
+    }
+
+    /**
+     * Creates an index of the specified ontologies.  The index must be told about changes to the ontologies with
+     * {@link #handleOntologyChanges(List)} and {@link #invalidate()}.
+     */
+    public NumericIdIndex(@Nonnull Supplier<? extends Collection<OWLOntology>> ontologiesSupplier) {
+        this.ontologiesSupplier = checkNotNull(ontologiesSupplier);
+    }
+
+    /**
+     * Gets the first id, at or after the specified id, that is not used by an IRI with the specified prefix and
+     * suffix.
+     * @param prefix The IRI prefix, which precedes the digits of the id.
+     * @param suffix The IRI suffix, which follows the digits of the id.
+     * @param from The first id that may be returned.
+     * @return The first free id.  Ids that are too large to be indexed are returned as they are.
+     */
+    public synchronized long getNextFreeId(@Nonnull String prefix, @Nonnull String suffix, long from) {
+        if (from < 0 || from > Integer.MAX_VALUE) {
+            return from;
+        }
+        return nextClearBit(getUsedIds(prefix, suffix), (int) from);
+    }
+
+    /**
+     * Gets the first id in a range, at or after the specified id, that is not used by an IRI with the specified
+     * prefix and suffix.
+     * @param prefix The IRI prefix, which precedes the digits of the id.
+     * @param suffix The IRI suffix, which follows the digits of the id.
+     * @param range The range (inclusive) that the id must be in.
+     * @param from The first id that may be returned.
+     * @return The first free id in the range, or the id after the upper bound of the range if every id in the range
+     * from the specified id onwards is used.
+     */
+    public synchronized long getNextFreeId(@Nonnull String prefix,
+                                           @Nonnull String suffix,
+                                           @Nonnull IdRange range,
+                                           long from) {
+        long id = getNextFreeId(prefix, suffix, Math.max(from, range.getLowerBound()));
+        return Math.min(id, range.getUpperBound() + 1L);
+    }
+
+    /**
+     * Reserves free ids in a range, so that ids for many entities can be allocated in one step.  The reserved ids
+     * are marked as used, so they are not returned again (until the index is cleared), whether or not entities are
+     * created with them.
+     * @param prefix The IRI prefix, which precedes the digits of the ids.
+     * @param suffix The IRI suffix, which follows the digits of the ids.
+     * @param range The range (inclusive) that the ids must be in.
+     * @param count The number of ids to reserve.
+     * @return The reserved ids, in ascending order.  There are fewer than the specified number of ids if the range
+     * does not hold enough free ids.
+     */
+    @Nonnull
+    public synchronized List<Long> reserveIds(@Nonnull String prefix,
+                                              @Nonnull String suffix,
+                                              @Nonnull IdRange range,
+                                              int count) {
+        checkArgument(count >= 0, "The count must not be negative");
+        EWAHCompressedBitmap used = getUsedIds(prefix, suffix);
+        long upperBound = Math.min(range.getUpperBound(), Integer.MAX_VALUE - 1);
+        int[] ids = new int[count];
+        int reservedCount = 0;
+        long id = Math.max(0, range.getLowerBound());
+        while (reservedCount < count && id <= upperBound) {
+            id = nextClearBit(used, (int) id);
+            if (id > upperBound) {
+                break;
+            }
+            ids[reservedCount] = (int) id;
+            reservedCount++;
+            id++;
+        }
+        List<Long> reserved = new ArrayList<>(reservedCount);
+        for (int i = 0; i < reservedCount; i++) {
+            reserved.add((long) ids[i]);
+        }
+        if (reservedCount > 0) {
+            usedIds.put(new PrefixKey(prefix, suffix), markUsed(used, Arrays.copyOf(ids, reservedCount)));
+        }
+        return reserved;
+    }
+
+    /**
+     * Updates the index for the specified changes to the ontologies.
+     */
+    public synchronized void handleOntologyChanges(@Nonnull List<? extends OWLOntologyChange> changes) {
+        if (usedIds.isEmpty()) {
+            return;
+        }
+        Set<String> iris = new HashSet<>();
+        for (OWLOntologyChange change : changes) {
+            if (change.isAddAxiom()) {
+                for (OWLEntity entity : change.getAxiom().getSignature()) {
+                    iris.add(entity.getIRI().toString());
+                }
+            }
+        }
+        for (Map.Entry<PrefixKey, EWAHCompressedBitmap> entry : usedIds.entrySet()) {
+            PrefixKey key = entry.getKey();
+            int[] ids = iris.stream()
+                    .mapToInt(key::parseId)
+                    .filter(id -> id != -1)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            if (ids.length > 0) {
+                entry.setValue(markUsed(entry.getValue(), ids));
+            }
+        }
+    }
+
+    /**
+     * Clears the index, so that it is built again when it is next used.
+     */
+    public synchronized void invalidate() {
+        usedIds.clear();
+    }
+
+    /**
+     * Marks ids as used.  Ids beyond the end of the bitmap, which are the common case since new ids are allocated in
+     * ascending order, are appended in place.  Otherwise the ids are merged into a new bitmap.
+     * @param ids The ids, in ascending order, without duplicates.
+     * @return The bitmap that holds the ids.
+     */
+    private static EWAHCompressedBitmap markUsed(EWAHCompressedBitmap used, int[] ids) {
+        if (ids[0] >= used.sizeInBits()) {
+            for (int id : ids) {
+                used.set(id);
+            }
+            return used;
+        }
+        return used.or(EWAHCompressedBitmap.bitmapOf(ids));
+    }
+
+    private static int nextClearBit(EWAHCompressedBitmap used, int from) {
+        if (from >= used.sizeInBits()) {
+            return from;
+        }
+        ChunkIterator chunks = used.chunkIterator();
+        chunks.move(from);
+        int id = from;
+        while (chunks.hasNext()) {
+            if (!chunks.nextBit()) {
+                return id;
+            }
+            id += chunks.nextLength();
+            chunks.move();
+        }
+        return id;
+    }
+
+    private EWAHCompressedBitmap getUsedIds(String prefix, String suffix) {
+        PrefixKey key = new PrefixKey(prefix, suffix);
+        EWAHCompressedBitmap used = usedIds.get(key);
+        if (used == null) {
+            long t0 = System.currentTimeMillis();
+            int[] ids = ontologiesSupplier.get()
+                    .parallelStream()
+                    .flatMap(ont -> ont.getSignature().parallelStream())
+                    .mapToInt(entity -> key.parseId(entity.getIRI().toString()))
+                    .filter(id -> id != -1)
+                    .sorted()
+                    .distinct()
+                    .toArray();
+            used = EWAHCompressedBitmap.bitmapOf(ids);
+            usedIds.put(key, used);
+            long t1 = System.currentTimeMillis();
+            logger.info("[NumericIdIndex] Indexed {} ids with the prefix {} in {} ms ({} bytes)",
+                        ids.length, prefix, t1 - t0, used.sizeInBytes());
+        }
+        return used;
+    }
+
+    @Override
+    public void dispose() {
+        if (mngr != null) {
+            mngr.removeOntologyChangeListener(ontologyChangeListener);
+            mngr.removeListener(modelManagerListener);
+            mngr = null;
+        }
+        invalidate();
+    }
+
+    private static final class PrefixKey {
+
+        private final String prefix;
+
+        private final String suffix;
+
+        private PrefixKey(String prefix, String suffix) {
+            this.prefix = checkNotNull(prefix);
+            this.suffix = checkNotNull(suffix);
+        }
+
+        /**
+         * Gets the id of an IRI with this prefix and suffix.
+         * @return The id, or -1 if the IRI does not have this prefix and suffix, or the id is too long.
+         */
+        private int parseId(String iri) {
+            if (!iri.startsWith(prefix) || !iri.endsWith(suffix)) {
+                return -1;
+            }
+            int start = prefix.length();
+            int end = iri.length() - suffix.length();
+            if (end <= start || end - start > MAX_INDEXED_DIGIT_COUNT) {
+                return -1;
+            }
+            int id = 0;
+            for (int i = start; i < end; i++) {
+                char ch = iri.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    return -1;
+                }
+                id = id * 10 + (ch - '0');
+            }
+            return id;
+        }
+
+        @Override
+        public int hashCode() {
+            return prefix.hashCode() * 31 + suffix.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof PrefixKey)) {
+                return false;
+            }
+            PrefixKey other = (PrefixKey) obj;
+            return prefix.equals(other.prefix) && suffix.equals(other.suffix);
+        }
+    }
+}
@@ -121,4 +121,14 @@ public interface OWLEntityFactory {
             throw new RuntimeException("Unknown EntityType: " + entityType);
         }
     }
+
+    /**
+     * Reserves auto-generated ids for a number of entities that are about to be created, so that the ids can be
+     * allocated in one step rather than one entity at a time.  Entities that are created beyond the reserved number
+     * get their ids as usual.  By default, nothing is reserved.
+     * @param entityType The type of the entities.
+     * @param count The number of entities.
+     */
+    default void reserveIds(EntityType<?> entityType, int count) {
+    }
 }
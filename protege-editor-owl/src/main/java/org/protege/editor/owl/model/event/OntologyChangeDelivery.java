@@ -0,0 +1,21 @@
+package org.protege.editor.owl.model.event;
+
+/**
+ * Specifies how ontology changes are delivered to an ontology change listener that is added to the model manager.
+ */
+public enum OntologyChangeDelivery {
+
+    /**
+     * The listener is called for every list of changes, on the thread that applies the changes, before the call
+     * that applied the changes returns.
+     */
+    SYNCHRONOUS,
+
+    /**
+     * Changes are buffered and delivered to the listener, on the event dispatch thread, as a single list once no
+     * further changes have been applied for a short period of time or, if the changes are applied as part of a
+     * composite change, once the composite change has ended.  This is appropriate for listeners that merely
+     * invalidate or refresh state, where a burst of change lists would otherwise cause a cascade of refreshes.
+     */
+    COALESCED
+}
@@ -0,0 +1,193 @@
+package org.protege.editor.owl.model.event;
+
+import org.protege.editor.owl.model.util.ListenerManager;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Dispatches ontology changes to the ontology change listeners that are registered with the model manager.
+ * <p>
+ * Listeners are either {@link OntologyChangeDelivery#SYNCHRONOUS synchronous}, in which case they are called in
+ * registration order for every list of changes, or {@link OntologyChangeDelivery#COALESCED coalesced}, in which case
+ * changes are buffered and delivered as a single list on the event dispatch thread once a short quiescence window
+ * has passed without further changes, or when the outermost composite change ends.  The time that each listener
+ * takes to handle changes is recorded through the {@link ListenerManager}.
+ */
+public class OntologyChangeDispatcher implements OWLOntologyChangeListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(OntologyChangeDispatcher.class);
+
+    public static final int DEFAULT_QUIESCENCE_WINDOW_MS = 150;
+
+    private static final long SLOW_LISTENER_THRESHOLD_MS = 500;
+
+    private final ListenerManager<OWLOntologyChangeListener> listenerManager;
+
+    private final List<OWLOntologyChangeListener> synchronousListeners = new CopyOnWriteArrayList<>();
+
+    private final List<OWLOntologyChangeListener> coalescedListeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Changes waiting to be delivered to coalesced listeners.  Guarded by this.
+     */
+    private List<OWLOntologyChange> pendingChanges = new ArrayList<>();
+
+    /**
+     * The depth of nested composite changes.  Guarded by this.
+     */
+    private int compositeDepth = 0;
+
+    private final Timer quiescenceTimer;
+
+    public OntologyChangeDispatcher(@Nonnull ListenerManager<OWLOntologyChangeListener> listenerManager) {
+        this(listenerManager, DEFAULT_QUIESCENCE_WINDOW_MS);
+    }
+
+    public OntologyChangeDispatcher(@Nonnull ListenerManager<OWLOntologyChangeListener> listenerManager,
+                                    int quiescenceWindowMs) {
+        this.listenerManager = checkNotNull(listenerManager);
+        quiescenceTimer = new Timer(quiescenceWindowMs, e -> deliverPendingChanges());
+        quiescenceTimer.setRepeats(false);
+    }
+
+    public void addListener(@Nonnull OWLOntologyChangeListener listener, @Nonnull OntologyChangeDelivery delivery) {
+        checkNotNull(listener);
+        if(delivery == OntologyChangeDelivery.COALESCED) {
+            coalescedListeners.add(listener);
+        }
+        else {
+            synchronousListeners.add(listener);
+        }
+        listenerManager.recordListenerAdded(listener);
+    }
+
+    public void removeListener(@Nonnull OWLOntologyChangeListener listener) {
+        synchronousListeners.remove(listener);
+        coalescedListeners.remove(listener);
+        listenerManager.recordListenerRemoved(listener);
+    }
+
+    @Override
+    public void ontologiesChanged(@Nonnull List<? extends OWLOntologyChange> changes) {
+        for(OWLOntologyChangeListener listener : synchronousListeners) {
+            deliver(listener, changes);
+        }
+        if(coalescedListeners.isEmpty()) {
+            return;
+        }
+        boolean inComposite;
+        synchronized (this) {
+            pendingChanges.addAll(changes);
+            inComposite = compositeDepth > 0;
+        }
+        if(!inComposite) {
+            restartQuiescenceTimer();
+        }
+    }
+
+    /**
+     * Starts a composite change.  Changes that are applied before the matching call to
+     * {@link #endCompositeChange()} are delivered to coalesced listeners as a single list when the composite change
+     * ends.  Composite changes may be nested.
+     */
+    public synchronized void startCompositeChange() {
+        compositeDepth++;
+    }
+
+    /**
+     * Ends a composite change.  If this ends the outermost composite change then any pending changes are
+     * delivered to coalesced listeners without waiting for the quiescence window.
+     */
+    public void endCompositeChange() {
+        synchronized (this) {
+            if(compositeDepth == 0) {
+                logger.warn("endCompositeChange called without a matching call to startCompositeChange");
+                return;
+            }
+            compositeDepth--;
+            if(compositeDepth > 0) {
+                return;
+            }
+        }
+        if(SwingUtilities.isEventDispatchThread()) {
+            quiescenceTimer.stop();
+            deliverPendingChanges();
+        }
+        else {
+            SwingUtilities.invokeLater(() -> {
+                quiescenceTimer.stop();
+                deliverPendingChanges();
+            });
+        }
+    }
+
+    /**
+     * Immediately delivers any pending changes to coalesced listeners.  Must be called on the event dispatch thread.
+     */
+    public void flush() {
+        quiescenceTimer.stop();
+        deliverPendingChanges();
+    }
+
+    public void dispose() {
+        quiescenceTimer.stop();
+        synchronousListeners.clear();
+        coalescedListeners.clear();
+        synchronized (this) {
+            pendingChanges = new ArrayList<>();
+        }
+    }
+
+    private void restartQuiescenceTimer() {
+        if(SwingUtilities.isEventDispatchThread()) {
+            quiescenceTimer.restart();
+        }
+        else {
+            SwingUtilities.invokeLater(quiescenceTimer::restart);
+        }
+    }
+
+    private void deliverPendingChanges() {
+        List<OWLOntologyChange> changes;
+        synchronized (this) {
+            if(compositeDepth > 0 || pendingChanges.isEmpty()) {
+                return;
+            }
+            changes = Collections.unmodifiableList(pendingChanges);
+            pendingChanges = new ArrayList<>();
+        }
+        logger.debug("Delivering {} coalesced changes to {} listeners", changes.size(), coalescedListeners.size());
+        for(OWLOntologyChangeListener listener : coalescedListeners) {
+            deliver(listener, changes);
+        }
+    }
+
+    private void deliver(OWLOntologyChangeListener listener, List<? extends OWLOntologyChange> changes) {
+        long start = System.nanoTime();
+        try {
+            listener.ontologiesChanged(changes);
+        } catch (Throwable t) {
+            logger.warn("An ontology change listener ({}) threw an exception: {}",
+                        listener.getClass().getName(), t.getMessage(), t);
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            listenerManager.recordListenerTiming(listener, elapsed);
+            if(TimeUnit.NANOSECONDS.toMillis(elapsed) > SLOW_LISTENER_THRESHOLD_MS) {
+                logger.debug("Ontology change listener {} took {} ms to handle {} changes",
+                             listener.getClass().getName(), TimeUnit.NANOSECONDS.toMillis(elapsed), changes.size());
+            }
+        }
+    }
+}
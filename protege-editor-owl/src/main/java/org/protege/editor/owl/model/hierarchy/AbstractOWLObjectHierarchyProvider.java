@@ -1,11 +1,12 @@
 package org.protege.editor.owl.model.hierarchy;
 
-import org.semanticweb.owlapi.model.OWLObject;
-import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.semanticweb.owlapi.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Predicate;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -38,7 +39,18 @@ public abstract class AbstractOWLObjectHierarchyProvider<N extends OWLObject> im
 
     private OWLOntologyManager manager;
 
-    private Predicate<N> filter = n -> true;
+    private volatile Predicate<N> filter = n -> true;
+
+    /*
+     * Child counts, for providers that cache them.  An entry is removed when its node changes, and all entries are
+     * removed when the hierarchy (or the filter) changes.  When a node changes, its count is recomputed once and
+     * published to the listeners with the change (which also puts it back in the cache), so that views need not ask
+     * for it again.  Other counts are computed lazily, by the first reader that asks for them.  The generation is
+     * incremented on each removal, so that a count that was computed whilst its node was changing is not kept.
+     */
+    private final Map<N, Integer> childCounts = new ConcurrentHashMap<>();
+
+    private final AtomicLong childCountGeneration = new AtomicLong();
 
     /*
      * If you expect this or any of its subclasses to be thread safe it must be a WriteSafeOWLOntologyManager.
@@ -129,6 +141,62 @@ public abstract class AbstractOWLObjectHierarchyProvider<N extends OWLObject> im
         return Collections.emptySet();
     }
 
+    @Override
+    public int getChildCount(N object) {
+        if (!isChildCountCached()) {
+            return getChildren(object).size();
+        }
+        Integer cachedCount = childCounts.get(object);
+        if (cachedCount != null) {
+            return cachedCount;
+        }
+        long generation = childCountGeneration.get();
+        int count = getChildren(object).size();
+        childCounts.put(object, count);
+        if (childCountGeneration.get() != generation) {
+            childCounts.remove(object);
+        }
+        return count;
+    }
+
+    /**
+     * Determines whether child counts are cached.  Caching is only correct for providers that fire a node changed
+     * event for every node whose (filtered) children change, and a hierarchy changed event when the whole hierarchy
+     * changes.  Since hierarchy views filter out deprecated nodes, this includes the parents of nodes whose
+     * deprecation changes (see {@link #getParentsOfNodesWithChangedDeprecation(List)}).  By default counts are not
+     * cached.
+     */
+    protected boolean isChildCountCached() {
+        return false;
+    }
+
+    /**
+     * Gets the node of this hierarchy that has the specified IRI.  This is used to find the nodes that annotation
+     * assertions are about.  By default there is no such node.
+     */
+    protected Optional<N> getNode(IRI iri) {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the parents of the nodes whose deprecation is changed by the specified changes.  A deprecated node may be
+     * hidden by the filter, so the filtered children of its parents change even though no hierarchy axiom has
+     * changed.  This must be called after the changes have been applied to the hierarchy's state.
+     */
+    protected Set<N> getParentsOfNodesWithChangedDeprecation(List<? extends OWLOntologyChange> changes) {
+        Set<N> parents = new HashSet<>();
+        for (OWLOntologyChange change : changes) {
+            if (!change.isAxiomChange() || !(change.getAxiom() instanceof OWLAnnotationAssertionAxiom)) {
+                continue;
+            }
+            OWLAnnotationAssertionAxiom ax = (OWLAnnotationAssertionAxiom) change.getAxiom();
+            if (ax.getProperty().isDeprecated() && ax.getSubject() instanceof IRI) {
+                getNode((IRI) ax.getSubject()).ifPresent(node -> parents.addAll(getParents(node)));
+            }
+        }
+        return parents;
+    }
+
     public Set<N> getDescendants(N object) {
 //    	getReadLock().lock();
         try {
@@ -231,12 +299,25 @@ public abstract class AbstractOWLObjectHierarchyProvider<N extends OWLObject> im
     }
 
     protected void fireNodeChanged(N node) {
+        childCountGeneration.incrementAndGet();
+        childCounts.remove(node);
         if (!fireEvents) {
             return;
         }
-        for (OWLObjectHierarchyProviderListener<N> listener : getListeners()) {
+        List<OWLObjectHierarchyProviderListener<N>> listeners = getListeners();
+        if (listeners.isEmpty()) {
+            return;
+        }
+        // Counts are only published when they are kept current, otherwise a listener could hold on to a stale count
+        int childCount = isChildCountCached() ? getChildCount(node) : -1;
+        for (OWLObjectHierarchyProviderListener<N> listener : listeners) {
             try {
-                listener.nodeChanged(node);
+                if (childCount != -1) {
+                    listener.nodeChanged(node, childCount);
+                }
+                else {
+                    listener.nodeChanged(node);
+                }
             } catch (Throwable e) {
                 e.printStackTrace();
                 logger.error("{}: Listener {} has thrown an exception.  Removing bad listener.",
@@ -250,6 +331,8 @@ public abstract class AbstractOWLObjectHierarchyProvider<N extends OWLObject> im
 
 
     protected void fireHierarchyChanged() {
+        childCountGeneration.incrementAndGet();
+        childCounts.clear();
         if (!fireEvents) {
             return;
         }
@@ -1,12 +1,10 @@
 package org.protege.editor.owl.model.hierarchy;
 
+import com.google.common.collect.ImmutableSet;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.search.EntitySearcher;
 
 import java.util.*;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 
 
 /**
@@ -14,36 +12,34 @@ import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
  * The University Of Manchester<br>
  * Bio-Health Informatics Group<br>
  * Date: 23-Jan-2007<br><br>
+ * <p>
+ * The hierarchy may be queried from any number of threads at the same time.  Queries do not take any locks: the set
+ * of ontologies and the set of properties that are direct children of the root are immutable once published, and
+ * are replaced (under a lock) when the ontologies are set or changed.  Child counts are cached, and the cached
+ * count of a property is discarded when it is notified as changed.
+ * </p>
  */
 public abstract class AbstractOWLPropertyHierarchyProvider<R extends OWLPropertyRange, E extends OWLPropertyExpression, P extends E> extends AbstractOWLObjectHierarchyProvider<P> {
 
 //    private static final Logger logger = LoggerFactory.getLogger(AbstractOWLPropertyHierarchyProvider.class);
 
-    private ReadLock ontologySetReadLock;
-
-    private WriteLock ontologySetWriteLock;
-
     /*
-     * The ontologies variable is protected by the ontologySetReadLock and the ontologySetWriteLock.
-     * These locks are always taken and held inside of the getReadLock() and getWriteLock()'s for the
-     * OWL Ontology Manager.  This is necessary because when the set of ontologies changes, everything
-     * about this class changes.  So when the set of ontologies is changed we need to make sure that nothing
-     * else is running.
+     * The lock is held whilst the ontologies and the sub properties of the root are being replaced.  Neither set
+     * is modified after it has been published.
      */
-    private Set<OWLOntology> ontologies;
+    private final Object lock = new Object();
+
+    private volatile Set<OWLOntology> ontologies;
 
-    private Set<P> subPropertiesOfRoot;
+    private volatile ImmutableSet<P> subPropertiesOfRoot;
 
     private OWLOntologyChangeListener listener;
 
 
     public AbstractOWLPropertyHierarchyProvider(OWLOntologyManager owlOntologyManager) {
         super(owlOntologyManager);
-        this.subPropertiesOfRoot = new HashSet<>();
+        this.subPropertiesOfRoot = ImmutableSet.of();
         ontologies = new FakeSet<>();
-        ReentrantReadWriteLock locks = new ReentrantReadWriteLock();
-        ontologySetReadLock = locks.readLock();
-        ontologySetWriteLock = locks.writeLock();
         listener = this::handleChanges;
         owlOntologyManager.addOntologyChangeListener(listener);
     }
@@ -55,34 +51,40 @@ public abstract class AbstractOWLPropertyHierarchyProvider<R extends OWLProperty
     }
 
 
-    /*
-     * This call holds the write lock so no other thread can hold the either the OWL ontology 
-     * manager read or write locks or the ontologies 
-     */
     private void handleChanges(List<? extends OWLOntologyChange> changes) {
-        Set<P> properties = new HashSet<>(getPropertiesReferencedInChange(changes));
-        for (P prop : properties) {
-            if (isSubPropertyOfRoot(prop)) {
-                subPropertiesOfRoot.add(prop);
-                fireNodeChanged(getRoot());
-            }
-            else {
-                if (getAncestors(prop).contains(prop)) {
+        Set<P> nodesToUpdate = new LinkedHashSet<>();
+        synchronized (lock) {
+            Set<P> subPropertiesOfRoot = new HashSet<>(this.subPropertiesOfRoot);
+            Set<P> properties = new HashSet<>(getPropertiesReferencedInChange(changes));
+            for (P prop : properties) {
+                if (isSubPropertyOfRoot(prop)) {
                     subPropertiesOfRoot.add(prop);
-                    getAncestors(prop).stream()
-                            .filter(anc -> getAncestors(anc).contains(prop))
-                            .forEach(anc -> {
-                                subPropertiesOfRoot.add(anc);
-                                fireNodeChanged(anc);
-                            });
+                    nodesToUpdate.add(getRoot());
                 }
                 else {
-                    subPropertiesOfRoot.remove(prop);
+                    if (getAncestors(prop).contains(prop)) {
+                        subPropertiesOfRoot.add(prop);
+                        getAncestors(prop).stream()
+                                .filter(anc -> getAncestors(anc).contains(prop))
+                                .forEach(anc -> {
+                                    subPropertiesOfRoot.add(anc);
+                                    nodesToUpdate.add(anc);
+                                });
+                    }
+                    else {
+                        subPropertiesOfRoot.remove(prop);
+                    }
                 }
+                nodesToUpdate.add(prop);
             }
-            fireNodeChanged(prop);
+            nodesToUpdate.add(getRoot());
+            this.subPropertiesOfRoot = ImmutableSet.copyOf(subPropertiesOfRoot);
+        }
+        nodesToUpdate.addAll(getParentsOfNodesWithChangedDeprecation(changes));
+        // Listeners are notified after the new sub properties of the root have been published
+        for (P node : nodesToUpdate) {
+            fireNodeChanged(node);
         }
-        fireNodeChanged(getRoot());
     }
 
 
@@ -114,7 +116,7 @@ public abstract class AbstractOWLPropertyHierarchyProvider<R extends OWLProperty
 
 
     private void rebuildRoots() {
-        subPropertiesOfRoot.clear();
+        Set<P> subPropertiesOfRoot = new HashSet<>();
         for (OWLOntology ontology : ontologies) {
             for (P prop : getReferencedProperties(ontology)) {
                 if (isSubPropertyOfRoot(prop)) {
@@ -122,6 +124,7 @@ public abstract class AbstractOWLPropertyHierarchyProvider<R extends OWLProperty
                 }
             }
         }
+        this.subPropertiesOfRoot = ImmutableSet.copyOf(subPropertiesOfRoot);
     }
 
 
@@ -145,6 +148,12 @@ public abstract class AbstractOWLPropertyHierarchyProvider<R extends OWLProperty
     protected abstract P getRoot();
 
 
+    @Override
+    protected boolean isChildCountCached() {
+        return true;
+    }
+
+
     /**
      * Gets the objects that represent the roots of the hierarchy.
      */
@@ -158,116 +167,84 @@ public abstract class AbstractOWLPropertyHierarchyProvider<R extends OWLProperty
      * in order to determine the hierarchy.
      */
     final public void setOntologies(Set<OWLOntology> ontologies) {
-//    	getReadLock().lock();
-        ontologySetWriteLock.lock();
-        try {
-            this.ontologies.clear();
-            this.ontologies.addAll(ontologies);
+        synchronized (lock) {
+            Set<OWLOntology> ontologySet = new FakeSet<>();
+            ontologySet.addAll(ontologies);
+            this.ontologies = ontologySet;
             rebuildRoots();
-            fireHierarchyChanged();
-        } finally {
-            ontologySetWriteLock.unlock();
-//    		getReadLock().unlock();
         }
+        fireHierarchyChanged();
     }
 
 
     public boolean containsReference(P object) {
-//    	getReadLock().lock();
-        ontologySetReadLock.lock();
-        try {
-            for (OWLOntology ont : ontologies) {
-                if (getReferencedProperties(ont).contains(object)) {
-                    return true;
-                }
+        for (OWLOntology ont : ontologies) {
+            if (getReferencedProperties(ont).contains(object)) {
+                return true;
             }
-            return false;
-        } finally {
-            ontologySetReadLock.unlock();
-//    		getReadLock().unlock();
         }
+        return false;
     }
 
 
     public Set<P> getUnfilteredChildren(P object) {
-//    	getReadLock().lock();
-        ontologySetReadLock.lock();
-        try {
-            if (object.equals(getRoot())) {
-                return Collections.unmodifiableSet(subPropertiesOfRoot);
-            }
+        if (object.equals(getRoot())) {
+            return subPropertiesOfRoot;
+        }
 
-            final Set<P> result = new HashSet<>();
-            for (E subProp : getSubProperties(object, ontologies)) {
-                // Don't add the sub property if it is a parent of
-                // itself - i.e. prevent cycles
-                if (!subProp.isAnonymous() &&
-                        !getAncestors((P) subProp).contains(subProp)) {
-                    result.add((P) subProp);
-                }
+        final Set<P> result = new HashSet<>();
+        for (E subProp : getSubProperties(object, ontologies)) {
+            // Don't add the sub property if it is a parent of
+            // itself - i.e. prevent cycles
+            if (!subProp.isAnonymous() &&
+                    !getAncestors((P) subProp).contains(subProp)) {
+                result.add((P) subProp);
             }
-            return result;
-        } finally {
-            ontologySetReadLock.unlock();
-//    		getReadLock().unlock();
         }
+        return result;
     }
 
     protected abstract Collection<P> getSubProperties(P object, Set<OWLOntology> ontologies);
 
 
     public Set<P> getEquivalents(P object) {
-//    	getReadLock().lock();
-        ontologySetReadLock.lock();
-        try {
-            Set<P> result = new HashSet<>();
-            Set<P> ancestors = getAncestors(object);
-            if (ancestors.contains(object)) {
-                for (P anc : ancestors) {
-                    if (getAncestors(anc).contains(object)) {
-                        result.add(anc);
-                    }
+        Set<P> result = new HashSet<>();
+        Set<P> ancestors = getAncestors(object);
+        if (ancestors.contains(object)) {
+            for (P anc : ancestors) {
+                if (getAncestors(anc).contains(object)) {
+                    result.add(anc);
                 }
             }
+        }
 
-            for (E prop : EntitySearcher.getEquivalentProperties(object, ontologies)) {
-                if (!prop.isAnonymous()) {
-                    result.add((P) prop);
-                }
+        for (E prop : EntitySearcher.getEquivalentProperties(object, ontologies)) {
+            if (!prop.isAnonymous()) {
+                result.add((P) prop);
             }
-
-            result.remove(object);
-            return result;
-        } finally {
-            ontologySetReadLock.unlock();
-//    		getReadLock().unlock();
         }
+
+        result.remove(object);
+        return result;
     }
 
 
     public Set<P> getParents(P object) {
-//    	getReadLock().lock();
-        ontologySetReadLock.lock();
-        try {
-            if (object.equals(getRoot())) {
-                return Collections.emptySet();
-            }
+        if (object.equals(getRoot())) {
+            return Collections.emptySet();
+        }
 
-            Set<P> result = new HashSet<>();
-            for (E prop : getSuperProperties(object, ontologies)) {
-                if (!prop.isAnonymous()) {
-                    result.add((P) prop);
-                }
+        Set<P> result = new HashSet<>();
+        for (E prop : getSuperProperties(object, ontologies)) {
+            if (!prop.isAnonymous()) {
+                result.add((P) prop);
             }
-            if (result.isEmpty() && isReferenced(object)) {
-                result.add(getRoot());
-            }
-
-            return result;
-        } finally {
-            ontologySetReadLock.unlock();
-//    		getReadLock().unlock();
         }
+        if (result.isEmpty() && isReferenced(object)) {
+            result.add(getRoot());
+        }
+
+        return result;
     }
 
     protected abstract Collection<P> getSuperProperties(P subProperty, Set<OWLOntology> ontologies);
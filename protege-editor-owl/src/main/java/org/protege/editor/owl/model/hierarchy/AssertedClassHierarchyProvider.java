@@ -1,5 +1,6 @@
 package org.protege.editor.owl.model.hierarchy;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.protege.owlapi.inference.cls.ChildClassExtractor;
 import org.protege.owlapi.inference.cls.ParentClassExtractor;
@@ -10,9 +11,6 @@ import org.semanticweb.owlapi.search.EntitySearcher;
 
 import javax.annotation.Nonnull;
 import java.util.*;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock.WriteLock;
 import java.util.stream.Collectors;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -23,97 +21,90 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * The University Of Manchester<br>
  * Bio-Health Informatics Group<br>
  * Date: 17-Jan-2007<br><br>
+ * <p>
+ * The hierarchy may be queried from any number of threads at the same time.  Queries do not take any locks: they
+ * read an immutable snapshot of the ontologies and the implicit roots of the hierarchy, which is replaced (under a
+ * lock) when the ontologies are set or changed, and they use their own axiom visitors to extract parents and
+ * children.  Child counts are cached, and the cached count of a class is discarded when it is notified as
+ * changed.  The parents of a class are notified when its deprecation changes, since views filter out deprecated
+ * classes.
+ * </p>
  */
 public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyProvider<OWLClass> {
 
-    private final OWLOntologyManager owlOntologyManager;
-
-    private final ReadLock ontologySetReadLock;
-
-    private final WriteLock ontologySetWriteLock;
+    private final OWLClass root;
 
     /*
-     * The ontologies variable is protected by the ontologySetReadLock and the ontologySetWriteLock.
-     * These locks are always taken and held inside of the getReadLock() and getWriteLock()'s for the
-     * OWL Ontology Manager.  This is necessary because when the set of ontologies changes, everything
-     * about this class changes.  So when the set of ontologies is changed we need to make sure that nothing
-     * else is running.
+     * The lock is held whilst the state is being recomputed (when the set of ontologies is set or an ontology
+     * changes).  The root finder and the writer ontologies are only used whilst holding it.
      */
+    private final Object lock = new Object();
+
     /*
      * It is not safe to set the collection of ontologies to a HashSet or TreeSet.  
      * When an ontology changes name it gets a new Hash Code and it is sorted 
      * differently, so these Collections do not work.
      */
-    private final Collection<OWLOntology> ontologies = new ArrayList<>();
+    private ImmutableList<OWLOntology> writerOntologies = ImmutableList.of();
 
-    private volatile OWLClass root;
+    private volatile HierarchyState state = new HierarchyState(ImmutableList.of(), ImmutableSet.of());
 
-    private final ParentClassExtractor parentClassExtractor;
+    private volatile ImmutableSet<OWLObjectProperty> displayedRelationships = ImmutableSet.of();
 
-    private final ChildClassExtractor childClassExtractor;
+    /*
+     * The children (and the relationships that they are children by) that were last extracted by each thread, which
+     * are used to answer getRelationship calls that follow getChildren calls for the same parent.
+     */
+    private final ThreadLocal<ChildClassExtractor> lastChildClassExtractor = new ThreadLocal<>();
 
     private final OWLOntologyChangeListener listener;
 
     private final TerminalElementFinder<OWLClass> rootFinder;
 
-    private final Set<OWLClass> nodesToUpdate = new HashSet<>();
-
     public AssertedClassHierarchyProvider(@Nonnull OWLOntologyManager owlOntologyManager) {
         super(owlOntologyManager);
-        this.owlOntologyManager = checkNotNull(owlOntologyManager);
-        ReentrantReadWriteLock locks = new ReentrantReadWriteLock();
-        ontologySetReadLock = locks.readLock();
-        ontologySetWriteLock = locks.writeLock();
-        rootFinder = new TerminalElementFinder<>(cls -> {
-            Collection<OWLClass> parents = getParents(cls);
-            parents.remove(root);
-            return parents;
-        });
-        parentClassExtractor = new ParentClassExtractor();
-        childClassExtractor = new ChildClassExtractor();
+        root = checkNotNull(owlOntologyManager).getOWLDataFactory().getOWLThing();
+        rootFinder = new TerminalElementFinder<>(this::getNamedParentsForRootFinder);
         listener = this::handleChanges;
         getManager().addOntologyChangeListener(listener);
     }
 
+    /*
+     * Only called by the root finder, whilst holding the lock
+     */
+    private Collection<OWLClass> getNamedParentsForRootFinder(OWLClass cls) {
+        if (cls.equals(root) || rootFinder.getTerminalElements().contains(cls)) {
+            return Collections.emptySet();
+        }
+        Collection<OWLClass> parents = extractParents(cls, writerOntologies);
+        parents.remove(root);
+        return parents;
+    }
+
     /**
      * Sets the ontologies that this hierarchy provider should use
      * in order to determine the hierarchy.
      */
     public void setOntologies(Set<OWLOntology> ontologies) {
-        ontologySetWriteLock.lock();
-        try {
-            /*
-    		 * It is not safe to set the collection of ontologies to a HashSet or TreeSet.  
-    		 * When an ontology changes name it gets a new Hash Code and it is sorted 
-    		 * differently, so these Collections do not work.
-    		 */
-            this.ontologies.clear();
-            this.ontologies.addAll(ontologies);
-//            ImmutableSet<OWLObjectProperty> props = ImmutableSet.copyOf(ontologies.stream().flatMap(o -> o.getObjectPropertiesInSignature().stream()).collect(toSet()));
-//            childClassExtractor.setRelationshipProperties(props);
-            nodesToUpdate.clear();
-            if (root == null) {
-                root = owlOntologyManager.getOWLDataFactory().getOWLThing();
-            }
+        synchronized (lock) {
+            writerOntologies = ImmutableList.copyOf(ontologies);
             rebuildImplicitRoots();
-            fireHierarchyChanged();
-        } finally {
-            ontologySetWriteLock.unlock();
+            publishState();
         }
+        fireHierarchyChanged();
     }
 
     private void rebuildImplicitRoots() {
-        ontologySetReadLock.lock();
-        try {
-            rootFinder.clear();
-            for (OWLOntology ont : ontologies) {
-                Set<OWLClass> ref = ont.getClassesInSignature();
-                rootFinder.appendTerminalElements(ref);
-            }
-            rootFinder.finish();
-        } finally {
-            ontologySetReadLock.unlock();
+        rootFinder.clear();
+        for (OWLOntology ont : writerOntologies) {
+            Set<OWLClass> ref = ont.getClassesInSignature();
+            rootFinder.appendTerminalElements(ref);
         }
+        rootFinder.finish();
+    }
+
+    private void publishState() {
+        state = new HierarchyState(writerOntologies, ImmutableSet.copyOf(rootFinder.getTerminalElements()));
     }
 
     public void dispose() {
@@ -121,45 +112,53 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
     }
 
 
-    /*
-     * This call holds the write lock so no other thread can hold the either the OWL ontology 
-     * manager read or write locks or the ontologies 
-     */
     private void handleChanges(List<? extends OWLOntologyChange> changes) {
-        Set<OWLClass> oldTerminalElements = new HashSet<>(rootFinder.getTerminalElements());
-        Set<OWLClass> changedClasses = new HashSet<>();
-        changedClasses.add(root);
-        List<OWLAxiomChange> filteredChanges = filterIrrelevantChanges(changes);
-        updateImplicitRoots(filteredChanges);
-        for (OWLOntologyChange change : filteredChanges) {
-            changedClasses.addAll(
-                    change.getSignature().stream()
-                    .filter(entity -> entity instanceof OWLClass)
-                    .filter(entity -> !entity.equals(root))
-                    .map(entity -> (OWLClass) entity)
-                    .collect(Collectors.toList()));
-        }
-        for (OWLClass cls : changedClasses) {
-            registerNodeChanged(cls);
-        }
-        for (OWLClass cls : rootFinder.getTerminalElements()) {
-            if (!oldTerminalElements.contains(cls)) {
-                registerNodeChanged(cls);
+        Set<OWLClass> nodesToUpdate = new HashSet<>();
+        synchronized (lock) {
+            List<OWLAxiomChange> filteredChanges = filterIrrelevantChanges(changes);
+            Set<OWLClass> oldTerminalElements = new HashSet<>(rootFinder.getTerminalElements());
+            nodesToUpdate.add(root);
+            updateImplicitRoots(filteredChanges);
+            for (OWLOntologyChange change : filteredChanges) {
+                nodesToUpdate.addAll(
+                        change.getSignature().stream()
+                        .filter(entity -> entity instanceof OWLClass)
+                        .filter(entity -> !entity.equals(root))
+                        .map(entity -> (OWLClass) entity)
+                        .collect(Collectors.toList()));
+                // Named equivalent classes of a child are also children, so the parents of classes in an
+                // equivalent classes axiom gain or lose children
+                if (change.getAxiom() instanceof OWLEquivalentClassesAxiom) {
+                    for (OWLClass cls : ((OWLEquivalentClassesAxiom) change.getAxiom()).getNamedClasses()) {
+                        nodesToUpdate.addAll(extractParents(cls, writerOntologies));
+                    }
+                }
             }
-        }
-        for (OWLClass cls : oldTerminalElements) {
-            if (!rootFinder.getTerminalElements().contains(cls)) {
-                registerNodeChanged(cls);
+            Set<OWLClass> terminalElements = rootFinder.getTerminalElements();
+            for (OWLClass cls : terminalElements) {
+                if (!oldTerminalElements.contains(cls)) {
+                    nodesToUpdate.add(cls);
+                }
             }
+            for (OWLClass cls : oldTerminalElements) {
+                if (!terminalElements.contains(cls)) {
+                    nodesToUpdate.add(cls);
+                }
+            }
+            publishState();
+        }
+        nodesToUpdate.addAll(getParentsOfNodesWithChangedDeprecation(changes));
+        // Listeners are notified after the new state has been published, without holding the lock
+        for (OWLClass node : nodesToUpdate) {
+            fireNodeChanged(node);
         }
-        notifyNodeChanges();
     }
 
     private List<OWLAxiomChange> filterIrrelevantChanges(List<? extends OWLOntologyChange> changes) {
         List<OWLAxiomChange> filteredChanges = new ArrayList<>();
         for (OWLOntologyChange change : changes) {
             // only listen for changes on the appropriate ontologies
-            if (ontologies.contains(change.getOntology())) {
+            if (writerOntologies.contains(change.getOntology())) {
                 if (change.isAxiomChange()) {
                     filteredChanges.add((OWLAxiomChange) change);
                 }
@@ -169,42 +168,24 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
     }
 
 
-    private void registerNodeChanged(OWLClass node) {
-        nodesToUpdate.add(node);
-    }
-
-
-    private void notifyNodeChanges() {
-        for (OWLClass node : nodesToUpdate) {
-            fireNodeChanged(node);
-        }
-        nodesToUpdate.clear();
-    }
-
-
     private void updateImplicitRoots(List<OWLAxiomChange> changes) {
         Set<OWLClass> possibleTerminalElements = new HashSet<>();
         Set<OWLClass> notInOntologies = new HashSet<>();
 
-        for (OWLOntologyChange change : changes) {
-            // only listen for changes on the appropriate ontologies
-            if (ontologies.contains(change.getOntology())) {
-                if (change.isAxiomChange()) {
-                    boolean remove = change instanceof RemoveAxiom;
-                    OWLAxiom axiom = change.getAxiom();
-
-                    for (OWLEntity entity : axiom.getSignature()) {
-                        if (!(entity instanceof OWLClass) || entity.equals(root)) {
-                            continue;
-                        }
-                        OWLClass cls = (OWLClass) entity;
-                        if (remove && !containsReference(cls)) {
-                            notInOntologies.add(cls);
-                            continue;
-                        }
-                        possibleTerminalElements.add(cls);
-                    }
+        for (OWLAxiomChange change : changes) {
+            boolean remove = change instanceof RemoveAxiom;
+            OWLAxiom axiom = change.getAxiom();
+
+            for (OWLEntity entity : axiom.getSignature()) {
+                if (!(entity instanceof OWLClass) || entity.equals(root)) {
+                    continue;
+                }
+                OWLClass cls = (OWLClass) entity;
+                if (remove && !containsReference(cls, writerOntologies)) {
+                    notInOntologies.add(cls);
+                    continue;
                 }
+                possibleTerminalElements.add(cls);
             }
         }
 
@@ -213,32 +194,37 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         rootFinder.findTerminalElements(possibleTerminalElements);
     }
 
+    @Override
+    protected boolean isChildCountCached() {
+        return true;
+    }
+
+    @Override
+    protected Optional<OWLClass> getNode(IRI iri) {
+        return Optional.of(getManager().getOWLDataFactory().getOWLClass(iri));
+    }
+
     public Set<OWLClass> getRoots() {
-        if (root == null) {
-            root = owlOntologyManager.getOWLDataFactory().getOWLThing();
-        }
         return Collections.singleton(root);
     }
 
     protected Collection<OWLClass> getUnfilteredChildren(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            if (object.equals(root)) {
-                Set<OWLClass> result = new HashSet<>();
-                result.addAll(rootFinder.getTerminalElements());
-                result.addAll(extractChildren(object));
-                result.remove(object);
-                return result;
-            }
-            else {
-                return extractChildren(object);
-            }
-        } finally {
-            ontologySetReadLock.unlock();
+        HierarchyState state = this.state;
+        if (object.equals(root)) {
+            Set<OWLClass> result = new HashSet<>();
+            result.addAll(state.implicitRoots);
+            result.addAll(extractChildren(object, state.ontologies));
+            result.remove(object);
+            return result;
+        }
+        else {
+            return extractChildren(object, state.ontologies);
         }
     }
 
-    private Collection<OWLClass> extractChildren(OWLClass parent) {
+    private Collection<OWLClass> extractChildren(OWLClass parent, List<OWLOntology> ontologies) {
+        ChildClassExtractor childClassExtractor = new ChildClassExtractor();
+        childClassExtractor.setRelationshipProperties(displayedRelationships);
         childClassExtractor.setCurrentParentClass(parent);
         for (OWLOntology ont : ontologies) {
             for (OWLAxiom ax : ont.getReferencingAxioms(parent)) {
@@ -247,6 +233,7 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
                 }
             }
         }
+        lastChildClassExtractor.set(childClassExtractor);
         // Expand results with synonyms that are given via EquivalentClasses(A B)
         Collection<OWLClass> result = childClassExtractor.getResult();
         Set<OWLClass> synonyms = new HashSet<>();
@@ -267,75 +254,69 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
     }
 
     public boolean containsReference(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            for (OWLOntology ont : ontologies) {
-                if (ont.containsClassInSignature(object.getIRI())) {
-                    return true;
-                }
+        return containsReference(object, state.ontologies);
+    }
+
+    private static boolean containsReference(OWLClass object, List<OWLOntology> ontologies) {
+        for (OWLOntology ont : ontologies) {
+            if (ont.containsClassInSignature(object.getIRI())) {
+                return true;
             }
-            return false;
-        } finally {
-            ontologySetReadLock.unlock();
         }
+        return false;
     }
 
 
     public Set<OWLClass> getParents(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            // If the object is thing then there are no
-            // parents
-            if (object.equals(root)) {
-                return Collections.emptySet();
-            }
-            Set<OWLClass> result = new HashSet<>();
-            // Thing if the object is a root class
-            if (rootFinder.getTerminalElements().contains(object)) {
-                result.add(root);
-                return result;
-            }
-            // Not a root, so must have another parent
-            parentClassExtractor.reset();
-            parentClassExtractor.setCurrentClass(object);
-            for (OWLOntology ont : ontologies) {
-                for (OWLAxiom ax : ont.getAxioms(object, Imports.EXCLUDED)) {
-                    ax.accept(parentClassExtractor);
-                }
-            }
-            result.addAll(parentClassExtractor.getResult());
+        HierarchyState state = this.state;
+        // If the object is thing then there are no
+        // parents
+        if (object.equals(root)) {
+            return Collections.emptySet();
+        }
+        Set<OWLClass> result = new HashSet<>();
+        // Thing if the object is a root class
+        if (state.implicitRoots.contains(object)) {
+            result.add(root);
             return result;
-        } finally {
-            ontologySetReadLock.unlock();
         }
+        // Not a root, so must have another parent
+        result.addAll(extractParents(object, state.ontologies));
+        return result;
+    }
+
+    private static Set<OWLClass> extractParents(OWLClass object, List<OWLOntology> ontologies) {
+        ParentClassExtractor parentClassExtractor = new ParentClassExtractor();
+        parentClassExtractor.setCurrentClass(object);
+        for (OWLOntology ont : ontologies) {
+            for (OWLAxiom ax : ont.getAxioms(object, Imports.EXCLUDED)) {
+                ax.accept(parentClassExtractor);
+            }
+        }
+        return new HashSet<>(parentClassExtractor.getResult());
     }
 
 
     public Set<OWLClass> getEquivalents(OWLClass object) {
-        ontologySetReadLock.lock();
-        try {
-            Set<OWLClass> result = new HashSet<>();
-            for (OWLOntology ont : ontologies) {
-                for (OWLClassExpression equiv : EntitySearcher.getEquivalentClasses(object, ont)) {
-                    if (!equiv.isAnonymous()) {
-                        result.add((OWLClass) equiv);
-                    }
+        Set<OWLClass> result = new HashSet<>();
+        for (OWLOntology ont : state.ontologies) {
+            for (OWLClassExpression equiv : EntitySearcher.getEquivalentClasses(object, ont)) {
+                if (!equiv.isAnonymous()) {
+                    result.add((OWLClass) equiv);
                 }
             }
-            return result;
-        } finally {
-            ontologySetReadLock.unlock();
         }
+        return result;
     }
 
     public void setDisplayedRelationships(Set<OWLObjectProperty> properties) {
-        this.childClassExtractor.setRelationshipProperties(ImmutableSet.copyOf(properties));
+        this.displayedRelationships = ImmutableSet.copyOf(properties);
         fireHierarchyChanged();
     }
 
     @Override
     public Set<?> getDisplayedRelationships() {
-        return childClassExtractor.getRelationships();
+        return displayedRelationships;
     }
 
     @Override
@@ -343,12 +324,33 @@ public class AssertedClassHierarchyProvider extends AbstractOWLObjectHierarchyPr
         if(parent.isOWLThing()) {
             return Optional.empty();
         }
-        if(childClassExtractor.getRelationships().isEmpty()) {
+        ImmutableSet<OWLObjectProperty> relationships = displayedRelationships;
+        if(relationships.isEmpty()) {
             return Optional.empty();
         }
-        if (childClassExtractor.getCurrentParentClass().equals(Optional.of(parent))) {
-            extractChildren(parent);
+        ChildClassExtractor childClassExtractor = lastChildClassExtractor.get();
+        if (childClassExtractor == null
+                || !childClassExtractor.getCurrentParentClass().equals(Optional.of(parent))
+                || !childClassExtractor.getRelationships().equals(relationships)) {
+            extractChildren(parent, state.ontologies);
+            childClassExtractor = lastChildClassExtractor.get();
         }
         return childClassExtractor.getRelationship(child);
     }
+
+    /**
+     * An immutable snapshot of the ontologies and the implicit roots (the classes that are children of
+     * owl:Thing because they have no other named parents).
+     */
+    private static class HierarchyState {
+
+        private final ImmutableList<OWLOntology> ontologies;
+
+        private final ImmutableSet<OWLClass> implicitRoots;
+
+        private HierarchyState(ImmutableList<OWLOntology> ontologies, ImmutableSet<OWLClass> implicitRoots) {
+            this.ontologies = ontologies;
+            this.implicitRoots = implicitRoots;
+        }
+    }
 }
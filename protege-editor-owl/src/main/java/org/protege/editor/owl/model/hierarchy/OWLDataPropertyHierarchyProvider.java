@@ -21,6 +21,12 @@ public class OWLDataPropertyHierarchyProvider extends AbstractOWLPropertyHierarc
     }
 
 
+    @Override
+    protected Optional<OWLDataProperty> getNode(IRI iri) {
+        return Optional.of(getManager().getOWLDataFactory().getOWLDataProperty(iri));
+    }
+
+
     protected Set<OWLDataProperty> getPropertiesReferencedInChange(List<? extends OWLOntologyChange> changes) {
         Set<OWLDataProperty> result = new HashSet<>();
         for (OWLOntologyChange change : changes) {
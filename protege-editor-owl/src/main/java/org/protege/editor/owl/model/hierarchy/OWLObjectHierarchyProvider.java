@@ -39,6 +39,25 @@ public interface OWLObjectHierarchyProvider<N extends OWLObject> extends Disposa
     Set<N> getChildren(N object);
 
 
+    /**
+     * Gets the number of children of the specified object (the size of the set returned by
+     * {@link #getChildren(OWLObject)}).  Providers that keep child counts up to date as the hierarchy changes
+     * answer this without extracting the children.
+     */
+    default int getChildCount(N object) {
+        return getChildren(object).size();
+    }
+
+
+    /**
+     * Determines whether the specified object has any children.
+     * @see #getChildCount(OWLObject)
+     */
+    default boolean hasChildren(N object) {
+        return getChildCount(object) > 0;
+    }
+
+
     Set<N> getDescendants(N object);
 
 
@@ -51,9 +70,33 @@ public interface OWLObjectHierarchyProvider<N extends OWLObject> extends Disposa
     Set<N> getEquivalents(N object);
 
 
+    /**
+     * Gets all of the paths from the roots of the hierarchy to the specified object.  Each path starts with a root
+     * and ends with the object.  In a deep polyhierarchy there may be very many paths; use
+     * {@link #getPathsToRoot(OWLObject, int)} when only some of them are needed.
+     */
     Set<List<N>> getPathsToRoot(N object);
 
 
+    /**
+     * Gets at most the specified number of paths from the roots of the hierarchy to the specified object.  Each path
+     * starts with a root and ends with the object.  The first path is a shortest path.  Only the paths that are
+     * returned are computed.
+     * @param object The object.
+     * @param maxPathCount The maximum number of paths to return.
+     * @return A list of paths, which is empty if the object is not in the hierarchy.
+     * @see PathsToRootIterator
+     */
+    default List<List<N>> getPathsToRoot(N object, int maxPathCount) {
+        List<List<N>> paths = new ArrayList<>();
+        Iterator<List<N>> iterator = new PathsToRootIterator<>(this, object);
+        while (paths.size() < maxPathCount && iterator.hasNext()) {
+            paths.add(iterator.next());
+        }
+        return paths;
+    }
+
+
     boolean containsReference(N object);
 
 
@@ -22,6 +22,20 @@ public interface OWLObjectHierarchyProviderListener<N extends OWLObject> {
     public void nodeChanged(N node);
 
 
+    /**
+     * Notifies the listener that the parents and or children of the specified node might have changed, and gives
+     * the number of children that the node now has.  This is called instead of {@link #nodeChanged(OWLObject)} by
+     * providers that keep their child counts up to date as the hierarchy changes, so the count stays current until
+     * the node is changed again (or the hierarchy changes).  By default the count is ignored.
+     * @param node The node.
+     * @param childCount The number of children of the node, as given by
+     *                   {@link OWLObjectHierarchyProvider#getChildCount(OWLObject)}.
+     */
+    default void nodeChanged(N node, int childCount) {
+        nodeChanged(node);
+    }
+
+
     /**
      * Notifies the listener that the complete hierarchy
      * has changed.
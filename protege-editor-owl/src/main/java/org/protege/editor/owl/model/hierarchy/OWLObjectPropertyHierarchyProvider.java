@@ -21,6 +21,12 @@ public class OWLObjectPropertyHierarchyProvider extends AbstractOWLPropertyHiera
     }
 
 
+    @Override
+    protected Optional<OWLObjectProperty> getNode(IRI iri) {
+        return Optional.of(getManager().getOWLDataFactory().getOWLObjectProperty(iri));
+    }
+
+
     protected Set<OWLObjectProperty> getPropertiesReferencedInChange(List<? extends OWLOntologyChange> changes) {
         Set<OWLObjectProperty> properties = new HashSet<>();
         for (OWLOntologyChange change : changes) {
@@ -0,0 +1,164 @@
+package org.protege.editor.owl.model.hierarchy;
+
+import org.semanticweb.owlapi.model.OWLObject;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Lazily enumerates the paths from the roots of a hierarchy to an object.  Each path is a list that starts with a
+ * root and ends with the object, as for {@link OWLObjectHierarchyProvider#getPathsToRoot(OWLObject)}.
+ * <p>
+ * When the iterator is created, the parents of each ancestor of the object are retrieved once, and the distance
+ * from each ancestor to its nearest root is computed from them.  Paths are then enumerated depth first, following
+ * the parents that are nearest to a root first, so the first path is a shortest path.  Only the current path is held
+ * in memory, and each further path is found by backtracking from the previous one, so callers can take a few paths
+ * from a polyhierarchy that has exponentially many without enumerating them all.  Ancestors that cannot reach a root
+ * are never followed, and a path never visits an object twice.
+ * </p>
+ */
+public class PathsToRootIterator<N extends OWLObject> implements Iterator<List<N>> {
+
+    private final Set<N> roots;
+
+    private final Map<N, List<N>> parentsNearestRootFirst = new HashMap<>();
+
+    private final Deque<Frame<N>> path = new ArrayDeque<>();
+
+    private final Set<N> objectsOnPath = new HashSet<>();
+
+    private List<N> next;
+
+    public PathsToRootIterator(@Nonnull OWLObjectHierarchyProvider<N> provider, @Nonnull N object) {
+        checkNotNull(provider);
+        checkNotNull(object);
+        roots = new HashSet<>(provider.getRoots());
+        Map<N, Integer> distances = computeDistancesToRoots(provider, object);
+        if (distances.containsKey(object)) {
+            push(object);
+        }
+        next = findNext();
+    }
+
+    /**
+     * Retrieves the parents of the object and of its ancestors (stopping at roots), and computes the distance from
+     * each of them to its nearest root with a breadth first search down from the roots.
+     */
+    private Map<N, Integer> computeDistancesToRoots(OWLObjectHierarchyProvider<N> provider, N object) {
+        Map<N, Set<N>> parents = new HashMap<>();
+        Map<N, List<N>> children = new HashMap<>();
+        Deque<N> toVisit = new ArrayDeque<>();
+        toVisit.add(object);
+        while (!toVisit.isEmpty()) {
+            N current = toVisit.poll();
+            if (parents.containsKey(current)) {
+                continue;
+            }
+            Set<N> currentParents = roots.contains(current) ? Collections.emptySet() : provider.getParents(current);
+            parents.put(current, currentParents);
+            for (N parent : currentParents) {
+                children.computeIfAbsent(parent, p -> new ArrayList<>()).add(current);
+                toVisit.add(parent);
+            }
+        }
+        Map<N, Integer> distances = new HashMap<>();
+        Deque<N> queue = new ArrayDeque<>();
+        for (N ancestor : parents.keySet()) {
+            if (roots.contains(ancestor)) {
+                distances.put(ancestor, 0);
+                queue.add(ancestor);
+            }
+        }
+        while (!queue.isEmpty()) {
+            N current = queue.poll();
+            int childDistance = distances.get(current) + 1;
+            for (N child : children.getOrDefault(current, Collections.emptyList())) {
+                if (!distances.containsKey(child)) {
+                    distances.put(child, childDistance);
+                    queue.add(child);
+                }
+            }
+        }
+        for (Map.Entry<N, Set<N>> entry : parents.entrySet()) {
+            List<N> reachableParents = new ArrayList<>();
+            for (N parent : entry.getValue()) {
+                if (distances.containsKey(parent)) {
+                    reachableParents.add(parent);
+                }
+            }
+            reachableParents.sort(Comparator.comparing(distances::get));
+            parentsNearestRootFirst.put(entry.getKey(), reachableParents);
+        }
+        return distances;
+    }
+
+    private void push(N object) {
+        path.push(new Frame<>(object, parentsNearestRootFirst.get(object)));
+        objectsOnPath.add(object);
+    }
+
+    private List<N> findNext() {
+        while (!path.isEmpty()) {
+            Frame<N> top = path.peek();
+            if (roots.contains(top.object)) {
+                if (!top.visited) {
+                    top.visited = true;
+                    List<N> result = new ArrayList<>(path.size());
+                    for (Frame<N> frame : path) {
+                        result.add(frame.object);
+                    }
+                    return result;
+                }
+            }
+            else {
+                while (top.nextParentIndex < top.parents.size()) {
+                    N parent = top.parents.get(top.nextParentIndex);
+                    top.nextParentIndex++;
+                    if (!objectsOnPath.contains(parent)) {
+                        push(parent);
+                        break;
+                    }
+                }
+                if (path.peek() != top) {
+                    continue;
+                }
+            }
+            path.pop();
+            objectsOnPath.remove(top.object);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public List<N> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+        List<N> result = next;
+        next = findNext();
+        return result;
+    }
+
+    private static class Frame<N> {
+
+        private final N object;
+
+        private final List<N> parents;
+
+        private int nextParentIndex = 0;
+
+        private boolean visited = false;
+
+        private Frame(N object, List<N> parents) {
+            this.object = object;
+            this.parents = parents;
+        }
+    }
+}
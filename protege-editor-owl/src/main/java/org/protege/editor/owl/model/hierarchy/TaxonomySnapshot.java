@@ -0,0 +1,356 @@
+package org.protege.editor.owl.model.hierarchy;
+
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkElementIndex;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An immutable copy of a taxonomy (e.g. the inferred class hierarchy) computed by a reasoner.
+ * <p>
+ * Each node of the taxonomy (a set of equivalent objects) is given a dense integer id.  The members, parents and
+ * children of each node are held in arrays that are indexed by node id, and each object is mapped to the id of
+ * its node.  The members of the bottom node are the unsatisfiable objects.  Once captured, a snapshot answers
+ * hierarchy queries without any further reference to the reasoner, which may be slow to answer, or may be
+ * busy reclassifying.
+ */
+public final class TaxonomySnapshot<T extends OWLObject> {
+
+    private static final int[] NO_NODES = new int[0];
+
+    private static final TaxonomySnapshot<?> INCONSISTENT = new TaxonomySnapshot<>();
+
+    private final boolean consistent;
+
+    private final Map<T, Integer> nodeIdByMember;
+
+    private final Object[][] members;
+
+    private final int[][] parents;
+
+    private final int[][] children;
+
+    private final int bottomNodeId;
+
+    private TaxonomySnapshot() {
+        consistent = false;
+        nodeIdByMember = Collections.emptyMap();
+        members = new Object[0][];
+        parents = new int[0][];
+        children = new int[0][];
+        bottomNodeId = -1;
+    }
+
+    private TaxonomySnapshot(Map<T, Integer> nodeIdByMember,
+                             Object[][] members,
+                             int[][] parents,
+                             int[][] children,
+                             int bottomNodeId) {
+        this.consistent = true;
+        this.nodeIdByMember = nodeIdByMember;
+        this.members = members;
+        this.parents = parents;
+        this.children = children;
+        this.bottomNodeId = bottomNodeId;
+    }
+
+    /**
+     * Gets the snapshot that represents an inconsistent ontology.  All queries on this snapshot return empty sets.
+     */
+    @SuppressWarnings("unchecked")
+    @Nonnull
+    public static <T extends OWLObject> TaxonomySnapshot<T> inconsistent() {
+        return (TaxonomySnapshot<T>) INCONSISTENT;
+    }
+
+    /**
+     * Captures a taxonomy by walking it, breadth first, from the top node.
+     * @param topNode The top node (e.g. the node containing owl:Thing).
+     * @param bottomNode The bottom node (e.g. the node containing owl:Nothing and unsatisfiable classes).
+     * @param directSubs A function that gets the direct sub-nodes of a member of a node.
+     * @return The snapshot.
+     */
+    @Nonnull
+    public static <T extends OWLObject> TaxonomySnapshot<T> capture(@Nonnull Node<T> topNode,
+                                                                    @Nonnull Node<T> bottomNode,
+                                                                    @Nonnull Function<T, NodeSet<T>> directSubs) {
+        checkNotNull(directSubs);
+        Map<Node<T>, Integer> nodeIds = new HashMap<>();
+        List<Node<T>> nodes = new ArrayList<>();
+        List<int[]> childIds = new ArrayList<>();
+        nodeIds.put(checkNotNull(topNode), 0);
+        nodes.add(topNode);
+        if (!bottomNode.equals(topNode)) {
+            nodeIds.put(checkNotNull(bottomNode), 1);
+            nodes.add(bottomNode);
+        }
+        int bottomNodeId = nodeIds.get(bottomNode);
+        // Nodes are appended as they are discovered, so iterating by index is a breadth first traversal
+        for (int id = 0; id < nodes.size(); id++) {
+            Node<T> node = nodes.get(id);
+            if (id == bottomNodeId) {
+                childIds.add(NO_NODES);
+                continue;
+            }
+            Set<Node<T>> subNodes = directSubs.apply(node.getRepresentativeElement()).getNodes();
+            int[] ids = new int[subNodes.size()];
+            int count = 0;
+            for (Node<T> subNode : subNodes) {
+                Integer subNodeId = nodeIds.get(subNode);
+                if (subNodeId == null) {
+                    subNodeId = nodes.size();
+                    nodeIds.put(subNode, subNodeId);
+                    nodes.add(subNode);
+                }
+                if (subNodeId != id) {
+                    ids[count] = subNodeId;
+                    count++;
+                }
+            }
+            childIds.add(count == ids.length ? ids : Arrays.copyOf(ids, count));
+        }
+        List<Set<T>> nodeMembers = new ArrayList<>(nodes.size());
+        for (Node<T> node : nodes) {
+            nodeMembers.add(node.getEntities());
+        }
+        return of(nodeMembers, childIds.toArray(new int[nodes.size()][]), bottomNodeId);
+    }
+
+    /**
+     * Creates a snapshot from its nodes, for example when restoring a snapshot that has been stored.
+     * @param nodeMembers The members of each node, indexed by node id.  Node 0 is the top node.
+     * @param children The ids of the direct sub-nodes of each node, indexed by node id.
+     * @param bottomNodeId The id of the bottom node.
+     * @return The snapshot.
+     */
+    @Nonnull
+    public static <T extends OWLObject> TaxonomySnapshot<T> of(@Nonnull List<? extends Set<? extends T>> nodeMembers,
+                                                               @Nonnull int[][] children,
+                                                               int bottomNodeId) {
+        int nodeCount = nodeMembers.size();
+        checkArgument(children.length == nodeCount, "Expected child ids for %s nodes", nodeCount);
+        checkElementIndex(bottomNodeId, nodeCount, "bottomNodeId");
+        Object[][] members = new Object[nodeCount][];
+        int[] parentCounts = new int[nodeCount];
+        Map<T, Integer> nodeIdByMember = new HashMap<>();
+        for (int id = 0; id < nodeCount; id++) {
+            Set<? extends T> entities = nodeMembers.get(id);
+            members[id] = entities.toArray();
+            for (T member : entities) {
+                nodeIdByMember.put(member, id);
+            }
+            for (int childId : children[id]) {
+                parentCounts[childId]++;
+            }
+        }
+        int[][] parents = new int[nodeCount][];
+        for (int id = 0; id < nodeCount; id++) {
+            parents[id] = parentCounts[id] == 0 ? NO_NODES : new int[parentCounts[id]];
+            parentCounts[id] = 0;
+        }
+        for (int id = 0; id < nodeCount; id++) {
+            for (int childId : children[id]) {
+                parents[childId][parentCounts[childId]++] = id;
+            }
+        }
+        return new TaxonomySnapshot<>(nodeIdByMember, members, parents, children, bottomNodeId);
+    }
+
+    /**
+     * Determines whether this snapshot was captured from a consistent ontology.
+     */
+    public boolean isConsistent() {
+        return consistent;
+    }
+
+    /**
+     * Determines whether the specified object appears in this snapshot.
+     */
+    public boolean contains(@Nonnull T object) {
+        return nodeIdByMember.containsKey(object);
+    }
+
+    /**
+     * Gets the number of nodes in this snapshot.
+     */
+    public int getNodeCount() {
+        return members.length;
+    }
+
+    /**
+     * Gets the id of the node that contains the specified object.
+     * @return The node id, or -1 if the object is not in this snapshot.
+     */
+    public int getNodeId(@Nonnull T object) {
+        Integer id = nodeIdByMember.get(object);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Gets the id of the bottom node, or -1 if this snapshot represents an inconsistent ontology.
+     */
+    public int getBottomNodeId() {
+        return bottomNodeId;
+    }
+
+    /**
+     * Gets the members of the specified node.
+     */
+    @Nonnull
+    public Set<T> getNodeMembers(int nodeId) {
+        return getMembers(new int[]{nodeId});
+    }
+
+    /**
+     * Gets the ids of the direct sub-nodes of the specified node.
+     */
+    @Nonnull
+    public int[] getChildNodeIds(int nodeId) {
+        return children[nodeId].clone();
+    }
+
+    /**
+     * Gets the ids of the direct super-nodes of the specified node.
+     */
+    @Nonnull
+    public int[] getParentNodeIds(int nodeId) {
+        return parents[nodeId].clone();
+    }
+
+    /**
+     * Gets the ids of all of the nodes below the specified node.
+     */
+    @Nonnull
+    public int[] getDescendantNodeIds(int nodeId) {
+        return getReachable(nodeId, children);
+    }
+
+    /**
+     * Gets the ids of all of the nodes above the specified node.
+     */
+    @Nonnull
+    public int[] getAncestorNodeIds(int nodeId) {
+        return getReachable(nodeId, parents);
+    }
+
+    /**
+     * Determines whether the specified object is unsatisfiable (i.e. is a member of the bottom node).
+     */
+    public boolean isUnsatisfiable(@Nonnull T object) {
+        Integer id = nodeIdByMember.get(object);
+        return id != null && id == bottomNodeId;
+    }
+
+    /**
+     * Gets the members of the bottom node.
+     */
+    @Nonnull
+    public Set<T> getUnsatisfiable() {
+        if (bottomNodeId == -1) {
+            return Collections.emptySet();
+        }
+        return getMembers(new int[]{bottomNodeId});
+    }
+
+    /**
+     * Gets the objects that are equivalent to the specified object, including the object itself.
+     * @return The equivalent objects, or an empty set if the object is not in this snapshot.
+     */
+    @Nonnull
+    public Set<T> getEquivalents(@Nonnull T object) {
+        Integer id = nodeIdByMember.get(object);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        return getMembers(new int[]{id});
+    }
+
+    /**
+     * Gets the members of the direct sub-nodes of the node of the specified object.
+     */
+    @Nonnull
+    public Set<T> getDirectSubs(@Nonnull T object) {
+        Integer id = nodeIdByMember.get(object);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        return getMembers(children[id]);
+    }
+
+    /**
+     * Gets the members of the direct super-nodes of the node of the specified object.
+     */
+    @Nonnull
+    public Set<T> getDirectSupers(@Nonnull T object) {
+        Integer id = nodeIdByMember.get(object);
+        if (id == null) {
+            return Collections.emptySet();
+        }
+        return getMembers(parents[id]);
+    }
+
+    /**
+     * Gets the members of all of the nodes below the node of the specified object.
+     */
+    @Nonnull
+    public Set<T> getSubs(@Nonnull T object) {
+        return getMembers(getReachable(object, children));
+    }
+
+    /**
+     * Gets the members of all of the nodes above the node of the specified object.
+     */
+    @Nonnull
+    public Set<T> getSupers(@Nonnull T object) {
+        return getMembers(getReachable(object, parents));
+    }
+
+    private int[] getReachable(T object, int[][] edges) {
+        Integer start = nodeIdByMember.get(object);
+        if (start == null) {
+            return NO_NODES;
+        }
+        return getReachable(start, edges);
+    }
+
+    private int[] getReachable(int start, int[][] edges) {
+        BitSet visited = new BitSet(members.length);
+        int[] queue = new int[members.length];
+        int head = 0;
+        int tail = 0;
+        for (int next : edges[start]) {
+            if (!visited.get(next)) {
+                visited.set(next);
+                queue[tail++] = next;
+            }
+        }
+        while (head < tail) {
+            int id = queue[head++];
+            for (int next : edges[id]) {
+                if (!visited.get(next)) {
+                    visited.set(next);
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return Arrays.copyOf(queue, tail);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<T> getMembers(int[] nodeIds) {
+        Set<T> result = new HashSet<>();
+        for (int id : nodeIds) {
+            for (Object member : members[id]) {
+                result.add((T) member);
+            }
+        }
+        return result;
+    }
+}
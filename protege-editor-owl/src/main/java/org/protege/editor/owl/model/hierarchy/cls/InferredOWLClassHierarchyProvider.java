@@ -5,14 +5,19 @@ import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
 import org.protege.editor.owl.model.hierarchy.AbstractOWLObjectHierarchyProvider;
+import org.protege.editor.owl.model.hierarchy.TaxonomySnapshot;
 import org.semanticweb.owlapi.model.OWLClass;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyManager;
+import org.protege.editor.owl.model.inference.CachedInferences;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 
 /**
@@ -27,20 +32,26 @@ import java.util.Set;
 public class InferredOWLClassHierarchyProvider extends AbstractOWLObjectHierarchyProvider<OWLClass> {
 
 	/*
-	 * There is no local state in this class - all the state is held in the reasoner and the ontologies on which
-	 * this works.  But there is one race condition that I don't know how to track here.  The reasoner can be changed
-	 * underneath this provider while it is running.  A listener doesn't really help because the reasoner can be changed 
-	 * at any time.  But I can hope that the new reasoner will run the same way the old one did. 
+	 * The hierarchy is answered from a snapshot of the reasoner's class taxonomy.  The snapshot is captured on the
+	 * classification thread, before the reasoner is installed, and is published with it by the reasoner manager.  It
+	 * is picked up the first time that it is needed after the reasoner has been changed or has (re)classified the
+	 * ontology.  This means that the tree is painted without querying the reasoner, and that it keeps showing the
+	 * previous results while a new classification is running.
 	 */
+
+    private static final Logger logger = LoggerFactory.getLogger(InferredOWLClassHierarchyProvider.class);
 	
     private final OWLModelManager owlModelManager;
 
     private final OWLClass owlThing;
     private final OWLClass owlNothing;
 
+    private volatile TaxonomySnapshot<OWLClass> snapshot;
+
     private OWLModelManagerListener owlModelManagerListener = event -> {
         if (event.isType(EventType.REASONER_CHANGED) || event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)
                 || event.isType(EventType.ONTOLOGY_CLASSIFIED) || event.isType(EventType.ONTOLOGY_RELOADED)) {
+            snapshot = null;
             fireHierarchyChanged();
         }
     };
@@ -76,102 +87,109 @@ public class InferredOWLClassHierarchyProvider extends AbstractOWLObjectHierarch
     }
 
 
-    public Set<OWLClass> getUnfilteredChildren(OWLClass object) {
-//    	getReadLock().lock();
-    	try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
-            }
-    		Set<OWLClass> subs = getReasoner().getSubClasses(object, true).getFlattened();
-    		// Add in owl:Nothing if there are inconsistent classes
-    		if (object.isOWLThing() && !owlModelManager.getReasoner().getUnsatisfiableClasses().isSingleton()) {
-    			subs.add(owlNothing);
-    		}
-    		else if (object.isOWLNothing()) {
-    			subs.addAll(getReasoner().getUnsatisfiableClasses().getEntitiesMinus(owlNothing));
-    		}
-    		else {
-    			// Class which is not Thing or Nothing
-    			subs.remove(owlNothing);
-    			for (Iterator<OWLClass> it = subs.iterator(); it.hasNext();) {
-    				if (!getReasoner().isSatisfiable(it.next())) {
-    					it.remove();
-    				}
-    			}
-    		}
-    		return subs;
-    	}
-    	finally {
-//    		getReadLock().unlock();
-    	}
+    /**
+     * Gets the snapshot of the current reasoner's class taxonomy.  This is the snapshot that was published with the
+     * reasoner, if there is one, and is otherwise captured from the reasoner.
+     */
+    protected TaxonomySnapshot<OWLClass> getSnapshot() {
+        TaxonomySnapshot<OWLClass> current = snapshot;
+        if (current == null) {
+            Optional<CachedInferences> inferences = owlModelManager.getOWLReasonerManager().getCurrentInferences();
+            current = inferences.isPresent() ? inferences.get().getClassTaxonomy() : captureSnapshot();
+            snapshot = current;
+        }
+        return current;
     }
 
 
-    public Set<OWLClass> getDescendants(OWLClass object) {
-//    	getReadLock().lock();
+    private TaxonomySnapshot<OWLClass> captureSnapshot() {
+        Lock lock = owlModelManager.getOWLReasonerManager().getReasonerLock();
+        lock.lock();
         try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
+            OWLReasoner reasoner = getReasoner();
+            if (!reasoner.isConsistent()) {
+                return TaxonomySnapshot.inconsistent();
             }
-    			return getReasoner().getSubClasses(object, false).getFlattened();
-    	}
-    	finally {
-//    		getReadLock().unlock();
-    	}
-    }
-
-
-    	public Set<OWLClass> getParents(OWLClass object) {
-//    		getReadLock().lock();
-    		try {
-                if(!getReasoner().isConsistent()) {
-                    return Collections.emptySet();
-                }
-    			if (object.isOWLNothing()) {
-
-    				return Collections.singleton(owlThing);
-    			}
-    			else if (!getReasoner().isSatisfiable(object)){
-    				return Collections.singleton(owlNothing);
-    			}
-    			Set<OWLClass> parents = getReasoner().getSuperClasses(object, true).getFlattened();
-    			parents.remove(object);
-    			return parents;
-    		}
-    		finally {
-//                getReadLock().unlock();
-    		}
-    	}
+            return TaxonomySnapshot.capture(reasoner.getTopClassNode(),
+                                            reasoner.getBottomClassNode(),
+                                            cls -> reasoner.getSubClasses(cls, true));
+        } catch (Exception e) {
+            logger.error("An error occurred whilst asking the reasoner for the class hierarchy: {}", e.getMessage(), e);
+            return TaxonomySnapshot.inconsistent();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+
+    public Set<OWLClass> getUnfilteredChildren(OWLClass object) {
+        TaxonomySnapshot<OWLClass> taxonomy = getSnapshot();
+        if (!taxonomy.isConsistent()) {
+            return Collections.emptySet();
+        }
+        Set<OWLClass> subs = taxonomy.getDirectSubs(object);
+        // Add in owl:Nothing if there are inconsistent classes
+        if (object.isOWLThing() && taxonomy.getUnsatisfiable().size() > 1) {
+            subs.add(owlNothing);
+        }
+        else if (object.isOWLNothing()) {
+            subs.addAll(taxonomy.getUnsatisfiable());
+            subs.remove(owlNothing);
+        }
+        else {
+            // Class which is not Thing or Nothing
+            subs.removeIf(taxonomy::isUnsatisfiable);
+        }
+        return subs;
+    }
+
+
+    public Set<OWLClass> getDescendants(OWLClass object) {
+        TaxonomySnapshot<OWLClass> taxonomy = getSnapshot();
+        if (!taxonomy.isConsistent()) {
+            return Collections.emptySet();
+        }
+        return taxonomy.getSubs(object);
+    }
+
+
+    public Set<OWLClass> getParents(OWLClass object) {
+        TaxonomySnapshot<OWLClass> taxonomy = getSnapshot();
+        if (!taxonomy.isConsistent()) {
+            return Collections.emptySet();
+        }
+        if (object.isOWLNothing()) {
+            return Collections.singleton(owlThing);
+        }
+        else if (taxonomy.isUnsatisfiable(object)) {
+            return Collections.singleton(owlNothing);
+        }
+        Set<OWLClass> parents = taxonomy.getDirectSupers(object);
+        parents.remove(object);
+        return parents;
+    }
 
 
     public Set<OWLClass> getAncestors(OWLClass object) {
-//    	getReadLock().lock();
-    	try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
-            }
-    		return getReasoner().getSuperClasses(object, false).getFlattened();
-    	}
-    	finally {
-//    		getReadLock().unlock();
-    	}
+        TaxonomySnapshot<OWLClass> taxonomy = getSnapshot();
+        if (!taxonomy.isConsistent()) {
+            return Collections.emptySet();
+        }
+        return taxonomy.getSupers(object);
     }
 
 
     public Set<OWLClass> getEquivalents(OWLClass object) {
-//        getReadLock().lock();
-        try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
-            }
-            if (!getReasoner().isSatisfiable(object)) {
-                return Collections.emptySet();
-            }
-            return getReasoner().getEquivalentClasses(object).getEntitiesMinus(object);
+        TaxonomySnapshot<OWLClass> taxonomy = getSnapshot();
+        if (!taxonomy.isConsistent()) {
+            return Collections.emptySet();
         }
-        finally {
-//            getReadLock().unlock();
+        if (taxonomy.isUnsatisfiable(object)) {
+            return Collections.emptySet();
         }
+        Set<OWLClass> equivalents = taxonomy.getEquivalents(object);
+        equivalents.remove(object);
+        return equivalents;
     }
 
 
@@ -4,15 +4,18 @@ import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
 import org.protege.editor.owl.model.hierarchy.OWLObjectPropertyHierarchyProvider;
+import org.protege.editor.owl.model.hierarchy.TaxonomySnapshot;
+import org.protege.editor.owl.model.inference.CachedInferences;
 import org.semanticweb.owlapi.model.OWLObjectProperty;
 import org.semanticweb.owlapi.model.OWLObjectPropertyExpression;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.Collections;
 import java.util.HashSet;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 /**
  * Author: drummond<br>
@@ -32,6 +35,12 @@ public class InferredObjectPropertyHierarchyProvider extends OWLObjectPropertyHi
 
     public static final String ID = "inferredObjectPropertyHierarchyProvider";
 
+    /**
+     * A snapshot of the reasoner's object property taxonomy, picked up on demand after the reasoner changes or
+     * (re)classifies the ontology.
+     */
+    private volatile TaxonomySnapshot<OWLObjectPropertyExpression> snapshot;
+
 
     public InferredObjectPropertyHierarchyProvider(OWLModelManager mngr) {
         super(mngr.getOWLOntologyManager());
@@ -39,6 +48,7 @@ public class InferredObjectPropertyHierarchyProvider extends OWLObjectPropertyHi
         listener = e -> {
             if (e.isType(EventType.REASONER_CHANGED) || e.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)
                     || e.isType(EventType.ONTOLOGY_CLASSIFIED) || e.isType(EventType.ONTOLOGY_RELOADED)) {
+                snapshot = null;
                 fireHierarchyChanged();
             }
         };
@@ -49,67 +59,69 @@ public class InferredObjectPropertyHierarchyProvider extends OWLObjectPropertyHi
         return mngr.getOWLReasonerManager().getCurrentReasoner();
     }
 
-    public Set<OWLObjectProperty> getUnfilteredChildren(OWLObjectProperty objectProperty) {
+    /**
+     * Gets the snapshot of the current reasoner's object property taxonomy.  This is the snapshot that was captured
+     * on the classification thread and published with the reasoner, if there is one, and is otherwise captured from
+     * the reasoner.
+     */
+    protected TaxonomySnapshot<OWLObjectPropertyExpression> getSnapshot() {
+        TaxonomySnapshot<OWLObjectPropertyExpression> current = snapshot;
+        if (current == null) {
+            Optional<CachedInferences> inferences = mngr.getOWLReasonerManager().getCurrentInferences();
+            current = inferences.isPresent() ? inferences.get().getObjectPropertyTaxonomy() : captureSnapshot();
+            snapshot = current;
+        }
+        return current;
+    }
+
+    private TaxonomySnapshot<OWLObjectPropertyExpression> captureSnapshot() {
+        Lock lock = mngr.getOWLReasonerManager().getReasonerLock();
+        lock.lock();
         try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
+            OWLReasoner reasoner = getReasoner();
+            if (!reasoner.isConsistent()) {
+                return TaxonomySnapshot.inconsistent();
             }
-            Set<OWLObjectPropertyExpression> subs = getReasoner().getSubObjectProperties(objectProperty, true).getFlattened();
-            subs.remove(objectProperty);
-            subs.remove(mngr.getOWLDataFactory().getOWLBottomObjectProperty());
-            Set<OWLObjectProperty> children = new HashSet<>();
-            for (OWLObjectPropertyExpression p : subs) {
-                if (p instanceof OWLObjectProperty) {
-                    children.add((OWLObjectProperty) p);
-                }
-            }
-            return children;
+            return TaxonomySnapshot.capture(reasoner.getTopObjectPropertyNode(),
+                                            reasoner.getBottomObjectPropertyNode(),
+                                            p -> reasoner.getSubObjectProperties(p, true));
         } catch (Exception e) {
-            logger.error("An error occurred whilst asking the reasoner for the sub-properties of an object property: {}", e.getMessage(), e);
-            return Collections.emptySet();
+            logger.error("An error occurred whilst asking the reasoner for the object property hierarchy: {}", e.getMessage(), e);
+            return TaxonomySnapshot.inconsistent();
+        } finally {
+            lock.unlock();
         }
     }
 
+    public Set<OWLObjectProperty> getUnfilteredChildren(OWLObjectProperty objectProperty) {
+        Set<OWLObjectPropertyExpression> subs = getSnapshot().getDirectSubs(objectProperty);
+        subs.remove(objectProperty);
+        subs.remove(mngr.getOWLDataFactory().getOWLBottomObjectProperty());
+        return getNamedProperties(subs);
+    }
+
 
     public Set<OWLObjectProperty> getParents(OWLObjectProperty objectProperty) {
-        try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
-            }
-            Set<OWLObjectPropertyExpression> supers = getReasoner().getSuperObjectProperties(objectProperty, true).getFlattened();
-            supers.remove(objectProperty);
-            Set<OWLObjectProperty> parents = new HashSet<>();
-            for (OWLObjectPropertyExpression p : supers) {
-                if (p instanceof OWLObjectProperty) {
-                    parents.add((OWLObjectProperty) p);
-                }
-            }
-            return parents;
-        } catch (Exception e) {
-            logger.error("An error occurred whilst asking the reasoner for the super-properties of an object property: {}", e.getMessage(), e);
-            return Collections.emptySet();
-        }
+        Set<OWLObjectPropertyExpression> supers = getSnapshot().getDirectSupers(objectProperty);
+        supers.remove(objectProperty);
+        return getNamedProperties(supers);
     }
 
 
     public Set<OWLObjectProperty> getEquivalents(OWLObjectProperty objectProperty) {
-        try {
-            if(!getReasoner().isConsistent()) {
-                return Collections.emptySet();
-            }
-            Set<OWLObjectPropertyExpression> equivs = getReasoner().getEquivalentObjectProperties(objectProperty).getEntities();
-            equivs.remove(objectProperty);
-            Set<OWLObjectProperty> ret = new HashSet<>();
-            for (OWLObjectPropertyExpression p : equivs) {
-                if (p instanceof OWLObjectProperty) {
-                    ret.add((OWLObjectProperty) p);
-                }
+        Set<OWLObjectPropertyExpression> equivs = getSnapshot().getEquivalents(objectProperty);
+        equivs.remove(objectProperty);
+        return getNamedProperties(equivs);
+    }
+
+    private static Set<OWLObjectProperty> getNamedProperties(Set<OWLObjectPropertyExpression> properties) {
+        Set<OWLObjectProperty> named = new HashSet<>();
+        for (OWLObjectPropertyExpression p : properties) {
+            if (p instanceof OWLObjectProperty) {
+                named.add((OWLObjectProperty) p);
             }
-            return ret;
-        } catch (Exception e) {
-            logger.error("An error occurred whilst asking the reasoner for the equivalent-properties of an object property: {}", e.getMessage(), e);
-            return Collections.emptySet();
         }
+        return named;
     }
 
     @Override
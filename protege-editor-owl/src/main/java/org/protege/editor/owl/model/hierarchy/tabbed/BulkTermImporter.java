@@ -0,0 +1,199 @@
+package org.protege.editor.owl.model.hierarchy.tabbed;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.refactor.ChunkedChangeApplier;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Imports a list of terms, with their synonyms and parents, into a hierarchy.
+ * <p>
+ * Terms are read from a {@link TermListParser} and imported in chunks, with a {@link ChunkedChangeApplier}.  The
+ * changes for a chunk are generated and applied before the next chunk is read, so only one chunk of terms and changes
+ * is held in memory at a time (in addition to the names of the terms that have been imported, which are needed to
+ * resolve parents).  All of the chunks are undone as one.
+ * </p>
+ * <p>
+ * Rows are read on the calling thread, but the changes for a chunk are generated with the model updater, since the
+ * entity finder and entity factory that resolve names are owned by the thread that updates the model (their caches
+ * are kept up to date by the changes that it applies).
+ * </p>
+ * <p>
+ * Names are resolved with a {@link HierarchyNodeCreator}: a term or parent whose name is the rendering of an
+ * existing entity is that entity, and otherwise a fresh entity is created by the entity factory (with the ids and
+ * labels given by the new entity preferences).  A parent that is named before its own row is created when it is
+ * first named, and its synonyms and parents are added when its row is read.  Terms without parents are placed
+ * below the root entity of the node creator.  The ids of the fresh entities in a chunk are reserved together, before
+ * the changes for the chunk are generated.
+ * </p>
+ * <p>
+ * Importing may be cancelled between chunks.  The chunks that have already been applied are kept, and can be undone
+ * together.
+ * </p>
+ */
+public class BulkTermImporter<E extends OWLEntity> {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkTermImporter.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private final OWLModelManager modelManager;
+
+    private final HierarchyNodeCreator<E> hierarchyNodeCreator;
+
+    private final HierarchyAxiomProvider<E> hierarchyAxiomProvider;
+
+    private final OWLAnnotationProperty synonymProperty;
+
+    private final OWLOntology targetOntology;
+
+    private final Consumer<Runnable> modelUpdater;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Creates an importer.
+     * @param modelManager The model manager that changes are applied with.
+     * @param hierarchyNodeCreator Resolves the names of terms and parents to existing or fresh entities.
+     * @param hierarchyAxiomProvider Creates the axioms that place terms below their parents.
+     * @param synonymProperty The annotation property that synonyms are asserted with.
+     * @param targetOntology The ontology that changes are made to.
+     * @param modelUpdater Runs updates to the model (i.e. the generation and application of a chunk of changes),
+     *                     and waits for them to complete.  This can be used to generate and apply changes on the
+     *                     event dispatch thread, while terms are read on another thread.
+     */
+    public BulkTermImporter(@Nonnull OWLModelManager modelManager,
+                            @Nonnull HierarchyNodeCreator<E> hierarchyNodeCreator,
+                            @Nonnull HierarchyAxiomProvider<E> hierarchyAxiomProvider,
+                            @Nonnull OWLAnnotationProperty synonymProperty,
+                            @Nonnull OWLOntology targetOntology,
+                            @Nonnull Consumer<Runnable> modelUpdater) {
+        this.modelManager = checkNotNull(modelManager);
+        this.hierarchyNodeCreator = checkNotNull(hierarchyNodeCreator);
+        this.hierarchyAxiomProvider = checkNotNull(hierarchyAxiomProvider);
+        this.synonymProperty = checkNotNull(synonymProperty);
+        this.targetOntology = checkNotNull(targetOntology);
+        this.modelUpdater = checkNotNull(modelUpdater);
+    }
+
+    /**
+     * Sets the maximum number of terms that are imported by each chunk of changes.
+     */
+    public void setChunkSize(int chunkSize) {
+        checkArgument(chunkSize > 0, "The chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Imports terms.
+     * @param parser The parser that terms are read from.  The parser is not closed.
+     * @param progress Receives progress, and is asked whether importing has been cancelled, after each chunk.
+     * @return The number of terms that were imported.
+     * @throws IOException if the terms could not be read.  The chunks that were applied before the error are kept.
+     */
+    public int importTerms(@Nonnull TermListParser parser, @Nonnull ProgressListener progress) throws IOException {
+        checkNotNull(parser);
+        checkNotNull(progress);
+        int[] imported = {0};
+        progress.progressChanged(0);
+        boolean finished = new ChunkedChangeApplier(modelManager, modelUpdater).applyChunks(
+                new ChunkedChangeApplier.ChunkSource<IOException>() {
+
+                    private boolean lastChunkRead = false;
+
+                    private int chunkTermCount = 0;
+
+                    @Override
+                    public Optional<List<OWLOntologyChange>> nextChunk() throws IOException {
+                        if (lastChunkRead) {
+                            return Optional.empty();
+                        }
+                        List<TermRow> rows = new ArrayList<>();
+                        TermRow row;
+                        while (rows.size() < chunkSize && (row = parser.readRow()) != null) {
+                            rows.add(row);
+                        }
+                        lastChunkRead = rows.size() < chunkSize;
+                        chunkTermCount = rows.size();
+                        List<OWLOntologyChange> changes = new ArrayList<>();
+                        modelUpdater.accept(() -> {
+                            hierarchyNodeCreator.reserveIds(getNames(rows));
+                            rows.forEach(r -> generateChanges(r, changes));
+                        });
+                        return Optional.of(changes);
+                    }
+
+                    @Override
+                    public void chunkApplied(@Nonnull List<OWLOntologyChange> changes) {
+                        imported[0] += chunkTermCount;
+                        progress.progressChanged(imported[0]);
+                    }
+                },
+                progress::isCancelled);
+        if (finished) {
+            logger.info("[BulkTermImporter] Imported {} terms", imported[0]);
+        }
+        else {
+            logger.info("[BulkTermImporter] Importing cancelled after {} terms", imported[0]);
+        }
+        return imported[0];
+    }
+
+    private static List<String> getNames(List<TermRow> rows) {
+        List<String> names = new ArrayList<>();
+        for (TermRow row : rows) {
+            names.add(row.getName());
+            names.addAll(row.getParentNames());
+        }
+        return names;
+    }
+
+    private void generateChanges(TermRow row, List<OWLOntologyChange> changes) {
+        E term = hierarchyNodeCreator.createEntity(Optional.of(row.getName()), changes);
+        OWLDataFactory dataFactory = modelManager.getOWLDataFactory();
+        for (String synonym : row.getSynonyms()) {
+            OWLAxiom ax = dataFactory.getOWLAnnotationAssertionAxiom(synonymProperty,
+                                                                     term.getIRI(),
+                                                                     dataFactory.getOWLLiteral(synonym));
+            changes.add(new AddAxiom(targetOntology, ax));
+        }
+        if (row.getParentNames().isEmpty()) {
+            addHierarchyAxiom(term, hierarchyNodeCreator.createEntity(Optional.empty(), changes), changes);
+        }
+        for (String parentName : row.getParentNames()) {
+            addHierarchyAxiom(term, hierarchyNodeCreator.createEntity(Optional.of(parentName), changes), changes);
+        }
+    }
+
+    private void addHierarchyAxiom(E child, E parent, List<OWLOntologyChange> changes) {
+        hierarchyAxiomProvider.getAxiom(child, parent).ifPresent(ax -> changes.add(new AddAxiom(targetOntology, ax)));
+    }
+
+    /**
+     * Receives the progress of importing.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called when a chunk has been applied.
+         * @param importedCount The number of terms that have been imported.
+         */
+        void progressChanged(int importedCount);
+
+        /**
+         * Determines whether importing has been cancelled.  Importing stops before the next chunk if it has.
+         */
+        boolean isCancelled();
+    }
+}
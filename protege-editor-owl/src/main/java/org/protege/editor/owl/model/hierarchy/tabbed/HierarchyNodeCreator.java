@@ -10,6 +10,7 @@ import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -78,6 +79,23 @@ public class HierarchyNodeCreator<E extends OWLEntity> {
         }).orElse(rootEntity);
     }
 
+    /**
+     * Reserves ids, with the entity factory, for the entities that will be created for the given names, so that
+     * they can be allocated in one step.  Names of existing entities, or of entities that have already been created,
+     * do not need ids.
+     * @param entityNames The names of the nodes that are about to be created.
+     */
+    public void reserveIds(@Nonnull Collection<String> entityNames) {
+        long freshCount = entityNames.stream()
+                .distinct()
+                .filter(name -> !entityName2EntityMap.containsKey(name))
+                .filter(name -> !entityFinder.getOWLEntity(entityType, name).isPresent())
+                .count();
+        if (freshCount > 0) {
+            entityFactory.reserveIds(entityType, (int) freshCount);
+        }
+    }
+
     private OWLEntityCreationSet<E> createEntity(@Nonnull String name) {
         try {
             return entityFactory.createOWLEntity(entityType, name, Optional.empty());
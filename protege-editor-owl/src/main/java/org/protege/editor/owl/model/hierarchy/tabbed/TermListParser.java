@@ -0,0 +1,184 @@
+package org.protege.editor.owl.model.hierarchy.tabbed;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Parses a list of terms from delimited text (tab or comma separated values), one row at a time, so that large
+ * term lists can be imported without holding them in memory.
+ * <p>
+ * The first line is a header that names the columns.  The <code>name</code> (or <code>label</code>) column is
+ * required and holds the name of the term.  The optional <code>synonyms</code> and <code>parents</code> columns hold
+ * the synonyms and the names of the parents of the term, separated by <code>|</code>.  Other columns are ignored.
+ * Fields may be quoted with <code>"</code>, in which case a quote within the field is written as <code>""</code>.
+ * Quoted fields may not span lines.  Blank lines are skipped.
+ * </p>
+ */
+public class TermListParser implements Closeable {
+
+    public static final char TAB = '\t';
+
+    public static final char COMMA = ',';
+
+    private static final String VALUE_SEPARATOR = "\\|";
+
+    private final BufferedReader reader;
+
+    private final char delimiter;
+
+    private int nameColumn = -1;
+
+    private int synonymsColumn = -1;
+
+    private int parentsColumn = -1;
+
+    private int lineNumber = 0;
+
+    public TermListParser(@Nonnull Reader reader, char delimiter) {
+        this.reader = new BufferedReader(checkNotNull(reader));
+        this.delimiter = delimiter;
+    }
+
+    /**
+     * Gets the delimiter for a file with the specified name: a comma for <code>.csv</code> files, otherwise a tab.
+     */
+    public static char getDelimiter(@Nonnull String fileName) {
+        return fileName.toLowerCase(Locale.ENGLISH).endsWith(".csv") ? COMMA : TAB;
+    }
+
+    /**
+     * Reads the next term.
+     * @return The term, or <code>null</code> if there are no more terms.
+     * @throws IOException if the text could not be read, or the header does not have a name column.
+     */
+    @Nullable
+    public TermRow readRow() throws IOException {
+        if (nameColumn == -1) {
+            readHeader();
+        }
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.trim().isEmpty()) {
+                continue;
+            }
+            List<String> fields = splitLine(line);
+            String name = getField(fields, nameColumn);
+            if (name.isEmpty()) {
+                throw new IOException("Missing term name at line " + lineNumber);
+            }
+            return new TermRow(lineNumber,
+                               name,
+                               getValues(fields, synonymsColumn),
+                               getValues(fields, parentsColumn));
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of lines that have been read, including the header.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private void readHeader() throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IOException("The term list is empty");
+        }
+        lineNumber++;
+        List<String> columns = splitLine(header);
+        for (int i = 0; i < columns.size(); i++) {
+            String column = columns.get(i).toLowerCase(Locale.ENGLISH);
+            if ((column.equals("name") || column.equals("label")) && nameColumn == -1) {
+                nameColumn = i;
+            }
+            else if (column.equals("synonyms") || column.equals("synonym")) {
+                synonymsColumn = i;
+            }
+            else if (column.equals("parents") || column.equals("parent")) {
+                parentsColumn = i;
+            }
+        }
+        if (nameColumn == -1) {
+            throw new IOException("The header of the term list does not have a name column");
+        }
+    }
+
+    private static String getField(List<String> fields, int column) {
+        if (column == -1 || column >= fields.size()) {
+            return "";
+        }
+        return fields.get(column).trim();
+    }
+
+    private static List<String> getValues(List<String> fields, int column) {
+        String field = getField(fields, column);
+        if (field.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<String> values = new ArrayList<>();
+        for (String value : field.split(VALUE_SEPARATOR)) {
+            String trimmedValue = value.trim();
+            if (!trimmedValue.isEmpty()) {
+                values.add(trimmedValue);
+            }
+        }
+        return values;
+    }
+
+    private List<String> splitLine(String line) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char ch = line.charAt(i);
+            if (quoted) {
+                if (ch == '"') {
+                    if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    }
+                    else {
+                        quoted = false;
+                    }
+                }
+                else {
+                    field.append(ch);
+                }
+            }
+            else if (ch == '"' && field.toString().trim().isEmpty()) {
+                field.setLength(0);
+                quoted = true;
+            }
+            else if (ch == delimiter) {
+                fields.add(field.toString());
+                field.setLength(0);
+            }
+            else {
+                field.append(ch);
+            }
+        }
+        if (quoted) {
+            throw new IOException("Unterminated quoted field at line " + lineNumber);
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
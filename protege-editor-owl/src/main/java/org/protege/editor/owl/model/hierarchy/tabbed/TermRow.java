@@ -0,0 +1,90 @@
+package org.protege.editor.owl.model.hierarchy.tabbed;
+
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Objects;
+import com.google.common.collect.ImmutableList;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A term in a term list: its name, its synonyms and the names of its parents.
+ * @see TermListParser
+ */
+public class TermRow {
+
+    private final int lineNumber;
+
+    private final String name;
+
+    private final ImmutableList<String> synonyms;
+
+    private final ImmutableList<String> parentNames;
+
+    public TermRow(int lineNumber,
+                   @Nonnull String name,
+                   @Nonnull List<String> synonyms,
+                   @Nonnull List<String> parentNames) {
+        this.lineNumber = lineNumber;
+        this.name = checkNotNull(name);
+        this.synonyms = ImmutableList.copyOf(synonyms);
+        this.parentNames = ImmutableList.copyOf(parentNames);
+    }
+
+    /**
+     * Gets the line of the term list that the term was read from.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    @Nonnull
+    public String getName() {
+        return name;
+    }
+
+    @Nonnull
+    public ImmutableList<String> getSynonyms() {
+        return synonyms;
+    }
+
+    /**
+     * Gets the names of the parents of the term.  The term is placed below the root of the hierarchy if this is empty.
+     */
+    @Nonnull
+    public ImmutableList<String> getParentNames() {
+        return parentNames;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("TermRow")
+                .add("line", lineNumber)
+                .add("name", name)
+                .add("synonyms", synonyms)
+                .add("parents", parentNames)
+                .toString();
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(lineNumber, name, synonyms, parentNames);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (obj == this) {
+            return true;
+        }
+        if (!(obj instanceof TermRow)) {
+            return false;
+        }
+        TermRow other = (TermRow) obj;
+        return this.lineNumber == other.lineNumber
+                && this.name.equals(other.name)
+                && this.synonyms.equals(other.synonyms)
+                && this.parentNames.equals(other.parentNames);
+    }
+}
@@ -0,0 +1,658 @@
+package org.protege.editor.owl.model.history;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Holds the undo and redo stacks for a {@link HistoryManagerImpl} within a memory budget.
+ * <p>
+ * Recent entries are held in memory as plain change lists.  When the estimated size of the in-memory entries
+ * exceeds the budget, the oldest entries are handed to a background writer, which encodes them and appends them to
+ * a local spill file.  Until an entry has been written it is still read from memory, so pushing never waits for
+ * encoding or disk IO.  Spilled entries are decoded again lazily when they are popped for an undo or redo.  The
+ * encoding interns ontology ids as small integers, and writes the change data for an entry as a single object stream
+ * so that entities, IRIs and other objects that are shared between the changes in the entry are written once and
+ * referenced thereafter.  The stream is deflated.
+ * <p>
+ * The spill file is append-only.  The bytes of entries that are popped or cleared become dead.  Once dead bytes make
+ * up more than half of the file the writer compacts it by copying the live entries to a new file.  The file is
+ * truncated once no spilled entries remain.
+ * <p>
+ * A single undoable step may be made up of several entries, so that a large composite change can be spilled whilst
+ * it is still being made.  Each entry records whether it continues the step of the entry beneath it.
+ */
+class ChangeHistoryStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeHistoryStore.class);
+
+    /**
+     * A rough estimate of the retained size of a logged change: the change object, its slot in the list and the
+     * share of the axiom that is only kept alive by the history (e.g. removed axioms).
+     */
+    static final int ESTIMATED_BYTES_PER_CHANGE = 128;
+
+    /**
+     * The spill file is not compacted until it holds at least this many dead bytes
+     */
+    static final long DEFAULT_MIN_COMPACTION_BYTES = 4L * 1024 * 1024;
+
+    private static final double MAX_DEAD_FRACTION = 0.5;
+
+    private final OWLOntologyManager manager;
+
+    private final long memoryBudgetBytes;
+
+    private final long minCompactionBytes;
+
+    /**
+     * The top of each stack is at the end of the list
+     */
+    private final List<Entry> undoStack = new ArrayList<>();
+
+    private final List<Entry> redoStack = new ArrayList<>();
+
+    /**
+     * Ontologies are interned by id rather than by instance so that the history does not keep closed ontologies
+     * alive.  The ids are kept up to date as ontology ids change.
+     */
+    private final List<OWLOntologyID> internedOntologyIds = new ArrayList<>();
+
+    private final Map<OWLOntologyID, Integer> ontologyIdIndexes = new HashMap<>();
+
+    @Nullable
+    private ExecutorService spillWriter;
+
+    @Nullable
+    private FileChannel spillChannel;
+
+    @Nullable
+    private File spillFilePath;
+
+    private long estimatedMemoryBytes = 0;
+
+    private long spilledBytes = 0;
+
+    private long deadBytes = 0;
+
+    private int spilledEntries = 0;
+
+    private long changeCount = 0;
+
+    private boolean spillingFailed = false;
+
+    private boolean compacting = false;
+
+    private boolean compactionScheduled = false;
+
+    /**
+     * Creates a store.
+     * @param manager The manager that holds the ontologies that spilled changes are decoded against.
+     * @param memoryBudgetBytes The estimated number of bytes that in-memory entries may occupy.  Must not be negative.
+     */
+    ChangeHistoryStore(@Nonnull OWLOntologyManager manager, long memoryBudgetBytes) {
+        this(manager, memoryBudgetBytes, DEFAULT_MIN_COMPACTION_BYTES);
+    }
+
+    ChangeHistoryStore(@Nonnull OWLOntologyManager manager, long memoryBudgetBytes, long minCompactionBytes) {
+        checkArgument(memoryBudgetBytes >= 0, "memoryBudgetBytes must not be negative");
+        this.manager = checkNotNull(manager);
+        this.memoryBudgetBytes = memoryBudgetBytes;
+        this.minCompactionBytes = minCompactionBytes;
+    }
+
+    synchronized void pushUndo(@Nonnull List<OWLOntologyChange> changes) {
+        push(undoStack, changes, false);
+    }
+
+    /**
+     * Pushes an entry onto the undo stack.
+     * @param changes The changes.
+     * @param continuesStep {@code true} if the entry is part of the same undoable step as the entry beneath it.
+     */
+    synchronized void pushUndo(@Nonnull List<OWLOntologyChange> changes, boolean continuesStep) {
+        push(undoStack, changes, continuesStep);
+    }
+
+    synchronized void pushRedo(@Nonnull List<OWLOntologyChange> changes) {
+        push(redoStack, changes, false);
+    }
+
+    /**
+     * Pushes an entry onto the redo stack.
+     * @param changes The changes.
+     * @param continuesStep {@code true} if the entry is part of the same redoable step as the entry beneath it.
+     */
+    synchronized void pushRedo(@Nonnull List<OWLOntologyChange> changes, boolean continuesStep) {
+        push(redoStack, changes, continuesStep);
+    }
+
+    /**
+     * Determines whether the entry at the top of the undo stack is part of the same step as the entry beneath it.
+     */
+    synchronized boolean isUndoTopContinuingStep() {
+        return !undoStack.isEmpty() && undoStack.get(undoStack.size() - 1).continuesStep;
+    }
+
+    /**
+     * Determines whether the entry at the top of the redo stack is part of the same step as the entry beneath it.
+     */
+    synchronized boolean isRedoTopContinuingStep() {
+        return !redoStack.isEmpty() && redoStack.get(redoStack.size() - 1).continuesStep;
+    }
+
+    /**
+     * Pops the top entry from the undo stack.  Changes to ontologies that are no longer loaded are dropped.
+     * @throws UncheckedIOException if the entry was spilled and could not be read back
+     */
+    synchronized List<OWLOntologyChange> popUndo() {
+        return pop(undoStack);
+    }
+
+    /**
+     * Pops the top entry from the redo stack.  Changes to ontologies that are no longer loaded are dropped.
+     * @throws UncheckedIOException if the entry was spilled and could not be read back
+     */
+    synchronized List<OWLOntologyChange> popRedo() {
+        return pop(redoStack);
+    }
+
+    synchronized boolean isUndoEmpty() {
+        return undoStack.isEmpty();
+    }
+
+    synchronized boolean isRedoEmpty() {
+        return redoStack.isEmpty();
+    }
+
+    synchronized void clearRedo() {
+        redoStack.forEach(this::discard);
+        redoStack.clear();
+        reclaimSpillFile();
+    }
+
+    synchronized void clear() {
+        undoStack.forEach(this::discard);
+        undoStack.clear();
+        redoStack.forEach(this::discard);
+        redoStack.clear();
+        internedOntologyIds.clear();
+        ontologyIdIndexes.clear();
+        reclaimSpillFile();
+    }
+
+    /**
+     * Keeps the interned ontology ids up to date.  This must be called with every list of changes that is applied,
+     * after it has been applied.
+     */
+    synchronized void ontologyIdsChanged(@Nonnull List<? extends OWLOntologyChange> appliedChanges) {
+        for(OWLOntologyChange change : appliedChanges) {
+            if(!(change instanceof SetOntologyID)) {
+                continue;
+            }
+            SetOntologyID setId = (SetOntologyID) change;
+            Integer index = ontologyIdIndexes.remove(setId.getOriginalOntologyID());
+            if(index != null) {
+                internedOntologyIds.set(index, setId.getNewOntologyID());
+                ontologyIdIndexes.putIfAbsent(setId.getNewOntologyID(), index);
+            }
+        }
+    }
+
+    /**
+     * Gets the steps in the undo stack, from the bottom of the stack to the top.  The entries that make up a step are
+     * concatenated.  Spilled entries are read back from the spill file.  The returned lists are unmodifiable.
+     */
+    @Nonnull
+    synchronized List<List<OWLOntologyChange>> getUndoEntries() {
+        List<List<OWLOntologyChange>> result = new ArrayList<>(undoStack.size());
+        List<OWLOntologyChange> step = null;
+        for(Entry entry : undoStack) {
+            if(step == null || !entry.continuesStep) {
+                step = new ArrayList<>();
+                result.add(Collections.unmodifiableList(step));
+            }
+            step.addAll(read(entry));
+        }
+        return result;
+    }
+
+    @Nonnull
+    synchronized HistoryMetrics getMetrics() {
+        int entries = undoStack.size() + redoStack.size();
+        return new HistoryMetrics(estimatedMemoryBytes,
+                                  spilledBytes,
+                                  entries - spilledEntries,
+                                  spilledEntries,
+                                  changeCount);
+    }
+
+    /**
+     * Gets the length of the spill file, including dead bytes.
+     */
+    synchronized long getSpillFileLength() {
+        return spilledBytes + deadBytes;
+    }
+
+    /**
+     * Waits for the background writer to finish the spills and compactions that have been handed to it.
+     */
+    void awaitPendingWrites() {
+        ExecutorService writer;
+        synchronized (this) {
+            writer = spillWriter;
+        }
+        if(writer == null) {
+            return;
+        }
+        try {
+            writer.submit(() -> {}).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            logger.warn("An error occurred in the change history writer", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the background writer and releases the spill file.
+     */
+    void dispose() {
+        ExecutorService writer;
+        synchronized (this) {
+            clear();
+            writer = spillWriter;
+            spillWriter = null;
+        }
+        if(writer != null) {
+            writer.shutdown();
+            try {
+                if(!writer.awaitTermination(10, TimeUnit.SECONDS)) {
+                    logger.warn("Timed out waiting for the change history writer to finish");
+                    writer.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                writer.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            closeSpillFile();
+        }
+    }
+
+    private void push(List<Entry> stack, List<OWLOntologyChange> changes, boolean continuesStep) {
+        Entry entry = new Entry(changes, continuesStep);
+        stack.add(entry);
+        estimatedMemoryBytes += entry.estimatedSize();
+        changeCount += entry.changeCount;
+        if(estimatedMemoryBytes > memoryBudgetBytes && !spillingFailed) {
+            spillOldestEntries();
+        }
+    }
+
+    private List<OWLOntologyChange> pop(List<Entry> stack) {
+        Entry entry = stack.remove(stack.size() - 1);
+        try {
+            return read(entry);
+        } finally {
+            discard(entry);
+            reclaimSpillFile();
+        }
+    }
+
+    private void discard(Entry entry) {
+        changeCount -= entry.changeCount;
+        switch (entry.state) {
+            case IN_MEMORY:
+                estimatedMemoryBytes -= entry.estimatedSize();
+                break;
+            case SPILLING:
+                // Already removed from the estimate.  The writer will skip the entry.
+                break;
+            case SPILLED:
+                spilledEntries--;
+                spilledBytes -= entry.length;
+                deadBytes += entry.length;
+                break;
+        }
+        entry.discarded = true;
+    }
+
+    /**
+     * Hands entries, oldest first, to the writer until the in-memory entries fit within the budget.  The undo stack
+     * is spilled before the redo stack because its oldest entries are the least likely to be needed again.
+     */
+    private void spillOldestEntries() {
+        for(List<Entry> stack : Arrays.asList(undoStack, redoStack)) {
+            for(Entry entry : stack) {
+                if(estimatedMemoryBytes <= memoryBudgetBytes) {
+                    return;
+                }
+                if(entry.state == EntryState.IN_MEMORY) {
+                    entry.state = EntryState.SPILLING;
+                    estimatedMemoryBytes -= entry.estimatedSize();
+                    getSpillWriter().execute(() -> spill(entry));
+                }
+            }
+        }
+    }
+
+    /**
+     * Encodes an entry and appends it to the spill file.  This runs on the writer thread.  Encoding is done without
+     * holding the lock, so that the undo and redo stacks remain usable while it is in progress.
+     */
+    private void spill(Entry entry) {
+        List<OWLOntologyChange> changes;
+        synchronized (this) {
+            if(entry.discarded) {
+                return;
+            }
+            changes = entry.changes;
+        }
+        try {
+            byte[] bytes = encode(changes);
+            synchronized (this) {
+                if(entry.discarded) {
+                    return;
+                }
+                FileChannel channel = getSpillChannel();
+                long offset = channel.size();
+                writeFully(channel, ByteBuffer.wrap(bytes), offset);
+                entry.changes = null;
+                entry.state = EntryState.SPILLED;
+                entry.offset = offset;
+                entry.length = bytes.length;
+                spilledBytes += bytes.length;
+                spilledEntries++;
+            }
+            logger.debug("Spilled {} bytes of change history to disk ({})", bytes.length, getMetrics());
+        } catch (IOException e) {
+            logger.warn("Could not spill change history to disk.  History will be kept in memory: {}", e.getMessage(), e);
+            synchronized (this) {
+                // Keep everything else in memory rather than losing history
+                spillingFailed = true;
+                if(!entry.discarded) {
+                    entry.state = EntryState.IN_MEMORY;
+                    estimatedMemoryBytes += entry.estimatedSize();
+                }
+            }
+        }
+    }
+
+    private List<OWLOntologyChange> read(Entry entry) {
+        if(entry.state != EntryState.SPILLED) {
+            return entry.changes;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+            readFully(getSpillChannel(), buffer, entry.offset);
+            return decode(buffer.array());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read spilled change history", e);
+        }
+    }
+
+    private byte[] encode(List<OWLOntologyChange> changes) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(changes.size() * 16);
+        try(ObjectOutputStream os = new ObjectOutputStream(new DeflaterOutputStream(bos))) {
+            os.writeInt(changes.size());
+            for(OWLOntologyChange change : changes) {
+                os.writeInt(intern(change.getOntology()));
+                os.writeObject(change.getChangeData());
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private List<OWLOntologyChange> decode(byte[] bytes) throws IOException {
+        try(ObjectInputStream is = new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            int size = is.readInt();
+            List<OWLOntologyChange> changes = new ArrayList<>(size);
+            for(int i = 0; i < size; i++) {
+                OWLOntologyID ontologyId = internedOntologyIds.get(is.readInt());
+                OWLOntologyChangeData data = (OWLOntologyChangeData) is.readObject();
+                OWLOntology ontology = manager.getOntology(ontologyId);
+                if(ontology != null) {
+                    changes.add(data.createOntologyChange(ontology));
+                }
+                else {
+                    logger.debug("Dropping spilled change to an ontology that is no longer loaded: {}", ontologyId);
+                }
+            }
+            return changes;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Interns the current id of an ontology.  The id is read under the lock so that it is consistent with
+     * {@link #ontologyIdsChanged(List)}.
+     */
+    private synchronized int intern(OWLOntology ontology) {
+        OWLOntologyID ontologyId = ontology.getOntologyID();
+        Integer index = ontologyIdIndexes.get(ontologyId);
+        if(index == null) {
+            index = internedOntologyIds.size();
+            internedOntologyIds.add(ontologyId);
+            ontologyIdIndexes.put(ontologyId, index);
+        }
+        return index;
+    }
+
+    private ExecutorService getSpillWriter() {
+        if(spillWriter == null) {
+            spillWriter = Executors.newSingleThreadExecutor(
+                    new ThreadFactoryBuilder().setNameFormat("change-history-writer-%d").setDaemon(true).build()
+            );
+        }
+        return spillWriter;
+    }
+
+    private FileChannel getSpillChannel() throws IOException {
+        if(spillChannel == null) {
+            spillFilePath = File.createTempFile("protege-history-", ".bin");
+            spillFilePath.deleteOnExit();
+            spillChannel = openChannel(spillFilePath);
+            logger.info("Created change history spill file: {}", spillFilePath);
+        }
+        return spillChannel;
+    }
+
+    /**
+     * Truncates the spill file if no spilled entries remain, and otherwise schedules a compaction if enough of the
+     * file is dead.
+     */
+    private void reclaimSpillFile() {
+        if(spillChannel == null || compacting) {
+            return;
+        }
+        if(spilledEntries == 0) {
+            try {
+                spillChannel.truncate(0);
+                deadBytes = 0;
+            } catch (IOException e) {
+                logger.warn("Could not truncate change history spill file: {}", e.getMessage(), e);
+            }
+        }
+        else if(isCompactionWorthwhile() && !compactionScheduled && spillWriter != null) {
+            compactionScheduled = true;
+            spillWriter.execute(this::compact);
+        }
+    }
+
+    private boolean isCompactionWorthwhile() {
+        return deadBytes >= minCompactionBytes && deadBytes > MAX_DEAD_FRACTION * (deadBytes + spilledBytes);
+    }
+
+    /**
+     * Copies the live spilled entries to a new spill file and replaces the old file with it.  This runs on the writer
+     * thread, which is the only thread that appends to the file, so no entries are spilled while the copy is made.
+     * Entries may be discarded during the copy; their bytes are counted as dead in the new file.
+     */
+    private void compact() {
+        List<Entry> liveEntries = new ArrayList<>();
+        FileChannel source;
+        synchronized (this) {
+            compactionScheduled = false;
+            if(spillChannel == null || !isCompactionWorthwhile()) {
+                return;
+            }
+            for(List<Entry> stack : Arrays.asList(undoStack, redoStack)) {
+                for(Entry entry : stack) {
+                    if(entry.state == EntryState.SPILLED) {
+                        liveEntries.add(entry);
+                    }
+                }
+            }
+            source = spillChannel;
+            compacting = true;
+        }
+        File compactedPath = null;
+        FileChannel target = null;
+        try {
+            compactedPath = File.createTempFile("protege-history-", ".bin");
+            compactedPath.deleteOnExit();
+            target = openChannel(compactedPath);
+            Map<Entry, Long> compactedOffsets = new IdentityHashMap<>();
+            long position = 0;
+            for(Entry entry : liveEntries) {
+                ByteBuffer buffer = ByteBuffer.allocate(entry.length);
+                readFully(source, buffer, entry.offset);
+                buffer.flip();
+                writeFully(target, buffer, position);
+                compactedOffsets.put(entry, position);
+                position += entry.length;
+            }
+            synchronized (this) {
+                compactedOffsets.forEach((entry, offset) -> entry.offset = offset);
+                long deadBytesBefore = deadBytes;
+                deadBytes = position - spilledBytes;
+                closeSpillFile();
+                spillChannel = target;
+                spillFilePath = compactedPath;
+                compacting = false;
+                logger.debug("Compacted change history spill file.  Reclaimed {} bytes ({})",
+                             deadBytesBefore - deadBytes,
+                             getMetrics());
+                reclaimSpillFile();
+            }
+        } catch (IOException e) {
+            logger.warn("Could not compact change history spill file: {}", e.getMessage(), e);
+            synchronized (this) {
+                compacting = false;
+            }
+            if(target != null) {
+                try {
+                    target.close();
+                } catch (IOException ignored) {
+                }
+            }
+            if(compactedPath != null && !compactedPath.delete()) {
+                logger.debug("Could not delete change history spill file: {}", compactedPath);
+            }
+        }
+    }
+
+    private void closeSpillFile() {
+        if(spillChannel == null) {
+            return;
+        }
+        try {
+            spillChannel.close();
+        } catch (IOException e) {
+            logger.warn("Could not close change history spill file: {}", e.getMessage(), e);
+        }
+        if(spillFilePath != null && !spillFilePath.delete()) {
+            logger.debug("Could not delete change history spill file: {}", spillFilePath);
+        }
+        spillChannel = null;
+        spillFilePath = null;
+    }
+
+    private static FileChannel openChannel(File path) throws IOException {
+        return FileChannel.open(path.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        while(buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if(read < 0) {
+                throw new EOFException("Unexpected end of change history spill file");
+            }
+            position += read;
+        }
+    }
+
+    private enum EntryState {
+
+        IN_MEMORY,
+
+        /**
+         * Handed to the writer, but not yet written.  The changes are still held in memory.
+         */
+        SPILLING,
+
+        SPILLED
+    }
+
+    private static final class Entry {
+
+        private final int changeCount;
+
+        private final boolean continuesStep;
+
+        /**
+         * The changes, or {@code null} if the entry has been spilled
+         */
+        @Nullable
+        private List<OWLOntologyChange> changes;
+
+        private EntryState state = EntryState.IN_MEMORY;
+
+        /**
+         * Set when the entry is popped or cleared, so that a pending spill of the entry is skipped
+         */
+        private boolean discarded = false;
+
+        private long offset = -1;
+
+        private int length = 0;
+
+        private Entry(List<OWLOntologyChange> changes, boolean continuesStep) {
+            this.changes = changes;
+            this.changeCount = changes.size();
+            this.continuesStep = continuesStep;
+        }
+
+        private long estimatedSize() {
+            return (long) changeCount * ESTIMATED_BYTES_PER_CHANGE;
+        }
+    }
+}
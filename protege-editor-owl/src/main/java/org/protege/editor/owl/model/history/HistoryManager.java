@@ -23,6 +23,21 @@ public interface HistoryManager {
      */
     void logChanges(@Nonnull List<? extends OWLOntologyChange> changes);
 
+    /**
+     * Starts a composite change.  Until the matching call to {@link #endCompositeChange()}, the changes that are
+     * logged make up a single step, which is undone and redone as one.  Composite changes may be nested; the step
+     * ends when the outermost composite change ends.  Nothing can be undone or redone whilst a composite change is in
+     * progress.
+     */
+    default void startCompositeChange() {
+    }
+
+    /**
+     * Ends a composite change that was started with {@link #startCompositeChange()}.
+     */
+    default void endCompositeChange() {
+    }
+
     /**
      * Determines whether or not it is possible to perform an undo operation.
      * @return {@code true} if it is possible to perform an undo operation, otherwise {@code false}.
@@ -57,11 +72,20 @@ public interface HistoryManager {
 
     /**
      * Gets a list of the lists of changes that are currently in the undo stack.
-     * @return The changes logged in the undo stack.
+     * @return The changes logged in the undo stack.  The inner lists are unmodifiable.
      */
     @Nonnull
     List<List<OWLOntologyChange>> getLoggedChanges();
 
+    /**
+     * Gets metrics that describe how much memory and disk space the history is using.
+     * @return The metrics.
+     */
+    @Nonnull
+    default HistoryMetrics getMetrics() {
+        return HistoryMetrics.empty();
+    }
+
     /**
      * Adds a listener to this manager.
      * @param listener The listener.
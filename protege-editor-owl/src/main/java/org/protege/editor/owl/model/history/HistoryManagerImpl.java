@@ -8,8 +8,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.annotation.Nonnull;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Stack;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -37,55 +37,80 @@ public class HistoryManagerImpl implements HistoryManager {
 
 
     /**
-     * Holds a list of sets of changes that can be undone.
-     * These are a list of "forward" changes - in other words
-     * if the list contain an "add superclass" history, then the
-     * required undo history is a "remove superclass" history.
+     * Holds the list of sets of changes that can be undone and the list of sets of changes that can be redone.
+     * Both are lists of "forward" changes - in other words if the list contain an "add superclass" history, then the
+     * required undo history is a "remove superclass" history.  Older entries are spilled to disk once the store
+     * exceeds its memory budget.
      */
-    private final Stack<List<OWLOntologyChange>> undoStack = new Stack<>();
+    private final ChangeHistoryStore store;
+
+    private final List<UndoManagerListener> listeners = new ArrayList<>();
+
+    private int compositeChangeDepth = 0;
 
     /**
-     * Holds a list of sets of changes that can be redone. These
-     * are changes that result from an undo operation.
-     * These are a list of "forward" changes rather that the
-     * "undo changes".
+     * Set once changes have been logged in the current composite change, or in the current undo or redo.  Each list
+     * of changes that is logged is pushed as its own entry, so that the store can spill a large composite change
+     * whilst it is being made, and later entries are marked as continuing the step that the first entry started.
      */
-    private final Stack<List<OWLOntologyChange>> redoStack = new Stack<>();
-
-    private final List<UndoManagerListener> listeners = new ArrayList<>();
+    private boolean stepStarted = false;
 
 
     public HistoryManagerImpl(OWLModelManager owlModelManager) {
-        this(owlModelManager.getOWLOntologyManager());
+        this(owlModelManager.getOWLOntologyManager(), HistoryPreferences.get().getMemoryBudgetMB() * 1024L * 1024L);
 
     }
     
     public HistoryManagerImpl(OWLOntologyManager manager) {
+        this(manager, HistoryPreferences.DEFAULT_MEMORY_BUDGET_MB * 1024L * 1024L);
+    }
+
+    /**
+     * Creates a history manager that holds at most (approximately) the specified number of bytes of changes in
+     * memory.  Older changes are spilled to disk.
+     * @param manager The manager that changes are undone and redone with.
+     * @param memoryBudgetBytes The memory budget.  Must not be negative.
+     */
+    public HistoryManagerImpl(OWLOntologyManager manager, long memoryBudgetBytes) {
         this.manager = manager;
+        this.store = new ChangeHistoryStore(manager, memoryBudgetBytes);
         typeOfChangeInProgress = ChangeType.NORMAL;
     }
 
 
     public boolean canRedo() {
-        return redoStack.size() > 0;
+        return !isCompositeChangeInProgress() && !store.isRedoEmpty();
     }
 
 
     public boolean canUndo() {
-        return undoStack.size() > 0;
+        return !isCompositeChangeInProgress() && !store.isUndoEmpty();
+    }
+
+    /**
+     * Determines whether the entries of a composite change are still being logged, in which case the step that they
+     * make up is not complete and may not be undone or redone.
+     */
+    private boolean isCompositeChangeInProgress() {
+        return compositeChangeDepth > 0 && typeOfChangeInProgress == ChangeType.NORMAL;
     }
 
 
     public void logChanges(@Nonnull List<? extends OWLOntologyChange> changes) {
+        store.ontologyIdsChanged(changes);
+        boolean inCompositeChange = isCompositeChangeInProgress();
+        boolean continuesStep = stepStarted && (inCompositeChange || typeOfChangeInProgress != ChangeType.NORMAL);
         switch (typeOfChangeInProgress) {
         case NORMAL:
             // Clear the redo stack, because we can
             // no longer redo
-            redoStack.clear();
+            if (!continuesStep) {
+                store.clearRedo();
+            }
             // no break;
         case REDOING:
             // Push the changes onto the stack
-            undoStack.push(new ArrayList<>(changes));
+            store.pushUndo(new ArrayList<>(changes), continuesStep);
             break;
         case UNDOING:
             // In undo mode, so handleSave changes for redo.
@@ -94,10 +119,35 @@ public class HistoryManagerImpl implements HistoryManager {
             // (The stacks, both undo and redo, should always hold the forward
             // changes).
 
-            redoStack.push(reverseChanges(changes));
+            store.pushRedo(reverseChanges(changes), continuesStep);
             break;
         }
-        fireStateChanged();
+        stepStarted = inCompositeChange || typeOfChangeInProgress != ChangeType.NORMAL;
+        if (typeOfChangeInProgress == ChangeType.NORMAL && !inCompositeChange) {
+            fireStateChanged();
+        }
+    }
+
+
+    @Override
+    public void startCompositeChange() {
+        if (compositeChangeDepth == 0 && typeOfChangeInProgress == ChangeType.NORMAL) {
+            stepStarted = false;
+        }
+        compositeChangeDepth++;
+    }
+
+    @Override
+    public void endCompositeChange() {
+        if (compositeChangeDepth == 0) {
+            logger.warn("Ignoring the end of a composite change that was not started");
+            return;
+        }
+        compositeChangeDepth--;
+        if (compositeChangeDepth == 0 && typeOfChangeInProgress == ChangeType.NORMAL && stepStarted) {
+            stepStarted = false;
+            fireStateChanged();
+        }
     }
 
 
@@ -105,14 +155,22 @@ public class HistoryManagerImpl implements HistoryManager {
         if (canRedo()) {
             try {
                 typeOfChangeInProgress = ChangeType.REDOING;
-                List<OWLOntologyChange> redoChanges = redoStack.pop();
-                manager.applyChanges(redoChanges);
+                stepStarted = false;
+                // The entries of a step are popped in the order in which they were originally applied
+                boolean continuingStep;
+                do {
+                    continuingStep = store.isRedoTopContinuingStep();
+                    List<OWLOntologyChange> redoChanges = store.popRedo();
+                    manager.applyChanges(redoChanges);
+                } while (continuingStep && canRedo());
             }
             catch (Exception e) {
                 logger.error("An error occurred whilst redoing the last set of undone changes.", e);
             }
             finally {
                 typeOfChangeInProgress = ChangeType.NORMAL;
+                stepStarted = false;
+                fireStateChanged();
             }
         }
     }
@@ -122,11 +180,15 @@ public class HistoryManagerImpl implements HistoryManager {
         if (canUndo()) {
             try {
                 typeOfChangeInProgress = ChangeType.UNDOING;
-                // Attempt to undo the changes
-                List<OWLOntologyChange> changes = undoStack.pop();
-
-                // Apply the changes
-                manager.applyChanges(reverseChanges(changes));
+                stepStarted = false;
+                // Undo the entries of the step, most recent first, one entry at a time so that a large step
+                // that has been spilled is not read back into memory all at once
+                boolean continuingStep;
+                do {
+                    continuingStep = store.isUndoTopContinuingStep();
+                    List<OWLOntologyChange> changes = store.popUndo();
+                    manager.applyChanges(reverseChanges(changes));
+                } while (continuingStep && canUndo());
 //                // Remove changes from log
 //                removeChanges(changes);
             }
@@ -136,17 +198,38 @@ public class HistoryManagerImpl implements HistoryManager {
             finally {
                 // No longer in undo mode
                 typeOfChangeInProgress = ChangeType.NORMAL;
+                stepStarted = false;
+                fireStateChanged();
             }
         }
     }
 
     @Override
     public void clear() {
-        redoStack.clear();
-        undoStack.clear();
+        store.clear();
         fireStateChanged();
     }
 
+    /**
+     * Clears the history and releases any resources, such as the spill file, held by this manager.
+     */
+    public void dispose() {
+        store.dispose();
+    }
+
+    /**
+     * Waits for entries that are being spilled to disk to be written.
+     */
+    void awaitPendingWrites() {
+        store.awaitPendingWrites();
+    }
+
+    @Nonnull
+    @Override
+    public HistoryMetrics getMetrics() {
+        return store.getMetrics();
+    }
+
     public void addUndoManagerListener(@Nonnull UndoManagerListener listener) {
         listeners.add(checkNotNull(listener));
     }
@@ -158,11 +241,7 @@ public class HistoryManagerImpl implements HistoryManager {
 
     @Nonnull
     public List<List<OWLOntologyChange>> getLoggedChanges() {
-        List<List<OWLOntologyChange>> copyOfLog = new ArrayList<>();
-        for (List<OWLOntologyChange> changes : undoStack){
-            copyOfLog.add(new ArrayList<>(changes));
-        }
-        return copyOfLog;
+        return store.getUndoEntries();
     }
 
 
@@ -173,13 +252,14 @@ public class HistoryManagerImpl implements HistoryManager {
     }
     
     private List<OWLOntologyChange> reverseChanges(List<? extends OWLOntologyChange> changes) {
-        List<OWLOntologyChange> reversedChanges = new ArrayList<>();
+        List<OWLOntologyChange> reversedChanges = new ArrayList<>(changes.size());
         for (OWLOntologyChange change : changes) {
             ReverseChangeGenerator gen = new ReverseChangeGenerator();
             change.accept(gen);
-            // Reverse the order
-            reversedChanges.add(0, gen.getReverseChange());
+            reversedChanges.add(gen.getReverseChange());
         }
+        // Reverse the order
+        Collections.reverse(reversedChanges);
         return reversedChanges;
     }
 }
@@ -0,0 +1,77 @@
+package org.protege.editor.owl.model.history;
+
+import com.google.common.base.MoreObjects;
+
+/**
+ * A snapshot of the size of the undo/redo history.
+ */
+public final class HistoryMetrics {
+
+    private static final HistoryMetrics EMPTY = new HistoryMetrics(0, 0, 0, 0, 0);
+
+    private final long estimatedMemoryBytes;
+
+    private final long spilledBytes;
+
+    private final int entriesInMemory;
+
+    private final int spilledEntries;
+
+    private final long changeCount;
+
+    public HistoryMetrics(long estimatedMemoryBytes,
+                          long spilledBytes,
+                          int entriesInMemory,
+                          int spilledEntries,
+                          long changeCount) {
+        this.estimatedMemoryBytes = estimatedMemoryBytes;
+        this.spilledBytes = spilledBytes;
+        this.entriesInMemory = entriesInMemory;
+        this.spilledEntries = spilledEntries;
+        this.changeCount = changeCount;
+    }
+
+    public static HistoryMetrics empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Gets the estimated number of bytes taken up by the history entries that are held in memory.
+     */
+    public long getEstimatedMemoryBytes() {
+        return estimatedMemoryBytes;
+    }
+
+    /**
+     * Gets the number of bytes of encoded history entries that are held in the spill file.
+     */
+    public long getSpilledBytes() {
+        return spilledBytes;
+    }
+
+    public int getEntriesInMemory() {
+        return entriesInMemory;
+    }
+
+    public int getSpilledEntries() {
+        return spilledEntries;
+    }
+
+    /**
+     * Gets the total number of changes, in memory or spilled, across the undo and redo history.
+     */
+    public long getChangeCount() {
+        return changeCount;
+    }
+
+    @Override
+    public String toString() {
+        return MoreObjects.toStringHelper("HistoryMetrics")
+                .add("estimatedMemoryBytes", estimatedMemoryBytes)
+                .add("spilledBytes", spilledBytes)
+                .add("entriesInMemory", entriesInMemory)
+                .add("spilledEntries", spilledEntries)
+                .add("changeCount", changeCount)
+                .toString();
+    }
+}
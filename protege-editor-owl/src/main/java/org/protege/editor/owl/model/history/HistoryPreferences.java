@@ -0,0 +1,38 @@
+package org.protege.editor.owl.model.history;
+
+import org.protege.editor.core.prefs.Preferences;
+import org.protege.editor.core.prefs.PreferencesManager;
+
+/**
+ * Preferences that control how much memory the undo/redo history may occupy before older entries are
+ * spilled to disk.
+ */
+public class HistoryPreferences {
+
+    private static final String HISTORY_PREFERENCES = "HISTORY_PREFERENCES";
+
+    private static final String MEMORY_BUDGET_MB_KEY = "MEMORY_BUDGET_MB";
+
+    public static final int DEFAULT_MEMORY_BUDGET_MB = 64;
+
+    private static final HistoryPreferences PREFERENCES = new HistoryPreferences();
+
+    private static Preferences getPreferences() {
+        return PreferencesManager.getInstance().getApplicationPreferences(HISTORY_PREFERENCES);
+    }
+
+    public static HistoryPreferences get() {
+        return PREFERENCES;
+    }
+
+    /**
+     * Gets the (estimated) amount of memory, in megabytes, that the history may use to hold changes in memory.
+     */
+    public int getMemoryBudgetMB() {
+        return getPreferences().getInt(MEMORY_BUDGET_MB_KEY, DEFAULT_MEMORY_BUDGET_MB);
+    }
+
+    public void setMemoryBudgetMB(int memoryBudgetMB) {
+        getPreferences().putInt(MEMORY_BUDGET_MB_KEY, memoryBudgetMB);
+    }
+}
@@ -0,0 +1,101 @@
+package org.protege.editor.owl.model.inference;
+
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.semanticweb.owlapi.model.AxiomType;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import javax.annotation.Nonnull;
+import java.nio.charset.StandardCharsets;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An order independent digest of the logical axioms and declarations in the imports closure of an ontology.  The
+ * digest is the sum of the hashes of the axioms (without their annotations), so it can be kept up to date as axioms
+ * are added and removed, rather than being recomputed from every axiom in the imports closure.
+ */
+public final class AxiomDigest {
+
+    private static final HashFunction AXIOM_HASH = Hashing.murmur3_128();
+
+    private long axiomCount;
+
+    private long sumHigh;
+
+    private long sumLow;
+
+    private AxiomDigest(long axiomCount, long sumHigh, long sumLow) {
+        this.axiomCount = axiomCount;
+        this.sumHigh = sumHigh;
+        this.sumLow = sumLow;
+    }
+
+    /**
+     * Computes the digest of the logical axioms and declarations in the imports closure of the specified ontology.
+     */
+    @Nonnull
+    public static AxiomDigest compute(@Nonnull OWLOntology ontology) {
+        AxiomDigest digest = new AxiomDigest(0, 0, 0);
+        for (OWLOntology ont : checkNotNull(ontology).getImportsClosure()) {
+            for (OWLAxiom axiom : ont.getAxioms()) {
+                digest.axiomAdded(axiom);
+            }
+        }
+        return digest;
+    }
+
+    /**
+     * Updates the digest for an axiom that has been added to an ontology in the imports closure.  Axioms that are
+     * not digested are ignored.
+     */
+    public synchronized void axiomAdded(@Nonnull OWLAxiom axiom) {
+        update(axiom, 1);
+    }
+
+    /**
+     * Updates the digest for an axiom that has been removed from an ontology in the imports closure.  Axioms that
+     * are not digested are ignored.
+     */
+    public synchronized void axiomRemoved(@Nonnull OWLAxiom axiom) {
+        update(axiom, -1);
+    }
+
+    private void update(OWLAxiom axiom, int sign) {
+        if (!axiom.isLogicalAxiom() && !axiom.isOfType(AxiomType.DECLARATION)) {
+            return;
+        }
+        byte[] bytes = AXIOM_HASH.hashString(axiom.getAxiomWithoutAnnotations().toString(), StandardCharsets.UTF_8)
+                                 .asBytes();
+        sumHigh += sign * toLong(bytes, 0);
+        sumLow += sign * toLong(bytes, 8);
+        axiomCount += sign;
+    }
+
+    private static long toLong(byte[] bytes, int offset) {
+        long value = 0;
+        for (int i = 0; i < 8; i++) {
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        }
+        return value;
+    }
+
+    /**
+     * Gets a copy of this digest, which is not affected by later updates.
+     */
+    @Nonnull
+    public synchronized AxiomDigest copy() {
+        return new AxiomDigest(axiomCount, sumHigh, sumLow);
+    }
+
+    /**
+     * Puts this digest into a hasher.
+     */
+    public synchronized void putTo(@Nonnull Hasher hasher) {
+        hasher.putLong(axiomCount);
+        hasher.putLong(sumHigh);
+        hasher.putLong(sumLow);
+    }
+}
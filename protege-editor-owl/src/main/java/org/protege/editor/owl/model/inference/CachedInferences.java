@@ -0,0 +1,275 @@
+package org.protege.editor.owl.model.inference;
+
+import org.protege.editor.owl.model.hierarchy.TaxonomySnapshot;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.model.parameters.Imports;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import javax.annotation.Nonnull;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * The results of a classification that can be stored and restored without a reasoner: the inferred class, object
+ * property and data property taxonomies, the unsatisfiable classes (the bottom class node) and, if they were
+ * precomputed, the direct types of named individuals.
+ */
+public final class CachedInferences {
+
+    private final String reasonerName;
+
+    private final Set<InferenceType> precomputedInferences;
+
+    private final TaxonomySnapshot<OWLClass> classTaxonomy;
+
+    private final TaxonomySnapshot<OWLObjectPropertyExpression> objectPropertyTaxonomy;
+
+    private final TaxonomySnapshot<OWLDataProperty> dataPropertyTaxonomy;
+
+    /**
+     * The ids of the class taxonomy nodes that are the direct types of each individual
+     */
+    private final Map<OWLNamedIndividual, int[]> directTypes;
+
+    public CachedInferences(@Nonnull String reasonerName,
+                            @Nonnull Set<InferenceType> precomputedInferences,
+                            @Nonnull TaxonomySnapshot<OWLClass> classTaxonomy,
+                            @Nonnull TaxonomySnapshot<OWLObjectPropertyExpression> objectPropertyTaxonomy,
+                            @Nonnull TaxonomySnapshot<OWLDataProperty> dataPropertyTaxonomy,
+                            @Nonnull Map<OWLNamedIndividual, int[]> directTypes) {
+        this.reasonerName = checkNotNull(reasonerName);
+        Set<InferenceType> precomputed = EnumSet.noneOf(InferenceType.class);
+        precomputed.addAll(checkNotNull(precomputedInferences));
+        this.precomputedInferences = Collections.unmodifiableSet(precomputed);
+        this.classTaxonomy = checkNotNull(classTaxonomy);
+        this.objectPropertyTaxonomy = checkNotNull(objectPropertyTaxonomy);
+        this.dataPropertyTaxonomy = checkNotNull(dataPropertyTaxonomy);
+        this.directTypes = checkNotNull(directTypes);
+    }
+
+    /**
+     * Captures the results of a classification from a reasoner.  The reasoner should not be in use by any other
+     * thread.
+     * @param reasoner The reasoner.  This should have precomputed the specified inference types.
+     * @param precomputedInferences The inference types that have been precomputed.
+     */
+    @Nonnull
+    public static CachedInferences capture(@Nonnull OWLReasoner reasoner,
+                                           @Nonnull Set<InferenceType> precomputedInferences) {
+        String reasonerName = reasoner.getReasonerName();
+        if (!reasoner.isConsistent()) {
+            return new CachedInferences(reasonerName,
+                                        precomputedInferences,
+                                        TaxonomySnapshot.inconsistent(),
+                                        TaxonomySnapshot.inconsistent(),
+                                        TaxonomySnapshot.inconsistent(),
+                                        Collections.emptyMap());
+        }
+        TaxonomySnapshot<OWLClass> classTaxonomy = TaxonomySnapshot.capture(
+                reasoner.getTopClassNode(),
+                reasoner.getBottomClassNode(),
+                cls -> reasoner.getSubClasses(cls, true));
+        TaxonomySnapshot<OWLObjectPropertyExpression> objectPropertyTaxonomy = TaxonomySnapshot.capture(
+                reasoner.getTopObjectPropertyNode(),
+                reasoner.getBottomObjectPropertyNode(),
+                prop -> reasoner.getSubObjectProperties(prop, true));
+        TaxonomySnapshot<OWLDataProperty> dataPropertyTaxonomy = TaxonomySnapshot.capture(
+                reasoner.getTopDataPropertyNode(),
+                reasoner.getBottomDataPropertyNode(),
+                prop -> reasoner.getSubDataProperties(prop, true));
+        Map<OWLNamedIndividual, int[]> directTypes = new HashMap<>();
+        if (precomputedInferences.contains(InferenceType.CLASS_ASSERTIONS)) {
+            for (OWLNamedIndividual individual : reasoner.getRootOntology().getIndividualsInSignature(Imports.INCLUDED)) {
+                Set<Node<OWLClass>> types = reasoner.getTypes(individual, true).getNodes();
+                int[] ids = new int[types.size()];
+                int count = 0;
+                for (Node<OWLClass> type : types) {
+                    int id = classTaxonomy.getNodeId(type.getRepresentativeElement());
+                    if (id != -1) {
+                        ids[count++] = id;
+                    }
+                }
+                directTypes.put(individual, Arrays.copyOf(ids, count));
+            }
+        }
+        return new CachedInferences(reasonerName,
+                                    precomputedInferences,
+                                    classTaxonomy,
+                                    objectPropertyTaxonomy,
+                                    dataPropertyTaxonomy,
+                                    directTypes);
+    }
+
+    @Nonnull
+    public String getReasonerName() {
+        return reasonerName;
+    }
+
+    @Nonnull
+    public Set<InferenceType> getPrecomputedInferences() {
+        return precomputedInferences;
+    }
+
+    public boolean isConsistent() {
+        return classTaxonomy.isConsistent();
+    }
+
+    @Nonnull
+    public TaxonomySnapshot<OWLClass> getClassTaxonomy() {
+        return classTaxonomy;
+    }
+
+    @Nonnull
+    public TaxonomySnapshot<OWLObjectPropertyExpression> getObjectPropertyTaxonomy() {
+        return objectPropertyTaxonomy;
+    }
+
+    @Nonnull
+    public TaxonomySnapshot<OWLDataProperty> getDataPropertyTaxonomy() {
+        return dataPropertyTaxonomy;
+    }
+
+    /**
+     * Gets the direct types of named individuals, as ids of nodes in the class taxonomy.  This is empty unless
+     * class assertions were precomputed.
+     */
+    @Nonnull
+    public Map<OWLNamedIndividual, int[]> getDirectTypes() {
+        return Collections.unmodifiableMap(directTypes);
+    }
+
+    /**
+     * Writes these inferences.  Entities are written as IRIs.  Anonymous members of nodes (i.e. inverse object
+     * properties) are not written.
+     */
+    public void write(@Nonnull DataOutput out) throws IOException {
+        out.writeUTF(reasonerName);
+        out.writeInt(precomputedInferences.size());
+        for (InferenceType type : precomputedInferences) {
+            out.writeUTF(type.name());
+        }
+        out.writeBoolean(isConsistent());
+        if (!isConsistent()) {
+            return;
+        }
+        writeTaxonomy(classTaxonomy, out);
+        writeTaxonomy(objectPropertyTaxonomy, out);
+        writeTaxonomy(dataPropertyTaxonomy, out);
+        out.writeInt(directTypes.size());
+        for (Map.Entry<OWLNamedIndividual, int[]> entry : directTypes.entrySet()) {
+            out.writeUTF(entry.getKey().getIRI().toString());
+            writeIds(entry.getValue(), out);
+        }
+    }
+
+    /**
+     * Reads inferences that were written by {@link #write(DataOutput)}.
+     * @param in The input.
+     * @param df A data factory that is used to recreate entities.
+     */
+    @Nonnull
+    public static CachedInferences read(@Nonnull DataInput in, @Nonnull OWLDataFactory df) throws IOException {
+        String reasonerName = in.readUTF();
+        int typeCount = in.readInt();
+        Set<InferenceType> precomputed = EnumSet.noneOf(InferenceType.class);
+        for (int i = 0; i < typeCount; i++) {
+            try {
+                precomputed.add(InferenceType.valueOf(in.readUTF()));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Unknown inference type", e);
+            }
+        }
+        if (!in.readBoolean()) {
+            return new CachedInferences(reasonerName,
+                                        precomputed,
+                                        TaxonomySnapshot.inconsistent(),
+                                        TaxonomySnapshot.inconsistent(),
+                                        TaxonomySnapshot.inconsistent(),
+                                        Collections.emptyMap());
+        }
+        TaxonomySnapshot<OWLClass> classTaxonomy = readTaxonomy(in, df::getOWLClass);
+        TaxonomySnapshot<OWLObjectPropertyExpression> objectPropertyTaxonomy = readTaxonomy(in, df::getOWLObjectProperty);
+        TaxonomySnapshot<OWLDataProperty> dataPropertyTaxonomy = readTaxonomy(in, df::getOWLDataProperty);
+        int individualCount = in.readInt();
+        Map<OWLNamedIndividual, int[]> directTypes = new HashMap<>();
+        for (int i = 0; i < individualCount; i++) {
+            OWLNamedIndividual individual = df.getOWLNamedIndividual(IRI.create(in.readUTF()));
+            directTypes.put(individual, readIds(in, classTaxonomy.getNodeCount()));
+        }
+        return new CachedInferences(reasonerName,
+                                    precomputed,
+                                    classTaxonomy,
+                                    objectPropertyTaxonomy,
+                                    dataPropertyTaxonomy,
+                                    directTypes);
+    }
+
+    private static void writeTaxonomy(TaxonomySnapshot<? extends OWLObject> taxonomy, DataOutput out) throws IOException {
+        int nodeCount = taxonomy.getNodeCount();
+        out.writeInt(nodeCount);
+        out.writeInt(taxonomy.getBottomNodeId());
+        for (int id = 0; id < nodeCount; id++) {
+            List<IRI> iris = new ArrayList<>();
+            for (OWLObject member : taxonomy.getNodeMembers(id)) {
+                if (member instanceof OWLEntity) {
+                    iris.add(((OWLEntity) member).getIRI());
+                }
+            }
+            out.writeInt(iris.size());
+            for (IRI iri : iris) {
+                out.writeUTF(iri.toString());
+            }
+            writeIds(taxonomy.getChildNodeIds(id), out);
+        }
+    }
+
+    private static <T extends OWLObject> TaxonomySnapshot<T> readTaxonomy(DataInput in,
+                                                                          Function<IRI, ? extends T> entityFactory) throws IOException {
+        int nodeCount = in.readInt();
+        int bottomNodeId = in.readInt();
+        if (nodeCount < 1 || bottomNodeId < 0 || bottomNodeId >= nodeCount) {
+            throw new IOException("Malformed taxonomy");
+        }
+        List<Set<T>> members = new ArrayList<>(nodeCount);
+        int[][] children = new int[nodeCount][];
+        for (int id = 0; id < nodeCount; id++) {
+            int memberCount = in.readInt();
+            Set<T> nodeMembers = new HashSet<>();
+            for (int i = 0; i < memberCount; i++) {
+                nodeMembers.add(entityFactory.apply(IRI.create(in.readUTF())));
+            }
+            members.add(nodeMembers);
+            children[id] = readIds(in, nodeCount);
+        }
+        return TaxonomySnapshot.of(members, children, bottomNodeId);
+    }
+
+    private static void writeIds(int[] ids, DataOutput out) throws IOException {
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private static int[] readIds(DataInput in, int nodeCount) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > nodeCount) {
+            throw new IOException("Malformed node id list");
+        }
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = in.readInt();
+            if (ids[i] < 0 || ids[i] >= nodeCount) {
+                throw new IOException("Malformed node id");
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,304 @@
+package org.protege.editor.owl.model.inference;
+
+import org.protege.editor.owl.model.hierarchy.TaxonomySnapshot;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.Node;
+import org.semanticweb.owlapi.reasoner.NodeSet;
+import org.semanticweb.owlapi.reasoner.impl.*;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A reasoner that answers hierarchy, satisfiability and (if they were cached) class assertion queries from the
+ * stored results of an earlier classification.  Everything else is answered as the {@link NoOpReasoner} answers
+ * it.  As a subclass of the {@link NoOpReasoner} it is treated as a reasoner that has not been initialised, so
+ * starting the reasoner replaces it with a real one.
+ */
+public class CachedInferencesReasoner extends NoOpReasoner {
+
+    private final CachedInferences inferences;
+
+    /**
+     * Individuals indexed by the ids of their direct types.  Built on demand.
+     */
+    private Map<Integer, Set<OWLNamedIndividual>> individualsByDirectType;
+
+    public CachedInferencesReasoner(@Nonnull OWLOntology rootOntology,
+                                    @Nonnull OWLDataFactory df,
+                                    @Nonnull CachedInferences inferences) {
+        super(rootOntology, df);
+        this.inferences = checkNotNull(inferences);
+    }
+
+    @Nonnull
+    public CachedInferences getCachedInferences() {
+        return inferences;
+    }
+
+    @Nonnull
+    @Override
+    public String getReasonerName() {
+        return inferences.getReasonerName() + " (cached inferences)";
+    }
+
+    @Override
+    public boolean isConsistent() {
+        return inferences.isConsistent();
+    }
+
+    @Override
+    public boolean isPrecomputed(@Nonnull InferenceType inferenceType) {
+        return inferences.getPrecomputedInferences().contains(inferenceType);
+    }
+
+    // Classes
+
+    @Nonnull
+    @Override
+    public Node<OWLClass> getTopClassNode() {
+        return getNode(inferences.getClassTaxonomy(), 0, OWLClassNode::new, super.getTopClassNode());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLClass> getBottomClassNode() {
+        TaxonomySnapshot<OWLClass> taxonomy = inferences.getClassTaxonomy();
+        return getNode(taxonomy, taxonomy.getBottomNodeId(), OWLClassNode::new, super.getBottomClassNode());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLClass> getUnsatisfiableClasses() {
+        return getBottomClassNode();
+    }
+
+    @Override
+    public boolean isSatisfiable(@Nonnull OWLClassExpression classExpression) {
+        return classExpression.isAnonymous()
+                || !inferences.getClassTaxonomy().isUnsatisfiable(classExpression.asOWLClass());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLClass> getEquivalentClasses(@Nonnull OWLClassExpression ce) {
+        if (ce.isAnonymous()) {
+            return super.getEquivalentClasses(ce);
+        }
+        TaxonomySnapshot<OWLClass> taxonomy = inferences.getClassTaxonomy();
+        return getNode(taxonomy, taxonomy.getNodeId(ce.asOWLClass()), OWLClassNode::new, super.getEquivalentClasses(ce));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLClass> getSubClasses(@Nonnull OWLClassExpression ce, boolean direct) {
+        if (ce.isAnonymous()) {
+            return super.getSubClasses(ce, direct);
+        }
+        TaxonomySnapshot<OWLClass> taxonomy = inferences.getClassTaxonomy();
+        int id = taxonomy.getNodeId(ce.asOWLClass());
+        if (id == -1) {
+            return super.getSubClasses(ce, direct);
+        }
+        int[] ids = direct ? taxonomy.getChildNodeIds(id) : taxonomy.getDescendantNodeIds(id);
+        return new OWLClassNodeSet(getNodes(taxonomy, ids, OWLClassNode::new));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLClass> getSuperClasses(@Nonnull OWLClassExpression ce, boolean direct) {
+        if (ce.isAnonymous()) {
+            return super.getSuperClasses(ce, direct);
+        }
+        TaxonomySnapshot<OWLClass> taxonomy = inferences.getClassTaxonomy();
+        int id = taxonomy.getNodeId(ce.asOWLClass());
+        if (id == -1) {
+            return super.getSuperClasses(ce, direct);
+        }
+        int[] ids = direct ? taxonomy.getParentNodeIds(id) : taxonomy.getAncestorNodeIds(id);
+        return new OWLClassNodeSet(getNodes(taxonomy, ids, OWLClassNode::new));
+    }
+
+    // Object properties
+
+    @Nonnull
+    @Override
+    public Node<OWLObjectPropertyExpression> getTopObjectPropertyNode() {
+        return getNode(inferences.getObjectPropertyTaxonomy(), 0, OWLObjectPropertyNode::new, super.getTopObjectPropertyNode());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLObjectPropertyExpression> getBottomObjectPropertyNode() {
+        TaxonomySnapshot<OWLObjectPropertyExpression> taxonomy = inferences.getObjectPropertyTaxonomy();
+        return getNode(taxonomy, taxonomy.getBottomNodeId(), OWLObjectPropertyNode::new, super.getBottomObjectPropertyNode());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLObjectPropertyExpression> getEquivalentObjectProperties(@Nonnull OWLObjectPropertyExpression pe) {
+        TaxonomySnapshot<OWLObjectPropertyExpression> taxonomy = inferences.getObjectPropertyTaxonomy();
+        return getNode(taxonomy, taxonomy.getNodeId(pe), OWLObjectPropertyNode::new, super.getEquivalentObjectProperties(pe));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSubObjectProperties(@Nonnull OWLObjectPropertyExpression pe, boolean direct) {
+        TaxonomySnapshot<OWLObjectPropertyExpression> taxonomy = inferences.getObjectPropertyTaxonomy();
+        int id = taxonomy.getNodeId(pe);
+        if (id == -1) {
+            return super.getSubObjectProperties(pe, direct);
+        }
+        int[] ids = direct ? taxonomy.getChildNodeIds(id) : taxonomy.getDescendantNodeIds(id);
+        return new OWLObjectPropertyNodeSet(getNodes(taxonomy, ids, OWLObjectPropertyNode::new));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSuperObjectProperties(@Nonnull OWLObjectPropertyExpression pe, boolean direct) {
+        TaxonomySnapshot<OWLObjectPropertyExpression> taxonomy = inferences.getObjectPropertyTaxonomy();
+        int id = taxonomy.getNodeId(pe);
+        if (id == -1) {
+            return super.getSuperObjectProperties(pe, direct);
+        }
+        int[] ids = direct ? taxonomy.getParentNodeIds(id) : taxonomy.getAncestorNodeIds(id);
+        return new OWLObjectPropertyNodeSet(getNodes(taxonomy, ids, OWLObjectPropertyNode::new));
+    }
+
+    // Data properties
+
+    @Nonnull
+    @Override
+    public Node<OWLDataProperty> getTopDataPropertyNode() {
+        return getNode(inferences.getDataPropertyTaxonomy(), 0, OWLDataPropertyNode::new, super.getTopDataPropertyNode());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLDataProperty> getBottomDataPropertyNode() {
+        TaxonomySnapshot<OWLDataProperty> taxonomy = inferences.getDataPropertyTaxonomy();
+        return getNode(taxonomy, taxonomy.getBottomNodeId(), OWLDataPropertyNode::new, super.getBottomDataPropertyNode());
+    }
+
+    @Nonnull
+    @Override
+    public Node<OWLDataProperty> getEquivalentDataProperties(@Nonnull OWLDataProperty pe) {
+        TaxonomySnapshot<OWLDataProperty> taxonomy = inferences.getDataPropertyTaxonomy();
+        return getNode(taxonomy, taxonomy.getNodeId(pe), OWLDataPropertyNode::new, super.getEquivalentDataProperties(pe));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLDataProperty> getSubDataProperties(@Nonnull OWLDataProperty pe, boolean direct) {
+        TaxonomySnapshot<OWLDataProperty> taxonomy = inferences.getDataPropertyTaxonomy();
+        int id = taxonomy.getNodeId(pe);
+        if (id == -1) {
+            return super.getSubDataProperties(pe, direct);
+        }
+        int[] ids = direct ? taxonomy.getChildNodeIds(id) : taxonomy.getDescendantNodeIds(id);
+        return new OWLDataPropertyNodeSet(getNodes(taxonomy, ids, OWLDataPropertyNode::new));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLDataProperty> getSuperDataProperties(@Nonnull OWLDataProperty pe, boolean direct) {
+        TaxonomySnapshot<OWLDataProperty> taxonomy = inferences.getDataPropertyTaxonomy();
+        int id = taxonomy.getNodeId(pe);
+        if (id == -1) {
+            return super.getSuperDataProperties(pe, direct);
+        }
+        int[] ids = direct ? taxonomy.getParentNodeIds(id) : taxonomy.getAncestorNodeIds(id);
+        return new OWLDataPropertyNodeSet(getNodes(taxonomy, ids, OWLDataPropertyNode::new));
+    }
+
+    // Individuals
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLClass> getTypes(@Nonnull OWLNamedIndividual ind, boolean direct) {
+        int[] directTypeIds = inferences.getDirectTypes().get(ind);
+        if (directTypeIds == null) {
+            return super.getTypes(ind, direct);
+        }
+        TaxonomySnapshot<OWLClass> taxonomy = inferences.getClassTaxonomy();
+        Set<Integer> ids = new LinkedHashSet<>();
+        for (int id : directTypeIds) {
+            ids.add(id);
+            if (!direct) {
+                for (int ancestorId : taxonomy.getAncestorNodeIds(id)) {
+                    ids.add(ancestorId);
+                }
+            }
+        }
+        return new OWLClassNodeSet(getNodes(taxonomy, ids.stream().mapToInt(Integer::intValue).toArray(), OWLClassNode::new));
+    }
+
+    @Nonnull
+    @Override
+    public NodeSet<OWLNamedIndividual> getInstances(@Nonnull OWLClassExpression ce, boolean direct) {
+        if (ce.isAnonymous() || !isPrecomputed(InferenceType.CLASS_ASSERTIONS)) {
+            return super.getInstances(ce, direct);
+        }
+        TaxonomySnapshot<OWLClass> taxonomy = inferences.getClassTaxonomy();
+        int id = taxonomy.getNodeId(ce.asOWLClass());
+        if (id == -1) {
+            return super.getInstances(ce, direct);
+        }
+        Map<Integer, Set<OWLNamedIndividual>> index = getIndividualsByDirectType();
+        Set<Node<OWLNamedIndividual>> instances = new HashSet<>();
+        addInstances(index.get(id), instances);
+        if (!direct) {
+            for (int descendantId : taxonomy.getDescendantNodeIds(id)) {
+                addInstances(index.get(descendantId), instances);
+            }
+        }
+        return new OWLNamedIndividualNodeSet(instances);
+    }
+
+    private static void addInstances(Set<OWLNamedIndividual> individuals, Set<Node<OWLNamedIndividual>> nodes) {
+        if (individuals != null) {
+            for (OWLNamedIndividual individual : individuals) {
+                nodes.add(new OWLNamedIndividualNode(individual));
+            }
+        }
+    }
+
+    private synchronized Map<Integer, Set<OWLNamedIndividual>> getIndividualsByDirectType() {
+        if (individualsByDirectType == null) {
+            individualsByDirectType = new HashMap<>();
+            for (Map.Entry<OWLNamedIndividual, int[]> entry : inferences.getDirectTypes().entrySet()) {
+                for (int id : entry.getValue()) {
+                    individualsByDirectType.computeIfAbsent(id, k -> new HashSet<>()).add(entry.getKey());
+                }
+            }
+        }
+        return individualsByDirectType;
+    }
+
+    private static <T extends OWLObject> Node<T> getNode(TaxonomySnapshot<T> taxonomy,
+                                                         int id,
+                                                         Function<Set<T>, Node<T>> nodeFactory,
+                                                         Node<T> defaultNode) {
+        if (id < 0 || id >= taxonomy.getNodeCount()) {
+            return defaultNode;
+        }
+        return nodeFactory.apply(taxonomy.getNodeMembers(id));
+    }
+
+    private static <T extends OWLObject> Set<Node<T>> getNodes(TaxonomySnapshot<T> taxonomy,
+                                                               int[] ids,
+                                                               Function<Set<T>, Node<T>> nodeFactory) {
+        Set<Node<T>> nodes = new HashSet<>();
+        for (int id : ids) {
+            Set<T> members = taxonomy.getNodeMembers(id);
+            if (!members.isEmpty()) {
+                nodes.add(nodeFactory.apply(members));
+            }
+        }
+        return nodes;
+    }
+}
@@ -0,0 +1,201 @@
+package org.protege.editor.owl.model.inference;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import org.osgi.framework.Bundle;
+import org.osgi.framework.FrameworkUtil;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Stores the results of classifications on disk so that they can be shown, without running the reasoner, when
+ * an unchanged ontology is opened again.
+ * <p>
+ * Results are keyed by the reasoner id, the reasoner version and a digest of the logical axioms (and declarations)
+ * in the imports closure of the classified ontology.  The digest is independent of the order of the axioms and of
+ * axiom annotations, so a result is only found again if the reasoner would be given the same logical content.  A
+ * bounded number of results is kept; the least recently used are deleted.
+ */
+public class ClassificationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(ClassificationCache.class);
+
+    public static final String CACHE_DIRECTORY_NAME = "inference-cache";
+
+    private static final String FILE_EXTENSION = ".inferences";
+
+    private static final int MAGIC = 0x50494E46;
+
+    private static final int FORMAT_VERSION = 1;
+
+    private static final int DEFAULT_MAX_ENTRIES = 16;
+
+    private final Path directory;
+
+    private final int maxEntries;
+
+    public ClassificationCache(@Nonnull Path directory) {
+        this(directory, DEFAULT_MAX_ENTRIES);
+    }
+
+    public ClassificationCache(@Nonnull Path directory, int maxEntries) {
+        this.directory = checkNotNull(directory);
+        this.maxEntries = maxEntries;
+    }
+
+    /**
+     * Computes the key for the results of classifying the specified ontology with the specified reasoner.
+     * @param reasonerId The id of the reasoner plugin.
+     * @param reasonerVersion The version of the reasoner.
+     * @param ontology The ontology.  The logical axioms and declarations in its imports closure are digested.
+     * @return A key that may be used to store and load results.
+     */
+    @Nonnull
+    public static String computeKey(@Nonnull String reasonerId,
+                                    @Nonnull String reasonerVersion,
+                                    @Nonnull OWLOntology ontology) {
+        return computeKey(reasonerId, reasonerVersion, AxiomDigest.compute(ontology));
+    }
+
+    /**
+     * Computes the key for the results of classifying an ontology with the specified reasoner.
+     * @param reasonerId The id of the reasoner plugin.
+     * @param reasonerVersion The version of the reasoner.
+     * @param digest The digest of the logical axioms and declarations in the imports closure of the ontology.
+     * @return A key that may be used to store and load results.
+     */
+    @Nonnull
+    public static String computeKey(@Nonnull String reasonerId,
+                                    @Nonnull String reasonerVersion,
+                                    @Nonnull AxiomDigest digest) {
+        Hasher key = Hashing.sha1().newHasher();
+        key.putString(reasonerId, StandardCharsets.UTF_8);
+        key.putByte((byte) 0);
+        key.putString(reasonerVersion, StandardCharsets.UTF_8);
+        key.putByte((byte) 0);
+        digest.putTo(key);
+        return key.hash().toString();
+    }
+
+    /**
+     * Gets the version of the reasoner that is provided by the specified reasoner plugin.  This is the version of
+     * the bundle that contains the reasoner factory or, outside of an OSGi framework, the implementation version
+     * of its package.
+     */
+    @Nonnull
+    public static String getReasonerVersion(@Nonnull ProtegeOWLReasonerInfo info) {
+        Class<?> factoryClass = info.getReasonerFactory().getClass();
+        Bundle bundle = FrameworkUtil.getBundle(factoryClass);
+        if (bundle != null) {
+            return bundle.getVersion().toString();
+        }
+        Package pkg = factoryClass.getPackage();
+        if (pkg != null && pkg.getImplementationVersion() != null) {
+            return pkg.getImplementationVersion();
+        }
+        return "unknown";
+    }
+
+    /**
+     * Loads the results that are stored under the specified key.
+     * @param key The key.
+     * @param df A data factory that is used to recreate entities.
+     * @return The results, or an empty value if there are no (readable) results stored under the key.
+     */
+    @Nonnull
+    public Optional<CachedInferences> load(@Nonnull String key, @Nonnull OWLDataFactory df) {
+        Path file = getFile(key);
+        if (!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || !in.readUTF().equals(key)) {
+                logger.info("[ClassificationCache] Ignoring cached inferences in {}: unrecognised format", file);
+                return Optional.empty();
+            }
+            CachedInferences inferences = CachedInferences.read(in, df);
+            // Record the use, so that this entry is not the next to be evicted
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return Optional.of(inferences);
+        } catch (IOException | RuntimeException e) {
+            logger.warn("[ClassificationCache] Could not read cached inferences from {}: {}", file, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Stores results under the specified key, replacing any results that are already stored under it.  The file
+     * is written to a temporary file and then moved into place, so a partially written file is never read.
+     */
+    public void store(@Nonnull String key, @Nonnull CachedInferences inferences) throws IOException {
+        Files.createDirectories(directory);
+        Path file = getFile(key);
+        Path tempFile = Files.createTempFile(directory, "." + key, ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(tempFile))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeUTF(key);
+                inferences.write(out);
+            }
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+        evictLeastRecentlyUsed();
+    }
+
+    private void evictLeastRecentlyUsed() {
+        List<Path> entries = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(f -> f.getFileName().toString().endsWith(FILE_EXTENSION)).forEach(entries::add);
+        } catch (IOException e) {
+            logger.warn("[ClassificationCache] Could not list cached inferences: {}", e.getMessage());
+            return;
+        }
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        entries.sort(Comparator.comparing(ClassificationCache::getLastModifiedTime));
+        for (Path entry : entries.subList(0, entries.size() - maxEntries)) {
+            try {
+                Files.deleteIfExists(entry);
+            } catch (IOException e) {
+                logger.warn("[ClassificationCache] Could not delete cached inferences in {}: {}", entry, e.getMessage());
+            }
+        }
+    }
+
+    private static FileTime getLastModifiedTime(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private Path getFile(String key) {
+        return directory.resolve(key + FILE_EXTENSION);
+    }
+}
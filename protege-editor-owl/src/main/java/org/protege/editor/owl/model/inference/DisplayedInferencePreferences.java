@@ -4,21 +4,37 @@ import org.protege.editor.core.prefs.Preferences;
 import org.protege.editor.owl.model.inference.ReasonerPreferences.OptionalInferenceTask;
 import org.semanticweb.owlapi.reasoner.InferenceType;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.EnumMap;
 import java.util.EnumSet;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class DisplayedInferencePreferences {
 	
 	public static final String USER_READABLE_ID = "Displayed Inference Preferences";
     public static final String SHOW_INFERENCES_KEY = "SHOW_INFERENCES";
     
-	private long startOperationTime;
+    /*
+     * The start times of the tasks that are running on each thread.  Tasks may be nested (and may run concurrently
+     * on different threads), so each thread has a stack of start times.
+     */
+    private final ThreadLocal<Deque<Long>> startTimes = ThreadLocal.withInitial(ArrayDeque::new);
 
     private boolean showInferences;	
-    private EnumSet<OptionalInferenceTask>           enabled       = EnumSet.noneOf(OptionalInferenceTask.class);
-    private EnumMap<OptionalInferenceTask, Integer>  clockMap      = new EnumMap<>(OptionalInferenceTask.class);
-    private EnumMap<OptionalInferenceTask, Integer>  countMap      = new EnumMap<>(OptionalInferenceTask.class);
+    private EnumSet<OptionalInferenceTask>              enabled       = EnumSet.noneOf(OptionalInferenceTask.class);
+    private final EnumMap<OptionalInferenceTask, AtomicLong> clockMap = new EnumMap<>(OptionalInferenceTask.class);
+    private final EnumMap<OptionalInferenceTask, AtomicLong> countMap = new EnumMap<>(OptionalInferenceTask.class);
+
+    public DisplayedInferencePreferences() {
+        // Filled in advance, so that the maps are only read after construction
+        for (OptionalInferenceTask task : OptionalInferenceTask.values()) {
+            clockMap.put(task, new AtomicLong());
+            countMap.put(task, new AtomicLong());
+        }
+    }
  
     public void load(ReasonerPreferences p) {
     	Preferences prefs = ReasonerPreferences.getPreferences();
@@ -64,38 +80,37 @@ public class DisplayedInferencePreferences {
     }
     
     public void startClock(OptionalInferenceTask task) {
-        startOperationTime = System.currentTimeMillis();
+        startTimes.get().push(System.nanoTime());
     }
 
     public void stopClock(OptionalInferenceTask task) {
-        int duration = (int) (System.currentTimeMillis() - startOperationTime);
-
-        countMap.put(task, getCallCount(task) + 1);
-        clockMap.put(task, getTimeInTask(task) + duration);
+        Long start = startTimes.get().poll();
+        if (start == null) {
+            // Not started on this thread
+            return;
+        }
+        countMap.get(task).incrementAndGet();
+        clockMap.get(task).addAndGet(System.nanoTime() - start);
     }
 
     public int getTimeInTask(OptionalInferenceTask task) {
-        Integer duration = clockMap.get(task);
-        if (duration == null) {
-            duration = 0;
-        }
-        return duration;
+        return toMillis(clockMap.get(task).get());
     }
 
     public int getAverageTimeInTask(OptionalInferenceTask task) {
-        int count = getCallCount(task);
+        long count = getCallCount(task);
         if (count == 0) {
             return 0;
         }
-        return getTimeInTask(task) / count;
+        return toMillis(clockMap.get(task).get() / count);
     }
 
-    private int getCallCount(OptionalInferenceTask task) {
-        Integer count = countMap.get(task);
-        if (count == null) {
-            count = 0;
-        }
-        return count;
+    private long getCallCount(OptionalInferenceTask task) {
+        return countMap.get(task).get();
+    }
+
+    private static int toMillis(long nanos) {
+        return (int) Math.min(TimeUnit.NANOSECONDS.toMillis(nanos), Integer.MAX_VALUE);
     }
 
     public boolean isEnabled(OptionalInferenceTask task) {
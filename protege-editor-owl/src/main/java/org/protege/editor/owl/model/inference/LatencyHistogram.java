@@ -0,0 +1,84 @@
+package org.protege.editor.owl.model.inference;
+
+/**
+ * A histogram of latencies, measured in nanoseconds.  Latencies are counted in buckets whose bounds are powers of
+ * two, so percentiles are approximate (to within a factor of two) but recording is cheap and the histogram has a
+ * fixed size however many latencies are recorded.  Instances are safe for use by concurrent threads.
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKET_COUNT = 64;
+
+    /**
+     * Bucket i counts latencies l with 2^i <= l < 2^(i+1) (bucket 0 also counts latencies of zero)
+     */
+    private final long[] buckets = new long[BUCKET_COUNT];
+
+    private long count;
+
+    private long totalNanos;
+
+    private long maxNanos;
+
+    public synchronized void record(long nanos) {
+        long latency = Math.max(nanos, 0);
+        buckets[getBucket(latency)]++;
+        count++;
+        totalNanos += latency;
+        maxNanos = Math.max(maxNanos, latency);
+    }
+
+    private static int getBucket(long nanos) {
+        return nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos);
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getTotalNanos() {
+        return totalNanos;
+    }
+
+    public synchronized long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public synchronized long getMeanNanos() {
+        return count == 0 ? 0 : totalNanos / count;
+    }
+
+    /**
+     * Gets an upper bound on the specified percentile of the recorded latencies.
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound of the bucket that contains the percentile, or the maximum latency if that is lower.
+     * Zero if no latencies have been recorded.
+     */
+    public synchronized long getPercentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.min(Math.max(percentile, 0), 100) / 100);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= Math.max(rank, 1)) {
+                long upperBound = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    /**
+     * Gets a copy of this histogram, which is not affected by latencies recorded afterwards.
+     */
+    public synchronized LatencyHistogram copy() {
+        LatencyHistogram copy = new LatencyHistogram();
+        System.arraycopy(buckets, 0, copy.buckets, 0, BUCKET_COUNT);
+        copy.count = count;
+        copy.totalNanos = totalNanos;
+        copy.maxNanos = maxNanos;
+        return copy;
+    }
+}
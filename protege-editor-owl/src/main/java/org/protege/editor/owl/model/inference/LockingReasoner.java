@@ -0,0 +1,355 @@
+package org.protege.editor.owl.model.inference;
+
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.*;
+import org.semanticweb.owlapi.util.Version;
+
+import javax.annotation.Nonnull;
+import javax.swing.*;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A reasoner that forwards each query to another reasoner whilst holding a lock, so that the reasoner is only used
+ * by one thread at a time.  The reasoner manager hands this out in place of the installed reasoner and holds the same
+ * lock whilst it brings the installed reasoner up to date.  Methods that only read the reasoner's configuration (e.g.
+ * {@link #getReasonerName()}) and {@link #interrupt()} are forwarded without taking the lock.
+ * <p>
+ * The lock may be held for a long time, e.g. whilst the installed reasoner is brought up to date by an automatic
+ * classification, or whilst inferred axioms are exported.  So that the user interface does not freeze, a query that
+ * is made on the event dispatch thread whilst another thread holds the lock is answered by a fallback reasoner, if
+ * there is one, rather than waiting.  The fallback answers from the inferences that were published by the last
+ * classification.  Only the queries that such a reasoner can answer (consistency, satisfiability and the class,
+ * property and individual hierarchies) are answered by the fallback; other queries, and updates such as
+ * {@link #flush()}, always wait for the lock.
+ */
+public class LockingReasoner implements OWLReasoner {
+
+    private final OWLReasoner delegate;
+
+    private final Lock lock;
+
+    private final Supplier<Optional<OWLReasoner>> fallback;
+
+    public LockingReasoner(@Nonnull OWLReasoner delegate, @Nonnull Lock lock) {
+        this(delegate, lock, Optional::empty);
+    }
+
+    /**
+     * Creates a locking reasoner.
+     * @param delegate The reasoner that queries are forwarded to.
+     * @param lock The lock that is held whilst a query is forwarded.
+     * @param fallback Supplies the reasoner that answers queries on the event dispatch thread whilst another thread
+     *                 holds the lock, if there is one.  This is called on the event dispatch thread.
+     */
+    public LockingReasoner(@Nonnull OWLReasoner delegate,
+                           @Nonnull Lock lock,
+                           @Nonnull Supplier<Optional<OWLReasoner>> fallback) {
+        this.delegate = checkNotNull(delegate);
+        this.lock = checkNotNull(lock);
+        this.fallback = checkNotNull(fallback);
+    }
+
+    /**
+     * Gets the reasoner that queries are forwarded to.
+     */
+    @Nonnull
+    public OWLReasoner getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * Answers a query that the fallback reasoner can also answer.  On the event dispatch thread the query is only
+     * forwarded to the delegate if the lock is free; otherwise it is asked of the fallback.
+     */
+    private <T> T query(Function<OWLReasoner, T> query) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            if (lock.tryLock()) {
+                try {
+                    return query.apply(delegate);
+                } finally {
+                    lock.unlock();
+                }
+            }
+            Optional<OWLReasoner> fallbackReasoner = fallback.get();
+            if (fallbackReasoner.isPresent()) {
+                return query.apply(fallbackReasoner.get());
+            }
+        }
+        return locked(() -> query.apply(delegate));
+    }
+
+    private <T> T locked(Supplier<T> query) {
+        lock.lock();
+        try {
+            return query.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public String getReasonerName() {
+        return delegate.getReasonerName();
+    }
+
+    @Override
+    public Version getReasonerVersion() {
+        return delegate.getReasonerVersion();
+    }
+
+    @Override
+    public BufferingMode getBufferingMode() {
+        return delegate.getBufferingMode();
+    }
+
+    @Override
+    public void flush() {
+        locked(() -> {
+            delegate.flush();
+            return null;
+        });
+    }
+
+    @Override
+    public List<OWLOntologyChange> getPendingChanges() {
+        return locked(() -> delegate.getPendingChanges());
+    }
+
+    @Override
+    public Set<OWLAxiom> getPendingAxiomAdditions() {
+        return locked(() -> delegate.getPendingAxiomAdditions());
+    }
+
+    @Override
+    public Set<OWLAxiom> getPendingAxiomRemovals() {
+        return locked(() -> delegate.getPendingAxiomRemovals());
+    }
+
+    @Override
+    public OWLOntology getRootOntology() {
+        return delegate.getRootOntology();
+    }
+
+    @Override
+    public void interrupt() {
+        delegate.interrupt();
+    }
+
+    @Override
+    public void precomputeInferences(InferenceType... inferenceTypes) {
+        locked(() -> {
+            delegate.precomputeInferences(inferenceTypes);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isPrecomputed(InferenceType inferenceType) {
+        return query(reasoner -> reasoner.isPrecomputed(inferenceType));
+    }
+
+    @Override
+    public Set<InferenceType> getPrecomputableInferenceTypes() {
+        return locked(() -> delegate.getPrecomputableInferenceTypes());
+    }
+
+    @Override
+    public boolean isConsistent() {
+        return query(reasoner -> reasoner.isConsistent());
+    }
+
+    @Override
+    public boolean isSatisfiable(OWLClassExpression classExpression) {
+        return query(reasoner -> reasoner.isSatisfiable(classExpression));
+    }
+
+    @Override
+    public Node<OWLClass> getUnsatisfiableClasses() {
+        return query(reasoner -> reasoner.getUnsatisfiableClasses());
+    }
+
+    @Override
+    public boolean isEntailed(OWLAxiom axiom) {
+        return locked(() -> delegate.isEntailed(axiom));
+    }
+
+    @Override
+    public boolean isEntailed(Set<? extends OWLAxiom> axioms) {
+        return locked(() -> delegate.isEntailed(axioms));
+    }
+
+    @Override
+    public boolean isEntailmentCheckingSupported(AxiomType<?> axiomType) {
+        return locked(() -> delegate.isEntailmentCheckingSupported(axiomType));
+    }
+
+    @Override
+    public Node<OWLClass> getTopClassNode() {
+        return query(reasoner -> reasoner.getTopClassNode());
+    }
+
+    @Override
+    public Node<OWLClass> getBottomClassNode() {
+        return query(reasoner -> reasoner.getBottomClassNode());
+    }
+
+    @Override
+    public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+        return query(reasoner -> reasoner.getSubClasses(ce, direct));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+        return query(reasoner -> reasoner.getSuperClasses(ce, direct));
+    }
+
+    @Override
+    public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+        return query(reasoner -> reasoner.getEquivalentClasses(ce));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getDisjointClasses(OWLClassExpression ce) {
+        return locked(() -> delegate.getDisjointClasses(ce));
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getTopObjectPropertyNode() {
+        return query(reasoner -> reasoner.getTopObjectPropertyNode());
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getBottomObjectPropertyNode() {
+        return query(reasoner -> reasoner.getBottomObjectPropertyNode());
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSubObjectProperties(OWLObjectPropertyExpression pe, boolean direct) {
+        return query(reasoner -> reasoner.getSubObjectProperties(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSuperObjectProperties(OWLObjectPropertyExpression pe, boolean direct) {
+        return query(reasoner -> reasoner.getSuperObjectProperties(pe, direct));
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getEquivalentObjectProperties(OWLObjectPropertyExpression pe) {
+        return query(reasoner -> reasoner.getEquivalentObjectProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getDisjointObjectProperties(OWLObjectPropertyExpression pe) {
+        return locked(() -> delegate.getDisjointObjectProperties(pe));
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getInverseObjectProperties(OWLObjectPropertyExpression pe) {
+        return locked(() -> delegate.getInverseObjectProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getObjectPropertyDomains(OWLObjectPropertyExpression pe, boolean direct) {
+        return locked(() -> delegate.getObjectPropertyDomains(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getObjectPropertyRanges(OWLObjectPropertyExpression pe, boolean direct) {
+        return locked(() -> delegate.getObjectPropertyRanges(pe, direct));
+    }
+
+    @Override
+    public Node<OWLDataProperty> getTopDataPropertyNode() {
+        return query(reasoner -> reasoner.getTopDataPropertyNode());
+    }
+
+    @Override
+    public Node<OWLDataProperty> getBottomDataPropertyNode() {
+        return query(reasoner -> reasoner.getBottomDataPropertyNode());
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getSubDataProperties(OWLDataProperty pe, boolean direct) {
+        return query(reasoner -> reasoner.getSubDataProperties(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getSuperDataProperties(OWLDataProperty pe, boolean direct) {
+        return query(reasoner -> reasoner.getSuperDataProperties(pe, direct));
+    }
+
+    @Override
+    public Node<OWLDataProperty> getEquivalentDataProperties(OWLDataProperty pe) {
+        return query(reasoner -> reasoner.getEquivalentDataProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getDisjointDataProperties(OWLDataPropertyExpression pe) {
+        return locked(() -> delegate.getDisjointDataProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getDataPropertyDomains(OWLDataProperty pe, boolean direct) {
+        return locked(() -> delegate.getDataPropertyDomains(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getTypes(OWLNamedIndividual ind, boolean direct) {
+        return query(reasoner -> reasoner.getTypes(ind, direct));
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getInstances(OWLClassExpression ce, boolean direct) {
+        return query(reasoner -> reasoner.getInstances(ce, direct));
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getObjectPropertyValues(OWLNamedIndividual ind, OWLObjectPropertyExpression pe) {
+        return locked(() -> delegate.getObjectPropertyValues(ind, pe));
+    }
+
+    @Override
+    public Set<OWLLiteral> getDataPropertyValues(OWLNamedIndividual ind, OWLDataProperty pe) {
+        return locked(() -> delegate.getDataPropertyValues(ind, pe));
+    }
+
+    @Override
+    public Node<OWLNamedIndividual> getSameIndividuals(OWLNamedIndividual ind) {
+        return locked(() -> delegate.getSameIndividuals(ind));
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getDifferentIndividuals(OWLNamedIndividual ind) {
+        return locked(() -> delegate.getDifferentIndividuals(ind));
+    }
+
+    @Override
+    public long getTimeOut() {
+        return delegate.getTimeOut();
+    }
+
+    @Override
+    public FreshEntityPolicy getFreshEntityPolicy() {
+        return delegate.getFreshEntityPolicy();
+    }
+
+    @Override
+    public IndividualNodeSetPolicy getIndividualNodeSetPolicy() {
+        return delegate.getIndividualNodeSetPolicy();
+    }
+
+    @Override
+    public void dispose() {
+        locked(() -> {
+            delegate.dispose();
+            return null;
+        });
+    }
+}
@@ -5,7 +5,9 @@ import org.semanticweb.owlapi.reasoner.InferenceType;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.ReasonerProgressMonitor;
 
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
 
 /**
@@ -56,7 +58,11 @@ public interface OWLReasonerManager extends Disposable {
 
     
     /**
-     * Gets the current reasoner.
+     * Gets the current reasoner.  Unless it is a {@link NoOpReasoner}, this is a {@link LockingReasoner} that
+     * forwards queries to the installed reasoner whilst holding the reasoner lock (see {@link #getReasonerLock()}).
+     * Hierarchy and satisfiability queries that are made on the event dispatch thread whilst another thread holds the
+     * lock are answered from the inferences that were published by the last classification, rather than waiting.
+     * While query tracing is enabled the queries are forwarded through a {@link TracingReasoner}.
      */
     OWLReasoner getCurrentReasoner();
     
@@ -90,6 +96,27 @@ public interface OWLReasonerManager extends Disposable {
     void killCurrentClassification();
     
     ReasonerPreferences getReasonerPreferences();
+
+    /**
+     * Gets the profiler that records the latencies of queries made of the current reasoner.
+     */
+    ReasonerQueryProfiler getQueryProfiler();
+
+    /**
+     * Gets the inferences of the reasoner that is installed for the active ontology: its class, object property and
+     * data property taxonomies, captured by the classification that produced the reasoner before the reasoner was
+     * installed.  Reading them does not touch the reasoner.
+     * @return The inferences, or an empty value if the active ontology has not been classified or its inferences
+     * could not be captured.
+     */
+    Optional<CachedInferences> getCurrentInferences();
+
+    /**
+     * Gets the lock that serialises access to the reasoners that are installed by this manager.  Code that uses a
+     * reasoner off the event dispatch thread, or across several queries that must see the same reasoner state,
+     * should hold this lock whilst doing so.
+     */
+    Lock getReasonerLock();
     
     /**
      * Add the filters to be applied when the ABOUT_TO_CLASSIFY event starts.
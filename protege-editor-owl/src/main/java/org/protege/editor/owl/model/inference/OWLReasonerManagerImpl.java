@@ -1,20 +1,30 @@
 package org.protege.editor.owl.model.inference;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.protege.editor.core.Disposable;
+import org.protege.editor.core.util.ProtegeDirectories;
 import org.protege.editor.core.log.LogBanner;
 import org.protege.editor.core.ui.util.Resettable;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
 import org.protege.editor.owl.ui.explanation.io.InconsistentOntologyManager;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.reasoner.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.annotation.Nullable;
 import javax.swing.*;
+import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
 
 
 /**
@@ -50,45 +60,110 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
     private List<ReasonerFilter> reasonerFilters = new ArrayList<>();
 
+    private final ReasonerQueryProfiler queryProfiler = new ReasonerQueryProfiler();
+
+    /**
+     * Serialises access to the reasoners that are installed by this manager.  Reasoners are not, in general, safe for
+     * use by more than one thread at a time, and an installed reasoner may be brought up to date on the
+     * classification thread (an automatic, incremental classification) while it is being queried.
+     */
+    private final ReentrantLock reasonerLock = new ReentrantLock();
+
+    /**
+     * The reasoner that is wrapped by the locking reasoner while query tracing is enabled.  Guarded by reasonerMap.
+     */
+    private TracingReasoner tracingReasoner;
+
+    /**
+     * The reasoner that is handed out in place of the installed reasoner.  Guarded by reasonerMap.
+     */
+    private LockingReasoner lockingReasoner;
+
+    /**
+     * Runs classifications, one at a time.
+     */
+    private final ExecutorService classificationExecutor;
+
+    /**
+     * Starts an automatic classification once ontology changes have stopped for the auto-classify delay.
+     */
+    private final javax.swing.Timer autoClassifyTimer;
+
+    /**
+     * Set if changes arrive, in auto-classify mode, while a classification is running.  Guarded by reasonerMap.
+     */
+    private boolean autoClassificationSuperseded = false;
+
+    /**
+     * Stores classification results so that they can be shown when an unchanged ontology is reopened.
+     */
+    private final ClassificationCache classificationCache;
+
+    /**
+     * The inferences of the installed reasoners, captured before the reasoners were installed.  An entry is only
+     * current while the reasoner that it was captured from is still installed for its ontology.  Guarded by
+     * reasonerMap.
+     */
+    private final Map<OWLOntology, PublishedInferences> publishedInferences = new HashMap<>();
+
+    private final Object digestLock = new Object();
+
+    /**
+     * The digest of the logical content of the imports closure of {@link #digestOntology}, which is kept up to date
+     * as changes are applied so that classification cache keys need not be computed from every axiom.  Null if
+     * it must be recomputed.  Guarded by digestLock.
+     */
+    private AxiomDigest axiomDigest;
+
+    private OWLOntology digestOntology;
+
+    /**
+     * Incremented whenever the digest is updated or invalidated.  Guarded by digestLock.
+     */
+    private long digestVersion = 0;
+
+    private final OWLModelManagerListener cachedInferencesListener = event -> {
+        if (event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED) || event.isType(EventType.ONTOLOGY_RELOADED)
+                || event.isType(EventType.ONTOLOGY_LOADED) || event.isType(EventType.ONTOLOGY_CREATED)) {
+            invalidateAxiomDigest();
+        }
+        if (event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED) || event.isType(EventType.REASONER_CHANGED)) {
+            restoreCachedInferences();
+        }
+    };
+
+    private final OWLOntologyChangeListener axiomDigestOntologyChangeListener = this::updateAxiomDigest;
+
+    /**
+     * Cached inferences only describe the ontology as it was when they were stored, so they are dropped as soon as
+     * the ontology changes.  They are not restored if the change is undone; they are only looked up again when the
+     * active ontology or the reasoner changes.
+     */
+    private final OWLOntologyChangeListener cachedInferencesOntologyChangeListener = changes -> {
+        OWLOntology activeOntology = owlModelManager.getActiveOntology();
+        synchronized (reasonerMap) {
+            if (!(reasonerMap.get(activeOntology) instanceof CachedInferencesReasoner)
+                    || !isRelevantToCurrentReasoner(changes)) {
+                return;
+            }
+            reasonerMap.put(activeOntology, new NoOpReasoner(activeOntology));
+        }
+        logger.info("Dropped the cached inferences for {} because it has been changed", activeOntology.getOntologyID());
+        SwingUtilities.invokeLater(() -> owlModelManager.fireEvent(EventType.REASONER_CHANGED));
+    };
+
     private OWLOntologyChangeListener nonBufferingOntologyChangeListener = new OWLOntologyChangeListener() {
         public void ontologiesChanged(List<? extends OWLOntologyChange> changes) throws OWLException {
-            OWLReasoner reasoner = getCurrentReasoner();
+            OWLReasoner reasoner = getInstalledReasoner();
             if (reasoner instanceof NoOpReasoner || reasoner.getBufferingMode() != BufferingMode.NON_BUFFERING) {
                 return;
             }
-            OWLOntology activeOntology = owlModelManager.getActiveOntology();
-            Set<OWLOntology> importClosure = null;
-            boolean needsRefresh = false;
-
-            for (OWLOntologyChange change : changes) {
-                if (change instanceof AnnotationChange) {
-                    continue;
-                }
-                if (change instanceof SetOntologyID) {
-                    continue;
-                }
-                if (change instanceof OWLAxiomChange && !change.getAxiom().isLogicalAxiom()) {
-                    continue;
-                }
-                OWLOntology changedOntology = change.getOntology();
-                if (!changedOntology.equals(activeOntology)) {
-                    if (importClosure == null) {
-                        importClosure = activeOntology.getImportsClosure();
-                    }
-                    if (!importClosure.contains(changedOntology)) {
-                        continue;
-                    }
-                }
-                // otherwise
-                needsRefresh = true;
-                break;
-            }
-            if (needsRefresh) {
+            if (isRelevantToCurrentReasoner(changes)) {
                 // too tricky... too tricky... wait until after the reasoner has reacted to the changes.
                 SwingUtilities.invokeLater(new Runnable() {
                     public void run() {
                         if (owlModelManager.getOWLReasonerManager().getReasonerStatus() == ReasonerStatus.INITIALIZED) {
-                            fireReclassified();
+                            classificationExecutor.execute(() -> republishInferences(reasoner));
                         }
                     }
                 });
@@ -96,15 +171,52 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
         }
     };
 
+    private OWLOntologyChangeListener autoClassifyOntologyChangeListener = changes -> {
+        if (preferences.isAutoClassify() && isRelevantToCurrentReasoner(changes)) {
+            scheduleAutoClassification();
+        }
+    };
+
+    private ReasonerPreferencesListener autoClassifyPreferencesListener = this::handleAutoClassifyPreferencesChanged;
+
     public OWLReasonerManagerImpl(OWLModelManager owlModelManager) {
+        this(owlModelManager,
+             new ProtegeOWLReasonerPluginLoader(owlModelManager).getPlugins(),
+             new ClassificationCache(ProtegeDirectories.getDataDirectory().toPath().resolve(ClassificationCache.CACHE_DIRECTORY_NAME)));
+    }
+
+    /**
+     * Creates a manager for the specified reasoner plugins.
+     * @param owlModelManager The model manager.
+     * @param plugins The reasoner plugins.
+     * @param classificationCache The cache that classification results are stored in.
+     */
+    OWLReasonerManagerImpl(OWLModelManager owlModelManager,
+                           Set<ProtegeOWLReasonerPlugin> plugins,
+                           ClassificationCache classificationCache) {
         this.owlModelManager = owlModelManager;
+        this.classificationCache = classificationCache;
         preferences = new ReasonerPreferences();
         preferences.load();
         reasonerFactories = new HashSet<>();
         reasonerProgressMonitor = new NullReasonerProgressMonitor();
-        installFactories();
+        addReasonerFactories(plugins);
+        setCurrentReasonerFactoryId(preferences.getDefaultReasonerId());
         exceptionHandler = new DefaultOWLReasonerExceptionHandler();
+        classificationExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder()
+                        .setNameFormat("Classification Thread")
+                        .setDaemon(true)
+                        .setUncaughtExceptionHandler((thread, throwable) -> handleClassificationError(throwable))
+                        .build());
+        autoClassifyTimer = new javax.swing.Timer(preferences.getAutoClassifyDelayMs(), e -> startAutoClassification());
+        autoClassifyTimer.setRepeats(false);
         owlModelManager.addOntologyChangeListener(nonBufferingOntologyChangeListener);
+        owlModelManager.addOntologyChangeListener(autoClassifyOntologyChangeListener);
+        owlModelManager.addOntologyChangeListener(axiomDigestOntologyChangeListener);
+        owlModelManager.addOntologyChangeListener(cachedInferencesOntologyChangeListener);
+        preferences.addListener(autoClassifyPreferencesListener);
+        owlModelManager.addListener(cachedInferencesListener);
     }
 
     public void setReasonerExceptionHandler(OWLReasonerExceptionHandler handler) {
@@ -126,6 +238,87 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             ((Disposable) reasonerProgressMonitor).dispose();
         }
         owlModelManager.removeOntologyChangeListener(nonBufferingOntologyChangeListener);
+        owlModelManager.removeOntologyChangeListener(autoClassifyOntologyChangeListener);
+        owlModelManager.removeOntologyChangeListener(axiomDigestOntologyChangeListener);
+        owlModelManager.removeOntologyChangeListener(cachedInferencesOntologyChangeListener);
+        preferences.removeListener(autoClassifyPreferencesListener);
+        owlModelManager.removeListener(cachedInferencesListener);
+        autoClassifyTimer.stop();
+        classificationExecutor.shutdownNow();
+    }
+
+    /**
+     * Determines whether the specified changes affect the logical content of the imports closure of the active
+     * ontology, and hence the results of the current reasoner.
+     */
+    private boolean isRelevantToCurrentReasoner(List<? extends OWLOntologyChange> changes) {
+        OWLOntology activeOntology = owlModelManager.getActiveOntology();
+        Set<OWLOntology> importClosure = null;
+        for (OWLOntologyChange change : changes) {
+            if (change instanceof AnnotationChange) {
+                continue;
+            }
+            if (change instanceof SetOntologyID) {
+                continue;
+            }
+            if (change instanceof OWLAxiomChange && !change.getAxiom().isLogicalAxiom()) {
+                continue;
+            }
+            OWLOntology changedOntology = change.getOntology();
+            if (!changedOntology.equals(activeOntology)) {
+                if (importClosure == null) {
+                    importClosure = activeOntology.getImportsClosure();
+                }
+                if (!importClosure.contains(changedOntology)) {
+                    continue;
+                }
+            }
+            // otherwise
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Recaptures the inferences of a non-buffering reasoner that has reacted to changes, and then tells listeners
+     * that the ontology has been reclassified.
+     */
+    private void republishInferences(OWLReasoner reasoner) {
+        OWLOntology ontology = reasoner.getRootOntology();
+        Set<InferenceType> precomputed;
+        synchronized (reasonerMap) {
+            PublishedInferences published = publishedInferences.get(ontology);
+            if (reasonerMap.get(ontology) != reasoner || published == null) {
+                return;
+            }
+            precomputed = published.inferences.getPrecomputedInferences();
+        }
+        CachedInferences inferences;
+        reasonerLock.lock();
+        try {
+            inferences = captureInferences(reasoner, precomputed);
+        } finally {
+            reasonerLock.unlock();
+        }
+        synchronized (reasonerMap) {
+            if (inferences == null) {
+                publishedInferences.remove(ontology);
+            }
+            else {
+                publishedInferences.put(ontology, new PublishedInferences(reasoner, inferences));
+            }
+        }
+        fireReclassified();
+    }
+
+    @Nullable
+    private CachedInferences captureInferences(OWLReasoner reasoner, Set<InferenceType> precomputed) {
+        try {
+            return CachedInferences.capture(reasoner, precomputed);
+        } catch (RuntimeException e) {
+            logger.warn("An error occurred whilst capturing the inferences of the '{}' reasoner.  Error: {}", reasoner.getReasonerName(), e.getMessage(), e);
+            return null;
+        }
     }
 
     private void clearAndDisposeReasoners() {
@@ -139,11 +332,14 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             }
         }
         reasonerMap.clear();
+        publishedInferences.clear();
+        tracingReasoner = null;
+        lockingReasoner = null;
     }
 
 
     public String getCurrentReasonerName() {
-        return getCurrentReasoner().getReasonerName();
+        return getInstalledReasoner().getReasonerName();
     }
 
 
@@ -169,12 +365,6 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
     }
 
 
-    private void installFactories() {
-        ProtegeOWLReasonerPluginLoader loader = new ProtegeOWLReasonerPluginLoader(owlModelManager);
-        addReasonerFactories(loader.getPlugins());
-        setCurrentReasonerFactoryId(preferences.getDefaultReasonerId());
-    }
-
     public void addReasonerFactories(Set<ProtegeOWLReasonerPlugin> plugins) {
         for (ProtegeOWLReasonerPlugin plugin : plugins) {
             try {
@@ -213,6 +403,32 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
 
     public OWLReasoner getCurrentReasoner() {
+        OWLReasoner reasoner = getInstalledReasoner();
+        // The no-op reasoner, and cached inferences, are answered from memory and are safe to share
+        if (reasoner instanceof NoOpReasoner) {
+            return reasoner;
+        }
+        synchronized (reasonerMap) {
+            // The same wrappers are handed out for as long as the reasoner is installed
+            OWLReasoner delegate = reasoner;
+            if (queryProfiler.isEnabled()) {
+                if (tracingReasoner == null || tracingReasoner.getDelegate() != reasoner) {
+                    tracingReasoner = new TracingReasoner(reasoner, queryProfiler);
+                }
+                delegate = tracingReasoner;
+            }
+            if (lockingReasoner == null || lockingReasoner.getDelegate() != delegate) {
+                lockingReasoner = new LockingReasoner(delegate, reasonerLock, this::getPublishedInferencesReasoner);
+            }
+            return lockingReasoner;
+        }
+    }
+
+    /**
+     * Gets the reasoner that is installed for the active ontology, which is never a {@link LockingReasoner} or a
+     * {@link TracingReasoner}.
+     */
+    private OWLReasoner getInstalledReasoner() {
         OWLReasoner reasoner;
         OWLOntology activeOntology = owlModelManager.getActiveOntology();
         synchronized (reasonerMap) {
@@ -228,7 +444,7 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
     }
 
     public void killCurrentReasoner() {
-        OWLReasoner reasoner = getCurrentReasoner();
+        OWLReasoner reasoner = getInstalledReasoner();
         if (!(reasoner instanceof NoOpReasoner)) {
             try {
                 reasoner.dispose();
@@ -237,10 +453,52 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             }
             synchronized (reasonerMap) {
                 reasonerMap.put(owlModelManager.getActiveOntology(), null);
+                tracingReasoner = null;
+                lockingReasoner = null;
+            }
+        }
+    }
+
+    public Optional<CachedInferences> getCurrentInferences() {
+        OWLOntology activeOntology = owlModelManager.getActiveOntology();
+        synchronized (reasonerMap) {
+            OWLReasoner reasoner = reasonerMap.get(activeOntology);
+            if (reasoner instanceof CachedInferencesReasoner) {
+                return Optional.of(((CachedInferencesReasoner) reasoner).getCachedInferences());
+            }
+            PublishedInferences published = publishedInferences.get(activeOntology);
+            if (published == null || reasoner == null || published.reasoner != reasoner) {
+                return Optional.empty();
             }
+            return Optional.of(published.inferences);
         }
     }
 
+    /**
+     * Gets a reasoner that answers from the inferences that were published with the installed reasoner for the
+     * active ontology.  This answers queries on the event dispatch thread whilst the installed reasoner is locked,
+     * e.g. whilst it is brought up to date by an automatic classification.
+     */
+    private Optional<OWLReasoner> getPublishedInferencesReasoner() {
+        OWLOntology activeOntology = owlModelManager.getActiveOntology();
+        synchronized (reasonerMap) {
+            PublishedInferences published = publishedInferences.get(activeOntology);
+            if (published == null || published.reasoner != reasonerMap.get(activeOntology)) {
+                return Optional.empty();
+            }
+            if (published.answeringReasoner == null) {
+                published.answeringReasoner = new CachedInferencesReasoner(activeOntology,
+                                                                           owlModelManager.getOWLDataFactory(),
+                                                                           published.inferences);
+            }
+            return Optional.of(published.answeringReasoner);
+        }
+    }
+
+    public Lock getReasonerLock() {
+        return reasonerLock;
+    }
+
     public boolean isClassificationInProgress() {
         synchronized (reasonerMap) {
             return classificationInProgress;
@@ -249,7 +507,7 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
     public boolean isClassified() {
         synchronized (reasonerMap) {
-            OWLReasoner reasoner = getCurrentReasoner();
+            OWLReasoner reasoner = getInstalledReasoner();
             return !(reasoner instanceof NoOpReasoner) &&
                     (reasoner.getPendingChanges() == null || reasoner.getPendingChanges().isEmpty());
         }
@@ -264,9 +522,12 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
                 return ReasonerStatus.NO_REASONER_FACTORY_CHOSEN;
             }
             else {
-                OWLReasoner reasoner = getCurrentReasoner();
+                OWLReasoner reasoner = getInstalledReasoner();
                 try {
-                    if (reasoner instanceof NoOpReasoner) {
+                    if (reasoner instanceof CachedInferencesReasoner) {
+                        return ReasonerStatus.CACHED_INFERENCES;
+                    }
+                    else if (reasoner instanceof NoOpReasoner) {
                         return ReasonerStatus.REASONER_NOT_INITIALIZED;
                     }
                     else if (!reasoner.isConsistent()) {
@@ -291,6 +552,22 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
      * Classifies the current active ontologies.
      */
     public boolean classifyAsynchronously(Set<InferenceType> precompute) {
+        return classify(precompute, false);
+    }
+
+    /**
+     * Classifies the active ontology.
+     * <p>
+     * A classification that is started by the user replaces the installed reasoner with a {@link NoOpReasoner} for
+     * the duration of the run, and views are told (with an ABOUT_TO_CLASSIFY event) that inferences are about to be
+     * recomputed.  An automatic classification, which follows every burst of edits in auto-classify mode, does
+     * neither: the installed reasoner keeps answering queries until the run finishes and its replacement (or the
+     * same reasoner, brought up to date incrementally) is installed.
+     * @param precompute The inference types to precompute.
+     * @param automatic true if this is an automatic classification.
+     * @return false if a classification is already in progress, otherwise true.
+     */
+    boolean classify(Set<InferenceType> precompute, boolean automatic) {
         if (getCurrentReasonerFactory() instanceof NoOpReasonerInfo) {
             return true;
         }
@@ -300,23 +577,212 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
                 return false;
             }
             runningReasoner = reasonerMap.get(currentOntology);
-            reasonerMap.put(currentOntology, new NoOpReasoner(currentOntology));
+            if (!automatic) {
+                reasonerMap.put(currentOntology, new NoOpReasoner(currentOntology));
+            }
             classificationInProgress = true;
         }
-        owlModelManager.fireEvent(EventType.ABOUT_TO_CLASSIFY);
-        Thread currentReasonerThread = new Thread(new ClassificationRunner(currentOntology, precompute), "Classification Thread");
-        currentReasonerThread.setUncaughtExceptionHandler((thread, throwable) -> {
-            logger.error("An error occurred during reasoning: {}.", throwable.getMessage(), throwable);
-            try {
-                if (getReasonerStatus() != ReasonerStatus.REASONER_NOT_INITIALIZED) {
-                    exceptionHandler.handle(throwable);
+        if (!automatic) {
+            owlModelManager.fireEvent(EventType.ABOUT_TO_CLASSIFY);
+        }
+        classificationExecutor.execute(new ClassificationRunner(currentOntology, precompute, automatic));
+        return true;
+    }
+
+    /**
+     * If the active ontology has no reasoner, looks for stored results of an earlier classification of the same
+     * logical content by the current reasoner and, if they are found, installs a {@link CachedInferencesReasoner}
+     * that serves them.  The lookup runs on the classification executor.
+     */
+    private void restoreCachedInferences() {
+        ProtegeOWLReasonerInfo reasonerInfo = getCurrentReasonerFactory();
+        OWLOntology ontology = owlModelManager.getActiveOntology();
+        if (reasonerInfo instanceof NoOpReasonerInfo || ontology == null || !hasNoReasoner(ontology)) {
+            return;
+        }
+        classificationExecutor.execute(() -> {
+            if (reasonerInfo != getCurrentReasonerFactory() || !hasNoReasoner(ontology)) {
+                return;
+            }
+            String key = getClassificationCacheKey(reasonerInfo, ontology);
+            if (key == null) {
+                return;
+            }
+            Optional<CachedInferences> inferences = classificationCache.load(key, owlModelManager.getOWLDataFactory());
+            if (!inferences.isPresent()) {
+                return;
+            }
+            synchronized (reasonerMap) {
+                if (reasonerInfo != getCurrentReasonerFactory() || !hasNoReasoner(ontology)) {
+                    return;
                 }
-            } catch (ReasonerDiedException died) {
-                ReasonerUtilities.warnThatReasonerDied(null, died);
+                reasonerMap.put(ontology, new CachedInferencesReasoner(ontology, owlModelManager.getOWLDataFactory(), inferences.get()));
             }
+            logger.info("Restored cached inferences for {}", ontology.getOntologyID());
+            SwingUtilities.invokeLater(() -> owlModelManager.fireEvent(EventType.REASONER_CHANGED));
+            fireReclassified();
         });
-        currentReasonerThread.start();
-        return true;
+    }
+
+    /**
+     * Determines whether the specified ontology has no reasoner, or only the placeholder no-op reasoner.
+     */
+    private boolean hasNoReasoner(OWLOntology ontology) {
+        synchronized (reasonerMap) {
+            OWLReasoner reasoner = reasonerMap.get(ontology);
+            return reasoner == null || reasoner.getClass() == NoOpReasoner.class;
+        }
+    }
+
+    /**
+     * Gets the key under which the results of classifying the specified ontology with the current reasoner are
+     * cached, or null if the results should not be cached.
+     */
+    private String getClassificationCacheKey(ProtegeOWLReasonerInfo reasonerInfo, OWLOntology ontology) {
+        synchronized (reasonerMap) {
+            // Filtered ontologies are not what the key describes
+            if (!reasonerFilters.isEmpty()) {
+                return null;
+            }
+        }
+        try {
+            return ClassificationCache.computeKey(reasonerInfo.getReasonerId(),
+                                                  ClassificationCache.getReasonerVersion(reasonerInfo),
+                                                  getAxiomDigest(ontology));
+        } catch (RuntimeException e) {
+            logger.warn("Could not compute the classification cache key: {}", e.getMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Gets (a copy of) the digest of the logical content of the imports closure of the specified ontology.  The
+     * digest is only computed from every axiom if it has been invalidated (or is for a different ontology).
+     */
+    private AxiomDigest getAxiomDigest(OWLOntology ontology) {
+        long version;
+        synchronized (digestLock) {
+            if (axiomDigest != null && digestOntology == ontology) {
+                return axiomDigest.copy();
+            }
+            version = digestVersion;
+        }
+        // Computed outside of the lock so that changes are not held up
+        AxiomDigest digest = AxiomDigest.compute(ontology);
+        synchronized (digestLock) {
+            if (version == digestVersion) {
+                axiomDigest = digest;
+                digestOntology = ontology;
+                return digest.copy();
+            }
+        }
+        return digest;
+    }
+
+    private void updateAxiomDigest(List<? extends OWLOntologyChange> changes) {
+        synchronized (digestLock) {
+            digestVersion++;
+            if (axiomDigest == null) {
+                return;
+            }
+            Set<OWLOntology> importsClosure = digestOntology.getImportsClosure();
+            for (OWLOntologyChange change : changes) {
+                if (change.isImportChange()) {
+                    axiomDigest = null;
+                    return;
+                }
+                if (change.isAxiomChange() && importsClosure.contains(change.getOntology())) {
+                    if (change.isAddAxiom()) {
+                        axiomDigest.axiomAdded(change.getAxiom());
+                    }
+                    else {
+                        axiomDigest.axiomRemoved(change.getAxiom());
+                    }
+                }
+            }
+        }
+    }
+
+    private void invalidateAxiomDigest() {
+        synchronized (digestLock) {
+            digestVersion++;
+            axiomDigest = null;
+        }
+    }
+
+    /**
+     * Stores classification results, provided that the ontology has not changed since the classification started.
+     */
+    private void storeCachedInferences(ProtegeOWLReasonerInfo reasonerInfo,
+                                       OWLOntology ontology,
+                                       String keyAtStart,
+                                       CachedInferences inferences) {
+        String key = getClassificationCacheKey(reasonerInfo, ontology);
+        if (!keyAtStart.equals(key)) {
+            logger.debug("Not caching inferences: the ontology changed during classification");
+            return;
+        }
+        try {
+            classificationCache.store(key, inferences);
+            logger.info("Cached inferences for {}", ontology.getOntologyID());
+        } catch (IOException e) {
+            logger.warn("Could not store cached inferences: {}", e.getMessage(), e);
+        }
+    }
+
+    private void handleClassificationError(Throwable throwable) {
+        logger.error("An error occurred during reasoning: {}.", throwable.getMessage(), throwable);
+        try {
+            if (getReasonerStatus() != ReasonerStatus.REASONER_NOT_INITIALIZED) {
+                exceptionHandler.handle(throwable);
+            }
+        } catch (ReasonerDiedException died) {
+            ReasonerUtilities.warnThatReasonerDied(null, died);
+        }
+    }
+
+    private void handleAutoClassifyPreferencesChanged() {
+        autoClassifyTimer.setInitialDelay(preferences.getAutoClassifyDelayMs());
+        if (preferences.isAutoClassify()) {
+            scheduleAutoClassification();
+        }
+    }
+
+    /**
+     * (Re)starts the auto-classify quiescence window.  Each call postpones automatic classification until the
+     * auto-classify delay has passed without a further call.
+     */
+    private void scheduleAutoClassification() {
+        if (SwingUtilities.isEventDispatchThread()) {
+            autoClassifyTimer.restart();
+        }
+        else {
+            SwingUtilities.invokeLater(autoClassifyTimer::restart);
+        }
+    }
+
+    /**
+     * Starts an automatic classification of the active ontology if its reasoner has been initialised and has
+     * pending changes.  If a classification is already running then it is superseded: a further automatic
+     * classification is scheduled for when it completes.  The running classification is not interrupted, because an
+     * interrupted reasoner has to be rebuilt from scratch, which would defeat incremental reasoning.
+     */
+    private void startAutoClassification() {
+        if (!preferences.isAutoClassify() || getCurrentReasonerFactory() instanceof NoOpReasonerInfo) {
+            return;
+        }
+        synchronized (reasonerMap) {
+            if (classificationInProgress) {
+                autoClassificationSuperseded = true;
+                return;
+            }
+            OWLReasoner reasoner = getInstalledReasoner();
+            if (reasoner instanceof NoOpReasoner || reasoner.getPendingChanges().isEmpty()) {
+                return;
+            }
+        }
+        logger.debug("Starting automatic classification");
+        classify(preferences.getPrecomputedInferences(), true);
     }
 
 
@@ -332,6 +798,10 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
         return preferences;
     }
 
+    public ReasonerQueryProfiler getQueryProfiler() {
+        return queryProfiler;
+    }
+
 
     /**
      * Fires a reclassify event, ensuring that the event
@@ -362,6 +832,37 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
         return ontology;
     }
 
+    /**
+     * Disposes of a reasoner that has been replaced, once any query that is using it has finished.
+     */
+    private void disposeReplacedReasoner(OWLReasoner reasoner) {
+        reasonerLock.lock();
+        try {
+            reasoner.dispose();
+        } catch (Throwable t) {
+            logger.warn("An error occurred whilst disposing of the '{}' reasoner.  Error: {}", reasoner.getReasonerName(), t);
+        } finally {
+            reasonerLock.unlock();
+        }
+    }
+
+    private static class PublishedInferences {
+
+        private final OWLReasoner reasoner;
+
+        private final CachedInferences inferences;
+
+        /**
+         * Answers queries from the inferences.  Created on demand.  Guarded by reasonerMap.
+         */
+        private CachedInferencesReasoner answeringReasoner;
+
+        PublishedInferences(OWLReasoner reasoner, CachedInferences inferences) {
+            this.reasoner = reasoner;
+            this.inferences = inferences;
+        }
+    }
+
     private class ClassificationRunner implements Runnable {
 
         private OWLOntology ontology;
@@ -370,43 +871,90 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
 
         private ProtegeOWLReasonerInfo currentReasonerFactory;
 
-        public ClassificationRunner(OWLOntology ontology, Set<InferenceType> precompute) {
+        private final boolean automatic;
+
+        /**
+         * Set if the running reasoner may be used by other threads (because it was installed before the run
+         * started) rather than having been created by this run.  A shared reasoner is only used under the reasoner
+         * lock.
+         */
+        private boolean runningReasonerShared;
+
+        /**
+         * In an automatic run, the installed reasoner that is to be replaced by a new reasoner once the run
+         * finishes.  It keeps answering queries until then.
+         */
+        private OWLReasoner replacedReasoner;
+
+        public ClassificationRunner(OWLOntology ontology, Set<InferenceType> precompute, boolean automatic) {
             this.ontology = ontology;
             this.precompute = EnumSet.noneOf(InferenceType.class);
             this.precompute.addAll(precompute);
+            this.automatic = automatic;
             currentReasonerFactory = getCurrentReasonerFactory();
         }
 
+        private <T> T useRunningReasoner(Supplier<T> task) {
+            if (!runningReasonerShared) {
+                return task.get();
+            }
+            reasonerLock.lock();
+            try {
+                return task.get();
+            } finally {
+                reasonerLock.unlock();
+            }
+        }
+
         public void run() {
             logger.info(LogBanner.start("Running Reasoner"));
             boolean inconsistencyFound = false;
             boolean reasonerChanged = false;
+            String cacheKey = null;
+            CachedInferences inferences = null;
+            boolean cacheInferences = false;
             try {
                 Stopwatch stopwatch = Stopwatch.createStarted();
+                cacheKey = getClassificationCacheKey(currentReasonerFactory, ontology);
                 reasonerChanged = ensureRunningReasonerInitialized();
                 if (runningReasoner != null) {
-                    precompute();
+                    Set<InferenceType> precomputed = useRunningReasoner(this::precompute);
                     logger.info("Ontologies processed in {} ms by {}", stopwatch.elapsed(TimeUnit.MILLISECONDS), runningReasoner.getReasonerName());
+                    // Captured before the reasoner is installed, and published with it
+                    inferences = useRunningReasoner(() -> captureInferences(runningReasoner, precomputed));
+                    // Incremental automatic runs are not cached, because they happen after every burst of edits
+                    cacheInferences = inferences != null && cacheKey != null
+                            && (reasonerChanged || !preferences.isAutoClassify())
+                            && useRunningReasoner(() -> runningReasoner.getPendingChanges().isEmpty());
                 }
             } catch (ReasonerInterruptedException rie) {
                 reasonerChanged = true;
+                inferences = null;
+                cacheInferences = false;
                 OWLReasoner reasonerInBadState = runningReasoner;
                 runningReasoner = null;
-                reasonerInBadState.dispose();
+                useRunningReasoner(() -> {
+                    reasonerInBadState.dispose();
+                    return null;
+                });
             } catch (InconsistentOntologyException ioe) {
                 inconsistencyFound = true;
+                cacheInferences = false;
             } finally {
                 if (runningReasoner != null) {
                     synchronized (runningReasoner) {
                         reasonerFilters.clear();
                     }
                 }
-                installRunningReasoner(inconsistencyFound, reasonerChanged);
+                installRunningReasoner(inconsistencyFound, reasonerChanged, inferences);
                 if (reasonerProgressMonitor instanceof Resettable) {
                     ((Resettable) reasonerProgressMonitor).reset();
                 }
                 logger.info(LogBanner.end());
             }
+            if (cacheInferences) {
+                storeCachedInferences(currentReasonerFactory, ontology, cacheKey, inferences);
+            }
         }
 
         public boolean ensureRunningReasonerInitialized() {
@@ -414,18 +962,41 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             if (runningReasoner instanceof NoOpReasoner) {
                 runningReasoner = null;
             }
-            if (runningReasoner != null && !runningReasoner.getPendingChanges().isEmpty()) {
-                if (runningReasoner.getBufferingMode() == null
-                        || runningReasoner.getBufferingMode() == BufferingMode.NON_BUFFERING) {
-                    runningReasoner.dispose();
-                    runningReasoner = null;
-                }
-                else {
+            runningReasonerShared = runningReasoner != null;
+            if (runningReasoner != null) {
+                boolean replace = useRunningReasoner(() -> {
+                    if (runningReasoner.getPendingChanges().isEmpty()) {
+                        return false;
+                    }
+                    if (runningReasoner.getBufferingMode() == null
+                            || runningReasoner.getBufferingMode() == BufferingMode.NON_BUFFERING) {
+                        return true;
+                    }
                     runningReasoner.flush();
+                    return false;
+                });
+                if (replace) {
+                    if (automatic) {
+                        // Keeps answering queries until its replacement is installed
+                        replacedReasoner = runningReasoner;
+                    }
+                    else {
+                        useRunningReasoner(() -> {
+                            runningReasoner.dispose();
+                            return null;
+                        });
+                    }
+                    runningReasoner = null;
                 }
             }
             if (runningReasoner == null) {
-                runningReasoner = ReasonerUtilities.createReasoner(applyReasonerFilters(ontology), currentReasonerFactory, reasonerProgressMonitor);
+                runningReasonerShared = false;
+                // In auto-classify mode a buffering reasoner is used, so that subsequent edits can be
+                // fed to it incrementally through flush() rather than it being rebuilt from scratch
+                BufferingMode bufferingMode = preferences.isAutoClassify()
+                        ? BufferingMode.BUFFERING
+                        : currentReasonerFactory.getRecommendedBuffering();
+                runningReasoner = ReasonerUtilities.createReasoner(applyReasonerFilters(ontology), currentReasonerFactory, reasonerProgressMonitor, bufferingMode);
                 reasonerChanged = true;
             }
             if (runningReasoner == null) {
@@ -435,7 +1006,7 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
             return reasonerChanged;
         }
 
-        public void precompute() {
+        public Set<InferenceType> precompute() {
             Set<InferenceType> precomputeThisRun = EnumSet.noneOf(InferenceType.class);
             precomputeThisRun.addAll(precompute);
             precomputeThisRun.retainAll(runningReasoner.getPrecomputableInferenceTypes());
@@ -446,13 +1017,40 @@ public class OWLReasonerManagerImpl implements OWLReasonerManager {
                 }
                 runningReasoner.precomputeInferences(precomputeThisRun.toArray(new InferenceType[precomputeThisRun.size()]));
             }
+            return precomputeThisRun;
         }
 
-        public void installRunningReasoner(boolean inconsistencyFound, boolean reasonerChanged) {
+        public void installRunningReasoner(boolean inconsistencyFound,
+                                           boolean reasonerChanged,
+                                           @Nullable CachedInferences inferences) {
+            boolean superseded;
+            if (runningReasoner == null && replacedReasoner != null) {
+                // The replacement could not be created, so keep the reasoner that was installed (and its inferences)
+                runningReasoner = replacedReasoner;
+                replacedReasoner = null;
+                inferences = null;
+            }
             synchronized (reasonerMap) {
                 reasonerMap.put(ontology, runningReasoner);
+                if (inferences != null) {
+                    publishedInferences.put(ontology, new PublishedInferences(runningReasoner, inferences));
+                }
+                else {
+                    PublishedInferences published = publishedInferences.get(ontology);
+                    if (published != null && published.reasoner != runningReasoner) {
+                        publishedInferences.remove(ontology);
+                    }
+                }
                 runningReasoner = null;
                 classificationInProgress = false;
+                superseded = autoClassificationSuperseded;
+                autoClassificationSuperseded = false;
+            }
+            if (replacedReasoner != null) {
+                disposeReplacedReasoner(replacedReasoner);
+            }
+            if (superseded) {
+                scheduleAutoClassification();
             }
             if (reasonerChanged) {
                 SwingUtilities.invokeLater(() -> {
@@ -59,6 +59,10 @@ public class ReasonerPreferences {
 
     public static final String PREFERENCES_SET_KEY = "INFERENCE_PREFS_SET";
     public static final String DEFAULT_REASONER_ID = "DEFAULT_REASONER_ID";
+    public static final String AUTO_CLASSIFY = "AUTO_CLASSIFY";
+    public static final String AUTO_CLASSIFY_DELAY_MS = "AUTO_CLASSIFY_DELAY_MS";
+
+    public static final int DEFAULT_AUTO_CLASSIFY_DELAY_MS = 1000;
 
     /* package */
     static Preferences getPreferences() {
@@ -69,6 +73,8 @@ public class ReasonerPreferences {
     private DisplayedInferencePreferences displayed = new DisplayedInferencePreferences();
     private PrecomputedInferencePreferences precompute = new PrecomputedInferencePreferences();
     private String defaultReasonerId;
+    private boolean autoClassify;
+    private int autoClassifyDelayMs;
     private List<ReasonerPreferencesListener> listeners = new ArrayList<>();
 
 
@@ -87,6 +93,8 @@ public class ReasonerPreferences {
         precompute.load(prefs);
 
         defaultReasonerId = prefs.getString(DEFAULT_REASONER_ID, NoOpReasonerInfo.NULL_REASONER_ID);
+        autoClassify = prefs.getBoolean(AUTO_CLASSIFY, false);
+        autoClassifyDelayMs = prefs.getInt(AUTO_CLASSIFY_DELAY_MS, DEFAULT_AUTO_CLASSIFY_DELAY_MS);
     }
 
     public void save() {
@@ -96,6 +104,8 @@ public class ReasonerPreferences {
         precompute.save(prefs);
 
         prefs.putString(DEFAULT_REASONER_ID, defaultReasonerId);
+        prefs.putBoolean(AUTO_CLASSIFY, autoClassify);
+        prefs.putInt(AUTO_CLASSIFY_DELAY_MS, autoClassifyDelayMs);
     }
 
     public void addListener(ReasonerPreferencesListener listener) {
@@ -144,6 +154,32 @@ public class ReasonerPreferences {
         fireChanged();
     }
 
+    /**
+     * Determines whether the active ontology is automatically reclassified, incrementally, once edits have
+     * stopped for the {@link #getAutoClassifyDelayMs() auto-classify delay}.
+     */
+    public boolean isAutoClassify() {
+        return autoClassify;
+    }
+
+    public void setAutoClassify(boolean autoClassify) {
+        this.autoClassify = autoClassify;
+        fireChanged();
+    }
+
+    /**
+     * Gets the length of time, in milliseconds, without ontology changes after which automatic classification
+     * starts.
+     */
+    public int getAutoClassifyDelayMs() {
+        return autoClassifyDelayMs;
+    }
+
+    public void setAutoClassifyDelayMs(int autoClassifyDelayMs) {
+        this.autoClassifyDelayMs = autoClassifyDelayMs;
+        fireChanged();
+    }
+
     public boolean isShowInferences() {
         return displayed.isShowInferences();
     }
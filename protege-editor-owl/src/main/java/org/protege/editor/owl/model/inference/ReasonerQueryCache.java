@@ -0,0 +1,224 @@
+package org.protege.editor.owl.model.inference;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.protege.editor.core.Disposable;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.semanticweb.owlapi.model.OWLObject;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Memoises the answers to reasoner queries that are made when displaying inferred information (e.g. the inferred
+ * rows of frame sections), and answers them off the event dispatch thread.
+ * <p>
+ * Answers are keyed by the name of the query, the object that the query is about and the reasoner generation.  The
+ * generation is advanced, and the cache cleared, whenever the answers of the current reasoner may have changed: when
+ * the reasoner is changed, when a classification is started or installed, when the active ontology changes or (for
+ * reasoners that do not buffer changes) when an ontology is edited.  Answers that were computed for an earlier generation are
+ * delivered to the callers that asked for them, but are not cached.
+ * <p>
+ * Queries are run, one at a time, on a background thread, whilst holding the reasoner manager's reasoner lock, so
+ * that a query that asks the reasoner several questions sees the same reasoner state throughout.  Queries on
+ * reasoners that hold their answers in memory (the {@link NoOpReasoner} and {@link CachedInferencesReasoner}) are
+ * answered immediately on the calling thread.
+ */
+public class ReasonerQueryCache implements Disposable {
+
+    public static final String ID = ReasonerQueryCache.class.getName();
+
+    private static final Logger logger = LoggerFactory.getLogger(ReasonerQueryCache.class);
+
+    private static final int MAX_CACHED_ANSWERS = 1000;
+
+    private final OWLModelManager modelManager;
+
+    private final ExecutorService queryExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Reasoner Query Thread")
+                    .setDaemon(true)
+                    .build());
+
+    private final Map<QueryKey, CompletableFuture<?>> answers = new LinkedHashMap<QueryKey, CompletableFuture<?>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<QueryKey, CompletableFuture<?>> eldest) {
+            return size() > MAX_CACHED_ANSWERS;
+        }
+    };
+
+    private long generation = 0;
+
+    private final OWLModelManagerListener modelManagerListener = event -> {
+        if (event.isType(EventType.ABOUT_TO_CLASSIFY)
+                || event.isType(EventType.ONTOLOGY_CLASSIFIED)
+                || event.isType(EventType.REASONER_CHANGED)
+                || event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)
+                || event.isType(EventType.ONTOLOGY_RELOADED)) {
+            clear();
+        }
+    };
+
+    private final OWLOntologyChangeListener ontologyChangeListener = changes -> {
+        if (getReasoner().getBufferingMode() == BufferingMode.NON_BUFFERING) {
+            clear();
+        }
+    };
+
+    public ReasonerQueryCache(@Nonnull OWLModelManager modelManager) {
+        this.modelManager = checkNotNull(modelManager);
+        modelManager.addListener(modelManagerListener);
+        modelManager.addOntologyChangeListener(ontologyChangeListener);
+    }
+
+    /**
+     * Gets the answer to a query of the current reasoner.
+     * @param queryName The name of the query (e.g. "DirectInstances").  Together with the subject this identifies
+     *                  the query.
+     * @param subject The object that the query is about.
+     * @param query The query.  This should return an answer that will not be modified.
+     * @return A future for the answer.  This is already complete if the answer was cached, or if the reasoner holds
+     * its answers in memory.  Otherwise it is completed on the query thread.  It is completed exceptionally if the
+     * query throws an exception.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public <V> CompletableFuture<V> getAnswer(@Nonnull String queryName,
+                                              @Nonnull OWLObject subject,
+                                              @Nonnull Function<OWLReasoner, V> query) {
+        OWLReasoner reasoner = getReasoner();
+        if (reasoner instanceof NoOpReasoner) {
+            CompletableFuture<V> answer = new CompletableFuture<>();
+            complete(answer, reasoner, query);
+            return answer;
+        }
+        QueryKey key;
+        CompletableFuture<V> answer;
+        synchronized (answers) {
+            key = new QueryKey(generation, checkNotNull(queryName), checkNotNull(subject));
+            answer = (CompletableFuture<V>) answers.get(key);
+            if (answer != null) {
+                return answer;
+            }
+            answer = new CompletableFuture<>();
+            answers.put(key, answer);
+        }
+        CompletableFuture<V> pendingAnswer = answer;
+        // Queries are attributed to the code that defined them, rather than to this cache
+        ReasonerQueryProfiler profiler = modelManager.getOWLReasonerManager().getQueryProfiler();
+        Lock reasonerLock = modelManager.getOWLReasonerManager().getReasonerLock();
+        String caller = profiler.isEnabled() ? ReasonerQueryProfiler.getCallerName(query.getClass()) : null;
+        queryExecutor.execute(() -> {
+            if (!isCurrent(key)) {
+                // Superseded before it was run.  Callers still receive an answer, from the current reasoner.
+                reasonerLock.lock();
+                try {
+                    complete(pendingAnswer, getReasoner(), query);
+                } finally {
+                    reasonerLock.unlock();
+                }
+                return;
+            }
+            V value;
+            reasonerLock.lock();
+            try {
+                value = profiler.callAs(caller, () -> query.apply(reasoner));
+            } catch (Throwable t) {
+                // Failures are not remembered.  Forget this one before anyone can see it.
+                synchronized (answers) {
+                    answers.remove(key, pendingAnswer);
+                }
+                pendingAnswer.completeExceptionally(t);
+                return;
+            } finally {
+                reasonerLock.unlock();
+            }
+            pendingAnswer.complete(value);
+        });
+        return answer;
+    }
+
+    private static <V> void complete(CompletableFuture<V> answer, OWLReasoner reasoner, Function<OWLReasoner, V> query) {
+        try {
+            answer.complete(query.apply(reasoner));
+        } catch (Throwable t) {
+            answer.completeExceptionally(t);
+        }
+    }
+
+    private boolean isCurrent(QueryKey key) {
+        synchronized (answers) {
+            return key.generation == generation;
+        }
+    }
+
+    /**
+     * Discards all cached answers and advances the reasoner generation.
+     */
+    public void clear() {
+        synchronized (answers) {
+            generation++;
+            answers.clear();
+        }
+        logger.debug("Cleared reasoner query cache");
+    }
+
+    private OWLReasoner getReasoner() {
+        return modelManager.getOWLReasonerManager().getCurrentReasoner();
+    }
+
+    @Override
+    public void dispose() throws Exception {
+        modelManager.removeListener(modelManagerListener);
+        modelManager.removeOntologyChangeListener(ontologyChangeListener);
+        queryExecutor.shutdownNow();
+        clear();
+    }
+
+    private static final class QueryKey {
+
+        private final long generation;
+
+        private final String queryName;
+
+        private final OWLObject subject;
+
+        private QueryKey(long generation, String queryName, OWLObject subject) {
+            this.generation = generation;
+            this.queryName = queryName;
+            this.subject = subject;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(generation, queryName, subject);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof QueryKey)) {
+                return false;
+            }
+            QueryKey other = (QueryKey) obj;
+            return generation == other.generation
+                    && queryName.equals(other.queryName)
+                    && subject.equals(other.subject);
+        }
+    }
+}
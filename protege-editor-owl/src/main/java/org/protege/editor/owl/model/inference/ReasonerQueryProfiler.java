@@ -0,0 +1,231 @@
+package org.protege.editor.owl.model.inference;
+
+import org.semanticweb.owlapi.model.*;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records the latencies of the queries that are made of the current reasoner, while tracing is enabled.  Queries
+ * are traced by a {@link TracingReasoner}, through which the reasoner manager forwards queries to the installed
+ * reasoner while tracing is enabled.
+ * <p>
+ * Each query is recorded in two histograms: one for the query (the reasoner method and the type of its argument,
+ * e.g. "getSubClasses(ObjectSomeValuesFrom)") and one for the caller that made it.  The caller is the innermost
+ * Protégé class on the calling thread's stack, outside of the reasoner machinery itself, unless it has been set
+ * explicitly with {@link #callAs(String, Supplier)} (e.g. for queries that are answered on a background thread on
+ * behalf of a view).
+ */
+public class ReasonerQueryProfiler {
+
+    private static final String[] INFRASTRUCTURE_PACKAGES = {
+            "org.protege.editor.owl.model.inference.",
+            "java.",
+            "javax.",
+            "sun.",
+            "com.sun.",
+            "com.google.",
+            "org.semanticweb.",
+            "uk.ac.manchester."
+    };
+
+    private final ThreadLocal<String> callerOverride = new ThreadLocal<>();
+
+    private final Map<String, LatencyHistogram> queryHistograms = new ConcurrentHashMap<>();
+
+    private final Map<String, LatencyHistogram> callerHistograms = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled = false;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables tracing.  Reasoners that are obtained from the reasoner manager after tracing has been
+     * enabled are traced.  Recording stops as soon as tracing is disabled.
+     */
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Records a query.
+     * @param methodName The name of the reasoner method.
+     * @param argument The (first) argument of the query, or null if the query has no arguments.
+     * @param caller The caller, as returned by {@link #getCaller()}.
+     * @param nanos The latency of the query.
+     */
+    public void record(@Nonnull String methodName, @Nullable Object argument, @Nonnull String caller, long nanos) {
+        if (!enabled) {
+            return;
+        }
+        String query = argument == null ? methodName + "()" : methodName + "(" + getArgumentType(argument) + ")";
+        queryHistograms.computeIfAbsent(query, q -> new LatencyHistogram()).record(nanos);
+        callerHistograms.computeIfAbsent(caller, c -> new LatencyHistogram()).record(nanos);
+    }
+
+    /**
+     * Gets the caller of the current query: the caller set by an enclosing {@link #callAs(String, Supplier)} or the
+     * innermost Protégé class on the current thread's stack, or else the name of the current thread.
+     */
+    @Nonnull
+    public String getCaller() {
+        String caller = callerOverride.get();
+        if (caller != null) {
+            return caller;
+        }
+        for (StackTraceElement element : Thread.currentThread().getStackTrace()) {
+            String className = element.getClassName();
+            if (className.startsWith("org.protege.") && !isInfrastructure(className)) {
+                return getCallerName(className);
+            }
+        }
+        return Thread.currentThread().getName();
+    }
+
+    /**
+     * Runs a computation, attributing any queries that it makes to the specified caller.
+     * @param caller The caller.  May be null, in which case callers are determined as usual.
+     */
+    public <T> T callAs(@Nullable String caller, @Nonnull Supplier<T> computation) {
+        if (caller == null) {
+            return computation.get();
+        }
+        String previous = callerOverride.get();
+        callerOverride.set(caller);
+        try {
+            return computation.get();
+        } finally {
+            if (previous == null) {
+                callerOverride.remove();
+            }
+            else {
+                callerOverride.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Gets the statistics for each query, slowest (by maximum latency) first.
+     */
+    @Nonnull
+    public List<Statistics> getQueryStatistics() {
+        return getStatistics(queryHistograms, Comparator.comparingLong(Statistics::getMaxNanos).reversed());
+    }
+
+    /**
+     * Gets the statistics for each caller, most queries first.
+     */
+    @Nonnull
+    public List<Statistics> getCallerStatistics() {
+        return getStatistics(callerHistograms, Comparator.comparingLong(Statistics::getCount).reversed());
+    }
+
+    /**
+     * Discards everything that has been recorded.
+     */
+    public void reset() {
+        queryHistograms.clear();
+        callerHistograms.clear();
+    }
+
+    private static List<Statistics> getStatistics(Map<String, LatencyHistogram> histograms,
+                                                  Comparator<Statistics> order) {
+        List<Statistics> statistics = new ArrayList<>();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            statistics.add(new Statistics(entry.getKey(), entry.getValue().copy()));
+        }
+        statistics.sort(order.thenComparing(Statistics::getName));
+        return statistics;
+    }
+
+    private static boolean isInfrastructure(String className) {
+        for (String pkg : INFRASTRUCTURE_PACKAGES) {
+            if (className.startsWith(pkg)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the name under which queries made by code in the specified class (e.g. a lambda that makes a query) are
+     * attributed.
+     */
+    @Nonnull
+    public static String getCallerName(@Nonnull Class<?> cls) {
+        return getCallerName(cls.getName());
+    }
+
+    private static String getCallerName(String className) {
+        String name = className.substring(className.lastIndexOf('.') + 1);
+        // Attribute lambdas and anonymous or inner classes to their outermost class
+        int dollar = name.indexOf('$');
+        return dollar == -1 ? name : name.substring(0, dollar);
+    }
+
+    private static String getArgumentType(Object argument) {
+        if (argument instanceof OWLClassExpression) {
+            return ((OWLClassExpression) argument).getClassExpressionType().getName();
+        }
+        if (argument instanceof OWLEntity) {
+            return ((OWLEntity) argument).getEntityType().getName();
+        }
+        if (argument instanceof OWLObjectInverseOf) {
+            return "ObjectInverseOf";
+        }
+        if (argument instanceof OWLAxiom) {
+            return ((OWLAxiom) argument).getAxiomType().getName();
+        }
+        if (argument instanceof Collection) {
+            return "Set";
+        }
+        return argument.getClass().getSimpleName();
+    }
+
+    /**
+     * The latencies that have been recorded for a query or a caller.
+     */
+    public static final class Statistics {
+
+        private final String name;
+
+        private final LatencyHistogram histogram;
+
+        private Statistics(String name, LatencyHistogram histogram) {
+            this.name = checkNotNull(name);
+            this.histogram = checkNotNull(histogram);
+        }
+
+        @Nonnull
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return histogram.getCount();
+        }
+
+        public long getTotalNanos() {
+            return histogram.getTotalNanos();
+        }
+
+        public long getMeanNanos() {
+            return histogram.getMeanNanos();
+        }
+
+        public long getMaxNanos() {
+            return histogram.getMaxNanos();
+        }
+
+        public long getPercentileNanos(double percentile) {
+            return histogram.getPercentileNanos(percentile);
+        }
+    }
+}
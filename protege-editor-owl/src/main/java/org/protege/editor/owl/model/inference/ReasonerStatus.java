@@ -39,6 +39,26 @@ public enum ReasonerStatus {
 		}
 	},
 
+	CACHED_INFERENCES("Showing cached inferences. To use the reasoner click Reasoner > Start reasoner",
+			"<html>The inferences shown were stored when this ontology was last classified.<br>" +
+					"Starting the reasoner replaces the cached inferences.</html>",
+			"No reasoner running. Nothing to synchronize.") {
+		@Override
+		public boolean isEnableInitialization() {
+			return true;
+		}
+
+		@Override
+		public boolean isEnableSynchronization() {
+			return false;
+		}
+
+		@Override
+		public boolean isEnableStop() {
+			return false;
+		}
+	},
+
 	INITIALIZATION_IN_PROGRESS("Reasoner Initialization in Progress",
 			"Waiting for reasoner to initialize.  No reasoner actions enabled.", "Waiting for reasoner to initialize.  No reasoner actions enabled.") {
 		@Override
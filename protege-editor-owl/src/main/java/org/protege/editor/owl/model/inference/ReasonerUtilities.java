@@ -1,6 +1,7 @@
 package org.protege.editor.owl.model.inference;
 
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.reasoner.BufferingMode;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.reasoner.OWLReasonerConfiguration;
 import org.semanticweb.owlapi.reasoner.OWLReasonerFactory;
@@ -13,15 +14,19 @@ import java.awt.*;
 public class ReasonerUtilities {
 	
 	public static OWLReasoner createReasoner(OWLOntology ontology, ProtegeOWLReasonerInfo info, ReasonerProgressMonitor monitor) {
+		return createReasoner(ontology, info, monitor, info.getRecommendedBuffering());
+	}
+
+	public static OWLReasoner createReasoner(OWLOntology ontology, ProtegeOWLReasonerInfo info, ReasonerProgressMonitor monitor, BufferingMode bufferingMode) {
 		OWLReasonerFactory factory = info.getReasonerFactory();
 		OWLReasonerConfiguration configuration = info.getConfiguration(monitor);
-		switch (info.getRecommendedBuffering()) {
+		switch (bufferingMode) {
 		case BUFFERING:
 			return factory.createReasoner(ontology, configuration);
 		case NON_BUFFERING:
 			return factory.createNonBufferingReasoner(ontology, configuration);
 		default:
-			throw new UnsupportedOperationException("Programmer error: missed a case " + info.getRecommendedBuffering());
+			throw new UnsupportedOperationException("Programmer error: missed a case " + bufferingMode);
 		}
 	}
 	
@@ -0,0 +1,306 @@
+package org.protege.editor.owl.model.inference;
+
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.*;
+import org.semanticweb.owlapi.util.Version;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A reasoner that records the latency of each query that it forwards to another reasoner with a
+ * {@link ReasonerQueryProfiler}.  Queries are only recorded while the profiler is enabled.  Methods that do not
+ * query the reasoner (e.g. {@link #getReasonerName()}) are forwarded without being recorded.
+ */
+public class TracingReasoner implements OWLReasoner {
+
+    private final OWLReasoner delegate;
+
+    private final ReasonerQueryProfiler profiler;
+
+    public TracingReasoner(@Nonnull OWLReasoner delegate, @Nonnull ReasonerQueryProfiler profiler) {
+        this.delegate = checkNotNull(delegate);
+        this.profiler = checkNotNull(profiler);
+    }
+
+    /**
+     * Gets the reasoner that queries are forwarded to.
+     */
+    @Nonnull
+    public OWLReasoner getDelegate() {
+        return delegate;
+    }
+
+    private <T> T trace(String methodName, Object argument, Supplier<T> query) {
+        if (!profiler.isEnabled()) {
+            return query.get();
+        }
+        String caller = profiler.getCaller();
+        long start = System.nanoTime();
+        try {
+            return query.get();
+        } finally {
+            profiler.record(methodName, argument, caller, System.nanoTime() - start);
+        }
+    }
+
+    @Override
+    public String getReasonerName() {
+        return delegate.getReasonerName();
+    }
+
+    @Override
+    public Version getReasonerVersion() {
+        return delegate.getReasonerVersion();
+    }
+
+    @Override
+    public BufferingMode getBufferingMode() {
+        return delegate.getBufferingMode();
+    }
+
+    @Override
+    public void flush() {
+        trace("flush", null, () -> {
+            delegate.flush();
+            return null;
+        });
+    }
+
+    @Override
+    public List<OWLOntologyChange> getPendingChanges() {
+        return delegate.getPendingChanges();
+    }
+
+    @Override
+    public Set<OWLAxiom> getPendingAxiomAdditions() {
+        return delegate.getPendingAxiomAdditions();
+    }
+
+    @Override
+    public Set<OWLAxiom> getPendingAxiomRemovals() {
+        return delegate.getPendingAxiomRemovals();
+    }
+
+    @Override
+    public OWLOntology getRootOntology() {
+        return delegate.getRootOntology();
+    }
+
+    @Override
+    public void interrupt() {
+        delegate.interrupt();
+    }
+
+    @Override
+    public void precomputeInferences(InferenceType... inferenceTypes) {
+        trace("precomputeInferences", null, () -> {
+            delegate.precomputeInferences(inferenceTypes);
+            return null;
+        });
+    }
+
+    @Override
+    public boolean isPrecomputed(InferenceType inferenceType) {
+        return delegate.isPrecomputed(inferenceType);
+    }
+
+    @Override
+    public Set<InferenceType> getPrecomputableInferenceTypes() {
+        return delegate.getPrecomputableInferenceTypes();
+    }
+
+    @Override
+    public boolean isConsistent() {
+        return trace("isConsistent", null, () -> delegate.isConsistent());
+    }
+
+    @Override
+    public boolean isSatisfiable(OWLClassExpression classExpression) {
+        return trace("isSatisfiable", classExpression, () -> delegate.isSatisfiable(classExpression));
+    }
+
+    @Override
+    public Node<OWLClass> getUnsatisfiableClasses() {
+        return trace("getUnsatisfiableClasses", null, () -> delegate.getUnsatisfiableClasses());
+    }
+
+    @Override
+    public boolean isEntailed(OWLAxiom axiom) {
+        return trace("isEntailed", axiom, () -> delegate.isEntailed(axiom));
+    }
+
+    @Override
+    public boolean isEntailed(Set<? extends OWLAxiom> axioms) {
+        return trace("isEntailed", axioms, () -> delegate.isEntailed(axioms));
+    }
+
+    @Override
+    public boolean isEntailmentCheckingSupported(AxiomType<?> axiomType) {
+        return delegate.isEntailmentCheckingSupported(axiomType);
+    }
+
+    @Override
+    public Node<OWLClass> getTopClassNode() {
+        return trace("getTopClassNode", null, () -> delegate.getTopClassNode());
+    }
+
+    @Override
+    public Node<OWLClass> getBottomClassNode() {
+        return trace("getBottomClassNode", null, () -> delegate.getBottomClassNode());
+    }
+
+    @Override
+    public NodeSet<OWLClass> getSubClasses(OWLClassExpression ce, boolean direct) {
+        return trace("getSubClasses", ce, () -> delegate.getSubClasses(ce, direct));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getSuperClasses(OWLClassExpression ce, boolean direct) {
+        return trace("getSuperClasses", ce, () -> delegate.getSuperClasses(ce, direct));
+    }
+
+    @Override
+    public Node<OWLClass> getEquivalentClasses(OWLClassExpression ce) {
+        return trace("getEquivalentClasses", ce, () -> delegate.getEquivalentClasses(ce));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getDisjointClasses(OWLClassExpression ce) {
+        return trace("getDisjointClasses", ce, () -> delegate.getDisjointClasses(ce));
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getTopObjectPropertyNode() {
+        return trace("getTopObjectPropertyNode", null, () -> delegate.getTopObjectPropertyNode());
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getBottomObjectPropertyNode() {
+        return trace("getBottomObjectPropertyNode", null, () -> delegate.getBottomObjectPropertyNode());
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSubObjectProperties(OWLObjectPropertyExpression pe, boolean direct) {
+        return trace("getSubObjectProperties", pe, () -> delegate.getSubObjectProperties(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getSuperObjectProperties(OWLObjectPropertyExpression pe, boolean direct) {
+        return trace("getSuperObjectProperties", pe, () -> delegate.getSuperObjectProperties(pe, direct));
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getEquivalentObjectProperties(OWLObjectPropertyExpression pe) {
+        return trace("getEquivalentObjectProperties", pe, () -> delegate.getEquivalentObjectProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLObjectPropertyExpression> getDisjointObjectProperties(OWLObjectPropertyExpression pe) {
+        return trace("getDisjointObjectProperties", pe, () -> delegate.getDisjointObjectProperties(pe));
+    }
+
+    @Override
+    public Node<OWLObjectPropertyExpression> getInverseObjectProperties(OWLObjectPropertyExpression pe) {
+        return trace("getInverseObjectProperties", pe, () -> delegate.getInverseObjectProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getObjectPropertyDomains(OWLObjectPropertyExpression pe, boolean direct) {
+        return trace("getObjectPropertyDomains", pe, () -> delegate.getObjectPropertyDomains(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getObjectPropertyRanges(OWLObjectPropertyExpression pe, boolean direct) {
+        return trace("getObjectPropertyRanges", pe, () -> delegate.getObjectPropertyRanges(pe, direct));
+    }
+
+    @Override
+    public Node<OWLDataProperty> getTopDataPropertyNode() {
+        return trace("getTopDataPropertyNode", null, () -> delegate.getTopDataPropertyNode());
+    }
+
+    @Override
+    public Node<OWLDataProperty> getBottomDataPropertyNode() {
+        return trace("getBottomDataPropertyNode", null, () -> delegate.getBottomDataPropertyNode());
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getSubDataProperties(OWLDataProperty pe, boolean direct) {
+        return trace("getSubDataProperties", pe, () -> delegate.getSubDataProperties(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getSuperDataProperties(OWLDataProperty pe, boolean direct) {
+        return trace("getSuperDataProperties", pe, () -> delegate.getSuperDataProperties(pe, direct));
+    }
+
+    @Override
+    public Node<OWLDataProperty> getEquivalentDataProperties(OWLDataProperty pe) {
+        return trace("getEquivalentDataProperties", pe, () -> delegate.getEquivalentDataProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLDataProperty> getDisjointDataProperties(OWLDataPropertyExpression pe) {
+        return trace("getDisjointDataProperties", pe, () -> delegate.getDisjointDataProperties(pe));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getDataPropertyDomains(OWLDataProperty pe, boolean direct) {
+        return trace("getDataPropertyDomains", pe, () -> delegate.getDataPropertyDomains(pe, direct));
+    }
+
+    @Override
+    public NodeSet<OWLClass> getTypes(OWLNamedIndividual ind, boolean direct) {
+        return trace("getTypes", ind, () -> delegate.getTypes(ind, direct));
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getInstances(OWLClassExpression ce, boolean direct) {
+        return trace("getInstances", ce, () -> delegate.getInstances(ce, direct));
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getObjectPropertyValues(OWLNamedIndividual ind, OWLObjectPropertyExpression pe) {
+        return trace("getObjectPropertyValues", ind, () -> delegate.getObjectPropertyValues(ind, pe));
+    }
+
+    @Override
+    public Set<OWLLiteral> getDataPropertyValues(OWLNamedIndividual ind, OWLDataProperty pe) {
+        return trace("getDataPropertyValues", ind, () -> delegate.getDataPropertyValues(ind, pe));
+    }
+
+    @Override
+    public Node<OWLNamedIndividual> getSameIndividuals(OWLNamedIndividual ind) {
+        return trace("getSameIndividuals", ind, () -> delegate.getSameIndividuals(ind));
+    }
+
+    @Override
+    public NodeSet<OWLNamedIndividual> getDifferentIndividuals(OWLNamedIndividual ind) {
+        return trace("getDifferentIndividuals", ind, () -> delegate.getDifferentIndividuals(ind));
+    }
+
+    @Override
+    public long getTimeOut() {
+        return delegate.getTimeOut();
+    }
+
+    @Override
+    public FreshEntityPolicy getFreshEntityPolicy() {
+        return delegate.getFreshEntityPolicy();
+    }
+
+    @Override
+    public IndividualNodeSetPolicy getIndividualNodeSetPolicy() {
+        return delegate.getIndividualNodeSetPolicy();
+    }
+
+    @Override
+    public void dispose() {
+        delegate.dispose();
+    }
+}
@@ -0,0 +1,146 @@
+package org.protege.editor.owl.model.io;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.nio.file.attribute.PosixFileAttributes;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A temporary file that is written in place of a destination file and then moved over it, so that a failed or
+ * cancelled write never leaves a partially written document behind.  The temporary file is a sibling of the
+ * destination, so the move is a rename on the same file store, which is atomic where the platform supports it.
+ * <p>
+ * Typical use is:
+ * <pre>
+ *     try (FileReplacement replacement = FileReplacement.create(path)) {
+ *         // Write to replacement.getTempFile()
+ *         replacement.commit();
+ *     }
+ * </pre>
+ * If {@link #commit()} is not reached then closing the replacement deletes the temporary file.
+ */
+public class FileReplacement implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileReplacement.class);
+
+    private final Path destination;
+
+    private final Path tempFile;
+
+    private FileReplacement(Path destination, Path tempFile) {
+        this.destination = destination;
+        this.tempFile = tempFile;
+    }
+
+    /**
+     * Creates a temporary file that will replace the specified file.  If the file is a symbolic link then the file
+     * that it links to is replaced, not the link.  Missing parent directories are created.
+     * @param documentPath The file to replace.  This need not exist.
+     */
+    @Nonnull
+    public static FileReplacement create(@Nonnull Path documentPath) throws IOException {
+        Path destination = Files.exists(documentPath) ? documentPath.toRealPath() : documentPath.toAbsolutePath();
+        Path destinationDirectory = destination.getParent();
+        Files.createDirectories(destinationDirectory);
+        Path tempFile = Files.createTempFile(destinationDirectory, "." + destination.getFileName(), ".tmp");
+        try {
+            copyPosixAttributes(destination, tempFile);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new FileReplacement(destination, tempFile);
+    }
+
+    /**
+     * Gets the temporary file, which should be written and closed before the replacement is committed.
+     */
+    @Nonnull
+    public Path getTempFile() {
+        return tempFile;
+    }
+
+    /**
+     * Gets the file that is replaced.
+     */
+    @Nonnull
+    public Path getDestination() {
+        return destination;
+    }
+
+    /**
+     * Moves the temporary file over the destination.
+     */
+    public void commit() throws IOException {
+        logger.info("Moving temp file ({}) to actual destination ({})", tempFile, destination);
+        try {
+            Files.move(tempFile, destination, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            logger.info("Atomic move is not supported for {}.  Replacing the destination file non-atomically.", destination);
+            Files.move(tempFile, destination, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Deletes the temporary file, if it has not been committed.
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(tempFile);
+    }
+
+    /**
+     * The temporary file is created with owner only permissions, so that it is not exposed whilst it is written.
+     * Before it replaces the destination it is given the permissions, owner and group of the destination, so that
+     * saving does not change them.  If there is no destination yet then it is given the permissions that a new file
+     * in the destination directory gets by default (i.e. those allowed by the user's umask).
+     */
+    private static void copyPosixAttributes(Path destination, Path tempFile) throws IOException {
+        if (!Files.exists(destination)) {
+            applyDefaultPermissions(destination.getParent(), tempFile);
+            return;
+        }
+        PosixFileAttributeView destinationView = Files.getFileAttributeView(destination, PosixFileAttributeView.class);
+        PosixFileAttributeView tempFileView = Files.getFileAttributeView(tempFile, PosixFileAttributeView.class);
+        if (destinationView == null || tempFileView == null) {
+            return;
+        }
+        PosixFileAttributes attributes = destinationView.readAttributes();
+        try {
+            tempFileView.setGroup(attributes.group());
+            tempFileView.setOwner(attributes.owner());
+        } catch (IOException e) {
+            // Only privileged users may give files away
+            logger.debug("Could not set the owner of {} to that of {}: {}", tempFile, destination, e.getMessage());
+        }
+        tempFileView.setPermissions(attributes.permissions());
+    }
+
+    /**
+     * There is no way to read the umask, so the default permissions are taken from a probe file that is created,
+     * without explicit permissions, in the destination directory.
+     */
+    private static void applyDefaultPermissions(Path directory, Path tempFile) throws IOException {
+        PosixFileAttributeView tempFileView = Files.getFileAttributeView(tempFile, PosixFileAttributeView.class);
+        if (tempFileView == null) {
+            return;
+        }
+        Path probeFile = directory.resolve(tempFile.getFileName() + ".permissions");
+        try {
+            Files.createFile(probeFile);
+            tempFileView.setPermissions(Files.getPosixFilePermissions(probeFile));
+        } finally {
+            Files.deleteIfExists(probeFile);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package org.protege.editor.owl.model.io;
+
+import org.semanticweb.owlapi.functional.renderer.FunctionalSyntaxObjectRenderer;
+import org.semanticweb.owlapi.model.OWLAnnotation;
+import org.semanticweb.owlapi.model.OWLImportsDeclaration;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes the header of an ontology in the OWL functional syntax: the prefixes, and the start of the ontology with
+ * its IRI, version IRI, imports declarations and annotations.  This is used where the axioms of an ontology are
+ * written one at a time, rather than by the functional syntax renderer.  The caller writes the axioms and the closing
+ * bracket of the ontology.
+ */
+public class FunctionalSyntaxHeaderWriter {
+
+    private FunctionalSyntaxHeaderWriter() {
+    }
+
+    /**
+     * Writes the header of an ontology.  The output ends with a new line.
+     * @param ontology The ontology.  The prefixes are taken from its document format.
+     * @param writer The writer that the header is written to.
+     */
+    public static void writeHeader(@Nonnull OWLOntology ontology, @Nonnull Writer writer) throws IOException {
+        HeaderRenderer renderer = new HeaderRenderer(ontology, writer);
+        renderer.writePrefixes();
+        writer.write("\n\nOntology(");
+        OWLOntologyID id = ontology.getOntologyID();
+        if (id.getOntologyIRI().isPresent()) {
+            writer.write(id.getOntologyIRI().get().toQuotedString());
+            if (id.getVersionIRI().isPresent()) {
+                writer.write("\n");
+                writer.write(id.getVersionIRI().get().toQuotedString());
+            }
+        }
+        writer.write("\n");
+        for (OWLImportsDeclaration decl : ontology.getImportsDeclarations()) {
+            writer.write("Import(" + decl.getIRI().toQuotedString() + ")\n");
+        }
+        for (OWLAnnotation annotation : ontology.getAnnotations()) {
+            annotation.accept(renderer);
+            writer.write("\n");
+        }
+    }
+
+    /**
+     * Exposes the prefix rendering of the functional syntax renderer.
+     */
+    private static class HeaderRenderer extends FunctionalSyntaxObjectRenderer {
+
+        private HeaderRenderer(OWLOntology ontology, Writer writer) {
+            super(ontology, writer);
+        }
+
+        @Override
+        protected void writePrefixes() {
+            super.writePrefixes();
+        }
+    }
+}
@@ -1,7 +1,7 @@
 package org.protege.editor.owl.model.io;
 
 import com.google.common.util.concurrent.*;
-import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.output.CloseShieldOutputStream;
 import org.protege.editor.owl.ui.util.ProgressDialog;
 import org.semanticweb.owlapi.model.IRI;
 import org.semanticweb.owlapi.model.OWLDocumentFormat;
@@ -11,12 +11,21 @@ import org.semanticweb.owlapi.util.OntologyIRIShortFormProvider;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -27,16 +36,35 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * 13 May 16
  *
  * Saves ontologies in a background thread and displays a progress dialog whilst the ontologies are being saved.
+ * Independent ontologies are saved in parallel on a small bounded pool.  Ontologies that are saved to local files
+ * are written to a temporary file in the destination directory which then atomically replaces the destination
+ * file, so that a failed save never leaves a partially written document behind.
  */
 public class OntologySaver {
 
-    private final Logger logger = LoggerFactory.getLogger(OntologySaver.class);
+    /**
+     * The maximum number of ontologies that will be written concurrently.  Serialisation is mostly CPU bound, but
+     * each writer also holds a rendering of a complete ontology in flight, so this is kept small.
+     */
+    private static final int MAX_CONCURRENT_SAVES = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors()));
+
+    private static final int OUTPUT_BUFFER_SIZE = 1 << 16;
+
+    private static final Logger logger = LoggerFactory.getLogger(OntologySaver.class);
 
     private final List<OntologySaveDescriptor> saveDescriptors = new ArrayList<>();
 
     private final ProgressDialog dlg = new ProgressDialog();
 
-    private ListeningExecutorService executorService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor());
+    /**
+     * The descriptions of the ontologies that are currently being written.  These are shown together in the
+     * sub-message of the progress dialog, so that concurrent saves do not overwrite each other's progress text.
+     */
+    private final Map<OntologySaveDescriptor, String> savesInProgress = new LinkedHashMap<>();
+
+    private final ListeningExecutorService executorService = MoreExecutors.listeningDecorator(Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("ontology-saver-%d").setDaemon(true).build()
+    ));
 
     private OntologySaver(List<OntologySaveDescriptor> saveDescriptors) {
         this.saveDescriptors.addAll(saveDescriptors);
@@ -44,75 +72,176 @@ public class OntologySaver {
 
     /**
      * Save the ontologies that were added to this saver using the OntologySaver.Builder.
-     * @throws OWLOntologyStorageException if there was a problem saving an ontology.
+     * @throws OWLOntologyStorageException if there was a problem saving an ontology.  If more than one ontology
+     * could not be saved then the exceptions for the remaining ontologies are attached as suppressed exceptions.
      */
     public void saveOntologies() throws OWLOntologyStorageException {
-		ListenableFuture<Void> future = executorService.submit(() -> {			
-			try {
-				return saveOntologyInternal();
-			} finally {
-				dlg.setVisible(false);
-			}
-		});
-		dlg.setVisible(true);
+        Map<OWLOntology, OWLOntologyStorageException> errors = saveOntologiesAndCollectErrors();
+        if(errors.isEmpty()) {
+            return;
+        }
+        Iterator<OWLOntologyStorageException> it = errors.values().iterator();
+        OWLOntologyStorageException first = it.next();
+        while(it.hasNext()) {
+            first.addSuppressed(it.next());
+        }
+        throw first;
+    }
+
+    /**
+     * Save the ontologies that were added to this saver using the OntologySaver.Builder.  A failure to save one
+     * ontology does not prevent the other ontologies from being saved.
+     * @return A map of the ontologies that could not be saved to the exception that describes the problem.  Ontologies
+     * that are not contained in the map were saved successfully.  Not {@code null}.
+     */
+    public Map<OWLOntology, OWLOntologyStorageException> saveOntologiesAndCollectErrors() {
+        ListenableFuture<Map<OWLOntology, OWLOntologyStorageException>> future = executorService.submit(() -> {
+            try {
+                return saveOntologiesInternal();
+            } finally {
+                dlg.setVisible(false);
+            }
+        });
+        dlg.setVisible(true);
         try {
-            future.get();
+            return future.get();
         } catch (InterruptedException e) {
             logger.info("Save was interrupted");
+            Thread.currentThread().interrupt();
+            return Collections.emptyMap();
         } catch (ExecutionException e) {
-            if(e.getCause() instanceof OWLOntologyStorageException) {
-                throw (OWLOntologyStorageException) e.getCause();
-            }
-            else if(e.getCause() instanceof RuntimeException) {
+            if(e.getCause() instanceof RuntimeException) {
                 throw (RuntimeException) e.getCause();
             }
             else {
                 logger.info("An error occurred during save: {}", e.getMessage(), e);
+                return Collections.emptyMap();
             }
+        } finally {
+            executorService.shutdown();
         }
     }
 
     /**
-     * Does the actual saving.
-     * @return {@code null}.
-     * @throws OWLOntologyStorageException if there was a problem saving the ontology.
+     * Does the actual saving.  Each ontology is saved as a separate task on a bounded pool.
+     * @return A map of the ontologies that could not be saved to the corresponding exceptions.
      */
-    private Void saveOntologyInternal() throws OWLOntologyStorageException {
-        for (OntologySaveDescriptor descriptor : saveDescriptors) {
-            try {
-                OWLOntology ontology = descriptor.getOntology();
-                OntologyIRIShortFormProvider sfp = new OntologyIRIShortFormProvider();
-                String ontologyShortForm = sfp.getShortForm(ontology);
-                logger.info("Saving {}", ontologyShortForm);
-                dlg.setMessage(String.format("Saving ontology: %s", ontologyShortForm));
-                IRI documentIRI = descriptor.getDocumentIRI();
-                dlg.setSubMessage(String.format("Location: %s", formatIRI(documentIRI)));
-                if ("file".equals(documentIRI.getScheme())) {
-                    File tempFile;
-                    // Save temp file first and then copy over.
-                    tempFile = File.createTempFile("temp-ontology", "");
+    private Map<OWLOntology, OWLOntologyStorageException> saveOntologiesInternal() throws InterruptedException {
+        int total = saveDescriptors.size();
+        if(total == 1) {
+            dlg.setMessage(String.format("Saving ontology: %s", getShortForm(saveDescriptors.get(0).getOntology())));
+        }
+        else {
+            dlg.setMessage(String.format("Saving %d ontologies", total));
+        }
+        dlg.setProgress(0, total);
+        int poolSize = Math.max(1, Math.min(total, MAX_CONCURRENT_SAVES));
+        ExecutorService savePool = Executors.newFixedThreadPool(
+                poolSize,
+                new ThreadFactoryBuilder().setNameFormat("ontology-saver-worker-%d").setDaemon(true).build());
+        try {
+            AtomicInteger completed = new AtomicInteger();
+            Map<OntologySaveDescriptor, Future<Void>> futures = new LinkedHashMap<>();
+            for(OntologySaveDescriptor descriptor : saveDescriptors) {
+                futures.put(descriptor, savePool.submit(() -> {
                     try {
-                        logger.info("Saving ontology to temp file: {}", tempFile);
-                        ontology.saveOntology(descriptor.getDocumentFormat(), IRI.create(tempFile));
-                        File destFile = new File(documentIRI.toURI());
-                        logger.info("Copying ontology from temp file ({}) to actual destination ({})", tempFile, destFile);
-                        FileUtils.copyFile(tempFile, destFile);
+                        saveOntology(descriptor);
                     } finally {
-                        logger.info("Removing temp file: {}", tempFile);
-                        FileUtils.deleteQuietly(tempFile);
+                        int done = completed.incrementAndGet();
+                        dlg.setProgress(done, total);
+                        if(total > 1) {
+                            dlg.setMessage(String.format("Saving %d ontologies (%d of %d complete)", total, done, total));
+                        }
+                    }
+                    return null;
+                }));
+            }
+            Map<OWLOntology, OWLOntologyStorageException> errors = new LinkedHashMap<>();
+            for(Map.Entry<OntologySaveDescriptor, Future<Void>> entry : futures.entrySet()) {
+                OWLOntology ontology = entry.getKey().getOntology();
+                try {
+                    entry.getValue().get();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    logger.error("An error occurred whilst saving {}: {}", getShortForm(ontology), cause.getMessage(), cause);
+                    if(cause instanceof OWLOntologyStorageException) {
+                        errors.put(ontology, (OWLOntologyStorageException) cause);
+                    }
+                    else {
+                        errors.put(ontology, new OWLOntologyStorageException(cause));
                     }
                 }
-                else {
-                    logger.info("Saving ontology to: {}", documentIRI);
-                    ontology.saveOntology(descriptor.getDocumentFormat(), documentIRI);
+            }
+            return errors;
+        } finally {
+            savePool.shutdownNow();
+        }
+    }
+
+    private void saveOntology(OntologySaveDescriptor descriptor) throws OWLOntologyStorageException {
+        OWLOntology ontology = descriptor.getOntology();
+        String ontologyShortForm = getShortForm(ontology);
+        logger.info("Saving {}", ontologyShortForm);
+        IRI documentIRI = descriptor.getDocumentIRI();
+        setSaveInProgress(descriptor, String.format("%s  (Location: %s)", ontologyShortForm, formatIRI(documentIRI)));
+        try {
+            if ("file".equals(documentIRI.getScheme())) {
+                try {
+                    saveToFile(ontology, descriptor.getDocumentFormat(), Paths.get(documentIRI.toURI()));
+                } catch (IOException e) {
+                    throw new OWLOntologyStorageException(e);
                 }
             }
-            catch (IOException e) {
-                throw new OWLOntologyStorageException(e);
+            else {
+                logger.info("Saving ontology to: {}", documentIRI);
+                ontology.saveOntology(descriptor.getDocumentFormat(), documentIRI);
+            }
+        } finally {
+            setSaveInProgress(descriptor, null);
+        }
+    }
+
+    /**
+     * Records that an ontology has started (or, if the description is {@code null}, finished) being written, and
+     * shows all of the ontologies that are being written in the sub-message of the progress dialog.
+     */
+    private void setSaveInProgress(OntologySaveDescriptor descriptor, String description) {
+        String subMessage;
+        synchronized (savesInProgress) {
+            if (description != null) {
+                savesInProgress.put(descriptor, description);
+            }
+            else {
+                savesInProgress.remove(descriptor);
             }
+            subMessage = String.join(";  ", savesInProgress.values());
+        }
+        dlg.setSubMessage(subMessage);
+    }
 
+    /**
+     * Saves the ontology to a temporary file that is a sibling of the destination file, flushes it to disk and
+     * then moves it over the destination (see {@link FileReplacement}).
+     */
+    static void saveToFile(OWLOntology ontology,
+                           OWLDocumentFormat documentFormat,
+                           Path documentPath) throws IOException, OWLOntologyStorageException {
+        try (FileReplacement replacement = FileReplacement.create(documentPath)) {
+            Path tempFile = replacement.getTempFile();
+            logger.info("Saving ontology to temp file: {}", tempFile);
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                // The storer must not close the channel before it has been forced to disk
+                OutputStream os = new BufferedOutputStream(new CloseShieldOutputStream(Channels.newOutputStream(channel)), OUTPUT_BUFFER_SIZE);
+                ontology.saveOntology(documentFormat, os);
+                os.flush();
+                channel.force(true);
+            }
+            replacement.commit();
         }
-        return null;
+    }
+
+    private static String getShortForm(OWLOntology ontology) {
+        return new OntologyIRIShortFormProvider().getShortForm(ontology);
     }
 
     private static String formatIRI(IRI iri) {
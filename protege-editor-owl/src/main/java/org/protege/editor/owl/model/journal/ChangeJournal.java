@@ -0,0 +1,359 @@
+package org.protege.editor.owl.model.journal;
+
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * An append-only journal of the changes that have been made to an ontology since its document was last saved.
+ * <p>
+ * A journal file consists of a header, which records the size and modification time of the ontology document that
+ * the changes apply to, followed by a sequence of records.  Each record holds one batch of changes and is written
+ * as its length, a CRC32 checksum and a deflated object stream of {@link OWLOntologyChangeData}.  A record that was
+ * only partially written (for example because of a crash) fails its checksum and ends the readable part of the
+ * journal.
+ * <p>
+ * Instances are not thread safe.
+ */
+public class ChangeJournal implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeJournal.class);
+
+    private static final int MAGIC = 0x504A4E4C;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_SIZE = 4 + 4 + 8 + 8;
+
+    private static final int RECORD_HEADER_SIZE = 4 + 8;
+
+    private final Path file;
+
+    private FileChannel channel;
+
+    private ChangeJournal(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * Creates a new, empty, journal, replacing any existing journal in the specified file.
+     * @param file The journal file.
+     * @param documentStamp The stamp of the document that subsequent changes will apply to.
+     */
+    @Nonnull
+    public static ChangeJournal create(@Nonnull Path file, @Nonnull DocumentStamp documentStamp) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        FileChannel channel = FileChannel.open(file,
+                                               StandardOpenOption.CREATE,
+                                               StandardOpenOption.READ,
+                                               StandardOpenOption.WRITE);
+        ChangeJournal journal = new ChangeJournal(file, channel);
+        journal.reset(documentStamp);
+        return journal;
+    }
+
+    /**
+     * Reads the journal in the specified file.
+     * @param file The journal file.
+     * @return The contents of the journal, or an empty value if the file does not exist or does not contain a
+     * journal.
+     */
+    @Nonnull
+    public static Optional<Contents> read(@Nonnull Path file) throws IOException {
+        if(!Files.exists(file)) {
+            return Optional.empty();
+        }
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            if(!readFully(channel, header) || header.getInt(0) != MAGIC || header.getInt(4) != VERSION) {
+                logger.warn("{} is not a change journal", file);
+                return Optional.empty();
+            }
+            DocumentStamp stamp = new DocumentStamp(header.getLong(8), header.getLong(16));
+            List<List<OWLOntologyChangeData>> batches = new ArrayList<>();
+            ByteBuffer recordHeader = ByteBuffer.allocate(RECORD_HEADER_SIZE);
+            while(true) {
+                recordHeader.clear();
+                if(!readFully(channel, recordHeader)) {
+                    break;
+                }
+                int length = recordHeader.getInt(0);
+                long checksum = recordHeader.getLong(4);
+                if(length < 0 || length > channel.size() - channel.position()) {
+                    logger.warn("Ignoring truncated record at the end of change journal {}", file);
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                if(!readFully(channel, payload) || checksum(payload.array()) != checksum) {
+                    logger.warn("Ignoring corrupt record at the end of change journal {}", file);
+                    break;
+                }
+                batches.add(decode(payload.array()));
+            }
+            return Optional.of(new Contents(stamp, batches));
+        }
+    }
+
+    /**
+     * Appends a batch of changes to the journal.  The changes are not guaranteed to be on disk until {@link #sync()}
+     * has been called.
+     * @param changes The changes.  Empty batches are ignored.
+     */
+    public void append(@Nonnull List<OWLOntologyChangeData> changes) throws IOException {
+        if(changes.isEmpty()) {
+            return;
+        }
+        writeRecord(channel, changes);
+    }
+
+    /**
+     * Forces any appended changes to disk.
+     */
+    public void sync() throws IOException {
+        channel.force(false);
+    }
+
+    /**
+     * Discards all changes in the journal and records a new document stamp.  This is called after the document has
+     * been saved or reloaded.
+     */
+    public void reset(@Nonnull DocumentStamp documentStamp) throws IOException {
+        channel.truncate(0);
+        channel.position(0);
+        writeHeader(channel, documentStamp);
+        channel.force(true);
+    }
+
+    /**
+     * Replaces the contents of this journal with a single batch of changes.  The replacement is written to a
+     * sibling file which is then atomically moved over the journal, so that a crash during compaction leaves either
+     * the old or the new journal intact.
+     * @param documentStamp The document stamp.
+     * @param changes The changes that replace the current contents.
+     */
+    public void rewrite(@Nonnull DocumentStamp documentStamp,
+                        @Nonnull List<OWLOntologyChangeData> changes) throws IOException {
+        Path tempFile = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try(FileChannel tempChannel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                writeHeader(tempChannel, documentStamp);
+                if(!changes.isEmpty()) {
+                    writeRecord(tempChannel, changes);
+                }
+                tempChannel.force(true);
+            }
+            channel.close();
+            try {
+                Files.move(tempFile, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tempFile);
+            if(!channel.isOpen()) {
+                channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                channel.position(channel.size());
+            }
+        }
+    }
+
+    /**
+     * Gets the size, in bytes, of the journal file.
+     */
+    public long size() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Determines whether this journal holds any changes.
+     */
+    public boolean isEmpty() throws IOException {
+        return channel.size() <= HEADER_SIZE;
+    }
+
+    @Nonnull
+    public Path getFile() {
+        return file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static void writeHeader(FileChannel channel, DocumentStamp documentStamp) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(MAGIC);
+        header.putInt(VERSION);
+        header.putLong(documentStamp.getLength());
+        header.putLong(documentStamp.getLastModified());
+        header.flip();
+        writeFully(channel, header);
+    }
+
+    private static void writeRecord(FileChannel channel, List<OWLOntologyChangeData> changes) throws IOException {
+        byte[] payload = encode(changes);
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + payload.length);
+        record.putInt(payload.length);
+        record.putLong(checksum(payload));
+        record.put(payload);
+        record.flip();
+        writeFully(channel, record);
+    }
+
+    private static byte[] encode(List<OWLOntologyChangeData> changes) throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream(changes.size() * 16);
+        try(ObjectOutputStream os = new ObjectOutputStream(new DeflaterOutputStream(bos))) {
+            os.writeInt(changes.size());
+            for(OWLOntologyChangeData change : changes) {
+                os.writeObject(change);
+            }
+        }
+        return bos.toByteArray();
+    }
+
+    private static List<OWLOntologyChangeData> decode(byte[] bytes) throws IOException {
+        try(ObjectInputStream is = new ObjectInputStream(new InflaterInputStream(new ByteArrayInputStream(bytes)))) {
+            int size = is.readInt();
+            List<OWLOntologyChangeData> changes = new ArrayList<>(size);
+            for(int i = 0; i < size; i++) {
+                changes.add((OWLOntologyChangeData) is.readObject());
+            }
+            return changes;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private static long checksum(byte[] bytes) {
+        CRC32 crc = new CRC32();
+        crc.update(bytes);
+        return crc.getValue();
+    }
+
+    private static boolean readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            if(channel.read(buffer) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while(buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Identifies a version of an ontology document by its length and modification time.  A journal is only
+     * replayed onto a document whose stamp matches the stamp recorded in the journal.
+     */
+    public static final class DocumentStamp {
+
+        private final long length;
+
+        private final long lastModified;
+
+        public DocumentStamp(long length, long lastModified) {
+            this.length = length;
+            this.lastModified = lastModified;
+        }
+
+        /**
+         * Gets the stamp of the specified document file.
+         */
+        @Nonnull
+        public static DocumentStamp of(@Nonnull Path document) throws IOException {
+            BasicFileAttributes attributes = Files.readAttributes(document, BasicFileAttributes.class);
+            return new DocumentStamp(attributes.size(), attributes.lastModifiedTime().toMillis());
+        }
+
+        public long getLength() {
+            return length;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(length, lastModified);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(obj == this) {
+                return true;
+            }
+            if(!(obj instanceof DocumentStamp)) {
+                return false;
+            }
+            DocumentStamp other = (DocumentStamp) obj;
+            return this.length == other.length && this.lastModified == other.lastModified;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("DocumentStamp(length: %d, lastModified: %d)", length, lastModified);
+        }
+    }
+
+    /**
+     * The contents of a journal file.
+     */
+    public static final class Contents {
+
+        private final DocumentStamp documentStamp;
+
+        private final List<List<OWLOntologyChangeData>> batches;
+
+        public Contents(@Nonnull DocumentStamp documentStamp, @Nonnull List<List<OWLOntologyChangeData>> batches) {
+            this.documentStamp = checkNotNull(documentStamp);
+            this.batches = Collections.unmodifiableList(new ArrayList<>(batches));
+        }
+
+        @Nonnull
+        public DocumentStamp getDocumentStamp() {
+            return documentStamp;
+        }
+
+        /**
+         * Gets the batches of changes, in the order in which they were appended.
+         */
+        @Nonnull
+        public List<List<OWLOntologyChangeData>> getBatches() {
+            return batches;
+        }
+
+        /**
+         * Gets all of the changes in the journal, in the order in which they were appended.
+         */
+        @Nonnull
+        public List<OWLOntologyChangeData> getChanges() {
+            List<OWLOntologyChangeData> changes = new ArrayList<>();
+            batches.forEach(changes::addAll);
+            return changes;
+        }
+    }
+}
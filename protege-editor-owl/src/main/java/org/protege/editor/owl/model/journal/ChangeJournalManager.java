@@ -0,0 +1,393 @@
+package org.protege.editor.owl.model.journal;
+
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.protege.editor.core.Disposable;
+import org.protege.editor.core.util.ProtegeDirectories;
+import org.protege.editor.owl.model.ChangeListMinimizer;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.io.IOListener;
+import org.protege.editor.owl.model.io.IOListenerEvent;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Maintains a write-ahead {@link ChangeJournal} for each locally stored ontology document that has unsaved
+ * changes, so that unsaved work can be recovered after a crash.
+ * <p>
+ * Changes are handed to the manager as they are applied and are queued in memory.  A background thread appends
+ * the queued changes to the journals in batches and forces them to disk.  When a document is saved or reloaded its
+ * journal is reset.  When the workspace is closed normally the journals are deleted, so any journal that is found
+ * when an ontology is opened was left behind by a session that did not finish, and its changes are replayed onto
+ * the document (provided the document has not been modified since).  When a document is saved to a new location
+ * the journal for its old location is deleted, as its changes are held by the new document.  Journals that grow
+ * large are periodically compacted by minimising the changes that they hold.
+ */
+public class ChangeJournalManager extends IOListener implements Disposable {
+
+    public static final String ID = ChangeJournalManager.class.getName();
+
+    private static final Logger logger = LoggerFactory.getLogger(ChangeJournalManager.class);
+
+    private static final String JOURNAL_DIRECTORY_NAME = "journal";
+
+    private static final String JOURNAL_FILE_EXTENSION = ".journal";
+
+    private static final long FLUSH_INTERVAL_MS = 500;
+
+    private static final long COMPACTION_INTERVAL_MS = TimeUnit.MINUTES.toMillis(5);
+
+    private static final long COMPACTION_THRESHOLD_BYTES = 4 * 1024 * 1024;
+
+    private final OWLModelManager modelManager;
+
+    private final Path journalDirectory;
+
+    /**
+     * The journal state for each document, keyed by document URI.  Guarded by this.
+     */
+    private final Map<URI, JournalState> journals = new HashMap<>();
+
+    /**
+     * Journals that are no longer in use and that are to be deleted by the journal thread.  Guarded by this.
+     */
+    private final List<JournalState> retiredJournals = new ArrayList<>();
+
+    private final ScheduledExecutorService journalExecutor = Executors.newSingleThreadScheduledExecutor(
+            new ThreadFactoryBuilder().setNameFormat("change-journal-%d").setDaemon(true).build()
+    );
+
+    public ChangeJournalManager(@Nonnull OWLModelManager modelManager) {
+        this(modelManager, ProtegeDirectories.getDataDirectory().toPath().resolve(JOURNAL_DIRECTORY_NAME));
+    }
+
+    public ChangeJournalManager(@Nonnull OWLModelManager modelManager, @Nonnull Path journalDirectory) {
+        this.modelManager = modelManager;
+        this.journalDirectory = journalDirectory;
+        modelManager.addIOListener(this);
+        journalExecutor.scheduleWithFixedDelay(this::flushSafely,
+                                               FLUSH_INTERVAL_MS,
+                                               FLUSH_INTERVAL_MS,
+                                               TimeUnit.MILLISECONDS);
+        journalExecutor.scheduleWithFixedDelay(this::compactSafely,
+                                               COMPACTION_INTERVAL_MS,
+                                               COMPACTION_INTERVAL_MS,
+                                               TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Queues the specified changes for journaling.  Changes to ontologies that are not stored in local files are
+     * ignored.
+     * @param changes The changes that have been applied.
+     */
+    public void handleChanges(@Nonnull List<? extends OWLOntologyChange> changes) {
+        Map<OWLOntology, List<OWLOntologyChangeData>> changesByOntology = new LinkedHashMap<>();
+        for(OWLOntologyChange change : changes) {
+            changesByOntology.computeIfAbsent(change.getOntology(), o -> new ArrayList<>()).add(change.getChangeData());
+        }
+        synchronized (this) {
+            for(Map.Entry<OWLOntology, List<OWLOntologyChangeData>> entry : changesByOntology.entrySet()) {
+                OWLOntology ontology = entry.getKey();
+                Optional<URI> documentURI = getLocalDocumentURI(ontology);
+                if(documentURI.isPresent()) {
+                    JournalState state = journals.computeIfAbsent(documentURI.get(), JournalState::new);
+                    state.ontology = ontology;
+                    state.pending.add(entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Replays the changes in journals that were left behind by a previous session onto the specified ontologies.
+     * A journal is only replayed if the ontology document has not been modified since the journal was started.
+     * The replayed changes are applied through the model manager, so that they can be undone and so that the
+     * ontologies are marked as modified.
+     * @param ontologies The ontologies that have just been loaded.
+     * @return The ontologies that changes were recovered for.
+     */
+    @Nonnull
+    public Set<OWLOntology> recoverUnsavedChanges(@Nonnull Collection<OWLOntology> ontologies) {
+        Set<OWLOntology> recovered = new LinkedHashSet<>();
+        for(OWLOntology ontology : ontologies) {
+            Optional<URI> documentURI = getLocalDocumentURI(ontology);
+            if(!documentURI.isPresent()) {
+                continue;
+            }
+            synchronized (this) {
+                if(journals.containsKey(documentURI.get())) {
+                    // A journal that is in use in this session
+                    continue;
+                }
+            }
+            Path journalFile = getJournalFile(documentURI.get());
+            try {
+                Optional<ChangeJournal.Contents> contents = ChangeJournal.read(journalFile);
+                if(!contents.isPresent() || contents.get().getBatches().isEmpty()) {
+                    continue;
+                }
+                ChangeJournal.DocumentStamp documentStamp = ChangeJournal.DocumentStamp.of(Paths.get(documentURI.get()));
+                if(!documentStamp.equals(contents.get().getDocumentStamp())) {
+                    Path staleFile = journalFile.resolveSibling(journalFile.getFileName() + ".stale");
+                    logger.warn("The document {} has been modified since unsaved changes were journaled.  " +
+                                        "The changes will not be recovered.  The journal has been moved to {}",
+                                documentURI.get(), staleFile);
+                    Files.move(journalFile, staleFile, StandardCopyOption.REPLACE_EXISTING);
+                    continue;
+                }
+                List<OWLOntologyChange> changes = new ArrayList<>();
+                for(OWLOntologyChangeData data : contents.get().getChanges()) {
+                    changes.add(data.createOntologyChange(ontology));
+                }
+                logger.info("Recovering {} unsaved change(s) to {} from {}", changes.size(), documentURI.get(), journalFile);
+                // The changes are journaled again (in a fresh journal) as they are applied
+                modelManager.applyChanges(changes);
+                recovered.add(ontology);
+            } catch (IOException | RuntimeException e) {
+                logger.error("Could not recover unsaved changes from {}: {}", journalFile, e.getMessage(), e);
+            }
+        }
+        return recovered;
+    }
+
+    /**
+     * Writes any queued changes to their journals and forces them to disk.  This method blocks until the changes
+     * have been written.
+     */
+    public void flush() {
+        try {
+            journalExecutor.submit(this::flushSafely).get();
+        } catch (Exception e) {
+            logger.warn("An error occurred whilst flushing the change journals: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void beforeSave(IOListenerEvent event) {
+        // do nothing
+    }
+
+    /**
+     * Resets the journal of the saved document.  If the ontology was saved to a new location (Save As) then the
+     * journal for its previous location is retired, so that its changes are not offered for recovery onto the old
+     * document.
+     */
+    @Override
+    public void afterSave(IOListenerEvent event) {
+        retireJournalsMovedFrom(event.getOntologyID(), event.getPhysicalURI());
+        requestReset(event.getPhysicalURI());
+    }
+
+    @Override
+    public void beforeLoad(IOListenerEvent event) {
+        // do nothing
+    }
+
+    /**
+     * Resets the journal of a document that has been reloaded in this session.  Journals for documents that are
+     * being loaded for the first time are left intact so that they can be recovered.
+     */
+    @Override
+    public void afterLoad(IOListenerEvent event) {
+        requestReset(event.getPhysicalURI());
+    }
+
+    /**
+     * Deletes all journals that were written in this session.  Unsaved changes that remain when the workspace is
+     * closed have been explicitly discarded.
+     */
+    @Override
+    public void dispose() {
+        modelManager.removeIOListener(this);
+        // Cancels the periodic flush and compaction, but lets a write that is in progress finish so that the journal
+        // channels are not closed underneath it
+        journalExecutor.shutdown();
+        try {
+            if(!journalExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Timed out waiting for the change journals to be written");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        List<JournalState> states;
+        synchronized (this) {
+            states = new ArrayList<>(journals.values());
+            states.addAll(retiredJournals);
+            journals.clear();
+            retiredJournals.clear();
+        }
+        states.forEach(this::deleteJournal);
+    }
+
+    private synchronized void retireJournalsMovedFrom(OWLOntologyID ontologyID, URI documentURI) {
+        for(Iterator<JournalState> it = journals.values().iterator(); it.hasNext(); ) {
+            JournalState state = it.next();
+            if(!state.documentURI.equals(documentURI)
+                    && state.ontology != null
+                    && state.ontology.getOntologyID().equals(ontologyID)) {
+                it.remove();
+                retiredJournals.add(state);
+            }
+        }
+    }
+
+    private void deleteJournal(JournalState state) {
+        try {
+            if(state.journal != null) {
+                state.journal.close();
+            }
+            Files.deleteIfExists(getJournalFile(state.documentURI));
+        } catch (IOException e) {
+            logger.warn("Could not delete change journal for {}: {}", state.documentURI, e.getMessage());
+        }
+    }
+
+    private synchronized void requestReset(URI documentURI) {
+        JournalState state = journals.get(documentURI);
+        if(state != null) {
+            state.pending.clear();
+            state.resetRequested = true;
+        }
+    }
+
+    private void flushSafely() {
+        List<JournalState> states;
+        Map<JournalState, List<List<OWLOntologyChangeData>>> batches = new HashMap<>();
+        Set<JournalState> resets = new HashSet<>();
+        List<JournalState> retired;
+        synchronized (this) {
+            retired = new ArrayList<>(retiredJournals);
+            retiredJournals.clear();
+            states = new ArrayList<>(journals.values());
+            for(JournalState state : states) {
+                if(!state.pending.isEmpty()) {
+                    batches.put(state, new ArrayList<>(state.pending));
+                    state.pending.clear();
+                }
+                if(state.resetRequested) {
+                    resets.add(state);
+                    state.resetRequested = false;
+                }
+            }
+        }
+        retired.forEach(this::deleteJournal);
+        for(JournalState state : states) {
+            List<List<OWLOntologyChangeData>> stateBatches = batches.getOrDefault(state, Collections.emptyList());
+            boolean reset = resets.contains(state);
+            if(stateBatches.isEmpty() && !reset) {
+                continue;
+            }
+            try {
+                ChangeJournal journal = getOrCreateJournal(state);
+                if(reset) {
+                    journal.reset(getDocumentStamp(state.documentURI));
+                }
+                for(List<OWLOntologyChangeData> batch : stateBatches) {
+                    journal.append(batch);
+                }
+                journal.sync();
+            } catch (IOException e) {
+                logger.warn("Could not write to the change journal for {}: {}", state.documentURI, e.getMessage(), e);
+            }
+        }
+    }
+
+    private void compactSafely() {
+        List<JournalState> states;
+        synchronized (this) {
+            states = new ArrayList<>(journals.values());
+        }
+        for(JournalState state : states) {
+            try {
+                if(state.journal == null || state.ontology == null || state.journal.size() < COMPACTION_THRESHOLD_BYTES) {
+                    continue;
+                }
+                Optional<ChangeJournal.Contents> contents = ChangeJournal.read(state.journal.getFile());
+                if(!contents.isPresent()) {
+                    continue;
+                }
+                List<OWLOntologyChange> changes = new ArrayList<>();
+                for(OWLOntologyChangeData data : contents.get().getChanges()) {
+                    changes.add(data.createOntologyChange(state.ontology));
+                }
+                List<OWLOntologyChange> minimisedChanges = new ChangeListMinimizer().getMinimisedChanges(changes);
+                List<OWLOntologyChangeData> minimisedData = new ArrayList<>(minimisedChanges.size());
+                minimisedChanges.forEach(change -> minimisedData.add(change.getChangeData()));
+                long sizeBefore = state.journal.size();
+                state.journal.rewrite(contents.get().getDocumentStamp(), minimisedData);
+                logger.info("Compacted the change journal for {} from {} changes ({} bytes) to {} changes ({} bytes)",
+                            state.documentURI, changes.size(), sizeBefore, minimisedData.size(), state.journal.size());
+            } catch (IOException | RuntimeException e) {
+                logger.warn("Could not compact the change journal for {}: {}", state.documentURI, e.getMessage(), e);
+            }
+        }
+    }
+
+    private ChangeJournal getOrCreateJournal(JournalState state) throws IOException {
+        if(state.journal == null) {
+            state.journal = ChangeJournal.create(getJournalFile(state.documentURI), getDocumentStamp(state.documentURI));
+        }
+        return state.journal;
+    }
+
+    private static ChangeJournal.DocumentStamp getDocumentStamp(URI documentURI) throws IOException {
+        Path document = Paths.get(documentURI);
+        if(Files.exists(document)) {
+            return ChangeJournal.DocumentStamp.of(document);
+        }
+        else {
+            return new ChangeJournal.DocumentStamp(0, 0);
+        }
+    }
+
+    private Path getJournalFile(URI documentURI) {
+        String name = Hashing.sha1().hashString(documentURI.toString(), StandardCharsets.UTF_8).toString();
+        return journalDirectory.resolve(name + JOURNAL_FILE_EXTENSION);
+    }
+
+    private Optional<URI> getLocalDocumentURI(OWLOntology ontology) {
+        if(!modelManager.getOWLOntologyManager().contains(ontology)) {
+            return Optional.empty();
+        }
+        IRI documentIRI = modelManager.getOWLOntologyManager().getOntologyDocumentIRI(ontology);
+        if(!"file".equals(documentIRI.getScheme())) {
+            return Optional.empty();
+        }
+        return Optional.of(documentIRI.toURI());
+    }
+
+    private static final class JournalState {
+
+        private final URI documentURI;
+
+        private OWLOntology ontology;
+
+        private ChangeJournal journal;
+
+        private final List<List<OWLOntologyChangeData>> pending = new ArrayList<>();
+
+        private boolean resetRequested = false;
+
+        private JournalState(URI documentURI) {
+            this.documentURI = documentURI;
+        }
+    }
+}
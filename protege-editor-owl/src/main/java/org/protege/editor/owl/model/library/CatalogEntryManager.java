@@ -18,7 +18,13 @@ public abstract class CatalogEntryManager implements ProtegePluginInstance {
 
     public static final String DUPLICATE_SCHEME = "duplicate:";
 
-    public static final String[] IGNORED_SCHEMES = {DUPLICATE_SCHEME, SHADOWED_SCHEME};
+    /**
+     * Marks catalog entries for documents that were examined but in which no ontology could be identified, so that
+     * they need not be examined again while they are unchanged.
+     */
+    public static final String UNIDENTIFIED_SCHEME = "unidentified:";
+
+    public static final String[] IGNORED_SCHEMES = {DUPLICATE_SCHEME, SHADOWED_SCHEME, UNIDENTIFIED_SCHEME};
 
     private String id;
 
@@ -4,6 +4,10 @@ import java.io.File;
 import java.net.URI;
 import java.util.Set;
 
+/**
+ * Suggests the locations (e.g. ontology IRIs) that a document in a folder repository should be mapped from.
+ * Documents are examined concurrently, so implementations must be safe for use by concurrent threads.
+ */
 public interface Algorithm {
     Set<URI> getSuggestions(File f);
 }
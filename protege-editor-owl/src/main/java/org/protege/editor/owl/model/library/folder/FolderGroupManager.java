@@ -1,6 +1,7 @@
 package org.protege.editor.owl.model.library.folder;
 
 import com.google.common.base.Strings;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.protege.editor.core.log.LogBanner;
 import org.protege.editor.owl.model.library.CatalogEntryManager;
 import org.protege.editor.owl.model.library.LibraryUtilities;
@@ -23,6 +24,10 @@ import java.io.File;
 import java.io.IOException;
 import java.net.URI;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class FolderGroupManager extends CatalogEntryManager {
@@ -39,6 +44,12 @@ public class FolderGroupManager extends CatalogEntryManager {
 
     public static final String FILE_KEY = "FILE";
 
+    public static final String SIZE_PROP = "size";
+
+    public static final String LAST_MODIFIED_PROP = "lastModified";
+
+    private static final String GENERATED_ENTRY_ID = "Automatically generated entry";
+
     private static final int NON_ONTOLOGY_DOCUMENT_TERMINATION_LIMIT = 1000;
 
     private final Logger logger = LoggerFactory.getLogger(FolderGroupManager.class);
@@ -66,6 +77,10 @@ public class FolderGroupManager extends CatalogEntryManager {
 
     private Map<URI, Collection<URI>> webLocationToFileLocationMap = new TreeMap<>();
 
+    private Map<URI, FileStamp> fileStamps = new HashMap<>();
+
+    private Set<URI> unidentifiedFileLocations = new TreeSet<>();
+
 
     public FolderGroupManager() {
         algorithms = new HashSet<>();
@@ -111,6 +126,12 @@ public class FolderGroupManager extends CatalogEntryManager {
         return false;
     }
 
+    private static boolean isCatalogFile(File physicalLocation) {
+        String name = physicalLocation.getName();
+        return name.equals(OntologyCatalogManager.CATALOG_NAME)
+                || name.startsWith(OntologyCatalogManager.CATALOG_BACKUP_PREFIX);
+    }
+
     private static URI appendScheme(URI u,
                                     String scheme) {
         String uString = u.toString();
@@ -195,7 +216,7 @@ public class FolderGroupManager extends CatalogEntryManager {
             retainEntries();
             if(folder != null) {
                 HashSet<File> nonOwlFiles = new HashSet<>();
-                examineDirectoryContents(folder, new HashSet<>(), nonOwlFiles, 0);
+                examineDirectoryContents(folder, nonOwlFiles);
                 if(nonOwlFiles.size() > NON_ONTOLOGY_DOCUMENT_TERMINATION_LIMIT) {
                     logger.warn("Search for ontology documents in {} and sub-folders has been terminated as over {} non-ontology documents have been found.",
                                 folder.getAbsolutePath(),
@@ -248,6 +269,8 @@ public class FolderGroupManager extends CatalogEntryManager {
         timeOfCurrentUpdate = System.currentTimeMillis();
         retainedFileToWebLocationMap.clear();
         webLocationToFileLocationMap.clear();
+        fileStamps.clear();
+        unidentifiedFileLocations.clear();
         if(ge != null) {
             folder = getDirectory(ge);
             recursive = LibraryUtilities.getBooleanProperty(ge, RECURSIVE_PROP, true);
@@ -271,17 +294,8 @@ public class FolderGroupManager extends CatalogEntryManager {
             if(e instanceof UriEntry) {
                 UriEntry ue = (UriEntry) e;
                 try {
-                    long lastUpdated = -1;
-                    String updatedString = LibraryUtilities.getStringProperty(ue, OntologyCatalogManager.TIMESTAMP);
-                    try {
-                        if(updatedString != null) {
-                            lastUpdated = Long.parseLong(updatedString);
-                        }
-                    } catch(NumberFormatException nfe) {
-                        logger.info("Could not parse timestamps in catalog file " + nfe);
-                    }
                     File f = new File(ue.getAbsoluteURI());
-                    if(!f.exists() || f.lastModified() >= lastUpdated) {
+                    if(!isUnchanged(ue, f)) {
                         modified = true;
                         if(logger.isDebugEnabled()) {
                             logger.debug("Map for file " + f + " is stale and has been removed");
@@ -291,7 +305,12 @@ public class FolderGroupManager extends CatalogEntryManager {
                         if(logger.isDebugEnabled()) {
                             logger.debug("Map for file " + f + " is still good and will be kept");
                         }
-                        recordRetainedEntry(URI.create(ue.getName()), f.getCanonicalFile());
+                        if(ue.getName().startsWith(CatalogEntryManager.UNIDENTIFIED_SCHEME)) {
+                            recordRetainedUnidentifiedFile(f.getCanonicalFile());
+                        }
+                        else {
+                            recordRetainedEntry(URI.create(ue.getName()), f.getCanonicalFile());
+                        }
                     }
                 } catch(Throwable t) {
                     logger.error("Exception caught updating catalog entry.", t);
@@ -300,23 +319,96 @@ public class FolderGroupManager extends CatalogEntryManager {
         }
     }
 
+    /*
+     * Entries record the size and modification time of the file that they were generated from.  Entries written
+     * by earlier versions only record the time at which they were generated.
+     */
+    private boolean isUnchanged(UriEntry ue, File f) {
+        if(!f.exists()) {
+            return false;
+        }
+        String size = LibraryUtilities.getStringProperty(ue, SIZE_PROP);
+        String lastModified = LibraryUtilities.getStringProperty(ue, LAST_MODIFIED_PROP);
+        try {
+            if(size != null && lastModified != null) {
+                return new FileStamp(f).equals(new FileStamp(Long.parseLong(size), Long.parseLong(lastModified)));
+            }
+            long lastUpdated = -1;
+            String updatedString = LibraryUtilities.getStringProperty(ue, OntologyCatalogManager.TIMESTAMP);
+            if(updatedString != null) {
+                lastUpdated = Long.parseLong(updatedString);
+            }
+            return f.lastModified() < lastUpdated;
+        } catch(NumberFormatException nfe) {
+            logger.info("Could not parse timestamps in catalog file " + nfe);
+            return false;
+        }
+    }
+
+    /*
+     * The folder is examined in three steps.  The ontology documents are first listed, directory by directory, in
+     * the order in which they are to be recorded.  Documents that were not retained from the previous version of the
+     * catalog are then examined concurrently.  Finally the suggestions are recorded in the original order, so that
+     * documents in a directory shadow documents with the same locations in the directories examined after it.
+     */
     private void examineDirectoryContents(@Nonnull File directory,
-                                          Set<URI> webLocationsFoundInParentDirectory,
-                                          Set<File> nonOwlFiles,
-                                          int depth) {
-        if(nonOwlFiles.size() > NON_ONTOLOGY_DOCUMENT_TERMINATION_LIMIT) {
+                                          Set<File> nonOwlFiles) {
+        if(algorithms == null || algorithms.isEmpty()) {
             return;
         }
-        logger.info("{} Examining: {}", pad(depth), directory.getAbsolutePath());
-        Set<URI> newWebLocations = new HashSet<>();
-        if(algorithms == null || algorithms.isEmpty()) {
+        List<List<File>> documentsByDirectory = new ArrayList<>();
+        listDocuments(directory, documentsByDirectory, nonOwlFiles, 0);
+        List<File> unretainedDocuments = new ArrayList<>();
+        for(List<File> documents : documentsByDirectory) {
+            for(File document : documents) {
+                if(getRetainedSuggestions(document) == null) {
+                    unretainedDocuments.add(document);
+                }
+            }
+        }
+        Map<File, Set<URI>> suggestions = getSuggestions(unretainedDocuments);
+        Set<URI> webLocationsFoundInParentDirectory = new HashSet<>();
+        for(List<File> documents : documentsByDirectory) {
+            Set<URI> newWebLocations = new HashSet<>();
+            for(File document : documents) {
+                URI shortLocation = folder.toURI().relativize(document.toURI());
+                Collection<URI> webLocations = getRetainedSuggestions(document);
+                if(webLocations != null) {
+                    if(logger.isDebugEnabled()) {
+                        logger.debug("Adding mappings for " + document + " retained from previous version of the catalog");
+                    }
+                }
+                else {
+                    webLocations = suggestions.get(document);
+                    if(webLocations == null) {
+                        // Not examined, because the update was interrupted
+                        continue;
+                    }
+                    modified = true;
+                }
+                if(webLocations.isEmpty()) {
+                    unidentifiedFileLocations.add(shortLocation);
+                }
+                recordEntries(webLocations, shortLocation, webLocationsFoundInParentDirectory, newWebLocations);
+            }
+            webLocationsFoundInParentDirectory.addAll(newWebLocations);
+        }
+    }
+
+    private void listDocuments(@Nonnull File directory,
+                               List<List<File>> documentsByDirectory,
+                               Set<File> nonOwlFiles,
+                               int depth) {
+        if(nonOwlFiles.size() > NON_ONTOLOGY_DOCUMENT_TERMINATION_LIMIT) {
             return;
         }
-        Set<File> subFolders = new HashSet<>();
+        logger.info("{} Examining: {}", pad(depth), directory.getAbsolutePath());
         File[] directoryEntries = directory.listFiles();
         if(directoryEntries == null) { // I think that this means that there was an I/O error
             return;
         }
+        List<File> documents = new ArrayList<>();
+        List<File> subFolders = new ArrayList<>();
         for(File physicalLocation : directoryEntries) {
             if(!physicalLocation.isHidden() && physicalLocation.exists()) {
                 if(physicalLocation.isDirectory()) {
@@ -325,8 +417,13 @@ public class FolderGroupManager extends CatalogEntryManager {
                     }
                 }
                 else if(physicalLocation.isFile()) {
+                    if(isCatalogFile(physicalLocation)) {
+                        // Rewritten by every update that changes it, so never worth examining
+                        continue;
+                    }
                     if(isValidOWLFile(physicalLocation)) {
-                        examineSingleFile(physicalLocation, webLocationsFoundInParentDirectory, newWebLocations);
+                        documents.add(physicalLocation);
+                        fileStamps.put(folder.toURI().relativize(physicalLocation.toURI()), new FileStamp(physicalLocation));
                     }
                     else {
                         nonOwlFiles.add(physicalLocation);
@@ -334,9 +431,9 @@ public class FolderGroupManager extends CatalogEntryManager {
                 }
             }
         }
-        webLocationsFoundInParentDirectory.addAll(newWebLocations);
+        documentsByDirectory.add(documents);
         for(File physicalLocation : subFolders) {
-            examineDirectoryContents(physicalLocation, webLocationsFoundInParentDirectory, nonOwlFiles, depth + 1);
+            listDocuments(physicalLocation, documentsByDirectory, nonOwlFiles, depth + 1);
         }
     }
 
@@ -344,35 +441,59 @@ public class FolderGroupManager extends CatalogEntryManager {
         return Strings.repeat(" ", depth * 4);
     }
 
-    private void examineSingleFile(File physicalLocation,
-                                   Set<URI> webLocationsFoundInParentDirectory,
-                                   Set<URI> newWebLocations) {
-        if(logger.isDebugEnabled()) {
-            logger.debug("Applying algorithms to " + physicalLocation);
-        }
-        URI shortLocation = folder.toURI().relativize(physicalLocation.toURI());
-        Collection<URI> retainedSuggestions = null;
+    private Collection<URI> getRetainedSuggestions(File physicalLocation) {
         try {
-            retainedSuggestions = retainedFileToWebLocationMap.get(physicalLocation.getCanonicalFile());
+            return retainedFileToWebLocationMap.get(physicalLocation.getCanonicalFile());
         } catch(IOException e) {
             logger.warn("IO Exception caught processing file " + physicalLocation + " for repository library update", e);
+            return null;
         }
-        if(retainedSuggestions != null) {
-            if(logger.isDebugEnabled()) {
-                logger.debug("Adding mappings retained from previous version of the catalog");
-            }
-            recordEntries(retainedSuggestions, shortLocation, webLocationsFoundInParentDirectory, newWebLocations);
-        }
-        else {
-            if(logger.isDebugEnabled()) {
-                logger.debug("Adding new mappings not found in the previous version of the catalog");
+    }
+
+    /*
+     * Applies the algorithms to the documents, using a thread per processor.
+     */
+    private Map<File, Set<URI>> getSuggestions(List<File> documents) {
+        Map<File, Set<URI>> suggestions = new HashMap<>();
+        if(documents.isEmpty()) {
+            return suggestions;
+        }
+        int threadCount = Math.min(documents.size(), Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+                                                                new ThreadFactoryBuilder()
+                                                                        .setNameFormat("Catalog Update Thread %d")
+                                                                        .setDaemon(true)
+                                                                        .build());
+        try {
+            Map<File, Future<Set<URI>>> futures = new LinkedHashMap<>();
+            for(File document : documents) {
+                futures.put(document, executor.submit(() -> getSuggestions(document)));
             }
-            for(Algorithm algorithm : algorithms) {
-                Set<URI> webLocations = algorithm.getSuggestions(physicalLocation);
-                modified = modified || !webLocations.isEmpty();
-                recordEntries(webLocations, shortLocation, webLocationsFoundInParentDirectory, newWebLocations);
+            for(Map.Entry<File, Future<Set<URI>>> future : futures.entrySet()) {
+                try {
+                    suggestions.put(future.getKey(), future.getValue().get());
+                } catch(ExecutionException e) {
+                    logger.warn("Exception caught examining file " + future.getKey() + " for repository library update", e.getCause());
+                    suggestions.put(future.getKey(), Collections.emptySet());
+                }
             }
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
         }
+        return suggestions;
+    }
+
+    private Set<URI> getSuggestions(File physicalLocation) {
+        if(logger.isDebugEnabled()) {
+            logger.debug("Applying algorithms to " + physicalLocation);
+        }
+        Set<URI> webLocations = new LinkedHashSet<>();
+        for(Algorithm algorithm : algorithms) {
+            webLocations.addAll(algorithm.getSuggestions(physicalLocation));
+        }
+        return webLocations;
     }
 
     private void recordEntries(Collection<URI> webLocations,
@@ -413,6 +534,12 @@ public class FolderGroupManager extends CatalogEntryManager {
         possibleWebLocations.add(removeIgnoredSchemes(webLocation));
     }
 
+    private void recordRetainedUnidentifiedFile(File f) {
+        if(!retainedFileToWebLocationMap.containsKey(f)) {
+            retainedFileToWebLocationMap.put(f, new ArrayList<>());
+        }
+    }
+
     private void clearEntries() {
         if(logger.isDebugEnabled()) {
             logger.debug("Catalog must be modified - clearing out existing data");
@@ -435,16 +562,61 @@ public class FolderGroupManager extends CatalogEntryManager {
                 writeEntries(webLocation, physicalLocations);
             }
         }
+        for(URI physicalLocation : unidentifiedFileLocations) {
+            writeEntries(appendScheme(physicalLocation, CatalogEntryManager.UNIDENTIFIED_SCHEME),
+                         Collections.singleton(physicalLocation));
+        }
     }
 
     private void writeEntries(URI webLocation,
                               Collection<URI> physicalLocations) {
         for(URI physicalLocation : physicalLocations) {
-            String entryId = "Automatically generated entry, " + OntologyCatalogManager.TIMESTAMP + "=" + timeOfCurrentUpdate;
-            UriEntry u = new UriEntry(entryId, ge, webLocation.toString(), physicalLocation, null);
+            StringBuffer entryId = new StringBuffer(GENERATED_ENTRY_ID);
+            LibraryUtilities.addPropertyValue(entryId, OntologyCatalogManager.TIMESTAMP, timeOfCurrentUpdate);
+            FileStamp stamp = fileStamps.get(physicalLocation);
+            if(stamp != null) {
+                LibraryUtilities.addPropertyValue(entryId, SIZE_PROP, stamp.size);
+                LibraryUtilities.addPropertyValue(entryId, LAST_MODIFIED_PROP, stamp.lastModified);
+            }
+            UriEntry u = new UriEntry(entryId.toString(), ge, webLocation.toString(), physicalLocation, null);
             ge.addEntry(u);
             modified = true;
         }
     }
 
+    /**
+     * The size and modification time of a file, which together are taken to identify the contents of the file.
+     */
+    private static final class FileStamp {
+
+        private final long size;
+
+        private final long lastModified;
+
+        private FileStamp(File f) {
+            this(f.length(), f.lastModified());
+        }
+
+        private FileStamp(long size, long lastModified) {
+            this.size = size;
+            this.lastModified = lastModified;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(size, lastModified);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if(obj == this) {
+                return true;
+            }
+            if(!(obj instanceof FileStamp)) {
+                return false;
+            }
+            FileStamp other = (FileStamp) obj;
+            return size == other.size && lastModified == other.lastModified;
+        }
+    }
 }
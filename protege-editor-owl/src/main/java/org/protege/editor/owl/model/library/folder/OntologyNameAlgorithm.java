@@ -1,6 +1,9 @@
 package org.protege.editor.owl.model.library.folder;
 
+import com.google.common.base.Optional;
+import org.protege.editor.owl.model.repository.extractors.OntologyHeaderExtractor;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.io.IRIDocumentSource;
 import org.semanticweb.owlapi.model.*;
 
 import java.io.File;
@@ -9,11 +12,21 @@ import java.util.Collections;
 import java.util.Set;
 import java.util.TreeSet;
 
+/**
+ * Suggests the ontology IRI and version IRI of a document.  These are read from the ontology header of the document
+ * where possible.  The document is only loaded in full if its header cannot be read.
+ */
 public class OntologyNameAlgorithm implements Algorithm {
 
+	private final OntologyHeaderExtractor headerExtractor = new OntologyHeaderExtractor();
+
 	@Override
 	public Set<URI> getSuggestions(final File f) {
 		try {
+			Optional<OWLOntologyID> headerId = headerExtractor.getOntologyId(f.toURI());
+			if (headerId.isPresent()) {
+				return getSuggestions(headerId.get());
+			}
 			final IRI iri = IRI.create(f);
 			OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
 			manager.addIRIMapper(ontologyIRI -> {
@@ -27,20 +40,23 @@ public class OntologyNameAlgorithm implements Algorithm {
 			OWLOntologyLoaderConfiguration configuration = new OWLOntologyLoaderConfiguration();
 			configuration = configuration.setLoadAnnotationAxioms(false);
 			configuration = configuration.setMissingImportHandlingStrategy(MissingImportHandlingStrategy.SILENT);
-			OWLOntology ontology = manager.loadOntology(iri);
-			Set<URI> suggestions = new TreeSet<>();
-			OWLOntologyID id = ontology.getOntologyID();
-			if (id.getOntologyIRI().isPresent()) {
-				suggestions.add(id.getOntologyIRI().get().toURI());
-				if (id.getVersionIRI().isPresent()) {
-					suggestions.add(id.getVersionIRI().get().toURI());
-				}
-			}
-			return suggestions;
+			OWLOntology ontology = manager.loadOntologyFromOntologyDocument(new IRIDocumentSource(iri), configuration);
+			return getSuggestions(ontology.getOntologyID());
 		}
 		catch (Throwable t) {
 			return Collections.emptySet();
 		}
 	}
 
+	private static Set<URI> getSuggestions(OWLOntologyID id) {
+		Set<URI> suggestions = new TreeSet<>();
+		if (id.getOntologyIRI().isPresent()) {
+			suggestions.add(id.getOntologyIRI().get().toURI());
+			if (id.getVersionIRI().isPresent()) {
+				suggestions.add(id.getVersionIRI().get().toURI());
+			}
+		}
+		return suggestions;
+	}
+
 }
@@ -28,40 +28,32 @@ import java.util.Set;
 public class XmlBaseAlgorithm implements Algorithm {
 
     private final Logger logger = LoggerFactory.getLogger(XmlBaseAlgorithm.class);
-    
-    private InputStream is;
 
-    private URI xmlBase;
-    
     public Set<URI> getSuggestions(File f) {
-        try {
-            is = new FileInputStream(f);
-            xmlBase = null;
+        MyHandler handler = new MyHandler();
+        try (InputStream is = new FileInputStream(f)) {
             SAXParserFactory factory = SAXParserFactory.newInstance();
             SAXParser parser = factory.newSAXParser();
-            parser.parse(is, new MyHandler());
+            parser.parse(is, handler);
         }
         catch (Throwable t) {
         }
-        finally {
-        	try {
-        		is.close();
-        	}
-        	catch (Throwable t) {
-            }
-        }
-        if (xmlBase == null) {
+        if (handler.xmlBase == null) {
             return Collections.emptySet();
         }
         else {
-            return Collections.singleton(xmlBase);
+            return Collections.singleton(handler.xmlBase);
         }
     }
 
 
+    /*
+     * The state of a single parse, so that documents may be examined concurrently.
+     */
     private class MyHandler extends DefaultHandler {
 
-        
+        private URI xmlBase;
+
         @Override
         public void startElement(String namespaceURI,
                                  String localName,
@@ -83,4 +75,3 @@ public class XmlBaseAlgorithm implements Algorithm {
         }
     }
 }
-
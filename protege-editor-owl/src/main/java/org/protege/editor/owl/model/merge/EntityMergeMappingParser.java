@@ -0,0 +1,113 @@
+package org.protege.editor.owl.model.merge;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import javax.annotation.Nonnull;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Parses a mapping from source entities to the target entities that they are merged into, for a
+ * {@link MergeEntitiesChangeListGenerator}, from delimited text (tab or comma separated values).
+ * <p>
+ * Each line holds the IRI of a source entity followed by the IRI of its target entity.  IRIs may be written in angle
+ * brackets.  Blank lines and lines that start with <code>#</code> are skipped.  A source entity is merged into the
+ * target entity of the same type, so both IRIs must be in the signature of the ontologies with the same type.  Lines
+ * where this is not the case (such as a header line), and lines that map a source entity that has already been mapped,
+ * are skipped and counted.
+ * </p>
+ */
+public class EntityMergeMappingParser {
+
+    private final ImmutableSet<OWLOntology> ontologies;
+
+    private final OWLDataFactory dataFactory;
+
+    private int skippedLineCount = 0;
+
+    /**
+     * Creates a parser.
+     * @param ontologies The ontologies that the entities are looked up in.
+     * @param dataFactory The data factory that is used to create target entities.
+     */
+    public EntityMergeMappingParser(@Nonnull Set<OWLOntology> ontologies, @Nonnull OWLDataFactory dataFactory) {
+        this.ontologies = ImmutableSet.copyOf(checkNotNull(ontologies));
+        this.dataFactory = checkNotNull(dataFactory);
+    }
+
+    /**
+     * Parses a mapping.  The reader is not closed.
+     * @param reader The reader that the mapping is read from.
+     * @param delimiter The delimiter that separates the source and target IRIs.
+     * @return A map from each source entity to its target entity.
+     * @throws IOException if the mapping could not be read.
+     */
+    @Nonnull
+    public ImmutableMap<OWLEntity, OWLEntity> parse(@Nonnull Reader reader, char delimiter) throws IOException {
+        skippedLineCount = 0;
+        Map<OWLEntity, OWLEntity> targetEntities = new LinkedHashMap<>();
+        BufferedReader lineReader = new BufferedReader(checkNotNull(reader));
+        String line;
+        while ((line = lineReader.readLine()) != null) {
+            String trimmedLine = line.trim();
+            if (trimmedLine.isEmpty() || trimmedLine.startsWith("#")) {
+                continue;
+            }
+            if (!addMapping(trimmedLine, delimiter, targetEntities)) {
+                skippedLineCount++;
+            }
+        }
+        return ImmutableMap.copyOf(targetEntities);
+    }
+
+    /**
+     * Gets the number of lines that were skipped by the last parse, because they did not map a source entity to a
+     * target entity.
+     */
+    public int getSkippedLineCount() {
+        return skippedLineCount;
+    }
+
+    private boolean addMapping(String line, char delimiter, Map<OWLEntity, OWLEntity> targetEntities) {
+        int delimiterIndex = line.indexOf(delimiter);
+        if (delimiterIndex == -1) {
+            return false;
+        }
+        IRI sourceIri = toIri(line.substring(0, delimiterIndex));
+        IRI targetIri = toIri(line.substring(delimiterIndex + 1));
+        boolean added = false;
+        for (OWLOntology ontology : ontologies) {
+            for (OWLEntity sourceEntity : ontology.getEntitiesInSignature(sourceIri)) {
+                OWLEntity targetEntity = dataFactory.getOWLEntity(sourceEntity.getEntityType(), targetIri);
+                if (!targetEntities.containsKey(sourceEntity) && isInSignature(targetEntity)) {
+                    targetEntities.put(sourceEntity, targetEntity);
+                    added = true;
+                }
+            }
+        }
+        return added;
+    }
+
+    private boolean isInSignature(OWLEntity entity) {
+        return ontologies.stream().anyMatch(ontology -> ontology.containsEntityInSignature(entity));
+    }
+
+    private static IRI toIri(String field) {
+        String iri = field.trim();
+        if (iri.startsWith("<") && iri.endsWith(">")) {
+            iri = iri.substring(1, iri.length() - 1);
+        }
+        return IRI.create(iri);
+    }
+}
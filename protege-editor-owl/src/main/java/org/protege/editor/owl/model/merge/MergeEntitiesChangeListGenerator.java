@@ -1,6 +1,7 @@
 package org.protege.editor.owl.model.merge;
 
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.coode.owlapi.obo12.parser.OBOVocabulary;
 import org.obolibrary.obo2owl.Obo2OWLConstants;
@@ -8,13 +9,14 @@ import org.protege.editor.owl.model.util.OboUtilities;
 import org.protege.editor.owl.ui.merge.MergeStrategy;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.model.parameters.Imports;
-import org.semanticweb.owlapi.util.OWLEntityRenamer;
+import org.semanticweb.owlapi.util.OWLObjectDuplicator;
 
 import javax.annotation.Nonnull;
-import java.util.List;
-import java.util.stream.Stream;
+import java.util.*;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static java.util.stream.Collectors.toList;
 import static org.obolibrary.obo2owl.Obo2OWLConstants.Obo2OWLVocabulary.IRI_OIO_hasExactSynonym;
 import static org.obolibrary.obo2owl.Obo2OWLConstants.Obo2OWLVocabulary.IRI_OIO_hasRelatedSynonym;
 import static org.semanticweb.owlapi.vocab.SKOSVocabulary.ALTLABEL;
@@ -33,11 +35,11 @@ public class MergeEntitiesChangeListGenerator {
     @Nonnull
     private final OWLDataFactory dataFactory;
 
+    /**
+     * Maps each source entity to the target entity that it is merged into
+     */
     @Nonnull
-    private final ImmutableSet<OWLEntity> sourceEntities;
-
-    @Nonnull
-    private final OWLEntity targetEntity;
+    private final ImmutableMap<OWLEntity, OWLEntity> targetEntities;
 
     @Nonnull
     private final MergeStrategy mergeStrategy;
@@ -48,11 +50,34 @@ public class MergeEntitiesChangeListGenerator {
                                             @Nonnull ImmutableSet<OWLEntity> sourceEntities,
                                             @Nonnull OWLEntity targetEntity,
                                             @Nonnull MergeStrategy mergeStrategy) {
+        this(rootOntology, dataFactory, toTargetEntities(sourceEntities, targetEntity), mergeStrategy);
+    }
+
+    /**
+     * Creates a generator for many merges at once.  The changes for all of the merges are generated with one
+     * pass over the imports closure of the root ontology.
+     * @param targetEntities A map from each source entity to the target entity that it is merged into.  A target
+     *                       entity must not itself be a source entity.
+     */
+    public MergeEntitiesChangeListGenerator(@Nonnull OWLOntology rootOntology,
+                                            @Nonnull OWLDataFactory dataFactory,
+                                            @Nonnull ImmutableMap<OWLEntity, OWLEntity> targetEntities,
+                                            @Nonnull MergeStrategy mergeStrategy) {
         this.rootOntology = checkNotNull(rootOntology);
         this.dataFactory = checkNotNull(dataFactory);
-        this.sourceEntities = checkNotNull(sourceEntities);
-        this.targetEntity = checkNotNull(targetEntity);
+        this.targetEntities = checkNotNull(targetEntities);
         this.mergeStrategy = checkNotNull(mergeStrategy);
+        targetEntities.values().forEach(targetEntity -> checkArgument(!targetEntities.containsKey(targetEntity),
+                                                                      "Cannot merge into an entity that is itself merged: %s",
+                                                                      targetEntity));
+    }
+
+    private static ImmutableMap<OWLEntity, OWLEntity> toTargetEntities(@Nonnull ImmutableSet<OWLEntity> sourceEntities,
+                                                                        @Nonnull OWLEntity targetEntity) {
+        checkNotNull(targetEntity);
+        ImmutableMap.Builder<OWLEntity, OWLEntity> builder = ImmutableMap.builder();
+        checkNotNull(sourceEntities).forEach(sourceEntity -> builder.put(sourceEntity, targetEntity));
+        return builder.build();
     }
 
     public List<OWLOntologyChange> generateChanges() {
@@ -61,15 +86,18 @@ public class MergeEntitiesChangeListGenerator {
         // is important.  Usage changes must be generated first.
         ImmutableList.Builder<OWLOntologyChange> builder = ImmutableList.builder();
 
+        // The imports closure is walked once for all of the source entities
+        ImmutableList<OWLOntology> ontologies = ImmutableList.copyOf(rootOntology.getImportsClosure());
+
         // Generate changes to replace usage of the entity.  This will essentially merge the
         // entity into the target entity
-        replaceUsage(builder);
+        replaceUsage(ontologies, builder);
 
         // Avoid conflicts with labels.  The merged term must not duplicate preferred labels for
         // a given language.
-        replaceLabels(builder);
+        replaceLabels(ontologies, builder);
 
-        replaceId(builder);
+        replaceId(ontologies, builder);
 
         // Deprecated, if necessary
         deprecateSourceEntities(builder);
@@ -82,37 +110,66 @@ public class MergeEntitiesChangeListGenerator {
         if(mergeStrategy == MergeStrategy.DELETE_SOURCE_ENTITY) {
             return;
         }
-        sourceEntities.forEach(sourceEntity -> {
+        targetEntities.keySet().forEach(sourceEntity -> {
             // Add an annotation assertion to deprecate the source entity
             OWLAnnotationAssertionAxiom depAx = dataFactory.getDeprecatedOWLAnnotationAssertionAxiom(sourceEntity.getIRI());
             builder.add(new AddAxiom(rootOntology, depAx));
         });
     }
 
-    private void replaceUsage(ImmutableList.Builder<OWLOntologyChange> builder) {
-        sourceEntities.forEach(sourceEntity -> {
-            OWLEntityRenamer renamer = new OWLEntityRenamer(rootOntology.getOWLOntologyManager(),
-                                                            rootOntology.getImportsClosure());
-            List<OWLOntologyChange> renameChanges = renamer.changeIRI(sourceEntity.getIRI(), targetEntity.getIRI());
-            builder.addAll(renameChanges);
-        });
+    private void replaceUsage(@Nonnull ImmutableList<OWLOntology> ontologies,
+                              @Nonnull ImmutableList.Builder<OWLOntologyChange> builder) {
+        // All of the source IRIs are replaced at once, so that an axiom that mentions several source
+        // entities is rewritten once.  Each ontology only reads itself, so they are searched in parallel.
+        Map<IRI, IRI> iriReplacements = new HashMap<>();
+        targetEntities.forEach((sourceEntity, targetEntity) -> iriReplacements.put(sourceEntity.getIRI(),
+                                                                                   targetEntity.getIRI()));
+        ontologies.parallelStream()
+                  .map(ont -> getUsageReplacementChanges(ont, iriReplacements))
+                  .collect(toList())
+                  .forEach(builder::addAll);
+    }
+
+    /**
+     * Gets the changes that replace the source IRIs in one ontology, in the same way as an
+     * {@link org.semanticweb.owlapi.util.OWLEntityRenamer} does for a single IRI.
+     */
+    @Nonnull
+    private List<OWLOntologyChange> getUsageReplacementChanges(@Nonnull OWLOntology ont,
+                                                               @Nonnull Map<IRI, IRI> iriReplacements) {
+        Set<OWLAxiom> axioms = new LinkedHashSet<>();
+        for (IRI sourceIri : iriReplacements.keySet()) {
+            // Includes all of the entities that pun the source IRI
+            for (OWLEntity entity : ont.getEntitiesInSignature(sourceIri, Imports.EXCLUDED)) {
+                axioms.addAll(ont.getReferencingAxioms(entity, Imports.EXCLUDED));
+                axioms.addAll(ont.getDeclarationAxioms(entity));
+            }
+            axioms.addAll(ont.getAnnotationAssertionAxioms(sourceIri));
+        }
+        OWLObjectDuplicator duplicator = new OWLObjectDuplicator(dataFactory, iriReplacements);
+        List<OWLOntologyChange> changes = new ArrayList<>(axioms.size() * 2);
+        for (OWLAxiom ax : axioms) {
+            changes.add(new RemoveAxiom(ont, ax));
+            changes.add(new AddAxiom(ont, duplicator.duplicateObject(ax)));
+        }
+        return changes;
     }
 
-    private void replaceLabels(@Nonnull ImmutableList.Builder<OWLOntologyChange> builder) {
+    private void replaceLabels(@Nonnull ImmutableList<OWLOntology> ontologies,
+                               @Nonnull ImmutableList.Builder<OWLOntologyChange> builder) {
         // Replace rdfs:label with skos:altLabel.
         // Replace skos:prefLabel with skos:altLabel.
         // In both cases, language tags are preserved.
-        ontologyStream(rootOntology, Imports.INCLUDED)
-                .forEach(ont -> {
-                    sourceEntities.forEach(sourceEntity -> {
-                        // Get the annotation assertions that were originally on the source entity
-                        ont.getAnnotationAssertionAxioms(sourceEntity.getIRI()).stream()
-                                // Just deal with explicit rdfs:label and skos:prefLabel annotations
-                                .filter(ax -> isRdfsLabelAnnotation(ax) || isSkosPrefLabelAnnotation(ax))
-                                // Replace on the target entity with skos:altLabel as the property
-                                .forEach(ax -> replaceWithLabelReplacement(ax, ont, builder));
-                    });
-                });
+        ontologies.forEach(ont -> {
+            targetEntities.forEach((sourceEntity, targetEntity) -> {
+                // Get the annotation assertions that were originally on the source entity
+                ont.getAnnotationAssertionAxioms(sourceEntity.getIRI()).stream()
+                        // Just deal with explicit rdfs:label and skos:prefLabel annotations
+                        .filter(ax -> isRdfsLabelAnnotation(ax) || isSkosPrefLabelAnnotation(ax))
+                        // Replace on the target entity with skos:altLabel as the property
+                        .forEach(ax -> replaceWithLabelReplacement(ax, targetEntity, ont, builder));
+            });
+        });
     }
 
     /**
@@ -121,10 +178,12 @@ public class MergeEntitiesChangeListGenerator {
      *
      * @param ax        The annotation assertion under consideration.  This is the original annotation
      *                  assertion on the source entity (not the target entity).
+     * @param targetEntity The entity that the source entity is merged into.
      * @param ont        The ontology to make the changes in.
      * @param builder    The builder for adding changes to.
      */
     private void replaceWithLabelReplacement(@Nonnull OWLAnnotationAssertionAxiom ax,
+                                             @Nonnull OWLEntity targetEntity,
                                              @Nonnull OWLOntology ont,
                                              @Nonnull ImmutableList.Builder<OWLOntologyChange> builder) {
         // Remove the original one (that will be on the target entity by now)
@@ -136,7 +195,7 @@ public class MergeEntitiesChangeListGenerator {
 
         // Generate a new annotation with a property of the label replacement property.
         // Preserve any annotations on the annotation.
-        OWLAnnotation replAnno = dataFactory.getOWLAnnotation(getLabelReplacementProperty(),
+        OWLAnnotation replAnno = dataFactory.getOWLAnnotation(getLabelReplacementProperty(targetEntity),
                                                               ax.getAnnotation().getValue(),
                                                               ax.getAnnotation().getAnnotations());
         // Generate a new annotation assertion to replace the original one.
@@ -167,7 +226,7 @@ public class MergeEntitiesChangeListGenerator {
      * target entity has an OBO Id or not.
      */
     @Nonnull
-    private OWLAnnotationProperty getLabelReplacementProperty() {
+    private OWLAnnotationProperty getLabelReplacementProperty(@Nonnull OWLEntity targetEntity) {
         // For OBO IRIs return the related synonym property
         // This is based on http://wiki.geneontology.org/index.php/Merging_Ontology_Terms
         if(OboUtilities.isOboIri(targetEntity.getIRI())) {
@@ -179,42 +238,33 @@ public class MergeEntitiesChangeListGenerator {
         }
     }
 
-    private void replaceId(@Nonnull ImmutableList.Builder<OWLOntologyChange> builder) {
-        if(!OboUtilities.isOboIri(targetEntity.getIRI())) {
-            return;
-        }
-        ontologyStream(rootOntology, Imports.INCLUDED)
-                .forEach(ontology -> {
-                    sourceEntities.forEach(sourceEntity -> {
-                        ontology.getAnnotationAssertionAxioms(sourceEntity.getIRI())
-                                .stream()
-                                .filter(this::isOboIdAnnotationAssertion)
-                                .map(this::toTargetAnnotationAssertion)
-                                // Remove the id annotation assertion, which will be on
-                                // the target entity IRI by now
-                                .peek(ax -> builder.add(new RemoveAxiom(ontology, ax)))
-                                // Replace with OBO Alt Id annotation assertion
-                                .map(this::toOboAltIdAnnotationAssertion)
-                                .forEach(ax -> builder.add(new AddAxiom(ontology, ax)));
-                    });
-                });
-    }
-
-    private static Stream<OWLOntology> ontologyStream(OWLOntology ontology,
-                                                      Imports imports) {
-        if(imports == Imports.INCLUDED) {
-            return ontology.getImportsClosure().stream();
-        }
-        else {
-            return Stream.of(ontology);
-        }
+    private void replaceId(@Nonnull ImmutableList<OWLOntology> ontologies,
+                           @Nonnull ImmutableList.Builder<OWLOntologyChange> builder) {
+        ontologies.forEach(ontology -> {
+            targetEntities.forEach((sourceEntity, targetEntity) -> {
+                if(!OboUtilities.isOboIri(targetEntity.getIRI())) {
+                    return;
+                }
+                ontology.getAnnotationAssertionAxioms(sourceEntity.getIRI())
+                        .stream()
+                        .filter(this::isOboIdAnnotationAssertion)
+                        .map(ax -> toTargetAnnotationAssertion(ax, targetEntity))
+                        // Remove the id annotation assertion, which will be on
+                        // the target entity IRI by now
+                        .peek(ax -> builder.add(new RemoveAxiom(ontology, ax)))
+                        // Replace with OBO Alt Id annotation assertion
+                        .map(this::toOboAltIdAnnotationAssertion)
+                        .forEach(ax -> builder.add(new AddAxiom(ontology, ax)));
+            });
+        });
     }
 
     private boolean isOboIdAnnotationAssertion(OWLAnnotationAssertionAxiom axiom) {
         return axiom.getProperty().getIRI().equals(IRI.create("http://www.geneontology.org/formats/oboInOwl#id"));
     }
 
-    private OWLAnnotationAssertionAxiom toTargetAnnotationAssertion(OWLAnnotationAssertionAxiom axiom) {
+    private OWLAnnotationAssertionAxiom toTargetAnnotationAssertion(OWLAnnotationAssertionAxiom axiom,
+                                                                    OWLEntity targetEntity) {
         return dataFactory.getOWLAnnotationAssertionAxiom(axiom.getProperty(),
                                                           targetEntity.getIRI(),
                                                           axiom.getValue(),
@@ -0,0 +1,164 @@
+package org.protege.editor.owl.model.module;
+
+import com.clarkparsia.owlapi.modularity.locality.LocalityClass;
+import com.clarkparsia.owlapi.modularity.locality.SyntacticLocalityEvaluator;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Extracts syntactic locality based modules (bottom, top and STAR modules) from a set of ontologies.
+ * <p>
+ * The logical axioms of the ontologies are indexed by the entities in their signatures when the extractor is
+ * created.  A module is extracted by first checking every axiom for locality with respect to the seed signature
+ * (in parallel), and then, each time that the signature of the module grows, only checking the axioms that mention
+ * the entities that were added to the signature (again in parallel).  An axiom that is not local with respect to a
+ * signature is not local with respect to any larger signature, so no other axioms need to be checked again.  The
+ * index may be reused for any number of seed signatures.
+ * </p>
+ * <p>
+ * The module contains the logical axioms that are not local, together with the declaration axioms and annotation
+ * assertion axioms of the entities in the module signature (so that the module can be browsed on its own).
+ * </p>
+ */
+public class LocalityModuleExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalityModuleExtractor.class);
+
+    private final Set<OWLOntology> ontologies;
+
+    private final AxiomSignatureIndex index;
+
+    public LocalityModuleExtractor(@Nonnull Set<OWLOntology> ontologies) {
+        this.ontologies = new LinkedHashSet<>(checkNotNull(ontologies));
+        long t0 = System.currentTimeMillis();
+        Set<OWLAxiom> logicalAxioms = this.ontologies.stream()
+                .flatMap(ont -> ont.getLogicalAxioms().stream())
+                .collect(Collectors.toSet());
+        this.index = new AxiomSignatureIndex(logicalAxioms);
+        long t1 = System.currentTimeMillis();
+        logger.info("[LocalityModuleExtractor] Indexed {} logical axioms in {} ms", logicalAxioms.size(), t1 - t0);
+    }
+
+    /**
+     * Extracts a module.
+     * @param seedSignature The signature that the module is extracted for.
+     * @param moduleType The type of module.
+     * @return The axioms in the module.
+     */
+    @Nonnull
+    public Set<OWLAxiom> extract(@Nonnull Set<? extends OWLEntity> seedSignature, @Nonnull ModuleType moduleType) {
+        checkNotNull(seedSignature);
+        long t0 = System.currentTimeMillis();
+        Set<OWLAxiom> module;
+        switch (checkNotNull(moduleType)) {
+            case BOT:
+                module = index.extract(seedSignature, LocalityClass.BOTTOM_BOTTOM);
+                break;
+            case TOP:
+                module = index.extract(seedSignature, LocalityClass.TOP_TOP);
+                break;
+            default:
+                module = extractStarModule(seedSignature);
+        }
+        Set<OWLAxiom> result = new HashSet<>(module);
+        Set<OWLEntity> moduleSignature = new HashSet<>(seedSignature);
+        for (OWLAxiom ax : module) {
+            moduleSignature.addAll(ax.getSignature());
+        }
+        for (OWLOntology ont : ontologies) {
+            for (OWLEntity entity : moduleSignature) {
+                result.addAll(ont.getDeclarationAxioms(entity));
+                result.addAll(ont.getAnnotationAssertionAxioms(entity.getIRI()));
+            }
+        }
+        long t1 = System.currentTimeMillis();
+        logger.info("[LocalityModuleExtractor] Extracted a {} module of {} logical axioms for {} seed entities in {} ms",
+                    moduleType, module.size(), seedSignature.size(), t1 - t0);
+        return result;
+    }
+
+    private Set<OWLAxiom> extractStarModule(Set<? extends OWLEntity> seedSignature) {
+        // Alternate bottom and top modules until neither makes the module any smaller
+        Set<OWLAxiom> module = index.extract(seedSignature, LocalityClass.BOTTOM_BOTTOM);
+        LocalityClass nextLocalityClass = LocalityClass.TOP_TOP;
+        int unchangedCount = 0;
+        while (unchangedCount < 2) {
+            Set<OWLAxiom> nextModule = new AxiomSignatureIndex(module).extract(seedSignature, nextLocalityClass);
+            unchangedCount = nextModule.size() == module.size() ? unchangedCount + 1 : 0;
+            module = nextModule;
+            nextLocalityClass = nextLocalityClass == LocalityClass.TOP_TOP ? LocalityClass.BOTTOM_BOTTOM : LocalityClass.TOP_TOP;
+        }
+        return module;
+    }
+
+    /**
+     * An index of axioms by the entities in their signatures.
+     */
+    private static class AxiomSignatureIndex {
+
+        private final List<OWLAxiom> axioms;
+
+        private final List<Set<OWLEntity>> signatures;
+
+        private final Map<OWLEntity, List<Integer>> entity2Axioms;
+
+        private AxiomSignatureIndex(Collection<OWLAxiom> axioms) {
+            this.axioms = new ArrayList<>(axioms);
+            this.signatures = this.axioms.parallelStream()
+                    .map(OWLAxiom::getSignature)
+                    .collect(Collectors.toList());
+            this.entity2Axioms = IntStream.range(0, this.axioms.size())
+                    .parallel()
+                    .boxed()
+                    .flatMap(i -> signatures.get(i).stream().map(entity -> new AbstractMap.SimpleImmutableEntry<>(entity, i)))
+                    .collect(Collectors.groupingByConcurrent(Map.Entry::getKey,
+                                                             Collectors.mapping(Map.Entry::getValue, Collectors.toList())));
+        }
+
+        private Set<OWLAxiom> extract(Set<? extends OWLEntity> seedSignature, LocalityClass localityClass) {
+            // The evaluator is not thread safe
+            ThreadLocal<SyntacticLocalityEvaluator> evaluator = ThreadLocal.withInitial(
+                    () -> new SyntacticLocalityEvaluator(localityClass));
+            Set<OWLEntity> signature = new HashSet<>(seedSignature);
+            BitSet inModule = new BitSet(axioms.size());
+            List<Integer> nonLocal = IntStream.range(0, axioms.size())
+                    .parallel()
+                    .filter(i -> !evaluator.get().isLocal(axioms.get(i), signature))
+                    .boxed()
+                    .collect(Collectors.toList());
+            while (!nonLocal.isEmpty()) {
+                Set<OWLEntity> addedEntities = new HashSet<>();
+                for (int i : nonLocal) {
+                    inModule.set(i);
+                    for (OWLEntity entity : signatures.get(i)) {
+                        if (signature.add(entity)) {
+                            addedEntities.add(entity);
+                        }
+                    }
+                }
+                nonLocal = addedEntities.stream()
+                        .flatMap(entity -> entity2Axioms.getOrDefault(entity, Collections.emptyList()).stream())
+                        .distinct()
+                        .filter(i -> !inModule.get(i))
+                        .collect(Collectors.toList())
+                        .parallelStream()
+                        .filter(i -> !evaluator.get().isLocal(axioms.get(i), signature))
+                        .collect(Collectors.toList());
+            }
+            Set<OWLAxiom> module = new HashSet<>(inModule.cardinality());
+            for (int i = inModule.nextSetBit(0); i >= 0; i = inModule.nextSetBit(i + 1)) {
+                module.add(axioms.get(i));
+            }
+            return module;
+        }
+    }
+}
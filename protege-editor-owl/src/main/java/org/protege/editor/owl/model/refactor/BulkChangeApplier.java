@@ -0,0 +1,165 @@
+package org.protege.editor.owl.model.refactor;
+
+import org.protege.editor.owl.model.ChangeListMinimizer;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.AddOntologyAnnotation;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.RemoveOntologyAnnotation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Applies large lists of changes, such as the changes that delete, merge or deprecate many entities at once.
+ * <p>
+ * The list is minimised as a whole before it is applied, so that a change that is cancelled out by a later change
+ * is dropped even if the two would be applied in different chunks.  The minimised list is then applied in chunks,
+ * with a {@link ChunkedChangeApplier}, so that progress can be reported, and applying can be cancelled, between
+ * chunks.  All of the chunks are undone as one.
+ * <p>
+ * Generators replace an axiom by removing it and then adding its replacement, so a chunk never ends between a
+ * removal and the addition that directly follows it.  If applying is cancelled, the chunks that have already been
+ * applied are kept, and can be undone together, but no axiom is left removed without its replacement.
+ */
+public class BulkChangeApplier {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkChangeApplier.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 20000;
+
+    private final OWLModelManager modelManager;
+
+    private final Consumer<Runnable> modelUpdater;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Creates an applier that applies its changes on the calling thread.
+     * @param modelManager The model manager that changes are applied with.
+     */
+    public BulkChangeApplier(@Nonnull OWLModelManager modelManager) {
+        this(modelManager, Runnable::run);
+    }
+
+    /**
+     * Creates an applier.
+     * @param modelManager The model manager that changes are applied with.
+     * @param modelUpdater Runs updates to the model (e.g. the application of a chunk of changes), and waits for
+     *                     them to complete.  This can be used to apply changes on the event dispatch thread, while
+     *                     changes are generated on another thread.
+     */
+    public BulkChangeApplier(@Nonnull OWLModelManager modelManager, @Nonnull Consumer<Runnable> modelUpdater) {
+        this.modelManager = checkNotNull(modelManager);
+        this.modelUpdater = checkNotNull(modelUpdater);
+    }
+
+    /**
+     * Sets the maximum number of changes that are applied in each chunk.
+     */
+    public void setChunkSize(int chunkSize) {
+        checkArgument(chunkSize > 0, "The chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Applies changes, without reporting progress.
+     * @param changes The changes to apply.
+     * @return The number of changes that were applied, after minimisation.
+     */
+    public int applyChanges(@Nonnull List<? extends OWLOntologyChange> changes) {
+        return applyChanges(changes, new ProgressListener() {
+            @Override
+            public void progressChanged(int appliedCount, int totalCount) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Applies changes.
+     * @param changes The changes to apply.
+     * @param progress Receives progress, and is asked whether applying has been cancelled, after each chunk.
+     * @return The number of changes that were applied, after minimisation.  This is less than the number of
+     * minimised changes if applying was cancelled.
+     */
+    public int applyChanges(@Nonnull List<? extends OWLOntologyChange> changes,
+                            @Nonnull ProgressListener progress) {
+        checkNotNull(progress);
+        List<OWLOntologyChange> minimisedChanges = new ChangeListMinimizer().getMinimisedChanges(checkNotNull(changes));
+        int total = minimisedChanges.size();
+        logger.info("[BulkChangeApplier] Applying {} changes ({} before minimisation)", total, changes.size());
+        int[] applied = {0};
+        progress.progressChanged(0, total);
+        new ChunkedChangeApplier(modelManager, modelUpdater).applyChunks(
+                new ChunkedChangeApplier.ChunkSource<RuntimeException>() {
+                    @Override
+                    public Optional<List<OWLOntologyChange>> nextChunk() {
+                        if (applied[0] == total) {
+                            return Optional.empty();
+                        }
+                        int end = getChunkEnd(minimisedChanges, applied[0]);
+                        return Optional.of(minimisedChanges.subList(applied[0], end));
+                    }
+
+                    @Override
+                    public void chunkApplied(@Nonnull List<OWLOntologyChange> changes) {
+                        applied[0] += changes.size();
+                        progress.progressChanged(applied[0], total);
+                    }
+                },
+                progress::isCancelled);
+        if (applied[0] < total) {
+            logger.info("[BulkChangeApplier] Applying cancelled after {} of {} changes", applied[0], total);
+        }
+        return applied[0];
+    }
+
+    /**
+     * Gets the (exclusive) end of the chunk that starts at the specified index.  The chunk is extended past the chunk
+     * size if it would otherwise separate a removal from the addition that follows it.
+     */
+    private int getChunkEnd(@Nonnull List<OWLOntologyChange> changes, int start) {
+        int end = Math.min(changes.size(), start + chunkSize);
+        while (end < changes.size() && isRemoval(changes.get(end - 1)) && isAddition(changes.get(end))) {
+            end++;
+        }
+        return end;
+    }
+
+    private static boolean isRemoval(@Nonnull OWLOntologyChange change) {
+        return change.isRemoveAxiom() || change instanceof RemoveOntologyAnnotation;
+    }
+
+    private static boolean isAddition(@Nonnull OWLOntologyChange change) {
+        return change.isAddAxiom() || change instanceof AddOntologyAnnotation;
+    }
+
+    /**
+     * Receives the progress of applying changes.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called when a chunk has been applied.
+         * @param appliedCount The number of changes that have been applied.
+         * @param totalCount The number of changes that are to be applied.
+         */
+        void progressChanged(int appliedCount, int totalCount);
+
+        /**
+         * Determines whether applying has been cancelled.  Applying stops before the next chunk if it has.
+         */
+        boolean isCancelled();
+    }
+}
@@ -0,0 +1,266 @@
+package org.protege.editor.owl.model.refactor;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.OWLEntityRenamer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Changes the IRIs of large numbers of entities.
+ * <p>
+ * Entities are renamed in chunks, with a {@link ChunkedChangeApplier}.  The changes for a chunk are generated in
+ * parallel, one task per ontology (each task only reads its own ontology), and the chunk is applied before the
+ * changes for the next chunk are generated, so an axiom that mentions entities in several chunks is rewritten once
+ * per chunk.  All of the chunks, and any changes that are applied around the renaming within the same composite
+ * change, are undone as one.
+ * <p>
+ * Renaming an entity to the IRI of another entity that is itself being renamed (e.g. A to B and B to C, or a swap
+ * of A and B) is only correct if both renames are made by the same changes.  Renaming them in different chunks would
+ * merge the first entity into the second before the second is renamed.  Entities that are linked by such chains are
+ * therefore always placed in the same chunk, even if that makes the chunk larger than the chunk size.  Renaming an
+ * entity to the IRI of an entity that is not being renamed merges the two, as a single rename does.
+ * <p>
+ * Renaming may be cancelled between chunks.  The chunks that have already been applied are kept, and can be undone
+ * together.  Since a chain is never split, no entity is left merged with another by cancelling.
+ */
+public class BulkEntityRenamer {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkEntityRenamer.class);
+
+    public static final int DEFAULT_CHUNK_SIZE = 5000;
+
+    private final OWLModelManager modelManager;
+
+    private final Set<OWLOntology> ontologies;
+
+    private final Consumer<Runnable> modelUpdater;
+
+    private int chunkSize = DEFAULT_CHUNK_SIZE;
+
+    /**
+     * Creates a renamer that applies its changes on the calling thread.
+     * @param modelManager The model manager that changes are applied with.
+     * @param ontologies The ontologies in which entities are renamed.
+     */
+    public BulkEntityRenamer(@Nonnull OWLModelManager modelManager, @Nonnull Set<OWLOntology> ontologies) {
+        this(modelManager, ontologies, Runnable::run);
+    }
+
+    /**
+     * Creates a renamer.
+     * @param modelManager The model manager that changes are applied with.
+     * @param ontologies The ontologies in which entities are renamed.
+     * @param modelUpdater Runs updates to the model (e.g. the application of a chunk of changes), and waits for
+     *                     them to complete.  This can be used to apply changes on the event dispatch thread, while
+     *                     changes are generated on another thread.
+     */
+    public BulkEntityRenamer(@Nonnull OWLModelManager modelManager,
+                             @Nonnull Set<OWLOntology> ontologies,
+                             @Nonnull Consumer<Runnable> modelUpdater) {
+        this.modelManager = checkNotNull(modelManager);
+        this.ontologies = new LinkedHashSet<>(checkNotNull(ontologies));
+        this.modelUpdater = checkNotNull(modelUpdater);
+    }
+
+    /**
+     * Sets the maximum number of entities that are renamed by each chunk of changes.
+     */
+    public void setChunkSize(int chunkSize) {
+        checkArgument(chunkSize > 0, "The chunk size must be positive");
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Renames entities, without reporting progress.
+     * @param renames A map from entities to their new IRIs.
+     * @return The number of entities that were renamed.
+     */
+    public int rename(@Nonnull Map<OWLEntity, IRI> renames) {
+        return rename(renames, new ProgressListener() {
+            @Override
+            public void progressChanged(int renamedCount, int totalCount) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Renames entities.
+     * @param renames A map from entities to their new IRIs.
+     * @param progress Receives progress, and is asked whether renaming has been cancelled, after each chunk.
+     * @return The number of entities that were renamed.  This is less than the number of entities in the map if
+     * renaming was cancelled.
+     */
+    public int rename(@Nonnull Map<OWLEntity, IRI> renames, @Nonnull ProgressListener progress) {
+        checkNotNull(renames);
+        checkNotNull(progress);
+        Iterator<List<OWLEntity>> chunks = partition(renames).iterator();
+        int total = renames.size();
+        int[] renamed = {0};
+        ExecutorService executor = createExecutor();
+        try {
+            progress.progressChanged(0, total);
+            new ChunkedChangeApplier(modelManager, modelUpdater).applyChunks(
+                    new ChunkedChangeApplier.ChunkSource<RuntimeException>() {
+
+                        private int chunkEntityCount = 0;
+
+                        @Override
+                        public Optional<List<OWLOntologyChange>> nextChunk() {
+                            if (!chunks.hasNext()) {
+                                return Optional.empty();
+                            }
+                            Map<OWLEntity, IRI> chunk = new HashMap<>();
+                            for (OWLEntity entity : chunks.next()) {
+                                chunk.put(entity, renames.get(entity));
+                            }
+                            chunkEntityCount = chunk.size();
+                            return Optional.of(generateChanges(chunk, executor));
+                        }
+
+                        @Override
+                        public void chunkApplied(@Nonnull List<OWLOntologyChange> changes) {
+                            renamed[0] += chunkEntityCount;
+                            progress.progressChanged(renamed[0], total);
+                        }
+                    },
+                    progress::isCancelled);
+        } finally {
+            executor.shutdownNow();
+        }
+        if (renamed[0] < total) {
+            logger.info("[BulkEntityRenamer] Renaming cancelled after {} of {} entities", renamed[0], total);
+        }
+        else {
+            logger.info("[BulkEntityRenamer] Renamed {} entities", renamed[0]);
+        }
+        return renamed[0];
+    }
+
+    /**
+     * Partitions the entities that are to be renamed into chunks of at most the chunk size, without splitting a
+     * chain of entities that are renamed to the IRIs of other entities in the map.
+     */
+    private List<List<OWLEntity>> partition(Map<OWLEntity, IRI> renames) {
+        List<OWLEntity> entities = new ArrayList<>(renames.keySet());
+        Map<IRI, List<Integer>> indexesByIri = new HashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            indexesByIri.computeIfAbsent(entities.get(i).getIRI(), iri -> new ArrayList<>()).add(i);
+        }
+        // Union-find over the indexes of the entities, linking each entity to the entities whose IRI it takes
+        int[] parents = new int[entities.size()];
+        for (int i = 0; i < parents.length; i++) {
+            parents[i] = i;
+        }
+        for (int i = 0; i < entities.size(); i++) {
+            for (int other : indexesByIri.getOrDefault(renames.get(entities.get(i)), Collections.emptyList())) {
+                parents[find(parents, i)] = find(parents, other);
+            }
+        }
+        Map<Integer, List<OWLEntity>> chains = new LinkedHashMap<>();
+        for (int i = 0; i < entities.size(); i++) {
+            chains.computeIfAbsent(find(parents, i), root -> new ArrayList<>()).add(entities.get(i));
+        }
+        List<List<OWLEntity>> chunks = new ArrayList<>();
+        List<OWLEntity> chunk = new ArrayList<>();
+        for (List<OWLEntity> chain : chains.values()) {
+            if (!chunk.isEmpty() && chunk.size() + chain.size() > chunkSize) {
+                chunks.add(chunk);
+                chunk = new ArrayList<>();
+            }
+            chunk.addAll(chain);
+        }
+        if (!chunk.isEmpty()) {
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+
+    private static int find(int[] parents, int index) {
+        while (parents[index] != index) {
+            parents[index] = parents[parents[index]];
+            index = parents[index];
+        }
+        return index;
+    }
+
+    private List<OWLOntologyChange> generateChanges(Map<OWLEntity, IRI> chunk, ExecutorService executor) {
+        List<Future<Collection<OWLOntologyChange>>> ontologyChanges = new ArrayList<>();
+        for (OWLOntology ontology : ontologies) {
+            ontologyChanges.add(executor.submit(() -> generateChanges(chunk, ontology)));
+        }
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (Future<Collection<OWLOntologyChange>> future : ontologyChanges) {
+            try {
+                changes.addAll(future.get());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted whilst generating changes");
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return changes;
+    }
+
+    private Collection<OWLOntologyChange> generateChanges(Map<OWLEntity, IRI> chunk, OWLOntology ontology) {
+        OWLEntityRenamer renamer = new OWLEntityRenamer(ontology.getOWLOntologyManager(),
+                                                        Collections.singleton(ontology));
+        // An axiom that mentions several entities in the chunk is rewritten once for each of them.  The renamer
+        // interleaves the removal of each axiom with the addition of its rewritten form, so in a chain the rewritten
+        // form of one axiom could be added and then removed as the original of another.  Removals are made first.
+        Set<OWLOntologyChange> removals = new LinkedHashSet<>();
+        Set<OWLOntologyChange> additions = new LinkedHashSet<>();
+        for (OWLOntologyChange change : renamer.changeIRI(chunk)) {
+            if (change.isRemoveAxiom() || change instanceof RemoveOntologyAnnotation) {
+                removals.add(change);
+            }
+            else {
+                additions.add(change);
+            }
+        }
+        removals.addAll(additions);
+        return removals;
+    }
+
+    private ExecutorService createExecutor() {
+        int threadCount = Math.max(1, Math.min(ontologies.size(), Runtime.getRuntime().availableProcessors()));
+        return Executors.newFixedThreadPool(threadCount,
+                                            new ThreadFactoryBuilder()
+                                                    .setNameFormat("Entity Rename Thread %d")
+                                                    .setDaemon(true)
+                                                    .build());
+    }
+
+    /**
+     * Receives the progress of renaming.
+     */
+    public interface ProgressListener {
+
+        /**
+         * Called when a chunk has been applied.
+         * @param renamedCount The number of entities that have been renamed.
+         * @param totalCount The number of entities that are to be renamed.
+         */
+        void progressChanged(int renamedCount, int totalCount);
+
+        /**
+         * Determines whether renaming has been cancelled.  Renaming stops before the next chunk if it has.
+         */
+        boolean isCancelled();
+    }
+}
@@ -0,0 +1,96 @@
+package org.protege.editor.owl.model.refactor;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import javax.annotation.Nonnull;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Applies changes that are generated in chunks, such as the changes that rename, import or delete large numbers of
+ * entities.  Each chunk is generated on the calling thread and then applied with the model updater, before the next
+ * chunk is generated, so only one chunk of changes is held by the caller at a time.  All of the chunks are applied
+ * within one composite change of the model manager, so they are undone as one step, and coalesced change listeners
+ * are notified once, after the last chunk, rather than between chunks.
+ * <p>
+ * The history manager pushes each chunk to its undo history as it is applied, and the history may spill older chunks
+ * to disk, so the memory that the history uses is bounded by its memory budget rather than by the size of the
+ * composite change.
+ * <p>
+ * Applying may be cancelled between chunks.  The chunks that have already been applied are kept, and can be undone
+ * together.  A source should therefore only end a chunk at a point where the model is consistent.
+ */
+public class ChunkedChangeApplier {
+
+    private final OWLModelManager modelManager;
+
+    private final Consumer<Runnable> modelUpdater;
+
+    /**
+     * Creates an applier.
+     * @param modelManager The model manager that changes are applied with.
+     * @param modelUpdater Runs updates to the model (i.e. the application of a chunk of changes), and waits for them
+     *                     to complete.  This can be used to apply changes on the event dispatch thread, while
+     *                     changes are generated on another thread.
+     */
+    public ChunkedChangeApplier(@Nonnull OWLModelManager modelManager, @Nonnull Consumer<Runnable> modelUpdater) {
+        this.modelManager = checkNotNull(modelManager);
+        this.modelUpdater = checkNotNull(modelUpdater);
+    }
+
+    /**
+     * Applies the chunks of changes that a source generates, until the source is exhausted or applying is cancelled.
+     * @param source The source of the chunks.
+     * @param cancelled Determines whether applying has been cancelled.  This is asked before each chunk is generated.
+     * @return {@code true} if every chunk was applied, or {@code false} if applying was cancelled.
+     * @throws X if the source could not generate a chunk.  The chunks that were applied before the error are kept.
+     */
+    public <X extends Exception> boolean applyChunks(@Nonnull ChunkSource<X> source,
+                                                     @Nonnull BooleanSupplier cancelled) throws X {
+        checkNotNull(source);
+        checkNotNull(cancelled);
+        modelUpdater.accept(modelManager::startCompositeChange);
+        try {
+            while (!cancelled.getAsBoolean()) {
+                Optional<List<OWLOntologyChange>> chunk = source.nextChunk();
+                if (!chunk.isPresent()) {
+                    return true;
+                }
+                List<OWLOntologyChange> changes = new ArrayList<>(chunk.get());
+                if (!changes.isEmpty()) {
+                    modelUpdater.accept(() -> modelManager.applyChanges(changes));
+                }
+                source.chunkApplied(changes);
+            }
+            return false;
+        } finally {
+            modelUpdater.accept(modelManager::endCompositeChange);
+        }
+    }
+
+    /**
+     * Generates the chunks of changes that are applied by a {@link ChunkedChangeApplier}.
+     * @param <X> The type of exception that may be thrown whilst a chunk is generated.
+     */
+    public interface ChunkSource<X extends Exception> {
+
+        /**
+         * Generates the next chunk of changes.  The chunk may be empty.
+         * @return The chunk, or {@link Optional#empty()} if there are no more chunks.
+         */
+        Optional<List<OWLOntologyChange>> nextChunk() throws X;
+
+        /**
+         * Called after a chunk has been applied.
+         * @param changes The changes in the chunk.
+         */
+        default void chunkApplied(@Nonnull List<OWLOntologyChange> changes) {
+        }
+    }
+}
@@ -2,18 +2,20 @@ package org.protege.editor.owl.model.refactor.ontology;
 
 import com.google.common.collect.ListMultimap;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.refactor.BulkEntityRenamer;
 import org.protege.editor.owl.ui.renderer.AnnotationValueShortFormProvider;
 import org.protege.editor.owl.ui.renderer.OWLEntityRendererImpl;
 import org.protege.editor.owl.ui.renderer.OWLRendererPreferences;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.util.OWLEntityURIConverter;
-import org.semanticweb.owlapi.util.OWLEntityURIConverterStrategy;
 import org.semanticweb.owlapi.util.ShortFormProvider;
 import org.semanticweb.owlapi.vocab.OWLRDFVocabulary;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.function.Consumer;
+
+import static com.google.common.base.Preconditions.checkNotNull;
 
 
 /**
@@ -40,10 +42,13 @@ public class ConvertEntityURIsToIdentifierPattern {
 
     private OntologyTargetResolver resolver;
 
+    private Consumer<Map<OWLEntity, IRI>> entityRenamer;
+
     public ConvertEntityURIsToIdentifierPattern(OWLModelManager mngr, Set<OWLOntology> ontologies) {
         this.ontologies = ontologies;
         this.mngr = mngr;
         this.ontologyImportsWalker = new OntologyImportsWalker(mngr, ontologies);
+        this.entityRenamer = renames -> new BulkEntityRenamer(mngr, mngr.getOntologies()).rename(renames);
 
         setupRenderers();
     }
@@ -54,6 +59,15 @@ public class ConvertEntityURIsToIdentifierPattern {
     }
 
 
+    /**
+     * Sets the function that renames entities once their labels have been added.  By default, entities are
+     * renamed by a {@link BulkEntityRenamer} on the calling thread.
+     */
+    public void setEntityRenamer(Consumer<Map<OWLEntity, IRI>> entityRenamer) {
+        this.entityRenamer = checkNotNull(entityRenamer);
+    }
+
+
     public void performConversion() {
         buildNewIRIMap();
 
@@ -63,18 +77,16 @@ public class ConvertEntityURIsToIdentifierPattern {
 
             changes.addAll(createNewLabelAxioms());
 
-            final OWLEntityURIConverterStrategy converterStrategy = owlEntity -> {
-                IRI uri = iriMap.get(owlEntity);
-                return (uri != null) ? uri : owlEntity.getIRI();
-            };
-
-            OWLEntityURIConverter entityURIConverter = new OWLEntityURIConverter(mngr.getOWLOntologyManager(),
-                                                                                 mngr.getOntologies(),
-                                                                                 converterStrategy);
-
-            changes.addAll(entityURIConverter.getChanges());
-
-            mngr.applyChanges(changes);
+            // The new labels and the renaming are undone together
+            mngr.startCompositeChange();
+            try {
+                mngr.applyChanges(changes);
+                changes.clear();
+                entityRenamer.accept(iriMap);
+            }
+            finally {
+                mngr.endCompositeChange();
+            }
         }
 
         logger.info("Converted " + iriMap.size() + " entities to use labels");
@@ -2,6 +2,7 @@ package org.protege.editor.owl.model.repository;
 
 import com.google.common.base.Optional;
 import org.protege.editor.owl.model.repository.extractors.LastResortExtractor;
+import org.protege.editor.owl.model.repository.extractors.OntologyHeaderExtractor;
 import org.protege.editor.owl.model.repository.extractors.OntologyIdExtractor;
 import org.protege.editor.owl.model.repository.extractors.RdfXmlExtractor;
 import org.semanticweb.owlapi.model.OWLOntologyID;
@@ -16,6 +17,7 @@ public class MasterOntologyIDExtractor implements OntologyIdExtractor {
     
     // TODO - all the callers of this method have problems which need fixing.
     public MasterOntologyIDExtractor() { 
+        extractors.add(new OntologyHeaderExtractor());
         extractors.add(new RdfXmlExtractor());
         extractors.add(new LastResortExtractor());
     }
@@ -0,0 +1,63 @@
+package org.protege.editor.owl.model.repository.extractors;
+
+import com.google.common.base.Optional;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+/**
+ * Extracts the ontology id of a local ontology document by reading only the ontology header, rather than loading
+ * the whole ontology.  XML documents (RDF/XML and OWL/XML) are read by a {@link XmlOntologyHeaderExtractor}; other
+ * documents are assumed to be in one of the text syntaxes read by a {@link TextOntologyHeaderExtractor}.
+ * <p>
+ * An absent value is returned if the header cannot be found, in which case a full parse (e.g. by the
+ * {@link LastResortExtractor}) may still succeed.  Instances are safe for use by concurrent threads.
+ */
+public class OntologyHeaderExtractor implements OntologyIdExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(OntologyHeaderExtractor.class);
+
+    private static final int SNIFF_LENGTH = 512;
+
+    public Optional<OWLOntologyID> getOntologyId(URI location) {
+        if (!"file".equals(location.getScheme())) {
+            return Optional.absent();
+        }
+        try (InputStream is = new BufferedInputStream(Files.newInputStream(Paths.get(location)))) {
+            if (isXml(is)) {
+                return new XmlOntologyHeaderExtractor().getOntologyId(is, location);
+            }
+            else {
+                Reader reader = new InputStreamReader(is, StandardCharsets.UTF_8);
+                return new TextOntologyHeaderExtractor().getOntologyId(reader);
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("Could not read the ontology header of {}: {}", location, e.getMessage());
+            return Optional.absent();
+        }
+    }
+
+    /**
+     * Determines whether a stream holds an XML document by looking at its first element, leaving the stream
+     * positioned at its start.
+     */
+    private static boolean isXml(InputStream is) throws IOException {
+        is.mark(SNIFF_LENGTH);
+        byte[] bytes = new byte[SNIFF_LENGTH];
+        int length = 0;
+        int read;
+        while (length < bytes.length && (read = is.read(bytes, length, bytes.length - length)) != -1) {
+            length += read;
+        }
+        is.reset();
+        String start = new String(bytes, 0, length, StandardCharsets.UTF_8).replace("\uFEFF", "").trim();
+        // A Turtle document may also start with '<', but with an IRI rather than an element name
+        return start.startsWith("<?xml") || start.startsWith("<!") || start.matches("(?s)<[A-Za-z_][\\w.\\-]*(:[\\w.\\-]+)?[\\s>/].*");
+    }
+}
@@ -0,0 +1,241 @@
+package org.protege.editor.owl.model.repository.extractors;
+
+import com.google.common.base.Optional;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.vocab.Namespaces;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Extracts the ontology id from the header of a document in one of the text syntaxes (functional syntax, Manchester
+ * syntax, Turtle and OBO), without parsing the rest of the document.
+ * <p>
+ * The document is read incrementally, up to a bounded number of characters, until the ontology header has been
+ * seen.  Only the prefix declarations and the ontology header are interpreted.
+ */
+public class TextOntologyHeaderExtractor {
+
+    private static final int CHUNK_SIZE = 16 * 1024;
+
+    private static final int MAX_HEADER_LENGTH = 1024 * 1024;
+
+    private static final String OBO_PREFIX = "http://purl.obolibrary.org/obo/";
+
+    private static final String IRI_OR_PREFIXED_NAME = "(<[^>\\s]*>|[\\w\\-.]*:[^\\s()<>:;,]+)";
+
+    private static final Pattern FUNCTIONAL_PREFIX = Pattern.compile("Prefix\\(\\s*([\\w\\-.]*:)=\\s*<([^>]*)>\\s*\\)");
+
+    private static final Pattern FUNCTIONAL_HEADER = Pattern.compile(
+            "(?m)^\\s*Ontology\\(\\s*(?:" + IRI_OR_PREFIXED_NAME + "(?:\\s+" + IRI_OR_PREFIXED_NAME + ")?)?");
+
+    private static final Pattern MANCHESTER_PREFIX = Pattern.compile("Prefix:\\s*([\\w\\-.]*:)\\s*<([^>]*)>");
+
+    private static final Pattern MANCHESTER_HEADER = Pattern.compile(
+            "(?m)^\\s*Ontology:(?:[ \\t]*" + IRI_OR_PREFIXED_NAME + "(?:\\s+" + IRI_OR_PREFIXED_NAME + ")?)?");
+
+    private static final Pattern TURTLE_PREFIX = Pattern.compile("(?i)@?prefix\\s+([\\w\\-.]*:)\\s*<([^>]*)>");
+
+    private static final Pattern TURTLE_HEADER = Pattern.compile(
+            IRI_OR_PREFIXED_NAME + "\\s+(?:a|rdf:type|<" + Namespaces.RDF + "type>)\\s+(?:owl:Ontology|<" + Namespaces.OWL + "Ontology>)");
+
+    private static final Pattern TURTLE_VERSION_IRI = Pattern.compile(
+            "(?:owl:versionIRI|<" + Namespaces.OWL + "versionIRI>)\\s+" + IRI_OR_PREFIXED_NAME);
+
+    private static final Pattern TURTLE_STATEMENT_END = Pattern.compile("\\.\\s");
+
+    private static final Pattern OBO_ONTOLOGY = Pattern.compile("(?m)^ontology:\\s*(\\S+)");
+
+    private static final Pattern OBO_DATA_VERSION = Pattern.compile("(?m)^data-version:\\s*(\\S+)");
+
+    private static final Pattern OBO_HEADER_END = Pattern.compile("(?m)^\\[");
+
+    private enum Syntax {
+        FUNCTIONAL, MANCHESTER, TURTLE, OBO
+    }
+
+    /**
+     * Reads the ontology id from the specified reader.
+     * @return The id, which is anonymous if the document contains an ontology header without an ontology IRI, or
+     * an absent value if the document does not appear to contain an ontology header in one of the text syntaxes.
+     */
+    public Optional<OWLOntologyID> getOntologyId(Reader reader) throws IOException {
+        StringBuilder text = new StringBuilder();
+        char[] chunk = new char[CHUNK_SIZE];
+        boolean endOfDocument = false;
+        Syntax syntax = null;
+        while (!endOfDocument && text.length() < MAX_HEADER_LENGTH) {
+            int read = reader.read(chunk);
+            if (read == -1) {
+                endOfDocument = true;
+            }
+            else {
+                text.append(chunk, 0, read);
+            }
+            if (syntax == null) {
+                syntax = detectSyntax(text);
+                if (syntax == null) {
+                    continue;
+                }
+            }
+            Optional<OWLOntologyID> id = getOntologyId(syntax, text, endOfDocument);
+            if (id != null) {
+                return id;
+            }
+        }
+        return Optional.absent();
+    }
+
+    private static Syntax detectSyntax(CharSequence text) {
+        if (find("(?m)^\\s*(Prefix\\(|Ontology\\()", text)) {
+            return Syntax.FUNCTIONAL;
+        }
+        if (find("(?m)^\\s*(Prefix:|Ontology:)", text)) {
+            return Syntax.MANCHESTER;
+        }
+        if (find("(?m)^(format-version|ontology):", text)) {
+            return Syntax.OBO;
+        }
+        if (find("(?mi)^\\s*@?prefix\\s|owl:Ontology|" + Pattern.quote("<" + Namespaces.OWL + "Ontology>"), text)) {
+            return Syntax.TURTLE;
+        }
+        return null;
+    }
+
+    private static boolean find(String regex, CharSequence text) {
+        return Pattern.compile(regex).matcher(text).find();
+    }
+
+    /**
+     * @return The id, an absent value if the header cannot be found, or null if more of the document is needed.
+     */
+    private static Optional<OWLOntologyID> getOntologyId(Syntax syntax, CharSequence text, boolean endOfDocument) {
+        switch (syntax) {
+            case FUNCTIONAL:
+                return getHeaderId(text, FUNCTIONAL_PREFIX, FUNCTIONAL_HEADER, endOfDocument);
+            case MANCHESTER:
+                return getHeaderId(text, MANCHESTER_PREFIX, MANCHESTER_HEADER, endOfDocument);
+            case TURTLE:
+                return getTurtleId(text, endOfDocument);
+            case OBO:
+                return getOboId(text, endOfDocument);
+            default:
+                return Optional.absent();
+        }
+    }
+
+    private static Optional<OWLOntologyID> getHeaderId(CharSequence text, Pattern prefixPattern, Pattern headerPattern, boolean endOfDocument) {
+        Matcher header = headerPattern.matcher(text);
+        if (!header.find()) {
+            return endOfDocument ? Optional.absent() : null;
+        }
+        // The ontology IRI or version IRI may follow in the next chunk
+        if (!isTerminated(text, header.end(), endOfDocument)) {
+            return null;
+        }
+        Map<String, String> prefixes = getPrefixes(text.subSequence(0, header.start()), prefixPattern);
+        return Optional.of(createId(resolve(header.group(1), prefixes), resolve(header.group(2), prefixes)));
+    }
+
+    /**
+     * Determines whether a header match is known to be complete: that is, whether it is followed by a complete token
+     * (e.g. a parenthesis, or a keyword that is followed by whitespace) or by the end of the document.  The optional
+     * IRIs of a header that ends at, or is only followed by whitespace up to, the end of the text read so far may
+     * still follow, or be cut short, so the match cannot be trusted until more of the document has been read.
+     */
+    private static boolean isTerminated(CharSequence text, int matchEnd, boolean endOfDocument) {
+        if (endOfDocument) {
+            return true;
+        }
+        int i = matchEnd;
+        while (i < text.length() && Character.isWhitespace(text.charAt(i))) {
+            i++;
+        }
+        for (; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isWhitespace(c) || c == '(' || c == ')' || c == '>') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static Optional<OWLOntologyID> getTurtleId(CharSequence text, boolean endOfDocument) {
+        Matcher header = TURTLE_HEADER.matcher(text);
+        if (!header.find()) {
+            return endOfDocument ? Optional.absent() : null;
+        }
+        Matcher statementEnd = TURTLE_STATEMENT_END.matcher(text);
+        int end = statementEnd.find(header.end()) ? statementEnd.start() : -1;
+        if (end == -1) {
+            if (!endOfDocument) {
+                return null;
+            }
+            end = text.length();
+        }
+        Map<String, String> prefixes = getPrefixes(text, TURTLE_PREFIX);
+        IRI versionIRI = null;
+        Matcher version = TURTLE_VERSION_IRI.matcher(text.subSequence(header.end(), end));
+        if (version.find()) {
+            versionIRI = resolve(version.group(1), prefixes);
+        }
+        return Optional.of(createId(resolve(header.group(1), prefixes), versionIRI));
+    }
+
+    private static Optional<OWLOntologyID> getOboId(CharSequence text, boolean endOfDocument) {
+        Matcher headerEnd = OBO_HEADER_END.matcher(text);
+        if (!headerEnd.find() && !endOfDocument) {
+            return null;
+        }
+        CharSequence header = headerEnd.hitEnd() ? text : text.subSequence(0, headerEnd.start());
+        Matcher ontology = OBO_ONTOLOGY.matcher(header);
+        if (!ontology.find()) {
+            return Optional.of(new OWLOntologyID());
+        }
+        // The conventions used by the OBO to OWL translation
+        String name = ontology.group(1);
+        IRI ontologyIRI = IRI.create(name.contains("://") ? name : OBO_PREFIX + name + ".owl");
+        IRI versionIRI = null;
+        Matcher dataVersion = OBO_DATA_VERSION.matcher(header);
+        if (dataVersion.find() && !name.contains("://")) {
+            versionIRI = IRI.create(OBO_PREFIX + name + "/" + dataVersion.group(1) + "/" + name + ".owl");
+        }
+        return Optional.of(createId(ontologyIRI, versionIRI));
+    }
+
+    private static Map<String, String> getPrefixes(CharSequence text, Pattern prefixPattern) {
+        Map<String, String> prefixes = new HashMap<>();
+        Matcher matcher = prefixPattern.matcher(text);
+        while (matcher.find()) {
+            prefixes.put(matcher.group(1), matcher.group(2));
+        }
+        return prefixes;
+    }
+
+    private static IRI resolve(String iriOrPrefixedName, Map<String, String> prefixes) {
+        if (iriOrPrefixedName == null) {
+            return null;
+        }
+        if (iriOrPrefixedName.startsWith("<")) {
+            return IRI.create(iriOrPrefixedName.substring(1, iriOrPrefixedName.length() - 1));
+        }
+        int colon = iriOrPrefixedName.indexOf(':');
+        String prefix = prefixes.get(iriOrPrefixedName.substring(0, colon + 1));
+        if (prefix == null) {
+            return IRI.create(iriOrPrefixedName);
+        }
+        return IRI.create(prefix + iriOrPrefixedName.substring(colon + 1));
+    }
+
+    private static OWLOntologyID createId(IRI ontologyIRI, IRI versionIRI) {
+        if (ontologyIRI == null) {
+            return new OWLOntologyID();
+        }
+        return new OWLOntologyID(Optional.of(ontologyIRI), Optional.fromNullable(versionIRI));
+    }
+}
@@ -0,0 +1,201 @@
+package org.protege.editor.owl.model.repository.extractors;
+
+import com.google.common.base.Optional;
+import org.protege.editor.owl.model.library.folder.SAXParseCompletedException;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntologyID;
+import org.semanticweb.owlapi.vocab.Namespaces;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Extracts the ontology id from the header of an RDF/XML or OWL/XML document, without parsing the rest of the
+ * document.  The document is read with a streaming (SAX) parser, which is stopped as soon as the ontology header
+ * has been read.
+ * <p>
+ * In OWL/XML the id is held in the attributes of the root element.  In RDF/XML it is held in the owl:Ontology node
+ * element and its owl:versionIRI property, which conventionally appear before any other node element.  Where there
+ * are several owl:Ontology node elements, the first that is not the object of an owl:imports property is chosen.  If
+ * no owl:Ontology node element is among the first few node elements the document is assumed not to contain an
+ * ontology header (in the conventional form), and the extractor gives up.
+ */
+public class XmlOntologyHeaderExtractor {
+
+    private static final Logger logger = LoggerFactory.getLogger(XmlOntologyHeaderExtractor.class);
+
+    private static final String OWL_NS = Namespaces.OWL.toString();
+
+    private static final String RDF_NS = Namespaces.RDF.toString();
+
+    private static final String XML_NS = "http://www.w3.org/XML/1998/namespace";
+
+    private static final int MAX_NODE_ELEMENTS_BEFORE_HEADER = 100;
+
+    /**
+     * Reads the ontology id from the specified stream.
+     * @param is The stream.
+     * @param location The location of the document, against which relative IRIs are resolved.
+     * @return The id, which is anonymous if the document contains an ontology header without an ontology IRI, or
+     * an absent value if the document does not appear to contain an ontology header.
+     */
+    public Optional<OWLOntologyID> getOntologyId(InputStream is, URI location) {
+        HeaderHandler handler = new HeaderHandler(location);
+        try {
+            SAXParserFactory factory = SAXParserFactory.newInstance();
+            factory.setNamespaceAware(true);
+            try {
+                factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+            } catch (Exception e) {
+                // Not supported by this parser
+            }
+            SAXParser parser = factory.newSAXParser();
+            InputSource source = new InputSource(is);
+            source.setSystemId(location.toString());
+            parser.parse(source, handler);
+        } catch (SAXParseCompletedException e) {
+            // The header has been read
+        } catch (Throwable t) {
+            logger.debug("Could not read the ontology header of {}: {}", location, t.getMessage());
+        }
+        return Optional.fromNullable(handler.ontologyId);
+    }
+
+    private static class HeaderHandler extends DefaultHandler {
+
+        private URI base;
+
+        private int depth = 0;
+
+        private int nodeElementCount = 0;
+
+        private boolean inRdfOntologyElement = false;
+
+        private boolean inImportsElement = false;
+
+        /*
+         * The owl:Ontology node elements in document order, which may include those of imported ontologies
+         */
+        private final List<IRI[]> candidates = new ArrayList<>();
+
+        private final Set<IRI> importedIRIs = new HashSet<>();
+
+        private OWLOntologyID ontologyId;
+
+        private HeaderHandler(URI location) {
+            this.base = location;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+            String xmlBase = atts.getValue(XML_NS, "base");
+            if (xmlBase != null && depth <= 1) {
+                base = base.resolve(xmlBase);
+            }
+            if (depth == 0) {
+                if (OWL_NS.equals(uri) && "Ontology".equals(localName)) {
+                    // OWL/XML
+                    candidates.add(new IRI[]{resolve(atts.getValue("ontologyIRI")), resolve(atts.getValue("versionIRI"))});
+                    complete();
+                }
+                else if (!(RDF_NS.equals(uri) && "RDF".equals(localName))) {
+                    throw new SAXException("Not an ontology document");
+                }
+            }
+            else if (depth == 1) {
+                if (OWL_NS.equals(uri) && "Ontology".equals(localName)) {
+                    inRdfOntologyElement = true;
+                    candidates.add(new IRI[]{resolve(atts.getValue(RDF_NS, "about")), null});
+                }
+                else if (!candidates.isEmpty()) {
+                    // The ontology header has been read
+                    complete();
+                }
+                else if (++nodeElementCount > MAX_NODE_ELEMENTS_BEFORE_HEADER) {
+                    throw new SAXException("No ontology header found");
+                }
+            }
+            else if (depth == 2 && inRdfOntologyElement && OWL_NS.equals(uri)) {
+                if ("versionIRI".equals(localName)) {
+                    candidates.get(candidates.size() - 1)[1] = resolve(atts.getValue(RDF_NS, "resource"));
+                }
+                else if ("imports".equals(localName)) {
+                    inImportsElement = true;
+                    addImport(atts.getValue(RDF_NS, "resource"));
+                }
+            }
+            else if (depth == 3 && inImportsElement && OWL_NS.equals(uri) && "Ontology".equals(localName)) {
+                addImport(atts.getValue(RDF_NS, "about"));
+            }
+            depth++;
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) throws SAXException {
+            depth--;
+            if (depth == 1) {
+                inRdfOntologyElement = false;
+            }
+            else if (depth == 2) {
+                inImportsElement = false;
+            }
+        }
+
+        @Override
+        public void endDocument() throws SAXException {
+            if (!candidates.isEmpty()) {
+                complete();
+            }
+        }
+
+        private void addImport(String value) {
+            IRI iri = resolve(value);
+            if (iri != null) {
+                importedIRIs.add(iri);
+            }
+        }
+
+        private IRI resolve(String value) {
+            if (value == null) {
+                return null;
+            }
+            if (value.isEmpty()) {
+                // URI.resolve does not treat the empty reference as a reference to the base
+                return IRI.create(base);
+            }
+            return IRI.create(base.resolve(value));
+        }
+
+        /*
+         * Chooses the first ontology that is not imported by another
+         */
+        private void complete() throws SAXParseCompletedException {
+            IRI[] chosen = candidates.get(0);
+            for (IRI[] candidate : candidates) {
+                if (candidate[0] == null || !importedIRIs.contains(candidate[0])) {
+                    chosen = candidate;
+                    break;
+                }
+            }
+            if (chosen[0] == null) {
+                ontologyId = new OWLOntologyID();
+            }
+            else {
+                ontologyId = new OWLOntologyID(Optional.of(chosen[0]), Optional.fromNullable(chosen[1]));
+            }
+            throw new SAXParseCompletedException();
+        }
+    }
+}
@@ -7,6 +7,7 @@ import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.protege.editor.owl.model.event.OntologyChangeDelivery;
 import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
 import org.semanticweb.owlapi.util.ProgressMonitor;
 import org.slf4j.Logger;
@@ -64,7 +65,7 @@ public class DefaultSearchManager extends SearchManager {
         ontologyChangeListener = changes -> markCacheAsStale();
         modelManagerListener = this::handleModelManagerEvent;
         editorKit.getModelManager().addListener(modelManagerListener);
-        editorKit.getOWLModelManager().addOntologyChangeListener(ontologyChangeListener);
+        editorKit.getOWLModelManager().addOntologyChangeListener(ontologyChangeListener, OntologyChangeDelivery.COALESCED);
     }
 
     @Override
@@ -0,0 +1,307 @@
+package org.protege.editor.owl.model.selection;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.protege.editor.core.Disposable;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.semanticweb.owlapi.model.*;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.Nonnull;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Computes the usage of entities (the axioms in the active ontologies that refer to them) ahead of time, so that
+ * views that show the usage of the selected entity do not have to compute it when the selection changes.
+ * <p>
+ * Trees and lists ask for the entities in the rows around the selected or hovered row to be prefetched.  The usage of
+ * these entities is computed together, in one pass over the annotation assertions of each ontology, on a background
+ * thread, and kept in a small least recently used cache.  Only the most recent request is worked on: earlier requests
+ * that have not been started yet are skipped.
+ * </p>
+ * <p>
+ * Only usage is prefetched.  The sections of entity frames (e.g. the class description view) are still computed by
+ * their views when the selection changes.
+ * </p>
+ * <p>
+ * Usage is keyed by the entity and the ontology generation.  The generation is advanced, and the cache cleared,
+ * whenever an ontology is changed or the set of active ontologies may have changed.  Usage that was computed for an
+ * earlier generation is not cached.
+ * </p>
+ */
+public class SelectionPrefetcher implements Disposable {
+
+    public static final String ID = SelectionPrefetcher.class.getName();
+
+    private static final Logger logger = LoggerFactory.getLogger(SelectionPrefetcher.class);
+
+    private static final int MAX_CACHED_ENTITIES = 64;
+
+    /**
+     * The number of rows on each side of the selected or hovered row that are prefetched.
+     */
+    public static final int NEIGHBOUR_RADIUS = 3;
+
+    private final OWLModelManager modelManager;
+
+    private final ExecutorService prefetchExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder()
+                    .setNameFormat("Selection Prefetch Thread")
+                    .setDaemon(true)
+                    .build());
+
+    private final Map<UsageKey, CompletableFuture<ImmutableSet<OWLAxiom>>> usage = new LinkedHashMap<UsageKey, CompletableFuture<ImmutableSet<OWLAxiom>>>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UsageKey, CompletableFuture<ImmutableSet<OWLAxiom>>> eldest) {
+            return size() > MAX_CACHED_ENTITIES;
+        }
+    };
+
+    private long generation = 0;
+
+    private final AtomicLong latestRequest = new AtomicLong();
+
+    private final OWLModelManagerListener modelManagerListener = event -> {
+        if (event.isType(EventType.ACTIVE_ONTOLOGY_CHANGED)
+                || event.isType(EventType.ONTOLOGY_VISIBILITY_CHANGED)
+                || event.isType(EventType.ONTOLOGY_LOADED)
+                || event.isType(EventType.ONTOLOGY_CREATED)
+                || event.isType(EventType.ONTOLOGY_RELOADED)) {
+            clear();
+        }
+    };
+
+    private final OWLOntologyChangeListener ontologyChangeListener = changes -> clear();
+
+    public SelectionPrefetcher(@Nonnull OWLModelManager modelManager) {
+        this.modelManager = checkNotNull(modelManager);
+        modelManager.addListener(modelManagerListener);
+        modelManager.addOntologyChangeListener(ontologyChangeListener);
+    }
+
+    /**
+     * Prefetches the usage of the specified entities, in order, in the background.  Entities from earlier calls
+     * whose usage has not yet started to be computed are skipped.
+     * @param entities The entities, nearest (most likely to be selected next) first.
+     * @return A future that is completed when the entities have been prefetched, or skipped.
+     */
+    @Nonnull
+    public CompletableFuture<Void> prefetch(@Nonnull List<? extends OWLEntity> entities) {
+        long request = latestRequest.incrementAndGet();
+        ImmutableList<OWLEntity> entitiesToPrefetch = ImmutableList.copyOf(entities);
+        return CompletableFuture.runAsync(() -> {
+            if (latestRequest.get() != request) {
+                return;
+            }
+            try {
+                computeUncachedUsage(entitiesToPrefetch);
+            } catch (RuntimeException e) {
+                logger.debug("Could not prefetch the usage of {}: {}", entitiesToPrefetch, e.getMessage());
+            }
+        }, prefetchExecutor);
+    }
+
+    /**
+     * Gets the axioms in the active ontologies that refer to the specified entity.  These are the axioms that refer
+     * to the entity, the axioms that refer to its IRI and the annotation assertion axioms whose value is its IRI.
+     * If the usage has been prefetched it is returned immediately.  If it is being prefetched then this waits for it.
+     * Otherwise it is computed on the calling thread.
+     * @param entity The entity.
+     * @return The axioms that refer to the entity.
+     */
+    @Nonnull
+    public ImmutableSet<OWLAxiom> getUsage(@Nonnull OWLEntity entity) {
+        checkNotNull(entity);
+        computeUncachedUsage(Collections.singletonList(entity));
+        CompletableFuture<ImmutableSet<OWLAxiom>> entityUsage;
+        synchronized (usage) {
+            entityUsage = usage.get(new UsageKey(generation, entity));
+        }
+        if (entityUsage == null) {
+            // The ontologies changed after the usage was computed, so it was not kept
+            return computeUsage(entity, modelManager.getActiveOntologies());
+        }
+        try {
+            return entityUsage.join();
+        } catch (CompletionException e) {
+            // Failed on another thread.  Try again on this one, without caching.
+            return computeUsage(entity, modelManager.getActiveOntologies());
+        }
+    }
+
+    /**
+     * Computes and caches, in one pass, the usage of those of the specified entities whose usage is neither cached
+     * nor being computed.
+     */
+    private void computeUncachedUsage(List<OWLEntity> entities) {
+        Map<OWLEntity, UsageKey> keys = new LinkedHashMap<>();
+        Map<OWLEntity, CompletableFuture<ImmutableSet<OWLAxiom>>> claimedUsage = new LinkedHashMap<>();
+        synchronized (usage) {
+            for (OWLEntity entity : entities) {
+                UsageKey key = new UsageKey(generation, entity);
+                if (!usage.containsKey(key)) {
+                    // Entries are only added when their usage starts to be computed, so waiting for an entry never
+                    // takes longer than computing the usage
+                    CompletableFuture<ImmutableSet<OWLAxiom>> entityUsage = new CompletableFuture<>();
+                    usage.put(key, entityUsage);
+                    keys.put(entity, key);
+                    claimedUsage.put(entity, entityUsage);
+                }
+            }
+        }
+        if (claimedUsage.isEmpty()) {
+            return;
+        }
+        // If the ontologies change whilst the usage is being computed, the cache is cleared, so the usage is not kept
+        try {
+            Map<OWLEntity, ImmutableSet<OWLAxiom>> result = computeUsage(claimedUsage.keySet(),
+                                                                         modelManager.getActiveOntologies());
+            claimedUsage.forEach((entity, entityUsage) -> entityUsage.complete(result.get(entity)));
+        } catch (RuntimeException e) {
+            synchronized (usage) {
+                claimedUsage.forEach((entity, entityUsage) -> usage.remove(keys.get(entity), entityUsage));
+            }
+            claimedUsage.values().forEach(entityUsage -> entityUsage.completeExceptionally(e));
+            throw e;
+        }
+    }
+
+    /**
+     * Computes the usage of an entity in the specified ontologies, without caching it.
+     * @param entity The entity.
+     * @param ontologies The ontologies.
+     * @return The axioms that refer to the entity.
+     */
+    @Nonnull
+    public static ImmutableSet<OWLAxiom> computeUsage(@Nonnull OWLEntity entity,
+                                                     @Nonnull Set<OWLOntology> ontologies) {
+        return computeUsage(Collections.singleton(entity), ontologies).get(entity);
+    }
+
+    /**
+     * Computes the usage of several entities in the specified ontologies, without caching it.  The annotation
+     * assertions of each ontology are scanned once for all of the entities.
+     * @param entities The entities.
+     * @param ontologies The ontologies.
+     * @return A map from each entity to the axioms that refer to it.
+     */
+    @Nonnull
+    public static Map<OWLEntity, ImmutableSet<OWLAxiom>> computeUsage(@Nonnull Collection<OWLEntity> entities,
+                                                                     @Nonnull Set<OWLOntology> ontologies) {
+        Map<OWLEntity, ImmutableSet.Builder<OWLAxiom>> builders = new LinkedHashMap<>();
+        Map<IRI, List<ImmutableSet.Builder<OWLAxiom>>> buildersByIri = new HashMap<>();
+        for (OWLEntity entity : entities) {
+            ImmutableSet.Builder<OWLAxiom> builder = ImmutableSet.builder();
+            builders.put(entity, builder);
+            buildersByIri.computeIfAbsent(entity.getIRI(), iri -> new ArrayList<>()).add(builder);
+        }
+        for (OWLOntology ont : ontologies) {
+            builders.forEach((entity, builder) -> {
+                builder.addAll(ont.getReferencingAxioms(entity));
+                builder.addAll(ont.getReferencingAxioms(entity.getIRI()));
+            });
+            // There is no index of annotation assertions by IRI value, so this is a scan of all of them
+            for (OWLAnnotationAssertionAxiom ax : ont.getAxioms(AxiomType.ANNOTATION_ASSERTION)) {
+                com.google.common.base.Optional<IRI> valueIRI = ax.getValue().asIRI();
+                if (valueIRI.isPresent()) {
+                    List<ImmutableSet.Builder<OWLAxiom>> valueBuilders = buildersByIri.get(valueIRI.get());
+                    if (valueBuilders != null) {
+                        valueBuilders.forEach(builder -> builder.add(ax));
+                    }
+                }
+            }
+        }
+        Map<OWLEntity, ImmutableSet<OWLAxiom>> usage = new LinkedHashMap<>();
+        builders.forEach((entity, builder) -> usage.put(entity, builder.build()));
+        return usage;
+    }
+
+    /**
+     * Discards all prefetched usage and advances the ontology generation.
+     */
+    public void clear() {
+        synchronized (usage) {
+            generation++;
+            usage.clear();
+        }
+    }
+
+    /**
+     * Gets the entities in the rows around a row, nearest first, alternating between the rows after the row and
+     * the rows before it (the rows that are most likely to be selected next when moving with the keyboard).
+     * @param row The index of the selected or hovered row.
+     * @param rowCount The number of rows.
+     * @param rowObject Gets the object that is displayed in a row.  Rows that do not display entities are skipped.
+     * @return The entities, including the entity in the row itself, first.
+     */
+    @Nonnull
+    public static List<OWLEntity> getNeighbouringEntities(int row, int rowCount, @Nonnull IntFunction<?> rowObject) {
+        List<OWLEntity> entities = new ArrayList<>();
+        for (int distance = 0; distance <= NEIGHBOUR_RADIUS; distance++) {
+            addEntity(row + distance, rowCount, rowObject, entities);
+            if (distance > 0) {
+                addEntity(row - distance, rowCount, rowObject, entities);
+            }
+        }
+        return entities;
+    }
+
+    private static void addEntity(int row, int rowCount, IntFunction<?> rowObject, List<OWLEntity> entities) {
+        if (row < 0 || row >= rowCount) {
+            return;
+        }
+        Object object = rowObject.apply(row);
+        if (object instanceof OWLEntity) {
+            entities.add((OWLEntity) object);
+        }
+    }
+
+    @Override
+    public void dispose() throws Exception {
+        modelManager.removeListener(modelManagerListener);
+        modelManager.removeOntologyChangeListener(ontologyChangeListener);
+        prefetchExecutor.shutdownNow();
+        clear();
+    }
+
+    private static final class UsageKey {
+
+        private final long generation;
+
+        private final OWLEntity entity;
+
+        private UsageKey(long generation, OWLEntity entity) {
+            this.generation = generation;
+            this.entity = entity;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(generation, entity);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (obj == this) {
+                return true;
+            }
+            if (!(obj instanceof UsageKey)) {
+                return false;
+            }
+            UsageKey other = (UsageKey) obj;
+            return generation == other.generation && entity.equals(other.entity);
+        }
+    }
+}
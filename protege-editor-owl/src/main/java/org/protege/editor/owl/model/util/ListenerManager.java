@@ -2,8 +2,13 @@ package org.protege.editor.owl.model.util;
 
 import org.slf4j.Logger;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 
 /**
@@ -16,6 +21,8 @@ public class ListenerManager<L extends Object> {
 
     private final Map<L, StackTraceElement []> listenerMap = new HashMap<>();
 
+    private final Map<L, ListenerTiming> timingMap = new ConcurrentHashMap<>();
+
     private static final int TRACE_START = 3;
 
 
@@ -31,6 +38,28 @@ public class ListenerManager<L extends Object> {
 
     public void recordListenerRemoved(L listener) {
         listenerMap.remove(listener);
+        timingMap.remove(listener);
+    }
+
+
+    /**
+     * Records the time that a listener took to handle an event.
+     * @param listener The listener.
+     * @param elapsedNanos The time taken, in nanoseconds.
+     */
+    public void recordListenerTiming(L listener, long elapsedNanos) {
+        timingMap.computeIfAbsent(listener, l -> new ListenerTiming(l.getClass().getName())).record(elapsedNanos);
+    }
+
+
+    /**
+     * Gets the timings of the listeners that have handled events, sorted so that the listener with the greatest
+     * total time comes first.
+     */
+    public List<ListenerTiming> getListenerTimings() {
+        List<ListenerTiming> timings = new ArrayList<>(timingMap.values());
+        timings.sort(Collections.reverseOrder((t1, t2) -> Long.compare(t1.getTotalNanos(), t2.getTotalNanos())));
+        return timings;
     }
 
 
@@ -60,4 +89,54 @@ public class ListenerManager<L extends Object> {
             dumpWarningForListener(listener, log, cleanupMessage);
         }
     }
+
+
+    /**
+     * Accumulates the number of events handled by a listener and the time that it took to handle them.
+     */
+    public static final class ListenerTiming {
+
+        private final String listenerClassName;
+
+        private long count;
+
+        private long totalNanos;
+
+        private long maxNanos;
+
+        private ListenerTiming(String listenerClassName) {
+            this.listenerClassName = listenerClassName;
+        }
+
+        private synchronized void record(long elapsedNanos) {
+            count++;
+            totalNanos += elapsedNanos;
+            maxNanos = Math.max(maxNanos, elapsedNanos);
+        }
+
+        public String getListenerClassName() {
+            return listenerClassName;
+        }
+
+        public synchronized long getCount() {
+            return count;
+        }
+
+        public synchronized long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public synchronized long getMaxNanos() {
+            return maxNanos;
+        }
+
+        @Override
+        public synchronized String toString() {
+            return String.format("%s: %d calls, %d ms total, %d ms max",
+                                 listenerClassName,
+                                 count,
+                                 TimeUnit.NANOSECONDS.toMillis(totalNanos),
+                                 TimeUnit.NANOSECONDS.toMillis(maxNanos));
+        }
+    }
 }
@@ -3,6 +3,7 @@ package org.protege.editor.owl.model.util;
 import com.google.common.base.Stopwatch;
 import org.protege.editor.core.log.LogBanner;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.refactor.BulkChangeApplier;
 import org.semanticweb.owlapi.model.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,28 +23,33 @@ public class OWLEntityDeleter {
     private static Logger logger = LoggerFactory.getLogger(OWLEntityDeleter.class);
 
     public static void deleteEntities(Collection<? extends OWLEntity> entities, OWLModelManager modelManager) {
+        List<OWLOntologyChange> allChanges = getChangesToDeleteEntities(entities, modelManager.getOntologies());
+        new BulkChangeApplier(modelManager).applyChanges(allChanges);
+    }
+
+    /**
+     * Gets the changes that delete the specified entities from the specified ontologies.  The references to all of
+     * the entities are found in one pass over each ontology, with the ontologies searched in parallel.  The changes
+     * are not minimised: a {@link BulkChangeApplier} minimises them when it applies them.
+     * @param entities The entities to delete.
+     * @param ontologies The ontologies to delete them from.
+     * @return The changes.
+     */
+    public static List<OWLOntologyChange> getChangesToDeleteEntities(Collection<? extends OWLEntity> entities,
+                                                                     Collection<OWLOntology> ontologies) {
         logger.info(LogBanner.start("Deleting entities"));
         logger.info("Generating changes to remove {} entities", entities.size());
         Stopwatch stopwatch = Stopwatch.createStarted();
-        List<OWLOntologyChange> allChanges = getChangesToDeleteEntities(entities, modelManager);
-        logger.info("Generated {} changes to remove {} entities in {} ms", allChanges.size(), entities.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
-        modelManager.applyChanges(allChanges);
-        logger.info("Applied {} changes in {}", allChanges.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
-        logger.info(LogBanner.end());
-    }
-
-    private static List<OWLOntologyChange> getChangesToDeleteEntities(Collection<? extends OWLEntity> entities, OWLModelManager modelManager) {
         List<OWLOntologyChange> allChanges = new ArrayList<>();
-        for(OWLOntology ontology : modelManager.getOntologies()) {
-            List<OWLOntologyChange> changeList = getChangesForOntology(entities, ontology);
-            allChanges.addAll(changeList);
+        for(ReferenceFinder.ReferenceSet referenceSet : new ReferenceFinder().getReferenceSets(entities, ontologies)) {
+            allChanges.addAll(getChangesForReferenceSet(referenceSet));
         }
+        logger.info("Generated {} changes to remove {} entities in {} ms", allChanges.size(), entities.size(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+        logger.info(LogBanner.end());
         return allChanges;
     }
 
-    private static List<OWLOntologyChange> getChangesForOntology(Collection<? extends OWLEntity> entities, OWLOntology ontology) {
-        ReferenceFinder referenceFinder = new ReferenceFinder();
-        ReferenceFinder.ReferenceSet referenceSet = referenceFinder.getReferenceSet(entities, ontology);
+    private static List<OWLOntologyChange> getChangesForReferenceSet(ReferenceFinder.ReferenceSet referenceSet) {
         List<OWLOntologyChange> changeList = new ArrayList<>(
                 referenceSet.getReferencingAxioms().size() + referenceSet.getReferencingOntologyAnnotations().size()
         );
@@ -1,6 +1,7 @@
 package org.protege.editor.owl.model.util;
 
 import com.google.common.collect.ImmutableCollection;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.model.parameters.Imports;
@@ -10,6 +11,8 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Set;
 
+import static java.util.stream.Collectors.toList;
+
 import static com.google.common.base.Preconditions.checkNotNull;
 
 /**
@@ -19,6 +22,24 @@ import static com.google.common.base.Preconditions.checkNotNull;
  */
 public class ReferenceFinder {
 
+    /**
+     * Gets the reference sets for the specified entities in each of the specified ontologies.  The ontologies are
+     * searched in parallel, each one once for all of the entities, so this should be preferred to getting the
+     * reference set for one entity at a time when there are many entities.
+     *
+     * @param entities The entities whose references are to be retrieved. Not {@code null}.
+     * @param ontologies The ontologies.  Not {@code null}.
+     * @return One ReferenceSet for each ontology, in the iteration order of the ontologies.
+     */
+    public ImmutableList<ReferenceSet> getReferenceSets(
+            Collection<? extends OWLEntity> entities,
+            Collection<OWLOntology> ontologies) {
+        ImmutableSet<OWLEntity> entitySet = ImmutableSet.copyOf(checkNotNull(entities));
+        return ImmutableList.copyOf(checkNotNull(ontologies).parallelStream()
+                                                      .map(ontology -> getReferenceSet(entitySet, ontology))
+                                                      .collect(toList()));
+    }
+
     /**
      * Gets the references set for the specified entities in the specified ontology.
      *
@@ -34,13 +55,16 @@ public class ReferenceFinder {
             OWLOntology ontology) {
 
 
+        // The entities are looked up once for each ontology annotation
+        Set<? extends OWLEntity> entitySet = entities instanceof Set ? (Set<? extends OWLEntity>) entities : ImmutableSet.copyOf(entities);
+
         ImmutableSet.Builder<OWLAxiom> axiomSetBuilder = ImmutableSet.builder();
 
         ImmutableSet.Builder<OWLAnnotation> ontologyAnnotationSetBuilder = ImmutableSet.builder();
 
 
         Set<IRI> entityIRIs = new HashSet<>(entities.size());
-        for (OWLEntity entity : entities) {
+        for (OWLEntity entity : entitySet) {
             Set<OWLAxiom> refs = ontology.getReferencingAxioms(entity, Imports.EXCLUDED);
             axiomSetBuilder.addAll(refs);
             entityIRIs.add(entity.getIRI());
@@ -70,7 +94,7 @@ public class ReferenceFinder {
                 ontologyAnnotationSetBuilder.add(annotation);
             }
             else {
-                if (entities.contains(annotation.getProperty())) {
+                if (entitySet.contains(annotation.getProperty())) {
                     ontologyAnnotationSetBuilder.add(annotation);
                 }
             }
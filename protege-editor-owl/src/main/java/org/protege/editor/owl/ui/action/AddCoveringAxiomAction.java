@@ -31,7 +31,7 @@ public class AddCoveringAxiomAction extends SelectedOWLClassAction {
     protected void updateState() {
         OWLClass selectedClass = getOWLWorkspace().getOWLSelectionModel().getLastSelectedClass();
         setEnabled(selectedClass != null &&
-                   getOWLModelManager().getOWLHierarchyManager().getOWLClassHierarchyProvider().getChildren(selectedClass).size() > 1);
+                   getOWLModelManager().getOWLHierarchyManager().getOWLClassHierarchyProvider().getChildCount(selectedClass) > 1);
     }
 
 
@@ -5,6 +5,7 @@ import org.protege.editor.core.ui.util.ComponentFactory;
 import org.protege.editor.owl.model.refactor.ontology.ConvertEntityURIsToIdentifierPattern;
 import org.protege.editor.owl.model.refactor.ontology.OntologyTargetResolver;
 import org.protege.editor.owl.ui.UIHelper;
+import org.protege.editor.owl.ui.rename.BulkRenameProgressRunner;
 import org.protege.editor.owl.ui.selector.OWLOntologySelectorPanel;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -76,6 +77,8 @@ public class ConvertEntityURIsToLabels extends ProtegeOWLAction {
         if (resolver != null){
             converter.setOntologyResolver(resolver);
         }
+        converter.setEntityRenamer(new BulkRenameProgressRunner(getOWLModelManager(),
+                                                                getOWLModelManager().getOntologies())::rename);
         converter.performConversion();
 
         converter.dispose();
@@ -0,0 +1,86 @@
+package org.protege.editor.owl.ui.action;
+
+import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.owl.model.module.LocalityModuleExtractor;
+import org.protege.editor.owl.ui.UIHelper;
+import org.protege.editor.owl.ui.ontology.wizard.move.bymodule.SelectModuleTypePanel;
+import org.protege.editor.owl.ui.selector.OWLEntitySelectorPanel;
+import org.protege.editor.owl.ui.util.ProgressRunner;
+import org.semanticweb.owlapi.model.*;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Extracts a syntactic locality based module of the active ontologies for a signature, and opens it as a new
+ * (in-memory) ontology, which becomes the active ontology.  Views, searches and reasoners then work on the module,
+ * rather than on the whole of the ontologies that it was extracted from, which remain loaded.
+ * @see LocalityModuleExtractor
+ */
+public class ExtractModuleAction extends ProtegeOWLAction {
+
+    private static final String MODULE_IRI_PREFIX = "urn:uuid:";
+
+    public void actionPerformed(ActionEvent e) {
+        OWLEntitySelectorPanel selector = new OWLEntitySelectorPanel(getOWLEditorKit());
+        OWLEntity selectedEntity = getOWLWorkspace().getOWLSelectionModel().getSelectedEntity();
+        if (selectedEntity != null) {
+            selector.setSelection(selectedEntity);
+        }
+        JComboBox<ModuleType> moduleTypeSelector = new JComboBox<>(ModuleType.values());
+        moduleTypeSelector.setSelectedItem(ModuleType.STAR);
+        moduleTypeSelector.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index, boolean isSelected, boolean cellHasFocus) {
+                return super.getListCellRendererComponent(list,
+                                                          SelectModuleTypePanel.getDescription((ModuleType) value),
+                                                          index,
+                                                          isSelected,
+                                                          cellHasFocus);
+            }
+        });
+        JPanel panel = new JPanel(new BorderLayout(7, 7));
+        panel.add(selector, BorderLayout.CENTER);
+        panel.add(moduleTypeSelector, BorderLayout.SOUTH);
+        try {
+            int ret = new UIHelper(getOWLEditorKit()).showDialog("Extract module", panel);
+            if (ret != JOptionPane.OK_OPTION) {
+                return;
+            }
+            Set<OWLEntity> signature = selector.getSelectedObjects();
+            if (signature.isEmpty()) {
+                return;
+            }
+            Set<OWLAxiom> module = extractModule(signature, (ModuleType) moduleTypeSelector.getSelectedItem());
+            OWLOntologyManager manager = getOWLModelManager().getOWLOntologyManager();
+            OWLOntology moduleOntology = manager.createOntology(module,
+                                                                IRI.create(MODULE_IRI_PREFIX + UUID.randomUUID()));
+            getOWLModelManager().setActiveOntology(moduleOntology);
+        } catch (OWLOntologyCreationException | RuntimeException ex) {
+            ErrorLogPanel.showErrorDialog(ex);
+        } finally {
+            selector.dispose();
+        }
+    }
+
+
+    private Set<OWLAxiom> extractModule(Set<OWLEntity> signature, ModuleType moduleType) {
+        Set<OWLOntology> ontologies = getOWLModelManager().getActiveOntologies();
+        return new ProgressRunner("Extracting module", false).run("Extract Module", progress -> {
+            progress.setSubMessage(String.format("%,d entities in the signature", signature.size()));
+            return new LocalityModuleExtractor(ontologies).extract(signature, moduleType);
+        });
+    }
+
+
+    public void initialise() throws Exception {
+    }
+
+
+    public void dispose() {
+    }
+}
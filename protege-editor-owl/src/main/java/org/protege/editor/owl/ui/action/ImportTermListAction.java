@@ -0,0 +1,91 @@
+package org.protege.editor.owl.ui.action;
+
+import com.google.common.collect.ImmutableSet;
+import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.core.ui.util.UIUtil;
+import org.protege.editor.owl.model.hierarchy.tabbed.BulkTermImporter;
+import org.protege.editor.owl.model.hierarchy.tabbed.HierarchyNodeCreator;
+import org.protege.editor.owl.model.hierarchy.tabbed.TermListParser;
+import org.protege.editor.owl.ui.util.ProgressRunner;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Optional;
+
+import static org.obolibrary.obo2owl.Obo2OWLConstants.Obo2OWLVocabulary.IRI_OIO_hasExactSynonym;
+import static org.semanticweb.owlapi.model.EntityType.CLASS;
+
+/**
+ * Imports a class hierarchy below the selected class from a term list file (tab or comma separated values with
+ * name, synonyms and parents columns).  Terms are read from the file on a background thread, and resolved and
+ * applied in chunks on the event dispatch thread, showing a progress dialog that allows importing to be cancelled.
+ * The import is undone as one change.
+ * @see TermListParser
+ */
+public class ImportTermListAction extends SelectedOWLClassAction {
+
+    private static final Logger logger = LoggerFactory.getLogger(ImportTermListAction.class);
+
+    private static final ImmutableSet<String> TERM_LIST_EXTENSIONS = ImmutableSet.of("tsv", "csv", "txt");
+
+    @Override
+    protected void initialiseAction() throws Exception {
+
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        OWLClass rootClass = getOWLClass();
+        if (rootClass == null) {
+            return;
+        }
+        File file = UIUtil.openFile(getOWLWorkspace(), "Import term list", "Term list", TERM_LIST_EXTENSIONS);
+        if (file == null) {
+            return;
+        }
+        OWLDataFactory df = getOWLDataFactory();
+        BulkTermImporter<OWLClass> importer = new BulkTermImporter<>(
+                getOWLModelManager(),
+                new HierarchyNodeCreator<>(rootClass,
+                                           CLASS,
+                                           getOWLModelManager().getOWLEntityFinder(),
+                                           getOWLModelManager().getOWLEntityFactory()),
+                (child, parent) -> parent.isOWLThing() ? Optional.empty() : Optional.of(df.getOWLSubClassOfAxiom(child, parent)),
+                df.getOWLAnnotationProperty(IRI_OIO_hasExactSynonym.getIRI()),
+                getOWLModelManager().getActiveOntology(),
+                ProgressRunner::invokeAndWait);
+        try {
+            int imported = importTerms(importer, file);
+            logger.info("Imported {} terms from {}", imported, file);
+        } catch (RuntimeException ex) {
+            ErrorLogPanel.showErrorDialog(ex);
+        }
+    }
+
+    private int importTerms(BulkTermImporter<OWLClass> importer, File file) {
+        return new ProgressRunner("Importing terms from " + file.getName(), true).run("Import Terms", progress -> {
+            try (TermListParser parser = new TermListParser(
+                    new InputStreamReader(Files.newInputStream(file.toPath()), StandardCharsets.UTF_8),
+                    TermListParser.getDelimiter(file.getName()))) {
+                return importer.importTerms(parser, new BulkTermImporter.ProgressListener() {
+                    @Override
+                    public void progressChanged(int importedCount) {
+                        progress.setSubMessage(String.format("Imported %,d terms", importedCount));
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return progress.isCancelled();
+                    }
+                });
+            }
+        });
+    }
+}
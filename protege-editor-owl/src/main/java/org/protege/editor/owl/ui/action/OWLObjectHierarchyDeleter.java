@@ -5,8 +5,10 @@ import org.protege.editor.core.log.LogBanner;
 import org.protege.editor.core.prefs.Preferences;
 import org.protege.editor.core.prefs.PreferencesManager;
 import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
 import org.protege.editor.owl.model.util.OWLEntityDeleter;
+import org.protege.editor.owl.ui.util.BulkChangeProgressRunner;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.util.OWLEntitySetProvider;
 import org.slf4j.Logger;
@@ -28,6 +30,11 @@ import java.util.concurrent.TimeUnit;
  */
 public class OWLObjectHierarchyDeleter<E extends OWLEntity> {
 
+    /**
+     * The number of entities above which deletion shows its progress
+     */
+    private static final int BULK_DELETE_THRESHOLD = 1000;
+
     private final Logger logger = LoggerFactory.getLogger(OWLObjectHierarchyDeleter.class);
 
     private OWLEditorKit owlEditorKit;
@@ -151,7 +158,14 @@ public class OWLObjectHierarchyDeleter<E extends OWLEntity> {
     }
 
     private void delete(Set<E> ents) {
-        OWLEntityDeleter.deleteEntities(ents, getOWLEditorKit().getOWLModelManager());
+        OWLModelManager modelManager = getOWLEditorKit().getOWLModelManager();
+        if (ents.size() <= BULK_DELETE_THRESHOLD) {
+            OWLEntityDeleter.deleteEntities(ents, modelManager);
+            return;
+        }
+        new BulkChangeProgressRunner(modelManager).applyChanges(
+                String.format("Deleting %,d %s", ents.size(), pluralName),
+                () -> OWLEntityDeleter.getChangesToDeleteEntities(ents, modelManager.getOntologies()));
     }
 
 
@@ -1,12 +1,11 @@
 package org.protege.editor.owl.ui.action;
 
 import org.protege.editor.owl.ui.UIHelper;
+import org.protege.editor.owl.ui.rename.BulkRenameProgressRunner;
 import org.protege.editor.owl.ui.rename.RenameEntitiesPanel;
-import org.semanticweb.owlapi.model.OWLOntologyChange;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
-import java.util.List;
 
 /*
 * Copyright (C) 2007, University of Manchester
@@ -31,8 +30,8 @@ public class RenameEntitiesBySearchAndReplaceAction extends ProtegeOWLAction {
         RenameEntitiesPanel panel = new RenameEntitiesPanel(getOWLEditorKit());
         final UIHelper uiHelper = new UIHelper(getOWLEditorKit());
         if (uiHelper.showValidatingDialog("Change multiple entity URIs", panel, panel.getFocusComponent()) == JOptionPane.OK_OPTION){
-            List<OWLOntologyChange> changes = panel.getChanges();
-            getOWLModelManager().applyChanges(changes);
+            new BulkRenameProgressRunner(getOWLModelManager(), getOWLModelManager().getOntologies())
+                    .rename(panel.getRenames());
         }
     }
 
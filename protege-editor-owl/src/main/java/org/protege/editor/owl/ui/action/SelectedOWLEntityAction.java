@@ -2,9 +2,16 @@ package org.protege.editor.owl.ui.action;
 
 import org.protege.editor.owl.model.selection.OWLSelectionModel;
 import org.protege.editor.owl.model.selection.OWLSelectionModelListener;
+import org.protege.editor.owl.ui.tree.OWLObjectTree;
 import org.semanticweb.owlapi.model.OWLEntity;
 
+import javax.swing.FocusManager;
+import javax.swing.*;
+import java.awt.*;
 import java.awt.event.ActionEvent;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
 
 
 /**
@@ -29,6 +36,35 @@ public abstract class SelectedOWLEntityAction extends ProtegeOWLAction {
     }
 
 
+    /**
+     * Gets the entities that are selected in the focused tree, if the selected entity is one of them, so that the
+     * action can be performed on all of the entities that are selected in a hierarchy.  Otherwise, the selected
+     * entity alone.
+     */
+    protected Set<OWLEntity> getSelectedEntities() {
+        OWLEntity selectedEntity = getSelectedEntity();
+        if (selectedEntity == null) {
+            return Collections.emptySet();
+        }
+        Component focusOwner = FocusManager.getCurrentManager().getFocusOwner();
+        Component tree = focusOwner instanceof OWLObjectTree
+                ? focusOwner
+                : SwingUtilities.getAncestorOfClass(OWLObjectTree.class, focusOwner);
+        if (tree != null) {
+            Set<OWLEntity> entities = new LinkedHashSet<>();
+            for (Object object : ((OWLObjectTree<?>) tree).getSelectedOWLObjects()) {
+                if (object instanceof OWLEntity) {
+                    entities.add((OWLEntity) object);
+                }
+            }
+            if (entities.contains(selectedEntity)) {
+                return entities;
+            }
+        }
+        return Collections.singleton(selectedEntity);
+    }
+
+
     protected abstract void actionPerformed(OWLEntity selectedEntity);
 
 
@@ -1,25 +1,37 @@
 package org.protege.editor.owl.ui.action.export.inferred;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.protege.editor.core.ui.wizard.Wizard;
+import org.protege.editor.owl.model.inference.CachedInferences;
+import org.protege.editor.owl.model.inference.CachedInferencesReasoner;
 import org.protege.editor.owl.model.inference.OWLReasonerManager;
 import org.protege.editor.owl.model.inference.ReasonerStatus;
 import org.protege.editor.owl.model.inference.ReasonerUtilities;
 import org.protege.editor.owl.model.inference.VacuousAxiomVisitor;
 import org.protege.editor.owl.ui.action.ProtegeOWLAction;
 import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.reasoner.InferenceType;
 import org.semanticweb.owlapi.reasoner.OWLReasoner;
 import org.semanticweb.owlapi.util.InferredAxiomGenerator;
-import org.semanticweb.owlapi.util.InferredOntologyGenerator;
+import org.semanticweb.owlapi.util.InferredClassAssertionAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredEquivalentClassAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredEquivalentDataPropertiesAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredEquivalentObjectPropertyAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredSubClassAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredSubDataPropertyAxiomGenerator;
+import org.semanticweb.owlapi.util.InferredSubObjectPropertyAxiomGenerator;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.event.ActionEvent;
-import java.util.ArrayList;
-import java.util.EnumSet;
-import java.util.List;
-import java.util.Set;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Lock;
 
 
 /**
@@ -66,18 +78,21 @@ public class ExportInferredOntologyAction extends ProtegeOWLAction {
     	private ExportInferredOntologyWizard wizard;
     	private ProgressMonitor monitor;
     	private Set<InferenceType> precompute;
-    	private OWLOntologyManager outputManager;
+    	private OWLDataFactory outputDataFactory;
     	private List<InferredAxiomGenerator<? extends OWLAxiom>> inferredAxiomGenerators;
-    	private InferredOntologyGenerator inferredOntologyGenerator;
-    	private OWLOntology exportedOntology;
+    	/**
+    	 * The logical axioms that have been exported, without their annotations: the asserted axioms of the imports
+    	 * closure (if they are exported) and the inferred axioms of each generator.  An axiom that is equal to one of
+    	 * these is not exported again, whichever generator produced it.
+    	 */
+    	private Set<OWLAxiom> exportedAxioms = new HashSet<>();
     	private int taskCount;
+    	private int currentTask = 0;
     	
     	public ExportTask(ExportInferredOntologyWizard wizard) throws OWLOntologyCreationException {
     		this.wizard = wizard;
 			inferredAxiomGenerators = wizard.getInferredAxiomGenerators();
-			outputManager = OWLManager.createOWLOntologyManager();
-			inferredOntologyGenerator = new InferredOntologyGenerator(getOWLModelManager().getReasoner(), inferredAxiomGenerators);
-			exportedOntology = outputManager.createOntology(wizard.getOntologyID());
+			outputDataFactory = OWLManager.createOWLOntologyManager().getOWLDataFactory();
 
 			taskCount = inferredAxiomGenerators.size() + 1;
 			if (wizard.isIncludeAnnotations()) {
@@ -86,38 +101,32 @@ public class ExportInferredOntologyAction extends ProtegeOWLAction {
 			if (wizard.isIncludeAssertedLogicalAxioms()) {
 				taskCount += 1;
 			}
-			taskCount += 3; // classify, apply changes and save the ontology...
+			taskCount += 2; // classify and save the ontology...
     	}
     	
 		public void run() {
 			try {
 				setupMonitor();
 				
-				adjustProgress("Initializing Reasoner", 0);
+				adjustProgress("Initializing Reasoner", currentTask);
 				precompute();
-				
-				inferredOntologyGenerator.fillOntology(outputManager.getOWLDataFactory(), exportedOntology);
-
-				int currentTask = inferredAxiomGenerators.size();
-				List<OWLOntologyChange> changes = new ArrayList<>();
 
-				adjustProgress("Deleting trivial inferences", ++currentTask);
-				deleteTrivialAxioms(changes);
-				
-				if (wizard.isIncludeAnnotations()) {
-					adjustProgress("Adding annotations", ++currentTask);
-					addAnnotations(changes);
-				}
-				if (wizard.isIncludeAssertedLogicalAxioms()) {
-                    adjustProgress("Adding asserted axioms", ++currentTask);
-                    addAsserted(changes);
-                }
+				// A writer that is closed before it is finished discards the export
+				try (InferredAxiomWriter writer = createWriter()) {
+					if (wizard.isIncludeAnnotations()) {
+						adjustProgress("Adding annotations", ++currentTask);
+						addAnnotations(writer);
+					}
+					if (wizard.isIncludeAssertedLogicalAxioms()) {
+						adjustProgress("Adding asserted axioms", ++currentTask);
+						addAsserted(writer);
+					}
 
-                adjustProgress("Applying extra changes", ++currentTask);
-                outputManager.applyChanges(changes);
+					addInferred(writer);
 
-                adjustProgress("Saving...", ++currentTask);
-                outputManager.saveOntology(exportedOntology, wizard.getFormat(), IRI.create(wizard.getPhysicalURL()));
+					adjustProgress("Saving...", ++currentTask);
+					writer.finish();
+				}
 
 
 				monitor.close();
@@ -142,9 +151,8 @@ public class ExportInferredOntologyAction extends ProtegeOWLAction {
 		private void setupMonitor() {
 			monitor = new ProgressMonitor(getOWLWorkspace(), "Exporting Inferred Ontology", "Initializing", 0, taskCount);
 			precompute = EnumSet.noneOf(InferenceType.class);
-			int task = 1;
 			for (InferredAxiomGenerator<? extends OWLAxiom> generator : inferredAxiomGenerators) {
-				((MonitoredInferredAxiomGenerator<? extends OWLAxiom>) generator).setProgressMonitor(monitor, task++);
+				((MonitoredInferredAxiomGenerator<? extends OWLAxiom>) generator).setProgressMonitor(monitor);
 				precompute.addAll(ExportInferredOntologyPanel.getInferenceType(generator));
 			}
 		}
@@ -160,50 +168,197 @@ public class ExportInferredOntologyAction extends ProtegeOWLAction {
 	    private void precompute() {
 	    	Set<InferenceType> precomputeNow = EnumSet.copyOf(precompute);
 	    	OWLReasoner reasoner = getOWLModelManager().getReasoner();
-	    	if (!reasoner.getPendingChanges().isEmpty()) {
-	    		reasoner.flush();
+	    	Lock reasonerLock = getReasonerLock();
+	    	reasonerLock.lock();
+	    	try {
+	    		if (!reasoner.getPendingChanges().isEmpty()) {
+	    			reasoner.flush();
+	    		}
+	    		precomputeNow.retainAll(reasoner.getPrecomputableInferenceTypes());
+	    		for (InferenceType inference : precompute) {
+	    			if (reasoner.isPrecomputed(inference)) {
+	    				precomputeNow.remove(inference);
+	    			}
+	    		}
+	    		if (!precomputeNow.isEmpty()) {
+	    			reasoner.precomputeInferences(precomputeNow.toArray(new InferenceType[precomputeNow.size()]));
+	    		}
+	    	} finally {
+	    		reasonerLock.unlock();
 	    	}
-	    	precomputeNow.retainAll(reasoner.getPrecomputableInferenceTypes());
-	    	for (InferenceType inference : precompute) {
-	    		if (reasoner.isPrecomputed(inference)) {
-	    			precomputeNow.remove(inference);
+	    }
+
+	    /**
+	     * Gets the lock that serialises access to the reasoner.  It is held whilst a generator uses the reasoner, so
+	     * that the reasoner is not used by a generator and, say, the reasoner manager at the same time.
+	     */
+	    private Lock getReasonerLock() {
+	    	return getOWLModelManager().getOWLReasonerManager().getReasonerLock();
+	    }
+
+	    /**
+	     * Creates the destination of the export.  Ontologies in the functional syntax are written an axiom at a time,
+	     * as the axioms are generated.  Other formats can only be written from a complete ontology.
+	     */
+	    private InferredAxiomWriter createWriter() throws OWLOntologyCreationException, IOException {
+	    	Set<OWLAnnotation> ontologyAnnotations = new HashSet<>();
+	    	if (wizard.isIncludeAnnotations()) {
+	    		for (OWLOntology o : getOWLModelManager().getReasoner().getRootOntology().getImportsClosure()) {
+	    			ontologyAnnotations.addAll(o.getAnnotations());
 	    		}
 	    	}
-	    	if (!precomputeNow.isEmpty()) {
-	    		reasoner.precomputeInferences(precomputeNow.toArray(new InferenceType[precomputeNow.size()]));
+	    	URI physicalURI = wizard.getPhysicalURL();
+	    	if (wizard.getFormat() instanceof FunctionalSyntaxDocumentFormat && "file".equals(physicalURI.getScheme())) {
+	    		return FunctionalSyntaxInferredAxiomWriter.toFile(wizard.getOntologyID(), ontologyAnnotations, wizard.getFormat(), Paths.get(physicalURI));
 	    	}
+	    	return new OntologyInferredAxiomWriter(wizard.getOntologyID(), ontologyAnnotations, wizard.getFormat(), physicalURI);
 	    }
-	    
-	    private void deleteTrivialAxioms(List<OWLOntologyChange> changes) {
-	    	for (OWLAxiom axiom : exportedOntology.getAxioms()) {
-	    		if (VacuousAxiomVisitor.isVacuousAxiom(axiom) || VacuousAxiomVisitor.involvesInverseSquared(axiom)) {
-	    			changes.add(new RemoveAxiom(exportedOntology, axiom));
+
+	    /**
+	     * Runs the generators and writes the non-trivial axioms that they generate as each generator completes.
+	     * <p>
+	     * Reasoners are not, in general, safe for concurrent use.  When several generators are selected, the class and
+	     * property hierarchies (and class assertions, if they have been precomputed) are therefore captured in an
+	     * immutable snapshot, and the generators that only need these run concurrently against the snapshot.  The other
+	     * generators take turns with the reasoner, holding the reasoner manager's lock.
+	     * <p>
+	     * Generators overlap (e.g. the sub class and equivalent class generators may both produce an axiom), so each
+	     * axiom is only written the first time that it is generated, and not at all if it has been written as an
+	     * asserted axiom.
+	     */
+	    private void addInferred(InferredAxiomWriter writer) throws Exception {
+	    	OWLReasoner reasoner = getOWLModelManager().getReasoner();
+	    	OWLReasoner snapshotReasoner = null;
+	    	if (inferredAxiomGenerators.size() > 1) {
+	    		adjustProgress("Capturing inferred hierarchies", currentTask);
+	    		snapshotReasoner = createSnapshotReasoner(reasoner);
+	    	}
+	    	int threadCount = Math.max(1, Math.min(inferredAxiomGenerators.size(), Runtime.getRuntime().availableProcessors()));
+	    	ExecutorService executor = Executors.newFixedThreadPool(threadCount,
+	    			new ThreadFactoryBuilder().setNameFormat("Export Inferred Axioms %d").setDaemon(true).build());
+	    	try {
+	    		CompletionService<GeneratedAxioms> completionService = new ExecutorCompletionService<>(executor);
+	    		for (InferredAxiomGenerator<? extends OWLAxiom> generator : inferredAxiomGenerators) {
+	    			if (snapshotReasoner != null && isAnsweredBySnapshot(generator, snapshotReasoner)) {
+	    				OWLReasoner snapshot = snapshotReasoner;
+	    				completionService.submit(() -> new GeneratedAxioms(generator, generator.createAxioms(outputDataFactory, snapshot)));
+	    			}
+	    			else {
+	    				completionService.submit(() -> {
+	    					Lock reasonerLock = getReasonerLock();
+	    					reasonerLock.lock();
+	    					try {
+	    						return new GeneratedAxioms(generator, generator.createAxioms(outputDataFactory, reasoner));
+	    					} finally {
+	    						reasonerLock.unlock();
+	    					}
+	    				});
+	    			}
+	    		}
+	    		for (int remaining = inferredAxiomGenerators.size(); remaining > 0; remaining--) {
+	    			GeneratedAxioms generated = takeWhenReady(completionService);
+	    			adjustProgress(generated.generator.getLabel(), ++currentTask);
+	    			List<OWLAxiom> axioms = new ArrayList<>(generated.axioms.size());
+	    			for (OWLAxiom axiom : generated.axioms) {
+	    				if (!isTrivial(axiom) && exportedAxioms.add(axiom.getAxiomWithoutAnnotations())) {
+	    					axioms.add(axiom);
+	    				}
+	    			}
+	    			writer.writeAxioms(axioms);
 	    		}
+	    	} finally {
+	    		executor.shutdownNow();
 	    	}
 	    }
-	    
-	    private void addAnnotations(List<OWLOntologyChange> changes) {
-	    	for (OWLOntology o : getOWLModelManager().getReasoner().getRootOntology().getImportsClosure()) {
-	    		for (OWLAnnotation annot : o.getAnnotations()) {
-	    			changes.add(new AddOntologyAnnotation(exportedOntology, annot));
+
+	    private GeneratedAxioms takeWhenReady(CompletionService<GeneratedAxioms> completionService) throws Exception {
+	    	while (true) {
+	    		if (monitor.isCanceled()) {
+	    			throw new ExportCancelledException();
 	    		}
-	    		for (OWLAnnotationAssertionAxiom axiom : o.getAxioms(AxiomType.ANNOTATION_ASSERTION)) {
-	    			changes.add(new AddAxiom(exportedOntology, axiom));
+	    		Future<GeneratedAxioms> future = completionService.poll(200, TimeUnit.MILLISECONDS);
+	    		if (future != null) {
+	    			try {
+	    				return future.get();
+	    			} catch (ExecutionException e) {
+	    				if (e.getCause() instanceof Exception) {
+	    					throw (Exception) e.getCause();
+	    				}
+	    				throw e;
+	    			}
 	    		}
 	    	}
 	    }
 
-	    private void addAsserted(List<OWLOntologyChange> changes) {
-	    	for (OWLOntology o : getOWLModelManager().getReasoner().getRootOntology().getImportsClosure()) {
-	    		for (OWLLogicalAxiom ax : o.getLogicalAxioms()) {
-	    			if (ax.isAnnotated() && exportedOntology.containsAxiom(ax.getAxiomWithoutAnnotations())) {
-	    				changes.add(new RemoveAxiom(exportedOntology, ax.getAxiomWithoutAnnotations()));
+	    private OWLReasoner createSnapshotReasoner(OWLReasoner reasoner) {
+	    	Set<InferenceType> precomputed = EnumSet.noneOf(InferenceType.class);
+	    	CachedInferences inferences;
+	    	Lock reasonerLock = getReasonerLock();
+	    	reasonerLock.lock();
+	    	try {
+	    		for (InferenceType type : precompute) {
+	    			if (reasoner.isPrecomputed(type)) {
+	    				precomputed.add(type);
 	    			}
-	    			changes.add(new AddAxiom(exportedOntology, ax));
 	    		}
+	    		inferences = CachedInferences.capture(reasoner, precomputed);
+	    	} finally {
+	    		reasonerLock.unlock();
+	    	}
+	    	return new CachedInferencesReasoner(reasoner.getRootOntology(), getOWLModelManager().getOWLDataFactory(), inferences);
+	    }
+
+	    private boolean isTrivial(OWLAxiom axiom) {
+	    	return VacuousAxiomVisitor.isVacuousAxiom(axiom) || VacuousAxiomVisitor.involvesInverseSquared(axiom);
+	    }
+	    
+	    private void addAnnotations(InferredAxiomWriter writer) throws IOException {
+	    	for (OWLOntology o : getOWLModelManager().getReasoner().getRootOntology().getImportsClosure()) {
+	    		writer.writeAxioms(o.getAxioms(AxiomType.ANNOTATION_ASSERTION));
 	    	}
 	    }
 
+	    private void addAsserted(InferredAxiomWriter writer) throws IOException {
+	    	for (OWLOntology o : getOWLModelManager().getReasoner().getRootOntology().getImportsClosure()) {
+	    		Set<OWLLogicalAxiom> axioms = o.getLogicalAxioms();
+	    		for (OWLLogicalAxiom ax : axioms) {
+	    			exportedAxioms.add(ax.getAxiomWithoutAnnotations());
+	    		}
+	    		writer.writeAxioms(axioms);
+	    	}
+	    }
+
+    }
+
+    /**
+     * Determines whether the axioms of the specified generator can be generated from a snapshot of the inferred
+     * hierarchies, rather than from the reasoner.
+     */
+    private static boolean isAnsweredBySnapshot(InferredAxiomGenerator<? extends OWLAxiom> generator, OWLReasoner snapshotReasoner) {
+    	if (generator instanceof MonitoredInferredAxiomGenerator) {
+    		generator = ((MonitoredInferredAxiomGenerator<? extends OWLAxiom>) generator).getDelegate();
+    	}
+    	if (generator instanceof InferredClassAssertionAxiomGenerator) {
+    		return snapshotReasoner.isPrecomputed(InferenceType.CLASS_ASSERTIONS);
+    	}
+    	return generator instanceof InferredSubClassAxiomGenerator
+    			|| generator instanceof InferredEquivalentClassAxiomGenerator
+    			|| generator instanceof InferredSubObjectPropertyAxiomGenerator
+    			|| generator instanceof InferredEquivalentObjectPropertyAxiomGenerator
+    			|| generator instanceof InferredSubDataPropertyAxiomGenerator
+    			|| generator instanceof InferredEquivalentDataPropertiesAxiomGenerator;
+    }
+
+    private static class GeneratedAxioms {
+
+    	private final InferredAxiomGenerator<? extends OWLAxiom> generator;
+
+    	private final Set<? extends OWLAxiom> axioms;
+
+    	private GeneratedAxioms(InferredAxiomGenerator<? extends OWLAxiom> generator, Set<? extends OWLAxiom> axioms) {
+    		this.generator = generator;
+    		this.axioms = axioms;
+    	}
     }
     
     
@@ -0,0 +1,141 @@
+package org.protege.editor.owl.ui.action.export.inferred;
+
+import org.protege.editor.owl.model.io.FileReplacement;
+import org.protege.editor.owl.model.io.FunctionalSyntaxHeaderWriter;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.functional.renderer.FunctionalSyntaxObjectRenderer;
+import org.semanticweb.owlapi.model.*;
+
+import javax.annotation.Nullable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * Streams the exported axioms to a writer in the OWL functional syntax, one axiom per line, so that the exported
+ * ontology is never held in memory.  Declarations for the entities that the axioms refer to are written when the
+ * export is finished.
+ */
+class FunctionalSyntaxInferredAxiomWriter implements InferredAxiomWriter {
+
+    private final Writer writer;
+
+    /**
+     * The file that the writer writes to, which replaces the destination when the export is finished, or
+     * {@code null} if the writer is not writing to a file.
+     */
+    @Nullable
+    private final FileReplacement replacement;
+
+    private final OWLDataFactory dataFactory;
+
+    private final FunctionalSyntaxObjectRenderer renderer;
+
+    private final Set<OWLEntity> signature = new HashSet<>();
+
+    private final Set<OWLEntity> declaredEntities = new HashSet<>();
+
+    /**
+     * Creates a writer and writes the ontology header.
+     * @param ontologyID The id of the exported ontology.
+     * @param ontologyAnnotations The annotations of the exported ontology.
+     * @param format The format, from which the prefixes are taken.
+     * @param writer The writer that the ontology is written to.  This is closed when the export is finished, or when
+     *               this writer is closed.
+     */
+    FunctionalSyntaxInferredAxiomWriter(OWLOntologyID ontologyID,
+                                        Set<OWLAnnotation> ontologyAnnotations,
+                                        OWLDocumentFormat format,
+                                        Writer writer) throws OWLOntologyCreationException, IOException {
+        this(ontologyID, ontologyAnnotations, format, writer, null);
+    }
+
+    private FunctionalSyntaxInferredAxiomWriter(OWLOntologyID ontologyID,
+                                                Set<OWLAnnotation> ontologyAnnotations,
+                                                OWLDocumentFormat format,
+                                                Writer writer,
+                                                @Nullable FileReplacement replacement) throws OWLOntologyCreationException, IOException {
+        this.writer = writer;
+        this.replacement = replacement;
+        // An ontology without axioms, which provides the header and the renderer with the ontology id, prefixes
+        // and annotations
+        OWLOntologyManager headerManager = OWLManager.createOWLOntologyManager();
+        OWLOntology headerOntology = headerManager.createOntology(ontologyID);
+        headerManager.setOntologyFormat(headerOntology, format);
+        for (OWLAnnotation annotation : ontologyAnnotations) {
+            headerManager.applyChange(new AddOntologyAnnotation(headerOntology, annotation));
+        }
+        this.dataFactory = headerManager.getOWLDataFactory();
+        this.renderer = new FunctionalSyntaxObjectRenderer(headerOntology, writer);
+        FunctionalSyntaxHeaderWriter.writeHeader(headerOntology, writer);
+        writer.write("\n");
+    }
+
+    /**
+     * Creates a writer that writes to a temporary file, which replaces the specified file when the export is
+     * finished.  If the writer is closed before then, the temporary file is deleted and the file is left as it was.
+     */
+    static FunctionalSyntaxInferredAxiomWriter toFile(OWLOntologyID ontologyID,
+                                                      Set<OWLAnnotation> ontologyAnnotations,
+                                                      OWLDocumentFormat format,
+                                                      Path path) throws OWLOntologyCreationException, IOException {
+        FileReplacement replacement = FileReplacement.create(path);
+        Writer writer = null;
+        try {
+            writer = Files.newBufferedWriter(replacement.getTempFile(), StandardCharsets.UTF_8);
+            return new FunctionalSyntaxInferredAxiomWriter(ontologyID, ontologyAnnotations, format, writer, replacement);
+        } catch (OWLOntologyCreationException | IOException | RuntimeException e) {
+            if (writer != null) {
+                writer.close();
+            }
+            replacement.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public void writeAxioms(Collection<? extends OWLAxiom> axioms) throws IOException {
+        for (OWLAxiom axiom : axioms) {
+            if (axiom instanceof OWLDeclarationAxiom) {
+                declaredEntities.add(((OWLDeclarationAxiom) axiom).getEntity());
+            }
+            signature.addAll(axiom.getSignature());
+            axiom.accept(renderer);
+            writer.write("\n");
+        }
+    }
+
+    @Override
+    public void finish() throws IOException {
+        List<OWLEntity> undeclaredEntities = new ArrayList<>();
+        for (OWLEntity entity : signature) {
+            if (!entity.isBuiltIn() && !declaredEntities.contains(entity)) {
+                undeclaredEntities.add(entity);
+            }
+        }
+        Collections.sort(undeclaredEntities);
+        for (OWLEntity entity : undeclaredEntities) {
+            dataFactory.getOWLDeclarationAxiom(entity).accept(renderer);
+            writer.write("\n");
+        }
+        writer.write(")");
+        writer.close();
+        if (replacement != null) {
+            replacement.commit();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            writer.close();
+        } finally {
+            if (replacement != null) {
+                replacement.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package org.protege.editor.owl.ui.action.export.inferred;
+
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLOntologyStorageException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Collection;
+
+/**
+ * Receives the axioms of an exported inferred ontology as they are generated, and writes them to the export
+ * destination.  Axioms are written from a single thread.  The destination is only replaced when the export is
+ * finished, and a writer is always closed, so that a cancelled or failed export leaves the destination untouched.
+ */
+interface InferredAxiomWriter extends Closeable {
+
+    /**
+     * Writes the specified axioms.
+     */
+    void writeAxioms(Collection<? extends OWLAxiom> axioms) throws IOException;
+
+    /**
+     * Completes the export.  No further axioms may be written.
+     */
+    void finish() throws IOException, OWLOntologyStorageException;
+
+    /**
+     * Releases the resources of the writer, discarding the export if it has not been finished.
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -8,29 +8,28 @@ import org.semanticweb.owlapi.util.InferredAxiomGenerator;
 import javax.swing.*;
 import java.util.Set;
 
+/**
+ * Wraps a generator so that it does not start if the export has been cancelled.  Generators may run concurrently,
+ * so progress is reported by the export task as generators complete rather than by the generators themselves.
+ */
 public class MonitoredInferredAxiomGenerator<A extends OWLAxiom> implements InferredAxiomGenerator<A> {
 
     private InferredAxiomGenerator<A> delegate;
 
     private ProgressMonitor progressMonitor;
 
-    private int task;
-
     public MonitoredInferredAxiomGenerator(InferredAxiomGenerator<A> delegate) {
         this.delegate = delegate;
     }
 
-    public void setProgressMonitor(ProgressMonitor progressMonitor, int task) {
+    public void setProgressMonitor(ProgressMonitor progressMonitor) {
         this.progressMonitor = progressMonitor;
-        this.task = task;
     }
 
     public Set<A> createAxioms(OWLDataFactory dataFactory, OWLReasoner reasoner) {
-        if (progressMonitor.isCanceled()) {
+        if (progressMonitor != null && progressMonitor.isCanceled()) {
             throw new ExportCancelledException();
         }
-        progressMonitor.setNote(delegate.getLabel());
-        progressMonitor.setProgress(task);
         return delegate.createAxioms(dataFactory, reasoner);
     }
 
@@ -0,0 +1,46 @@
+package org.protege.editor.owl.ui.action.export.inferred;
+
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.net.URI;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Collects the exported axioms in an ontology, which is saved, in any format, when the export is finished.  This is
+ * used for formats that cannot be written an axiom at a time.
+ */
+class OntologyInferredAxiomWriter implements InferredAxiomWriter {
+
+    private final OWLOntologyManager outputManager = OWLManager.createOWLOntologyManager();
+
+    private final OWLOntology exportedOntology;
+
+    private final OWLDocumentFormat format;
+
+    private final URI physicalURI;
+
+    OntologyInferredAxiomWriter(OWLOntologyID ontologyID,
+                                Set<OWLAnnotation> ontologyAnnotations,
+                                OWLDocumentFormat format,
+                                URI physicalURI) throws OWLOntologyCreationException {
+        this.exportedOntology = outputManager.createOntology(ontologyID);
+        this.format = format;
+        this.physicalURI = physicalURI;
+        for (OWLAnnotation annotation : ontologyAnnotations) {
+            outputManager.applyChange(new AddOntologyAnnotation(exportedOntology, annotation));
+        }
+    }
+
+    @Override
+    public void writeAxioms(Collection<? extends OWLAxiom> axioms) {
+        outputManager.addAxioms(exportedOntology, new HashSet<>(axioms));
+    }
+
+    @Override
+    public void finish() throws OWLOntologyStorageException {
+        outputManager.saveOntology(exportedOntology, format, IRI.create(physicalURI));
+    }
+}
@@ -1,15 +1,18 @@
 package org.protege.editor.owl.ui.deprecation;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import org.protege.editor.core.ui.wizard.Wizard;
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.deprecation.DeprecationProfile;
-import org.protege.editor.owl.model.util.OboUtilities;
 import org.semanticweb.owlapi.model.OWLEntity;
 
 import javax.annotation.Nonnull;
 import java.awt.*;
 
+import static org.protege.editor.owl.ui.deprecation.DeprecationWizardEntityRenderer.renderer;
+
 /**
  * Matthew Horridge
  * Stanford Center for Biomedical Informatics Research
@@ -23,8 +26,18 @@ public class DeprecateEntityWizard extends Wizard {
                                  @Nonnull OWLEditorKit editorKit,
                                  @Nonnull OWLEntity entityToDeprecate,
                                  @Nonnull List<DeprecationProfile> depreactionProfiles) {
+        this(owner, editorKit, Collections.singleton(entityToDeprecate), depreactionProfiles);
+    }
+
+    /**
+     * Creates a wizard that deprecates several entities in the same way, with the same reason and replacement.
+     */
+    public DeprecateEntityWizard(@Nonnull Frame owner,
+                                 @Nonnull OWLEditorKit editorKit,
+                                 @Nonnull Collection<? extends OWLEntity> entitiesToDeprecate,
+                                 @Nonnull List<DeprecationProfile> depreactionProfiles) {
         super(owner);
-        setTitle(generateTitle(editorKit, entityToDeprecate));
+        setTitle("Deprecate " + renderer(editorKit.getModelManager()).getRendering(entitiesToDeprecate));
         registerWizardPanel(DeprecationProfilePage.ID,
                             new DeprecationProfilePage(editorKit,
                                                        wizardState,
@@ -32,7 +45,7 @@ public class DeprecateEntityWizard extends Wizard {
         registerWizardPanel(DeprecationReasonPage.ID,
                             new DeprecationReasonPage(editorKit,
                                                       wizardState,
-                                                      entityToDeprecate));
+                                                      entitiesToDeprecate));
         registerWizardPanel(DeprecationCodePage.ID,
                             new DeprecationCodePage(editorKit,
                                                     wizardState));
@@ -42,17 +55,11 @@ public class DeprecateEntityWizard extends Wizard {
         registerWizardPanel(AlternateEntitiesPage.ID, new AlternateEntitiesPage(editorKit, wizardState));
 
         registerWizardPanel(DeprecationSummaryPage.ID,
-                            new DeprecationSummaryPage(editorKit, entityToDeprecate, wizardState));
+                            new DeprecationSummaryPage(editorKit, entitiesToDeprecate, wizardState));
 
         setCurrentPanel(DeprecationProfilePage.ID);
     }
 
-    private static String generateTitle(OWLEditorKit editorKit, OWLEntity entityToDeprecate) {
-        String title = "Deprecate " + editorKit.getModelManager().getRendering(entityToDeprecate);
-        title += OboUtilities.getOboIdFromIri(entityToDeprecate.getIRI()).map(oboId -> " (" + oboId + ")").orElse("");
-        return title;
-    }
-
     public DeprecateEntityWizardState getWizardState() {
         return wizardState;
     }
@@ -1,12 +1,14 @@
 package org.protege.editor.owl.ui.deprecation;
 
 import org.protege.editor.core.ui.wizard.Wizard;
+import org.protege.editor.owl.model.deprecation.BulkEntityDeprecator;
 import org.protege.editor.owl.model.deprecation.DeprecateEntityInfo;
 import org.protege.editor.owl.model.deprecation.DeprecationProfile;
 import org.protege.editor.owl.model.deprecation.DeprecationProfileLoader;
 import org.protege.editor.owl.model.deprecation.EntityDeprecator;
 import org.protege.editor.owl.model.entity.HomeOntologySupplier;
 import org.protege.editor.owl.ui.action.SelectedOWLEntityAction;
+import org.protege.editor.owl.ui.util.BulkChangeProgressRunner;
 import org.semanticweb.owlapi.model.OWLAxiom;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.parameters.Imports;
@@ -18,6 +20,9 @@ import java.util.List;
 import javax.swing.*;
 import java.awt.*;
 import java.util.HashSet;
+import java.util.Set;
+
+import static java.util.stream.Collectors.toList;
 
 /**
  * Matthew Horridge
@@ -32,16 +37,23 @@ public class DeprecateSelectedEntityAction extends SelectedOWLEntityAction {
     protected void actionPerformed(OWLEntity selectedEntity) {
         Frame frame = (Frame) SwingUtilities.getAncestorOfClass(Frame.class, getWorkspace());
         DeprecationProfileLoader profileLoader = new DeprecationProfileLoader();
+        // All of the entities that are selected in a hierarchy are deprecated together
+        Set<OWLEntity> selectedEntities = getSelectedEntities();
         try {
             List<DeprecationProfile> profiles = profileLoader.loadProfiles();
 
             DeprecateEntityWizard wizard = new DeprecateEntityWizard(frame,
                                                                      getOWLEditorKit(),
-                                                                     selectedEntity,
+                                                                     selectedEntities,
                                                                      profiles);
             int ret = wizard.showModalDialog();
             if(ret == Wizard.FINISH_RETURN_CODE) {
-                runDeprecation(selectedEntity, wizard);
+                if (selectedEntities.size() == 1) {
+                    runDeprecation(selectedEntity, wizard);
+                }
+                else {
+                    runBulkDeprecation(selectedEntities, selectedEntity, wizard);
+                }
             }
         } catch (IOException e) {
             logger.error("Unabled to load deprecation profiles: {}", e.getMessage(), e);
@@ -49,6 +61,33 @@ public class DeprecateSelectedEntityAction extends SelectedOWLEntityAction {
 
     }
 
+    /**
+     * Deprecates several entities with a {@link BulkEntityDeprecator}, which replaces their usage in one pass.  The
+     * changes are generated and applied with a progress dialog, and are undone as one.
+     */
+    private void runBulkDeprecation(Set<OWLEntity> entities,
+                                    OWLEntity selectedEntity,
+                                    DeprecateEntityWizard wizard) {
+        DeprecateEntityWizardState state = wizard.getWizardState();
+        List<DeprecateEntityInfo<OWLEntity>> infos = entities.stream()
+                .map(entity -> new DeprecateEntityInfo<>(
+                        entity,
+                        state.getReplacementEntity().orElse(null),
+                        state.getReasonForDeprecation(),
+                        new HashSet<>(state.getAlternateEntities()),
+                        state.getDeprecationCode().orElse(null)))
+                .collect(toList());
+        BulkEntityDeprecator<OWLEntity> deprecator = new BulkEntityDeprecator<>(infos,
+                                                                                state.getDeprecationProfile().get(),
+                                                                                getOWLModelManager().getActiveOntologies(),
+                                                                                new HomeOntologySupplier(),
+                                                                                getOWLDataFactory());
+        new BulkChangeProgressRunner(getOWLModelManager()).applyChanges(
+                String.format("Deprecating %,d entities", entities.size()),
+                deprecator::getChanges);
+        getOWLWorkspace().getOWLSelectionModel().setSelectedEntity(selectedEntity);
+    }
+
     private void runDeprecation(OWLEntity selectedEntity,
                                 DeprecateEntityWizard wizard) {
         DeprecateEntityWizardState state = wizard.getWizardState();
@@ -8,6 +8,8 @@ import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
 import java.awt.*;
+import java.util.Collection;
+import java.util.Collections;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -28,14 +30,25 @@ public class DeprecationReasonPage extends AbstractOWLWizardPanel {
     public DeprecationReasonPage(@Nonnull OWLEditorKit editorKit,
                                  @Nonnull DeprecateEntityWizardState wizardState,
                                  @Nonnull OWLEntity entityToDeprecate) {
+        this(editorKit, wizardState, Collections.singleton(entityToDeprecate));
+    }
+
+    public DeprecationReasonPage(@Nonnull OWLEditorKit editorKit,
+                                 @Nonnull DeprecateEntityWizardState wizardState,
+                                 @Nonnull Collection<? extends OWLEntity> entitiesToDeprecate) {
         super(ID, "Reason for deprecation", editorKit);
         this.wizardState = checkNotNull(wizardState);
         JPanel contentPanel = new JPanel(new BorderLayout(7, 7));
         setContent(contentPanel);
-        setInstructions(new DeprecationWizardEntityRenderer(getOWLModelManager()).getHtmlRendering(entityToDeprecate) + "\n\n" +
-                                "Please specify a reason that explains why this entity is to be deprecated.\n\n" +
-                                "The deprecated entity will be annotated with this reason so that consumers of this " +
-                                "ontology understand why the entity was deprecated.");
+        String instructions = entitiesToDeprecate.size() == 1
+                ? "Please specify a reason that explains why this entity is to be deprecated.\n\n" +
+                        "The deprecated entity will be annotated with this reason so that consumers of this " +
+                        "ontology understand why the entity was deprecated."
+                : "Please specify a reason that explains why these entities are to be deprecated.\n\n" +
+                        "The deprecated entities will be annotated with this reason so that consumers of this " +
+                        "ontology understand why the entities were deprecated.";
+        setInstructions(new DeprecationWizardEntityRenderer(getOWLModelManager()).getHtmlRendering(entitiesToDeprecate) + "\n\n" +
+                                instructions);
         contentPanel.add(reasonTextArea, BorderLayout.CENTER);
     }
 
@@ -10,6 +10,8 @@ import org.semanticweb.owlapi.model.parameters.Imports;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.swing.*;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Set;
 
 import static org.protege.editor.owl.ui.deprecation.DeprecationWizardEntityRenderer.renderer;
@@ -24,7 +26,7 @@ public class DeprecationSummaryPage extends AbstractOWLWizardPanel {
     public static final String ID = "DeprecationSummaryPage";
 
     @Nonnull
-    private final OWLEntity entityToDeprecate;
+    private final Collection<? extends OWLEntity> entitiesToDeprecate;
 
     @Nonnull
     private final DeprecateEntityWizardState state;
@@ -32,15 +34,22 @@ public class DeprecationSummaryPage extends AbstractOWLWizardPanel {
     public DeprecationSummaryPage(@Nonnull OWLEditorKit owlEditorKit,
                                   @Nonnull OWLEntity entityToDeprecate,
                                   @Nonnull DeprecateEntityWizardState state) {
+        this(owlEditorKit, Collections.singleton(entityToDeprecate), state);
+    }
+
+    public DeprecationSummaryPage(@Nonnull OWLEditorKit owlEditorKit,
+                                  @Nonnull Collection<? extends OWLEntity> entitiesToDeprecate,
+                                  @Nonnull DeprecateEntityWizardState state) {
         super(ID, "Summary", owlEditorKit);
-        this.entityToDeprecate = entityToDeprecate;
+        this.entitiesToDeprecate = entitiesToDeprecate;
         this.state = state;
         StringBuilder instructions = new StringBuilder();
         instructions.append("Protégé will deprecate ");
-        instructions.append(renderer(getOWLModelManager()).getHtmlRendering(entityToDeprecate));
+        instructions.append(renderer(getOWLModelManager()).getHtmlRendering(entitiesToDeprecate));
         instructions.append(".");
         state.getReplacementEntity().ifPresent(repl -> {
-            instructions.append("  This entity will be replaced with ");
+            instructions.append(entitiesToDeprecate.size() == 1 ? "  This entity" : "  These entities");
+            instructions.append(" will be replaced with ");
             instructions.append(renderer(getOWLModelManager()).getHtmlRendering(repl));
             instructions.append(".");
         });
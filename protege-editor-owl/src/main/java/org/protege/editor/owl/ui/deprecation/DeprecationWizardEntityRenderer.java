@@ -5,6 +5,7 @@ import org.protege.editor.owl.model.util.OboUtilities;
 import org.semanticweb.owlapi.model.OWLEntity;
 
 import javax.annotation.Nonnull;
+import java.util.Collection;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -38,6 +39,26 @@ public class DeprecationWizardEntityRenderer {
                 + getOboIdBracketedRendering(entity);
     }
 
+    /**
+     * Renders the entity, if there is only one, or else the number of entities.
+     */
+    public String getRendering(@Nonnull Collection<? extends OWLEntity> entities) {
+        if (entities.size() == 1) {
+            return getRendering(entities.iterator().next());
+        }
+        return String.format("%,d entities", entities.size());
+    }
+
+    /**
+     * Renders the entity, if there is only one, or else the number of entities, as HTML.
+     */
+    public String getHtmlRendering(@Nonnull Collection<? extends OWLEntity> entities) {
+        if (entities.size() == 1) {
+            return getHtmlRendering(entities.iterator().next());
+        }
+        return "<span style=\"font-weight: bold;\">" + String.format("%,d entities", entities.size()) + "</span>";
+    }
+
     private String getOboIdBracketedRendering(@Nonnull OWLEntity entity) {
         return OboUtilities.getOboIdFromIri(entity.getIRI()).map(id -> " (" + id + ")").orElse("");
     }
@@ -7,6 +7,7 @@ import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.axiom.FreshActionStrategySelector;
 import org.protege.editor.owl.model.axiom.FreshAxiomLocationPreferences;
 import org.protege.editor.owl.model.axiom.FreshAxiomLocationStrategy;
+import org.protege.editor.owl.model.inference.ReasonerQueryCache;
 import org.protege.editor.owl.model.inference.VacuousAxiomVisitor;
 import org.protege.editor.owl.ui.editor.OWLObjectEditor;
 import org.protege.editor.owl.ui.editor.OWLObjectEditorHandler;
@@ -17,7 +18,13 @@ import org.semanticweb.owlapi.util.OWLAxiomVisitorAdapter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.swing.*;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 
 /**
@@ -51,6 +58,12 @@ public abstract class AbstractOWLFrameSection<R extends Object, A extends OWLAxi
 
     private OWLOntologyChangeListener listener = this::processOntologyChanges;
 
+    /**
+     * Incremented each time the section is refilled (and when it is disposed), so that inferred rows that arrive
+     * after the section has moved on can be discarded.
+     */
+    private int refillCount = 0;
+
 
     protected AbstractOWLFrameSection(OWLEditorKit editorKit, String label, String rowLabel, OWLFrame<? extends R> frame) {
         this.owlEditorKit = editorKit;
@@ -119,6 +132,7 @@ public abstract class AbstractOWLFrameSection<R extends Object, A extends OWLAxi
 
 
     final public void dispose() {
+        refillCount++;
         getOWLModelManager().removeOntologyChangeListener(listener);
         disposeOfSection();
         if (editor != null) {
@@ -256,6 +270,7 @@ public abstract class AbstractOWLFrameSection<R extends Object, A extends OWLAxi
 
 
     public void setRootObject(R rootObject) {
+        refillCount++;
         rows.clear();
         clear();
         if (rootObject != null) {
@@ -265,20 +280,31 @@ public abstract class AbstractOWLFrameSection<R extends Object, A extends OWLAxi
             try {
             	refillInferred();
             }
-            catch (InconsistentOntologyException ioe) {
-                logger.error("An InconsistentOntologyException was thrown when refilling the inferred information" +
-                        " in a frame section.  The frame section implementation should take care of this.", ioe);
-            }
             catch (Exception e) {
-            	logger.warn("An error occurred whilst filling the {} frame with inferred information: {}", getClass().getName(), e);
+                logInferredRefillError(e);
             }
         }
+        sortRows();
+        fireContentChanged();
+    }
 
+
+    private void logInferredRefillError(Throwable t) {
+        if (t instanceof InconsistentOntologyException) {
+            logger.error("An InconsistentOntologyException was thrown when refilling the inferred information" +
+                    " in a frame section.  The frame section implementation should take care of this.", t);
+        }
+        else {
+            logger.warn("An error occurred whilst filling the {} frame with inferred information: {}", getClass().getName(), t);
+        }
+    }
+
+
+    private void sortRows() {
         Comparator<OWLFrameSectionRow<R, A, E>> comparator = getRowComparator();
         if (comparator != null) {
             Collections.sort(rows, comparator);
         }
-        fireContentChanged();
     }
 
 
@@ -303,6 +329,74 @@ public abstract class AbstractOWLFrameSection<R extends Object, A extends OWLAxi
     }
 
 
+    /**
+     * Fills inferred rows using the answer to a reasoner query, without blocking the event dispatch thread whilst
+     * the reasoner computes the answer.  Answers are memoised by the {@link ReasonerQueryCache}, so if the answer is
+     * already known the rows are added immediately.  Otherwise the asserted rows are shown first and the inferred
+     * rows are merged in, on the event dispatch thread, when the answer is ready - provided that the section has not
+     * been refilled in the meantime.
+     * @param queryName The name of the query.  Together with the subject this identifies the query in the cache.
+     * @param subject The object that the query is about (usually the root object).
+     * @param query The query.  This is run on a background thread and must not touch the section.
+     * @param rowFiller Adds rows for the answer.  This is always called on the event dispatch thread.
+     */
+    protected <V> void refillInferredFromQuery(String queryName,
+                                               OWLObject subject,
+                                               Function<OWLReasoner, V> query,
+                                               Consumer<V> rowFiller) {
+        ReasonerQueryCache queryCache = getOWLModelManager().get(ReasonerQueryCache.ID);
+        if (queryCache == null) {
+            V value;
+            Lock reasonerLock = getOWLModelManager().getOWLReasonerManager().getReasonerLock();
+            if (!SwingUtilities.isEventDispatchThread()) {
+                reasonerLock.lock();
+            }
+            else if (!reasonerLock.tryLock()) {
+                // Another thread (e.g. an automatic classification) is using the reasoner.  Rather than waiting,
+                // the current reasoner answers from the inferences of the last classification.
+                rowFiller.accept(query.apply(getReasoner()));
+                return;
+            }
+            try {
+                value = query.apply(getReasoner());
+            } finally {
+                reasonerLock.unlock();
+            }
+            rowFiller.accept(value);
+            return;
+        }
+        CompletableFuture<V> answer = queryCache.getAnswer(queryName, subject, query);
+        if (answer.isDone()) {
+            try {
+                rowFiller.accept(answer.join());
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw e;
+            }
+            return;
+        }
+        int expectedRefillCount = refillCount;
+        answer.whenComplete((value, error) -> SwingUtilities.invokeLater(() -> {
+            if (refillCount != expectedRefillCount) {
+                return;
+            }
+            if (error != null) {
+                Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                // As in ReasonerPreferences.executeTask, queries that the reasoner does not support are ignored
+                if (!(cause instanceof UnsupportedOperationException)) {
+                    logInferredRefillError(cause);
+                }
+                return;
+            }
+            rowFiller.accept(value);
+            sortRows();
+            fireContentChanged();
+        }));
+    }
+
+
     protected void addRow(OWLFrameSectionRow<R, A, E> row) {
         rows.add(row);
     }
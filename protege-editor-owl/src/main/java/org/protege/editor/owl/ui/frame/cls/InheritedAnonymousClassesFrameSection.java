@@ -7,8 +7,8 @@ import org.protege.editor.owl.ui.frame.AbstractOWLFrameSection;
 import org.protege.editor.owl.ui.frame.OWLFrame;
 import org.protege.editor.owl.ui.frame.OWLFrameSectionRow;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashSet;
 import java.util.Set;
@@ -67,14 +67,19 @@ public class InheritedAnonymousClassesFrameSection extends AbstractOWLFrameSecti
     }
     
     private void refillInferredDoIt() {
-        OWLReasoner reasoner = getOWLModelManager().getReasoner();
-        if (!reasoner.isConsistent()) {
-            return;
-        }
-        if(!reasoner.isSatisfiable(getRootObject())) {
-            return;
-        }
-        Set<OWLClass> clses = getReasoner().getSuperClasses(getRootObject(), true).getFlattened();
+        OWLClass rootObject = getRootObject();
+        refillInferredFromQuery("DirectSuperClassesOfSatisfiableClass", rootObject,
+                                reasoner -> {
+                                    if (!reasoner.isConsistent() || !reasoner.isSatisfiable(rootObject)) {
+                                        return Collections.<OWLClass>emptySet();
+                                    }
+                                    return Collections.unmodifiableSet(reasoner.getSuperClasses(rootObject, true).getFlattened());
+                                },
+                                this::addInheritedAnonymousClassRows);
+    }
+
+    private void addInheritedAnonymousClassRows(Set<OWLClass> superClasses) {
+        Set<OWLClass> clses = new HashSet<>(superClasses);
         clses.remove(getRootObject());
         for (OWLClass cls : clses) {
             if (!processedClasses.contains(cls)) {
@@ -7,7 +7,6 @@ import org.protege.editor.owl.ui.editor.OWLObjectEditor;
 import org.protege.editor.owl.ui.frame.OWLFrame;
 import org.protege.editor.owl.ui.frame.OWLFrameSectionRow;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.NodeSet;
 
 import javax.swing.*;
 import java.util.*;
@@ -64,26 +63,32 @@ public class OWLClassAssertionAxiomMembersSection extends AbstractOWLClassAxiomF
 
     protected void refillInferred() {
         getOWLModelManager().getReasonerPreferences().executeTask(OptionalInferenceTask.SHOW_INFERED_CLASS_MEMBERS, () -> {
-            if (!getOWLModelManager().getReasoner().isConsistent()) {
-                return;
-            }
-            final OWLDataFactory df = getOWLModelManager().getOWLDataFactory();
-            NodeSet<OWLNamedIndividual> instances = getOWLModelManager().getReasoner().getInstances(getRootObject(), SHOW_DIRECT_INSTANCES);
-            if (instances != null) {
-                for (OWLIndividual ind : instances.getFlattened()) {
-                    if (!ind.isAnonymous() && !added.contains(ind.asOWLNamedIndividual())) {
-                        addRow(new OWLClassAssertionAxiomMembersSectionRow(getOWLEditorKit(),
-                                                                           OWLClassAssertionAxiomMembersSection.this,
-                                                                           null,
-                                                                           getRootObject(),
-                                                                           df.getOWLClassAssertionAxiom(getRootObject(), ind)));
-                        added.add(ind.asOWLNamedIndividual());
-                    }
-                }
-            }
+            OWLClassExpression rootObject = getRootObject();
+            refillInferredFromQuery(SHOW_DIRECT_INSTANCES ? "DirectInstances" : "Instances", rootObject,
+                                    reasoner -> {
+                                        if (!reasoner.isConsistent()) {
+                                            return Collections.<OWLNamedIndividual>emptySet();
+                                        }
+                                        return Collections.unmodifiableSet(reasoner.getInstances(rootObject, SHOW_DIRECT_INSTANCES).getFlattened());
+                                    },
+                                    this::addInferredMemberRows);
         });
     }
 
+    private void addInferredMemberRows(Set<OWLNamedIndividual> instances) {
+        final OWLDataFactory df = getOWLModelManager().getOWLDataFactory();
+        for (OWLNamedIndividual ind : instances) {
+            if (!added.contains(ind)) {
+                addRow(new OWLClassAssertionAxiomMembersSectionRow(getOWLEditorKit(),
+                                                                   OWLClassAssertionAxiomMembersSection.this,
+                                                                   null,
+                                                                   getRootObject(),
+                                                                   df.getOWLClassAssertionAxiom(getRootObject(), ind)));
+                added.add(ind);
+            }
+        }
+    }
+
 
     protected OWLClassAssertionAxiom createAxiom(OWLNamedIndividual individual) {
 		return getOWLDataFactory().getOWLClassAssertionAxiom(getRootObject(), individual);
@@ -7,8 +7,6 @@ import org.protege.editor.owl.ui.editor.OWLObjectEditor;
 import org.protege.editor.owl.ui.frame.OWLFrame;
 import org.protege.editor.owl.ui.frame.OWLFrameSectionRow;
 import org.semanticweb.owlapi.model.*;
-import org.semanticweb.owlapi.reasoner.NodeSet;
-import org.semanticweb.owlapi.reasoner.OWLReasoner;
 
 import java.util.*;
 
@@ -71,27 +69,35 @@ public class OWLDisjointClassesAxiomFrameSection extends AbstractOWLClassAxiomFr
     @Override
     protected void refillInferred() {
     	getOWLModelManager().getReasonerPreferences().executeTask(OptionalInferenceTask.SHOW_INFERRED_DISJOINT_CLASSES, () -> {
-            OWLReasoner reasoner = getOWLModelManager().getReasoner();
-            if (!reasoner.isConsistent()) {
-                return;
-            }
-            NodeSet<OWLClass> disjointFromRoot = reasoner.getSubClasses(getOWLDataFactory().getOWLObjectComplementOf(getRootObject()), true);
-            for (OWLClass c : disjointFromRoot.getFlattened()) {
-                if (!added.contains(c) && !c.equals(getRootObject())) {
-                    addInferredRowIfNontrivial(new OWLDisjointClassesAxiomFrameSectionRow(
-                            getOWLEditorKit(),
-                            OWLDisjointClassesAxiomFrameSection.this,
-                            null,
-                            getRootObject(),
-                            getOWLModelManager().getOWLDataFactory().getOWLDisjointClassesAxiom(getRootObject(), c)
-                        )
-                    );
-                    added.add(c);
-                }
-            }
+            OWLClassExpression rootObject = getRootObject();
+            OWLObjectComplementOf complement = getOWLDataFactory().getOWLObjectComplementOf(rootObject);
+            refillInferredFromQuery("DirectDisjointClasses", rootObject,
+                                    reasoner -> {
+                                        if (!reasoner.isConsistent()) {
+                                            return Collections.<OWLClass>emptySet();
+                                        }
+                                        return Collections.unmodifiableSet(reasoner.getSubClasses(complement, true).getFlattened());
+                                    },
+                                    this::addInferredDisjointClassRows);
         });
     }
 
+    private void addInferredDisjointClassRows(Set<OWLClass> disjointFromRoot) {
+        for (OWLClass c : disjointFromRoot) {
+            if (!added.contains(c) && !c.equals(getRootObject())) {
+                addInferredRowIfNontrivial(new OWLDisjointClassesAxiomFrameSectionRow(
+                        getOWLEditorKit(),
+                        OWLDisjointClassesAxiomFrameSection.this,
+                        null,
+                        getRootObject(),
+                        getOWLModelManager().getOWLDataFactory().getOWLDisjointClassesAxiom(getRootObject(), c)
+                    )
+                );
+                added.add(c);
+            }
+        }
+    }
+
     public boolean checkEditorResults(OWLObjectEditor<Set<OWLClassExpression>> editor) {
     	Set<OWLClassExpression> disjoints = editor.getEditedObject();
     	return disjoints.size() != 1 || !disjoints.contains(getRootObject());
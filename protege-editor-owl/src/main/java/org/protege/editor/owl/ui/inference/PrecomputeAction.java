@@ -79,7 +79,9 @@ public class PrecomputeAction extends ProtegeOWLAction {
      */
     public void initialise() throws Exception {
         owlModelManagerListener = event -> {
-            if (event.isType(EventType.ONTOLOGY_CLASSIFIED)) {
+            // Automatic classifications happen in the background, so they shouldn't rearrange the views
+            if (event.isType(EventType.ONTOLOGY_CLASSIFIED)
+                    && !getOWLModelManager().getOWLReasonerManager().getReasonerPreferences().isAutoClassify()) {
                 showClassificationResults();
             }
         };
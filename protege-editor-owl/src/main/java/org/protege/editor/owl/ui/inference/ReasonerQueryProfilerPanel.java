@@ -0,0 +1,73 @@
+package org.protege.editor.owl.ui.inference;
+
+import org.protege.editor.owl.model.inference.ReasonerQueryProfiler;
+import org.protege.editor.owl.ui.preferences.OWLPreferencesPanel;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Shows the slowest reasoner queries, and the callers that make the most queries, as recorded by the
+ * {@link ReasonerQueryProfiler}.  Tracing is off by default, and is not remembered between sessions.
+ */
+public class ReasonerQueryProfilerPanel extends OWLPreferencesPanel {
+
+    private static final long serialVersionUID = -2512330437271529390L;
+
+    private ReasonerQueryProfiler profiler;
+
+    private JCheckBox tracingEnabledBox;
+
+    private final ReasonerQueryStatisticsTableModel queryTableModel = new ReasonerQueryStatisticsTableModel("Query");
+
+    private final ReasonerQueryStatisticsTableModel callerTableModel = new ReasonerQueryStatisticsTableModel("Caller");
+
+    public void initialise() throws Exception {
+        profiler = getOWLModelManager().getOWLReasonerManager().getQueryProfiler();
+        setLayout(new BorderLayout(0, 7));
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.LEFT));
+        tracingEnabledBox = new JCheckBox("Trace reasoner queries (takes effect when changes are applied)");
+        tracingEnabledBox.setSelected(profiler.isEnabled());
+        controls.add(tracingEnabledBox);
+        JButton refresh = new JButton("Refresh");
+        refresh.addActionListener(e -> refresh());
+        controls.add(refresh);
+        JButton reset = new JButton("Reset");
+        reset.addActionListener(e -> {
+            profiler.reset();
+            refresh();
+        });
+        controls.add(reset);
+        add(controls, BorderLayout.NORTH);
+
+        JSplitPane tables = new JSplitPane(JSplitPane.VERTICAL_SPLIT,
+                                           createTablePane("Slowest queries", queryTableModel),
+                                           createTablePane("Callers with the most queries", callerTableModel));
+        tables.setResizeWeight(0.5);
+        add(tables, BorderLayout.CENTER);
+        refresh();
+    }
+
+    private static JComponent createTablePane(String title, ReasonerQueryStatisticsTableModel tableModel) {
+        JTable table = new JTable(tableModel);
+        table.setAutoCreateRowSorter(true);
+        table.getColumnModel().getColumn(0).setPreferredWidth(260);
+        JScrollPane scrollPane = new JScrollPane(table);
+        scrollPane.setBorder(BorderFactory.createTitledBorder(title));
+        return scrollPane;
+    }
+
+    private void refresh() {
+        queryTableModel.setStatistics(profiler.getQueryStatistics());
+        callerTableModel.setStatistics(profiler.getCallerStatistics());
+    }
+
+    @Override
+    public void applyChanges() {
+        profiler.setEnabled(tracingEnabledBox.isSelected());
+    }
+
+    public void dispose() throws Exception {
+    }
+}
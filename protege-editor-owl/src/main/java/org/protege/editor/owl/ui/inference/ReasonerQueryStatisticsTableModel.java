@@ -0,0 +1,95 @@
+package org.protege.editor.owl.ui.inference;
+
+import org.protege.editor.owl.model.inference.ReasonerQueryProfiler.Statistics;
+
+import javax.swing.table.AbstractTableModel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Shows the latencies recorded by the reasoner query profiler for each query or each caller, one per row.
+ */
+public class ReasonerQueryStatisticsTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1877163216530945437L;
+
+    private final String nameColumnName;
+
+    private List<Statistics> statistics = new ArrayList<>();
+
+    public ReasonerQueryStatisticsTableModel(String nameColumnName) {
+        this.nameColumnName = nameColumnName;
+    }
+
+    public enum Column {
+        NAME(""), COUNT("Calls"), TOTAL("Total (ms)"), MEAN("Mean (ms)"), MEDIAN("50% (ms)"), P99("99% (ms)"), MAX("Max (ms)");
+
+        private String columnName;
+
+        private Column(String columnName) {
+            this.columnName = columnName;
+        }
+
+        public String getColumnName() {
+            return columnName;
+        }
+    }
+
+    public void setStatistics(List<Statistics> statistics) {
+        this.statistics = new ArrayList<>(statistics);
+        fireTableDataChanged();
+    }
+
+    public int getRowCount() {
+        return statistics.size();
+    }
+
+    public int getColumnCount() {
+        return Column.values().length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        Column col = Column.values()[column];
+        return col == Column.NAME ? nameColumnName : col.getColumnName();
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column) {
+        switch (Column.values()[column]) {
+            case NAME:
+                return String.class;
+            case COUNT:
+                return Long.class;
+            default:
+                return Double.class;
+        }
+    }
+
+    public Object getValueAt(int rowIndex, int columnIndex) {
+        Statistics row = statistics.get(rowIndex);
+        switch (Column.values()[columnIndex]) {
+            case NAME:
+                return row.getName();
+            case COUNT:
+                return row.getCount();
+            case TOTAL:
+                return toMillis(row.getTotalNanos());
+            case MEAN:
+                return toMillis(row.getMeanNanos());
+            case MEDIAN:
+                return toMillis(row.getPercentileNanos(50));
+            case P99:
+                return toMillis(row.getPercentileNanos(99));
+            case MAX:
+                return toMillis(row.getMaxNanos());
+            default:
+                throw new IllegalStateException("Programmer error");
+        }
+    }
+
+    private static double toMillis(long nanos) {
+        // Rounded to a microsecond
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
+}
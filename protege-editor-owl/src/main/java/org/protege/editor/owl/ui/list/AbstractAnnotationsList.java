@@ -47,6 +47,8 @@ public abstract class AbstractAnnotationsList<O extends AnnotationContainer> ext
 
     private O root;
 
+    private final OWLAnnotationCellRenderer2 renderer;
+
     private MListSectionHeader header = new MListSectionHeader() {
 
         public String getName() {
@@ -71,7 +73,8 @@ public abstract class AbstractAnnotationsList<O extends AnnotationContainer> ext
 
     public AbstractAnnotationsList(OWLEditorKit eKit) {
         this.editorKit = eKit;
-        setCellRenderer(new OWLAnnotationCellRenderer2(eKit));
+        renderer = new OWLAnnotationCellRenderer2(eKit);
+        setCellRenderer(renderer);
         addMouseListener(mouseListener);
         eKit.getOWLModelManager().addOntologyChangeListener(ontChangeListener);
     }
@@ -138,6 +141,7 @@ public abstract class AbstractAnnotationsList<O extends AnnotationContainer> ext
         }
 
         setListData(data.toArray());
+        renderer.precomputeLayouts(this);
         revalidate();
     }
 
@@ -1,6 +1,7 @@
 package org.protege.editor.owl.ui.list;
 
 import org.protege.editor.owl.OWLEditorKit;
+import org.protege.editor.owl.model.selection.SelectionPrefetcher;
 import org.protege.editor.owl.ui.renderer.OWLCellRendererSimple;
 import org.protege.editor.owl.ui.transfer.OWLObjectListDragGestureListener;
 import org.semanticweb.owlapi.model.OWLEntity;
@@ -11,6 +12,7 @@ import java.awt.*;
 import java.awt.dnd.DnDConstants;
 import java.awt.dnd.DragSource;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
@@ -27,8 +29,13 @@ import java.util.Set;
  */
 public class OWLObjectList<O extends OWLObject> extends JList<O> {
 
+    private final OWLEditorKit owlEditorKit;
+
+    private int hoveredIndex = -1;
+
 
     public OWLObjectList(OWLEditorKit owlEditorKit) {
+        this.owlEditorKit = owlEditorKit;
         OWLCellRendererSimple renderer = new OWLCellRendererSimple(owlEditorKit);
         renderer.setDisplayQuotes(false);
         setCellRenderer(renderer);
@@ -36,6 +43,38 @@ public class OWLObjectList<O extends OWLObject> extends JList<O> {
         ds.createDefaultDragGestureRecognizer(this,
                                               DnDConstants.ACTION_COPY,
                                               new OWLObjectListDragGestureListener(owlEditorKit, this));
+        addListSelectionListener(e -> {
+            if (!e.getValueIsAdjusting()) {
+                prefetchAround(getLeadSelectionIndex());
+            }
+        });
+        addMouseMotionListener(new MouseMotionAdapter() {
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int index = locationToIndex(e.getPoint());
+                if (index != hoveredIndex) {
+                    hoveredIndex = index;
+                    prefetchAround(index);
+                }
+            }
+        });
+    }
+
+
+    /**
+     * Prefetches the usage of the entities around the specified index, so that it is ready if one of them is
+     * selected next.
+     */
+    private void prefetchAround(int index) {
+        if (index < 0) {
+            return;
+        }
+        SelectionPrefetcher prefetcher = owlEditorKit.getOWLModelManager().get(SelectionPrefetcher.ID);
+        if (prefetcher == null) {
+            return;
+        }
+        ListModel<O> model = getModel();
+        prefetcher.prefetch(SelectionPrefetcher.getNeighbouringEntities(index, model.getSize(), model::getElementAt));
     }
 
 
@@ -3,6 +3,7 @@ package org.protege.editor.owl.ui.merge;
 import com.google.common.collect.ImmutableSet;
 import org.protege.editor.owl.model.merge.MergeEntitiesChangeListGenerator;
 import org.protege.editor.owl.ui.action.SelectedOWLEntityAction;
+import org.protege.editor.owl.ui.util.BulkChangeProgressRunner;
 import org.semanticweb.owlapi.model.OWLDataFactory;
 import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
@@ -11,6 +12,7 @@ import org.semanticweb.owlapi.model.OWLOntologyChange;
 import javax.swing.*;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Matthew Horridge
@@ -21,20 +23,36 @@ public class MergeEntitiesAction extends SelectedOWLEntityAction {
 
     @Override
     protected void actionPerformed(OWLEntity selectedEntity) {
+        // All of the entities that are selected in a hierarchy are merged into the target
+        Set<OWLEntity> selectedEntities = getSelectedEntities();
         Optional<OWLEntity> targetEntity = MergeEntitiesPanel.showDialog(getOWLEditorKit());
-        targetEntity.ifPresent(entity -> mergeEntities(selectedEntity, entity));
+        targetEntity.ifPresent(entity -> mergeEntities(selectedEntities, entity));
     }
 
-    private void mergeEntities(OWLEntity sourceEntity, OWLEntity targetEntity) {
+    private void mergeEntities(Set<OWLEntity> sourceEntities, OWLEntity targetEntity) {
+        ImmutableSet<OWLEntity> mergedEntities = ImmutableSet.copyOf(
+                sourceEntities.stream()
+                              .filter(sourceEntity -> !sourceEntity.equals(targetEntity))
+                              .iterator());
+        if (mergedEntities.isEmpty()) {
+            return;
+        }
         OWLOntology rootOntology = getOWLModelManager().getActiveOntology();
         OWLDataFactory dataFactory = getOWLModelManager().getOWLDataFactory();
         MergeEntitiesChangeListGenerator gen = new MergeEntitiesChangeListGenerator(rootOntology,
                                                                                     dataFactory,
-                                                                                    ImmutableSet.of(sourceEntity),
+                                                                                    mergedEntities,
                                                                                     targetEntity,
                                                                                     MergeStrategy.DELETE_SOURCE_ENTITY);
-        List<OWLOntologyChange> changes = gen.generateChanges();
-        getOWLModelManager().applyChanges(changes);
+        if (mergedEntities.size() == 1) {
+            List<OWLOntologyChange> changes = gen.generateChanges();
+            getOWLModelManager().applyChanges(changes);
+        }
+        else {
+            new BulkChangeProgressRunner(getOWLModelManager()).applyChanges(
+                    String.format("Merging %,d entities", mergedEntities.size()),
+                    gen::generateChanges);
+        }
         getOWLWorkspace().getOWLSelectionModel().setSelectedEntity(targetEntity);
 
     }
@@ -0,0 +1,95 @@
+package org.protege.editor.owl.ui.merge;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import org.protege.editor.core.ui.error.ErrorLogPanel;
+import org.protege.editor.core.ui.util.UIUtil;
+import org.protege.editor.owl.model.hierarchy.tabbed.TermListParser;
+import org.protege.editor.owl.model.merge.EntityMergeMappingParser;
+import org.protege.editor.owl.model.merge.MergeEntitiesChangeListGenerator;
+import org.protege.editor.owl.ui.action.ProtegeOWLAction;
+import org.protege.editor.owl.ui.util.BulkChangeProgressRunner;
+import org.protege.editor.owl.ui.util.ProgressRunner;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.event.ActionEvent;
+import java.io.File;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+/**
+ * Merges many entities into their targets, as given by a mapping file with a source IRI and a target IRI on each line
+ * (see {@link EntityMergeMappingParser}).  All of the merges are generated with one
+ * {@link MergeEntitiesChangeListGenerator}, and applied with a progress dialog that allows applying to be cancelled.
+ * The merges are undone as one change.
+ */
+public class MergeEntitiesFromMappingAction extends ProtegeOWLAction {
+
+    private static final Logger logger = LoggerFactory.getLogger(MergeEntitiesFromMappingAction.class);
+
+    private static final ImmutableSet<String> MAPPING_EXTENSIONS = ImmutableSet.of("tsv", "csv", "txt");
+
+    @Override
+    public void initialise() throws Exception {
+
+    }
+
+    @Override
+    public void actionPerformed(ActionEvent e) {
+        File file = UIUtil.openFile(getOWLWorkspace(), "Merge entities from mapping", "Mapping", MAPPING_EXTENSIONS);
+        if (file == null) {
+            return;
+        }
+        try {
+            EntityMergeMappingParser parser = new EntityMergeMappingParser(getOWLModelManager().getActiveOntologies(),
+                                                                           getOWLDataFactory());
+            ImmutableMap<OWLEntity, OWLEntity> targetEntities = readMapping(parser, file);
+            if (parser.getSkippedLineCount() > 0) {
+                logger.info("Skipped {} lines of {} that do not map an entity to another entity",
+                            parser.getSkippedLineCount(),
+                            file);
+            }
+            if (targetEntities.isEmpty()) {
+                JOptionPane.showMessageDialog(getOWLWorkspace(),
+                                              "The mapping file does not map any entities in the active ontologies.",
+                                              "No entities to merge",
+                                              JOptionPane.WARNING_MESSAGE);
+                return;
+            }
+            if (targetEntities.values().stream().anyMatch(targetEntities::containsKey)) {
+                JOptionPane.showMessageDialog(getOWLWorkspace(),
+                                              "The mapping file merges entities into entities that are themselves merged.",
+                                              "Cannot merge entities",
+                                              JOptionPane.ERROR_MESSAGE);
+                return;
+            }
+            MergeEntitiesChangeListGenerator gen = new MergeEntitiesChangeListGenerator(
+                    getOWLModelManager().getActiveOntology(),
+                    getOWLDataFactory(),
+                    targetEntities,
+                    MergeStrategy.DELETE_SOURCE_ENTITY);
+            new BulkChangeProgressRunner(getOWLModelManager()).applyChanges(
+                    String.format("Merging %,d entities", targetEntities.size()),
+                    gen::generateChanges);
+        } catch (RuntimeException ex) {
+            ErrorLogPanel.showErrorDialog(ex);
+        }
+    }
+
+    private ImmutableMap<OWLEntity, OWLEntity> readMapping(EntityMergeMappingParser parser, File file) {
+        return new ProgressRunner("Reading mapping from " + file.getName(), false).run("Read Mapping", progress -> {
+            try (Reader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+                return parser.parse(reader, TermListParser.getDelimiter(file.getName()));
+            }
+        });
+    }
+
+    @Override
+    public void dispose() throws Exception {
+
+    }
+}
@@ -6,6 +6,7 @@ import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.protege.editor.owl.model.event.OntologyChangeDelivery;
 import org.protege.editor.owl.ui.OWLAxiomTypeFramePanel;
 import org.semanticweb.owlapi.metrics.*;
 import org.semanticweb.owlapi.model.AxiomType;
@@ -59,7 +60,7 @@ public class MetricsPanel extends JPanel implements Disposable {
         initialiseOWLView();
         createPopupMenu();
         OWLModelManager modelManager = editorKit.getOWLModelManager();
-        modelManager.addOntologyChangeListener(ontologyChangeListener);
+        modelManager.addOntologyChangeListener(ontologyChangeListener, OntologyChangeDelivery.COALESCED);
         modelManager.addListener(owlModelManagerListener);
     }
 
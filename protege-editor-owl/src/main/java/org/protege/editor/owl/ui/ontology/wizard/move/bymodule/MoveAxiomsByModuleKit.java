@@ -0,0 +1,115 @@
+package org.protege.editor.owl.ui.ontology.wizard.move.bymodule;
+
+import org.protege.editor.owl.model.module.LocalityModuleExtractor;
+import org.protege.editor.owl.ui.ontology.wizard.move.MoveAxiomsKit;
+import org.protege.editor.owl.ui.ontology.wizard.move.MoveAxiomsKitConfigurationPanel;
+import org.protege.editor.owl.ui.ontology.wizard.move.byreference.SelectSignaturePanel;
+import org.protege.editor.owl.ui.ontology.wizard.move.common.SignatureDependentSelectionPreviewPanel;
+import org.protege.editor.owl.ui.ontology.wizard.move.common.SignatureSelection;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Selects the axioms in a syntactic locality based module (bottom, top or STAR) of the source ontologies for a
+ * signature.  The axiom index of the source ontologies is built once, and is reused as the signature and module
+ * type are changed.
+ * @see LocalityModuleExtractor
+ */
+public class MoveAxiomsByModuleKit extends MoveAxiomsKit implements SignatureSelection {
+
+    private Set<OWLEntity> selectedEntities;
+
+    private volatile ModuleType moduleType = ModuleType.STAR;
+
+    private SelectSignaturePanel selectSignaturePanel;
+
+    private SelectModuleTypePanel selectModuleTypePanel;
+
+    private SignatureDependentSelectionPreviewPanel selectPreviewPanel;
+
+    private Set<OWLOntology> extractorOntologies;
+
+    private LocalityModuleExtractor extractor;
+
+
+    public List<MoveAxiomsKitConfigurationPanel> getConfigurationPanels() {
+        List<MoveAxiomsKitConfigurationPanel> panels = new ArrayList<>();
+        panels.add(selectSignaturePanel);
+        panels.add(selectModuleTypePanel);
+        panels.add(selectPreviewPanel);
+        return panels;
+    }
+
+
+    public Set<OWLAxiom> getAxioms(Set<OWLOntology> sourceOntologies) {
+        return getAxioms(sourceOntologies, selectedEntities);
+    }
+
+
+    public Set<OWLAxiom> getAxioms(Set<OWLOntology> ontologies, Set<OWLEntity> entities) {
+        return getExtractor(ontologies).extract(entities, moduleType);
+    }
+
+
+    private synchronized LocalityModuleExtractor getExtractor(Set<OWLOntology> ontologies) {
+        if (extractor == null || !ontologies.equals(extractorOntologies)) {
+            extractorOntologies = new HashSet<>(ontologies);
+            extractor = new LocalityModuleExtractor(ontologies);
+        }
+        return extractor;
+    }
+
+
+    public void initialise() throws Exception {
+        selectedEntities = new HashSet<>();
+        selectSignaturePanel = new SelectSignaturePanel(this) {
+            @Override
+            public String getID() {
+                return "MoveAxiomsByModule.Select.Signature";
+            }
+        };
+
+        selectModuleTypePanel = new SelectModuleTypePanel(this);
+
+        selectPreviewPanel = new SignatureDependentSelectionPreviewPanel(this) {
+            @Override
+            public String getID() {
+                return "MoveAxiomsByModule.Signature.Preview";
+            }
+        };
+    }
+
+
+    public synchronized void dispose() throws Exception {
+        extractor = null;
+        extractorOntologies = null;
+    }
+
+
+    public ModuleType getModuleType() {
+        return moduleType;
+    }
+
+
+    public void setModuleType(ModuleType moduleType) {
+        this.moduleType = moduleType;
+    }
+
+
+    public Set<OWLEntity> getSignature() {
+        return selectedEntities;
+    }
+
+
+    public void setSignature(Set<OWLEntity> entities) {
+        selectedEntities.clear();
+        selectedEntities.addAll(entities);
+    }
+}
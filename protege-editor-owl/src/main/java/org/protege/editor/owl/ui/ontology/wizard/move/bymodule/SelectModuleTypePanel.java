@@ -0,0 +1,82 @@
+package org.protege.editor.owl.ui.ontology.wizard.move.bymodule;
+
+import org.protege.editor.owl.ui.ontology.wizard.move.MoveAxiomsKitConfigurationPanel;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+
+import javax.swing.*;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Selects the type of locality based module that is extracted by a {@link MoveAxiomsByModuleKit}.
+ */
+public class SelectModuleTypePanel extends MoveAxiomsKitConfigurationPanel {
+
+    private final MoveAxiomsByModuleKit kit;
+
+    private final Map<ModuleType, JRadioButton> buttons = new EnumMap<>(ModuleType.class);
+
+    public SelectModuleTypePanel(MoveAxiomsByModuleKit kit) {
+        this.kit = kit;
+    }
+
+    @Override
+    public void initialise() {
+        setLayout(new BoxLayout(this, BoxLayout.PAGE_AXIS));
+        ButtonGroup group = new ButtonGroup();
+        for (ModuleType moduleType : ModuleType.values()) {
+            JRadioButton button = new JRadioButton(getDescription(moduleType));
+            buttons.put(moduleType, button);
+            group.add(button);
+            add(button);
+        }
+        buttons.get(kit.getModuleType()).setSelected(true);
+    }
+
+    /**
+     * Gets a description of a module type, for display to users.
+     */
+    public static String getDescription(ModuleType moduleType) {
+        switch (moduleType) {
+            case BOT:
+                return "Bottom module (the signature and everything it depends on, e.g. its superclasses)";
+            case TOP:
+                return "Top module (the signature and everything that depends on it, e.g. its subclasses)";
+            default:
+                return "STAR module (the smallest of the three, nested bottom and top modules)";
+        }
+    }
+
+    @Override
+    public void dispose() {
+    }
+
+    @Override
+    public String getID() {
+        return "MoveAxiomsByModule.Select.ModuleType";
+    }
+
+    @Override
+    public String getTitle() {
+        return "Select a module type";
+    }
+
+    @Override
+    public String getInstructions() {
+        return "Select the type of syntactic locality based module to extract for the signature.";
+    }
+
+    @Override
+    public void update() {
+        buttons.get(kit.getModuleType()).setSelected(true);
+    }
+
+    @Override
+    public void commit() {
+        for (Map.Entry<ModuleType, JRadioButton> entry : buttons.entrySet()) {
+            if (entry.getValue().isSelected()) {
+                kit.setModuleType(entry.getKey());
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.protege.editor.owl.ui.ontology.wizard.move.common;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.protege.editor.core.ui.list.RemovableObjectList;
 import org.protege.editor.core.ui.util.CheckList;
 import org.protege.editor.core.ui.util.ComponentFactory;
@@ -24,6 +25,9 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
 /*
  * Copyright (C) 2008, University of Manchester
  *
@@ -49,6 +53,10 @@ public class SignatureDependentSelectionPreviewPanel extends MoveAxiomsKitConfig
 
     private Timer previewTimer;
 
+    private ExecutorService previewExecutor;
+
+    private final AtomicLong previewGeneration = new AtomicLong();
+
 
     public SignatureDependentSelectionPreviewPanel(SignatureSelection signatureSelection) {
         this.signatureSelection = signatureSelection;
@@ -105,6 +113,10 @@ public class SignatureDependentSelectionPreviewPanel extends MoveAxiomsKitConfig
             doPreviewUpdate();
         });
         previewTimer.setRepeats(false);
+        previewExecutor = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder()
+                                                                    .setNameFormat("Axiom Preview Thread %d")
+                                                                    .setDaemon(true)
+                                                                    .build());
     }
 
 
@@ -137,18 +149,24 @@ public class SignatureDependentSelectionPreviewPanel extends MoveAxiomsKitConfig
 
         final Set<OWLOntology> sourceOntologies = getModel().getSourceOntologies();
 
-        Runnable runnable = () -> {
+        // Previews are computed one at a time, and a preview is discarded if a newer one has been requested
+        final long generation = previewGeneration.incrementAndGet();
+        previewExecutor.submit(() -> {
+            if (generation != previewGeneration.get()) {
+                return;
+            }
             final Set<OWLAxiom> axioms = signatureSelection.getAxioms(sourceOntologies, entities);
             final java.util.List<OWLAxiom> axs = new ArrayList<>(new TreeSet<>(axioms));
             final int upperBound = 500 > axs.size() ? axs.size() : 500;
 
-
-            SwingUtilities.invokeLater(() -> previewLabel.setText("Axioms (showing " + upperBound + " out of " + axioms.size() + " axioms)"));
-
-            SwingUtilities.invokeLater(() -> previewList.setListData(axs.subList(0, upperBound).toArray(new OWLAxiom[axs.size()])));
-        };
-        Thread t = new Thread(runnable);
-        t.start();
+            SwingUtilities.invokeLater(() -> {
+                if (generation != previewGeneration.get()) {
+                    return;
+                }
+                previewLabel.setText("Axioms (showing " + upperBound + " out of " + axioms.size() + " axioms)");
+                previewList.setListData(axs.subList(0, upperBound).toArray(new OWLAxiom[upperBound]));
+            });
+        });
     }
 
 
@@ -163,6 +181,9 @@ public class SignatureDependentSelectionPreviewPanel extends MoveAxiomsKitConfig
 
 
     public void dispose() {
+        if (previewExecutor != null) {
+            previewExecutor.shutdownNow();
+        }
     }
 
 
@@ -0,0 +1,56 @@
+package org.protege.editor.owl.ui.rename;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.refactor.BulkEntityRenamer;
+import org.protege.editor.owl.ui.util.ProgressRunner;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLEntity;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import javax.annotation.Nonnull;
+import java.util.Map;
+import java.util.Set;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Renames entities with a {@link BulkEntityRenamer}, showing a (modal) progress dialog that allows renaming to be
+ * cancelled.  Changes are generated on a background thread and applied on the event dispatch thread.  Small numbers
+ * of entities are renamed directly, without a dialog.
+ */
+public class BulkRenameProgressRunner {
+
+    private final OWLModelManager modelManager;
+
+    private final Set<OWLOntology> ontologies;
+
+    public BulkRenameProgressRunner(@Nonnull OWLModelManager modelManager, @Nonnull Set<OWLOntology> ontologies) {
+        this.modelManager = checkNotNull(modelManager);
+        this.ontologies = checkNotNull(ontologies);
+    }
+
+    /**
+     * Renames the specified entities.  This must be called on the event dispatch thread.
+     * @param renames A map from entities to their new IRIs.
+     * @return The number of entities that were renamed.
+     */
+    public int rename(@Nonnull Map<OWLEntity, IRI> renames) {
+        if (renames.size() <= BulkEntityRenamer.DEFAULT_CHUNK_SIZE) {
+            return new BulkEntityRenamer(modelManager, ontologies).rename(renames);
+        }
+        BulkEntityRenamer renamer = new BulkEntityRenamer(modelManager, ontologies, ProgressRunner::invokeAndWait);
+        return new ProgressRunner("Renaming entities", true).run("Rename Entities", progress ->
+                renamer.rename(renames, new BulkEntityRenamer.ProgressListener() {
+                    @Override
+                    public void progressChanged(int renamedCount, int totalCount) {
+                        progress.setSubMessage(String.format("Renamed %,d of %,d entities", renamedCount, totalCount));
+                        progress.setProgress(renamedCount, totalCount);
+                    }
+
+                    @Override
+                    public boolean isCancelled() {
+                        return progress.isCancelled();
+                    }
+                }));
+    }
+}
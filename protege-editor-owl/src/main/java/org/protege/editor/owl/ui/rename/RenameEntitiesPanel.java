@@ -53,6 +53,16 @@ public class RenameEntitiesPanel extends JPanel implements VerifiedInputEditor {
 
     private Map<String, Set<OWLEntity>> nsMap = new HashMap<>();
 
+    /**
+     * The entities in the signatures of the ontologies, collected once when the panel is created
+     */
+    private Set<OWLEntity> allEntities = new HashSet<>();
+
+    /**
+     * The entities that match the current find value
+     */
+    private Set<OWLEntity> matchingEntities = Collections.emptySet();
+
     private JComboBox replaceWithCombo;
 
     private JComboBox findCombo;
@@ -140,9 +150,10 @@ public class RenameEntitiesPanel extends JPanel implements VerifiedInputEditor {
 
     private void buildEntityNamespaceMap() {
 	    for (OWLOntology ont : getOntologies()){
-	        for (OWLEntity entity : ont.getSignature()){
-	            extractNSFromEntity(entity);
-	        }
+	        allEntities.addAll(ont.getSignature());
+	    }
+	    for (OWLEntity entity : allEntities){
+	        extractNSFromEntity(entity);
 	    }
 	}
 
@@ -176,16 +187,25 @@ public class RenameEntitiesPanel extends JPanel implements VerifiedInputEditor {
     public List<OWLOntologyChange> getChanges() {
 		OWLOntologyManager mngr = eKit.getModelManager().getOWLOntologyManager();
 		OWLEntityRenamer renamer = new OWLEntityRenamer(mngr, getOntologies());
+		return renamer.changeIRI(getRenames());
+	}
+
+
+    /**
+     * Gets the new IRIs of the selected entities.
+     */
+    public Map<OWLEntity, IRI> getRenames() {
 		Map<OWLEntity, IRI> filteredIRIMap = new HashMap<>();
 		for (OWLEntity e : list.getFilteredValues()) {
 			filteredIRIMap.put(e, entity2IRIMap.get(e));
 		}
-		return renamer.changeIRI(filteredIRIMap);
+		return filteredIRIMap;
 	}
 
 
 	private void reloadEntityList() {
-        final ArrayList<OWLEntity> sortedEntities = new ArrayList<>(getEntities());
+        matchingEntities = getEntities();
+        final ArrayList<OWLEntity> sortedEntities = new ArrayList<>(matchingEntities);
         Collections.sort(sortedEntities, eKit.getModelManager().getOWLObjectComparator());
         list.getModel().setData(sortedEntities, true);
         updateEntityMap();
@@ -205,13 +225,9 @@ public class RenameEntitiesPanel extends JPanel implements VerifiedInputEditor {
         Set<OWLEntity> matches = nsMap.get(getFindValue());
         if (matches == null){
             matches = new HashSet<>();
-            Set<OWLEntity> ents = new HashSet<>();
-            for (OWLOntology ont : getOntologies()){
-                ents.addAll(ont.getSignature());
-            }
             String matchingVal = ".*" + getFindValue() + ".*";
             Pattern p = Pattern.compile(matchingVal);
-            for (OWLEntity ent : ents){
+            for (OWLEntity ent : allEntities){
                 if (p.matcher(ent.getIRI().toString()).matches()){
                     matches.add(ent);
                 }
@@ -244,12 +260,11 @@ public class RenameEntitiesPanel extends JPanel implements VerifiedInputEditor {
     }
     
     private void updateEntityMapUsingRegexp() {
-    	Set<OWLEntity> entities = new HashSet<>();
-    	for (OWLOntology includedOntology : getOntologies()) {
-    		entities.addAll(includedOntology.getSignature());
-    	}
-        for (OWLEntity entity : entities){
-            String newURIStr = entity.getIRI().toString().replaceAll(getFindValue(), getReplaceWithValue());
+        // Entities that do not match the find value are left unchanged, so only the matching entities are mapped
+        Pattern p = Pattern.compile(getFindValue());
+        String replacement = getReplaceWithValue();
+        for (OWLEntity entity : matchingEntities){
+            String newURIStr = p.matcher(entity.getIRI().toString()).replaceAll(replacement);
             addToEntityMap(entity, newURIStr);
         }
     }
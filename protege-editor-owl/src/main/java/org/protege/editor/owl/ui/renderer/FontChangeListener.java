@@ -0,0 +1,14 @@
+package org.protege.editor.owl.ui.renderer;
+
+import java.awt.*;
+
+/**
+ * Receives notification that the font used by renderers has changed, so that anything that has been measured or
+ * laid out with the previous font can be discarded.
+ *
+ * @see OWLRendererPreferences#addFontChangeListener(FontChangeListener)
+ */
+public interface FontChangeListener {
+
+    void fontChanged(Font font);
+}
@@ -19,6 +19,8 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 /**
  * Author: Matthew Horridge<br>
@@ -89,6 +91,9 @@ public class OWLRendererPreferences {
 
     private Font font;
 
+    private final Set<FontChangeListener> fontChangeListeners =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+
     private List<IRI> annotationIRIS;
 
     private List<String> annotationLanguages;
@@ -131,8 +136,34 @@ public class OWLRendererPreferences {
     }
 
     private void resetFont() {
+        Font previousFont = font;
         font = new Font(this.fontName, Font.PLAIN, fontSize);
+        if (previousFont != null && !previousFont.equals(font)) {
+            fireFontChanged();
+        }
+    }
+
+    /**
+     * Adds a listener that is notified when the font changes.  Listeners are held weakly, so that caches belonging to
+     * renderers that are no longer used can be garbage collected.  The caller must therefore keep a reference to
+     * the listener for as long as it should be notified.
+     */
+    public void addFontChangeListener(FontChangeListener listener) {
+        fontChangeListeners.add(listener);
+    }
+
+    public void removeFontChangeListener(FontChangeListener listener) {
+        fontChangeListeners.remove(listener);
+    }
 
+    private void fireFontChanged() {
+        List<FontChangeListener> listeners;
+        synchronized (fontChangeListeners) {
+            listeners = new ArrayList<>(fontChangeListeners);
+        }
+        for (FontChangeListener listener : listeners) {
+            listener.fontChanged(font);
+        }
     }
 
     public int getFontSize() {
@@ -44,6 +44,12 @@ public class IconBox extends PageObject {
         add(linkBox);
     }
 
+    @Override
+    public long getEstimatedSizeInBytes() {
+        // Four bytes per pixel
+        return super.getEstimatedSizeInBytes() + 4L * image.getIconWidth() * image.getIconHeight();
+    }
+
     public void layout(FontRenderContext fontRenderContext) {
         if(isErrored()) {
             setWidth(26);
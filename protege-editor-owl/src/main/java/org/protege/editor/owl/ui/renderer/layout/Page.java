@@ -70,11 +70,23 @@ public class Page extends PageObject {
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
     ////////////////////////////////////////////////////////////////////////////////////////////////////////////////////
 
-    public void invalidateLayout() {
+    public synchronized void invalidateLayout() {
         layoutState = PageLayoutState.INVALID;
     }
 
-    public void layout(FontRenderContext fontRenderContext) {
+    /**
+     * Determines whether the page has been laid out since it was last changed.
+     */
+    public synchronized boolean isLayoutValid() {
+        return layoutState == PageLayoutState.VALID;
+    }
+
+    /**
+     * Lays out the page.  Pages may be laid out on a background thread, so layout is synchronized on the page, and a
+     * thread that paints a page must lay it out (which does nothing if it is already laid out) before painting it.
+     * @param fontRenderContext The font render context that text is measured with.
+     */
+    public synchronized void layout(FontRenderContext fontRenderContext) {
         if (layoutState.equals(PageLayoutState.VALID)) {
             return;
         }
@@ -93,6 +105,19 @@ public class Page extends PageObject {
 
     }
 
+    /**
+     * Lays out the page at the specified width, unless it is already laid out at that width.
+     * @param width The width of the page.
+     * @param fontRenderContext The font render context that text is measured with.
+     */
+    public synchronized void layout(int width, FontRenderContext fontRenderContext) {
+        if (getWidth() != width) {
+            setWidth(width);
+            invalidateLayout();
+        }
+        layout(fontRenderContext);
+    }
+
     public void paintContent(Graphics2D g) {
     }
 
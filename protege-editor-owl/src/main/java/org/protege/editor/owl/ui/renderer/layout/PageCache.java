@@ -1,7 +1,5 @@
 package org.protege.editor.owl.ui.renderer.layout;
 
-import org.protege.editor.owl.ui.renderer.OWLRendererPreferences;
-
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -12,62 +10,135 @@ import java.util.Map;
  * Bio-Medical Informatics Research Group<br>
  * Date: 23/11/2011
  * <p>
- *     A cache for pages.  The cache is limited to some size, with the default size being given by the
- *     {@link #DEFAULT_CACHE_SIZE} field value.
+ *     A least recently used cache for pages.  The cache is limited by the estimated size of the pages that it holds,
+ *     with the default limit being given by the {@link #DEFAULT_MAX_SIZE_IN_BYTES} field value, and by the number of
+ *     pages that it holds, with the default limit being given by the {@link #DEFAULT_CACHE_SIZE} field value.
  * </p>
  * <p>
  *     Pages are cached by @PageCacheKey, which describe some object represented by the page, and whether or not
  *     the page is rendered as selected and with or without focus.
  * </p>
+ * <p>
+ *     The cache is cleared explicitly with {@link #invalidate()} (for example, by {@link PageCellRenderer} when the
+ *     renderer font changes).  Each time that the cache is cleared its generation is advanced, so that pages that
+ *     were filled before the cache was cleared, and that are laid out in the background, are not added to it
+ *     afterwards.  The cache may be accessed from any thread.
+ * </p>
  */
 public class PageCache {
 
-    public static final int DEFAULT_CACHE_SIZE = 200;
-    
-    private int lastFontSize = OWLRendererPreferences.getInstance().getFontSize();
+    public static final int DEFAULT_CACHE_SIZE = 5000;
+
+    public static final long DEFAULT_MAX_SIZE_IN_BYTES = 16 * 1024 * 1024;
 
     private int cacheSize = DEFAULT_CACHE_SIZE;
 
-    private Map<PageCacheKey, Page> map = new LinkedHashMap<>();
+    private long maxSizeInBytes = DEFAULT_MAX_SIZE_IN_BYTES;
+
+    private long sizeInBytes = 0;
+
+    private long generation = 0;
+
+    private final Map<PageCacheKey, Entry> map = new LinkedHashMap<>(16, 0.75f, true);
 
     public PageCache() {
     }
 
-    public int getCacheSize() {
+    public synchronized int getCacheSize() {
         return cacheSize;
     }
 
-    public void setCacheSize(int cacheSize) {
+    /**
+     * Sets the maximum number of pages that are cached.
+     */
+    public synchronized void setCacheSize(int cacheSize) {
         this.cacheSize = cacheSize;
+        evict();
     }
 
-    public Page getPage(PageCacheKey key) {
-        if(hasFontSizeChanged()) {
-            map.clear();
-        }
-        return map.get(key);
+    public synchronized long getMaxSizeInBytes() {
+        return maxSizeInBytes;
     }
 
-    public void put(PageCacheKey key, Page page) {
-        if (map.size() == cacheSize) {
-            Iterator<PageCacheKey> iterator = map.keySet().iterator();
-            iterator.next();
-            iterator.remove();
+    /**
+     * Sets the maximum estimated size, in bytes, of the pages that are cached.
+     * @see PageObject#getEstimatedSizeInBytes()
+     */
+    public synchronized void setMaxSizeInBytes(long maxSizeInBytes) {
+        this.maxSizeInBytes = maxSizeInBytes;
+        evict();
+    }
+
+    /**
+     * Gets the estimated size, in bytes, of the pages that are cached.
+     */
+    public synchronized long getSizeInBytes() {
+        return sizeInBytes;
+    }
+
+    public synchronized int getPageCount() {
+        return map.size();
+    }
+
+    /**
+     * Gets the generation of the cache, which is advanced each time that the cache is cleared.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized Page getPage(PageCacheKey key) {
+        Entry entry = map.get(key);
+        return entry != null ? entry.page : null;
+    }
+
+    public synchronized void put(PageCacheKey key, Page page) {
+        Entry entry = new Entry(page);
+        Entry previous = map.put(key, entry);
+        if (previous != null) {
+            sizeInBytes -= previous.sizeInBytes;
         }
-        map.put(key, page);
+        sizeInBytes += entry.sizeInBytes;
+        evict();
     }
 
-    // A temporary hack.  
-    private boolean hasFontSizeChanged() {
-        int currentSize = OWLRendererPreferences.getInstance().getFontSize();
-        if(currentSize != lastFontSize) {
-            lastFontSize = currentSize;
-            return true;
+    /**
+     * Caches a page, provided that the cache has not been cleared since the specified generation and that no page
+     * has been cached for the key in the meantime.
+     * @return <code>true</code> if the page was cached, otherwise <code>false</code>.
+     */
+    public synchronized boolean putIfAbsent(PageCacheKey key, Page page, long generation) {
+        if (generation != this.generation || map.containsKey(key)) {
+            return false;
         }
-        return false;
+        put(key, page);
+        return true;
     }
 
-    public void invalidate() {
+    public synchronized void invalidate() {
         map.clear();
+        sizeInBytes = 0;
+        generation++;
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = map.values().iterator();
+        // Always keep the most recently used page, even if it is larger than the cache
+        while ((map.size() > cacheSize || sizeInBytes > maxSizeInBytes) && map.size() > 1) {
+            sizeInBytes -= iterator.next().sizeInBytes;
+            iterator.remove();
+        }
+    }
+
+    private static class Entry {
+
+        private final Page page;
+
+        private final long sizeInBytes;
+
+        private Entry(Page page) {
+            this.page = page;
+            this.sizeInBytes = page.getEstimatedSizeInBytes();
+        }
     }
 }
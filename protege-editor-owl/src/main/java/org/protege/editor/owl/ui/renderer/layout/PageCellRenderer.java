@@ -1,10 +1,18 @@
 package org.protege.editor.owl.ui.renderer.layout;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import org.protege.editor.core.ui.list.RendererWithInsets;
+import org.protege.editor.owl.ui.renderer.FontChangeListener;
+import org.protege.editor.owl.ui.renderer.OWLRendererPreferences;
 
 import javax.swing.*;
 import javax.swing.table.TableCellRenderer;
 import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Author: Matthew Horridge<br>
@@ -17,8 +25,24 @@ import java.awt.*;
  */
 public abstract class PageCellRenderer extends JPanel implements ListCellRenderer, TableCellRenderer, RendererWithInsets {
 
+    /**
+     * The minimum number of values that a list must have for its pages to be precomputed.
+     */
+    public static final int PRECOMPUTE_THRESHOLD = 100;
+
+    private static final ExecutorService layoutExecutor = Executors.newSingleThreadExecutor(
+            new ThreadFactoryBuilder().setNameFormat("Page Layout Thread").setDaemon(true).build());
+
     private PageCache pageCache = new PageCache();
 
+    // Held strongly here because the preferences only hold font change listeners weakly
+    private final FontChangeListener fontChangeListener = font -> invalidateCache();
+
+    /**
+     * Pages that are in the cache and are waiting to be laid out in the background.
+     */
+    private final Set<Page> pendingPages = Collections.synchronizedSet(Collections.newSetFromMap(new IdentityHashMap<>()));
+
     private JComponent component;
 
     private LinkManager manager;
@@ -28,6 +52,7 @@ public abstract class PageCellRenderer extends JPanel implements ListCellRendere
     public PageCellRenderer() {
         this.manager = new LinkManager();
         setOpaque(false);
+        OWLRendererPreferences.getInstance().addFontChangeListener(fontChangeListener);
     }
 
     protected void invalidateCache() {
@@ -84,39 +109,122 @@ public abstract class PageCellRenderer extends JPanel implements ListCellRendere
         component = list;
         PageCacheKey pageCacheKey = getPageCacheKey(value, isSelected, cellHasFocus);
         page = pageCache.getPage(pageCacheKey);
-        Graphics2D graphics = (Graphics2D) list.getGraphics();
+        int width = getMaxAvailablePageWidth(list, value, index, isSelected, cellHasFocus);
+        FontRenderContext fontRenderContext = getFontRenderContext(list);
+        Dimension preferredSize;
         if(page == null) {
             page = new Page();
-            if (pageCacheKey != null) {
-                pageCache.put(pageCacheKey, page);
-            }
             fillPage(page, list, value, index, isSelected, cellHasFocus);
-            int width = getMaxAvailablePageWidth(list, value, index, isSelected, cellHasFocus);
             page.setWidth(width);
-            if (list.getGraphics() != null) {
-                page.layout(graphics.getFontRenderContext());
+            if (fontRenderContext != null) {
+                page.layout(fontRenderContext);
+                pageCache.put(pageCacheKey, page);
             }
+            preferredSize = page.getSize();
+        }
+        else if (pendingPages.contains(page)) {
+            // Being laid out in the background.  The list is laid out again once the real height is known.
+            preferredSize = new Dimension(width, getEstimatedHeight(list, page));
         }
         else {
-            int width = getMaxAvailablePageWidth(list, value, index, isSelected, cellHasFocus);
-            if(page.getWidth() != width) {
-                page.setWidth(width);
-                page.invalidateLayout();
-                page.layout(graphics.getFontRenderContext());
+            if (fontRenderContext != null) {
+                page.layout(width, fontRenderContext);
             }
+            preferredSize = page.getSize();
         }
         setBackground(isSelected ? list.getSelectionBackground() : list.getBackground());
+        setPreferredSize(preferredSize);
+        return this;
+    }
+
+    /**
+     * Precomputes the pages for the values in a list, so that the list can be sized without laying out every page on
+     * the event dispatch thread.  Pages for values that are not cached are filled on the calling thread, which must be
+     * the event dispatch thread, and are laid out on a background thread.  Until its page has been laid out, the
+     * height of a row is estimated from the number of paragraphs in its page.  The list is laid out again once all
+     * of the pages have been laid out.  Lists with fewer than {@link #PRECOMPUTE_THRESHOLD} values, and lists that
+     * have not been sized yet, are not precomputed.
+     * @param list The list.  This list must use this renderer.
+     */
+    public void precomputeLayouts(JList list) {
+        ListModel model = list.getModel();
+        if (model.getSize() < PRECOMPUTE_THRESHOLD) {
+            return;
+        }
+        FontRenderContext fontRenderContext = getFontRenderContext(list);
+        if (fontRenderContext == null) {
+            return;
+        }
+        long generation = pageCache.getGeneration();
+        List<Page> pages = new ArrayList<>();
+        for (int index = 0; index < model.getSize(); index++) {
+            Object value = model.getElementAt(index);
+            if (getValueKey(value) == null) {
+                continue;
+            }
+            PageCacheKey pageCacheKey = getPageCacheKey(value, false, false);
+            if (pageCache.getPage(pageCacheKey) != null) {
+                continue;
+            }
+            int width = getMaxAvailablePageWidth(list, value, index, false, false);
+            if (width <= 0) {
+                return;
+            }
+            Page pageToLayout = new Page();
+            fillPage(pageToLayout, list, value, index, false, false);
+            pageToLayout.setWidth(width);
+            pendingPages.add(pageToLayout);
+            if (pageCache.putIfAbsent(pageCacheKey, pageToLayout, generation)) {
+                pages.add(pageToLayout);
+            }
+            else {
+                pendingPages.remove(pageToLayout);
+            }
+        }
+        if (pages.isEmpty()) {
+            return;
+        }
+        layoutExecutor.submit(() -> {
+            try {
+                for (Page pageToLayout : pages) {
+                    if (pageCache.getGeneration() != generation) {
+                        // The pages have been discarded
+                        break;
+                    }
+                    pageToLayout.layout(fontRenderContext);
+                    pendingPages.remove(pageToLayout);
+                }
+            } finally {
+                SwingUtilities.invokeLater(() -> {
+                    pendingPages.removeAll(pages);
+                    relayout(list);
+                });
+            }
+        });
+    }
+
+    private static FontRenderContext getFontRenderContext(JComponent component) {
+        Graphics graphics = component.getGraphics();
+        if (graphics == null) {
+            return null;
+        }
+        try {
+            return ((Graphics2D) graphics).getFontRenderContext();
+        } finally {
+            graphics.dispose();
+        }
+    }
 
+    private static int getEstimatedHeight(JList list, Page page) {
+        int lineHeight = list.getFontMetrics(OWLRendererPreferences.getInstance().getFont()).getHeight();
+        return page.getInsetsTop() + page.getChildren().size() * lineHeight + page.getInsetsBottom();
+    }
 
-        int prefWidth = page.getWidth();
-        int prefHeight = page.getHeight();
-//        if(list instanceof MList) {
-//            prefWidth += 4;
-//            prefHeight += 4;
-//            page.setLocation(2, 2);
-//        }
-        setPreferredSize(new Dimension(prefWidth, prefHeight));
-        return this;
+    private static void relayout(JList list) {
+        // Changing the fixed cell height makes the list measure its cells again
+        int fixedCellHeight = list.getFixedCellHeight();
+        list.setFixedCellHeight(fixedCellHeight == -1 ? 0 : -1);
+        list.setFixedCellHeight(fixedCellHeight);
     }
 
 
@@ -176,9 +284,9 @@ public abstract class PageCellRenderer extends JPanel implements ListCellRendere
         page = new Page();
         fillPage(page, table, value, isSelected, hasFocus, row, column);
         getMaxAvailablePageWidth(page, table, value, isSelected, hasFocus, row, column);
-        Graphics2D graphics = (Graphics2D) table.getGraphics();
-        if (table.getGraphics() != null) {
-            page.layout(graphics.getFontRenderContext());
+        FontRenderContext fontRenderContext = getFontRenderContext(table);
+        if (fontRenderContext != null) {
+            page.layout(fontRenderContext);
         }
         setPreferredSize(page.getSize());
         return this;
@@ -229,6 +337,8 @@ public abstract class PageCellRenderer extends JPanel implements ListCellRendere
         super.paintComponent(g);
         Graphics2D g2 = (Graphics2D) g;
         page.setLocation(getInsets().left, getInsets().top);
+        // Does nothing unless the page is still waiting to be laid out in the background
+        page.layout(g2.getFontRenderContext());
         Point mousePos = component.getMousePosition();
         if(mousePos != null) {
             int pageRelativeX = mousePos.x - page.getX() - getX();
@@ -20,6 +20,11 @@ import java.util.List;
  */
 public abstract class PageObject {
 
+    /**
+     * The approximate size of a page object with no content (its bounds, insets, border and list of children).
+     */
+    protected static final int ESTIMATED_OBJECT_SIZE_IN_BYTES = 200;
+
     private PageObject parent;
 
     private List<PageObject> children = new ArrayList<>();
@@ -475,6 +480,19 @@ public abstract class PageObject {
      */
     public abstract void layout(FontRenderContext fontRenderContext);
 
+    /**
+     * Gets a rough estimate of the number of bytes used by this page object and its children, once laid out.  This
+     * is used to bound the size of page caches.
+     * @return The estimated size in bytes.
+     */
+    public long getEstimatedSizeInBytes() {
+        long size = ESTIMATED_OBJECT_SIZE_IN_BYTES;
+        for (PageObject child : children) {
+            size += child.getEstimatedSizeInBytes();
+        }
+        return size;
+    }
+
     final public void handleMouseMoved(MouseEvent event) {
         if(bounds.contains(event.getPoint())) {
             setMouseOver(true);
@@ -24,6 +24,12 @@ public class Paragraph extends PageObject {
 
     public static final int TAB_SIZE = 40;
 
+    /**
+     * The approximate number of bytes used for each character of a laid out paragraph.  The text is held by the
+     * paragraph and by each of its lines, and each line also holds the glyphs of its text layout.
+     */
+    private static final int ESTIMATED_BYTES_PER_CHARACTER = 64;
+
     private AttributedString paragraphText;
 
     private String plainText;
@@ -291,6 +297,11 @@ public class Paragraph extends PageObject {
 
     }
 
+    @Override
+    public long getEstimatedSizeInBytes() {
+        return super.getEstimatedSizeInBytes() + (long) plainText.length() * ESTIMATED_BYTES_PER_CHARACTER;
+    }
+
     private int getBulletWidth() {
         return bulletIcon == null ? 0 : bulletIcon.getIconWidth() + 4;
     }
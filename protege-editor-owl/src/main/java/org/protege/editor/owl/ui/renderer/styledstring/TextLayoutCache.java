@@ -3,6 +3,8 @@ package org.protege.editor.owl.ui.renderer.styledstring;
 import java.awt.font.FontRenderContext;
 import java.awt.font.TextLayout;
 import java.text.AttributedString;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
@@ -12,16 +14,23 @@ import static com.google.common.base.Preconditions.checkNotNull;
  * Bio-Medical Informatics Research Group<br>
  * Date: 26/09/2012
  * <p>
- * A simple first in first out cache for TextLayout objects of AttributedStrings.
+ * A cache for the TextLayout of an AttributedString.  Layouts are cached for the few most recently used font
+ * render contexts, so that a string that is measured with one context and painted with another (for example, on a
+ * scaled display) is not laid out again each time.  The cache may be used from any thread.
  * </p>
  */
 public class TextLayoutCache {
 
     private final AttributedString attributedString;
 
-    private FontRenderContext cachedFontRenderContext;
+    private static final int MAX_CACHED_LAYOUTS = 2;
 
-    private TextLayout cachedLayout;
+    private final Map<FontRenderContext, TextLayout> cachedLayouts = new LinkedHashMap<FontRenderContext, TextLayout>(4, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<FontRenderContext, TextLayout> eldest) {
+            return size() > MAX_CACHED_LAYOUTS;
+        }
+    };
 
     public TextLayoutCache(AttributedString attributedString) {
         this.attributedString = checkNotNull(attributedString);
@@ -31,12 +40,13 @@ public class TextLayoutCache {
         return attributedString;
     }
 
-    public TextLayout getTextLayout(FontRenderContext fontRenderContext) {
-        if (!isCachedFontRenderContext(fontRenderContext)) {
-            cachedLayout = new TextLayout(attributedString.getIterator(), fontRenderContext);
-            cachedFontRenderContext = fontRenderContext;
+    public synchronized TextLayout getTextLayout(FontRenderContext fontRenderContext) {
+        TextLayout layout = cachedLayouts.get(fontRenderContext);
+        if (layout == null) {
+            layout = new TextLayout(attributedString.getIterator(), fontRenderContext);
+            cachedLayouts.put(fontRenderContext, layout);
         }
-        return cachedLayout;
+        return layout;
     }
 
     public float getHeight(FontRenderContext fontRenderContext) {
@@ -54,9 +64,4 @@ public class TextLayoutCache {
         return tl.getLeading() + tl.getAscent();
 
     }
-
-
-    private boolean isCachedFontRenderContext(FontRenderContext fontRenderContext) {
-        return cachedFontRenderContext != null && cachedFontRenderContext.equals(fontRenderContext);
-    }
 }
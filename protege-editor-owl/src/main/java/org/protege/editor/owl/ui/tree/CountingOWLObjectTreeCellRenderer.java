@@ -28,7 +28,7 @@ public class CountingOWLObjectTreeCellRenderer<N extends OWLObject> extends OWLO
 
     protected String getRendering(Object object) {
         StringBuilder label = new StringBuilder(super.getRendering(object));
-        int size = tree.getProvider().getChildren((N)object).size();
+        int size = tree.getChildCount((N)object);
         if (size > 0){
             label.append(" (");
             label.append(size);
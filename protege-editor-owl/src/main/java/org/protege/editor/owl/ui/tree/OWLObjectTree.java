@@ -1,5 +1,6 @@
 package org.protege.editor.owl.ui.tree;
 
+import org.protege.editor.core.prefs.PreferencesListener;
 import org.protege.editor.core.ui.RefreshableComponent;
 import org.protege.editor.core.ui.menu.MenuBuilder;
 import org.protege.editor.core.ui.menu.PopupMenuId;
@@ -8,6 +9,7 @@ import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.OWLModelManager;
 import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProvider;
 import org.protege.editor.owl.model.hierarchy.OWLObjectHierarchyProviderListener;
+import org.protege.editor.owl.model.selection.SelectionPrefetcher;
 import org.protege.editor.owl.model.util.OboUtilities;
 import org.protege.editor.owl.ui.OWLObjectComparator;
 import org.protege.editor.owl.ui.breadcrumb.Breadcrumb;
@@ -44,10 +46,12 @@ import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
 import static com.google.common.base.Preconditions.checkNotNull;
@@ -64,6 +68,12 @@ import static java.util.stream.Collectors.toList;
  */
 public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObjectDropTarget, OWLObjectDragSource, HasExpandAll, HasCopySubHierarchyToClipboard, Copyable, RefreshableComponent, BreadcrumbTrailProvider {
 
+    /**
+     * The maximum number of paths to an object that are expanded when all of the occurrences of the object in the
+     * tree are selected.
+     */
+    private static final int MAX_EXPANDED_PATHS = 32;
+
     private final List<BreadcrumbTrailChangedHandler> breadcrumbTrailChangedHandlers = new ArrayList<>();
 
     private Map<OWLObject, Set<OWLObjectTreeNode<N>>> nodeMap;
@@ -74,6 +84,15 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
 
     private OWLObjectHierarchyProviderListener<N> listener;
 
+    /**
+     * The child counts that were published with node changed events.  These are current until the node changes
+     * again, when a new count is published, or the hierarchy changes, when they are cleared.
+     */
+    private final Map<N, Integer> publishedChildCounts = new ConcurrentHashMap<>();
+
+    private final PreferencesListener treePreferencesListener = (preferences, key) ->
+            SwingUtilities.invokeLater(this::setupLineStyle);
+
     private Comparator<OWLObject> comparator;
 
     private OWLTreeDragAndDropHandler<N> dragAndDropHandler;
@@ -132,6 +151,12 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
             public void nodeChanged(N node) {
                 updateNode(node);
             }
+
+
+            public void nodeChanged(N node, int childCount) {
+                publishedChildCounts.put(node, childCount);
+                updateNode(node);
+            }
         };
         provider.addListener(listener);
         setModel(new DefaultTreeModel(new OWLObjectTreeRootNode<>(this, rootObjects)));
@@ -172,7 +197,42 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
         getSelectionModel().addTreeSelectionListener(event -> {
             scrollPathToVisible(event.getNewLeadSelectionPath());
             fireBreadcrumbTrailChanged();
+            prefetchAroundRow(getLeadSelectionRow());
         });
+
+        addMouseMotionListener(new MouseMotionAdapter() {
+            private int hoveredRow = -1;
+
+            @Override
+            public void mouseMoved(MouseEvent e) {
+                int row = getRowForLocation(e.getX(), e.getY());
+                if (row != hoveredRow) {
+                    hoveredRow = row;
+                    prefetchAroundRow(row);
+                }
+            }
+        });
+    }
+
+    /**
+     * Prefetches the usage of the entities in the rows around the specified row, so that it is ready if one of them
+     * is selected next.
+     */
+    private void prefetchAroundRow(int row) {
+        if (row < 0) {
+            return;
+        }
+        SelectionPrefetcher prefetcher = getOWLModelManager().get(SelectionPrefetcher.ID);
+        if (prefetcher == null) {
+            return;
+        }
+        prefetcher.prefetch(SelectionPrefetcher.getNeighbouringEntities(row, getRowCount(), i -> {
+            TreePath path = getPathForRow(i);
+            if (path != null && path.getLastPathComponent() instanceof OWLObjectTreeNode) {
+                return ((OWLObjectTreeNode<?>) path.getLastPathComponent()).getOWLObject();
+            }
+            return null;
+        }));
     }
 
     private void setupLineStyle() {
@@ -425,6 +485,23 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
         provider.removeListener(listener);
     }
 
+    /**
+     * The line style follows changes to the tree preferences while the tree is displayed.  The listener is only
+     * registered while the tree is displayed, so that trees that are never disposed are not held on to.
+     */
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        OWLTreePreferences.getInstance().addPreferencesListener(treePreferencesListener);
+        setupLineStyle();
+    }
+
+    @Override
+    public void removeNotify() {
+        OWLTreePreferences.getInstance().removePreferencesListener(treePreferencesListener);
+        super.removeNotify();
+    }
+
     public void updateUI() {
         super.updateUI();
         setRowHeight(getFontMetrics(getFont()).getHeight() + 4);
@@ -438,6 +515,7 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
         N currentSelection = getSelectedOWLObject();
         // Reload the tree
         nodeMap.clear();
+        publishedChildCounts.clear();
         // TODO: getRoots needs to be changed - the user might have specified specific roots
         Set<N> roots = provider.getRoots();
         OWLObjectTreeRootNode<N> rootNode = new OWLObjectTreeRootNode<>(this, roots);
@@ -537,7 +615,8 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
             return provider.getRoots().size();
         }
         else {
-            return provider.getChildren(owlObject).size();
+            Integer publishedCount = publishedChildCounts.get(owlObject);
+            return publishedCount != null ? publishedCount : provider.getChildCount(owlObject);
         }
     }
 
@@ -612,11 +691,10 @@ public class OWLObjectTree<N extends OWLObject> extends JTree implements OWLObje
     }
 
     private void expandAndSelectPaths(N obj, boolean selectAll) {
-        for (List<N> objPath : provider.getPathsToRoot(obj)) {
+        // Only the paths that are expanded are computed, as there may be very many in a polyhierarchy
+        int maxPathCount = selectAll ? MAX_EXPANDED_PATHS : 1;
+        for (List<N> objPath : provider.getPathsToRoot(obj, maxPathCount)) {
             expandAndSelectPath(objPath);
-            if (!selectAll) {
-                break;
-            }
         }
     }
 
@@ -136,7 +136,12 @@ public class OWLObjectTreeNode<N extends OWLObject> extends DefaultMutableTreeNo
 
 
     public boolean isLeaf() {
-        return getChildCount() == 0;
+        N object = getOWLObject();
+        if (isLoaded || object == null) {
+            return getChildCount() == 0;
+        }
+        // Ask for the child count, rather than loading the children of every visible node just to decide how to draw it
+        return tree.getChildCount(object) == 0;
     }
 
 
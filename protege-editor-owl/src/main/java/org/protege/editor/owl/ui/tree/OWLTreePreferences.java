@@ -1,6 +1,7 @@
 package org.protege.editor.owl.ui.tree;
 
 import org.protege.editor.core.prefs.Preferences;
+import org.protege.editor.core.prefs.PreferencesListener;
 import org.protege.editor.core.prefs.PreferencesManager;
 /*
  * Copyright (C) 2007, University of Manchester
@@ -92,4 +93,16 @@ public class OWLTreePreferences {
     public void setPaintLines(boolean paintLines) {
         getPreferences().putBoolean(TREE_PAINT_LINES, paintLines);
     }
+
+
+    /**
+     * Adds a listener that is notified when any of the tree preferences is changed.
+     */
+    public void addPreferencesListener(PreferencesListener listener) {
+        getPreferences().addPreferencesListener(listener);
+    }
+
+    public void removePreferencesListener(PreferencesListener listener) {
+        getPreferences().removePreferencesListener(listener);
+    }
 }
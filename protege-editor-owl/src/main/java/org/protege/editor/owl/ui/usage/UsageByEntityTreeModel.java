@@ -2,6 +2,7 @@ package org.protege.editor.owl.ui.usage;
 
 import org.protege.editor.owl.OWLEditorKit;
 import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.selection.SelectionPrefetcher;
 import org.semanticweb.owlapi.model.*;
 
 import javax.swing.tree.DefaultMutableTreeNode;
@@ -28,8 +29,6 @@ public class UsageByEntityTreeModel extends DefaultTreeModel implements UsageTre
 
     private AxiomSorter axiomSorter;
 
-    private OWLOntology currentOntology;
-
     private Map<OWLEntity, DefaultMutableTreeNode> nodeMap;
 
     private OWLEntity entity;
@@ -69,24 +68,12 @@ public class UsageByEntityTreeModel extends DefaultTreeModel implements UsageTre
         axiomsByEntityMap.clear();
         usageCount = 0;
 
-        for (OWLOntology ont : owlModelManager.getActiveOntologies()) {
-            currentOntology = ont;
-            Set<OWLAxiom> axioms = ont.getReferencingAxioms(owlEntity);
-            for (OWLAxiom ax : axioms) {
-                addUsage(ax);
-            }
-            for (OWLAxiom ax : ont.getReferencingAxioms(owlEntity.getIRI())) {
-                addUsage(ax);
-            }
-            // This is terribly inefficient but there are no indexes in the OWL API to do this.
-            for (OWLAnnotationAssertionAxiom ax : ont.getAxioms(AxiomType.ANNOTATION_ASSERTION)) {
-                com.google.common.base.Optional<IRI> valueIRI = ax.getValue().asIRI();
-                if (valueIRI.isPresent()) {
-                    if (valueIRI.get().equals(owlEntity.getIRI())) {
-                        addUsage(ax);
-                    }
-                }
-            }
+        // The usage is usually ready, having been prefetched when the entity's row was approached
+        SelectionPrefetcher prefetcher = owlModelManager.get(SelectionPrefetcher.ID);
+        Set<OWLAxiom> usage = prefetcher != null ? prefetcher.getUsage(owlEntity)
+                : SelectionPrefetcher.computeUsage(owlEntity, owlModelManager.getActiveOntologies());
+        for (OWLAxiom ax : usage) {
+            addUsage(ax);
         }
 
         rootNode = new DefaultMutableTreeNode(getRootContent(owlModelManager, entity));
@@ -0,0 +1,53 @@
+package org.protege.editor.owl.ui.util;
+
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.refactor.BulkChangeApplier;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+
+import javax.annotation.Nonnull;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Generates and applies a large list of changes, such as the changes that delete many entities, showing a (modal)
+ * progress dialog that allows applying to be cancelled between chunks.  Changes are generated on a background thread,
+ * with a {@link ProgressRunner}, and applied, with a {@link BulkChangeApplier}, on the event dispatch thread.
+ */
+public class BulkChangeProgressRunner {
+
+    private final OWLModelManager modelManager;
+
+    public BulkChangeProgressRunner(@Nonnull OWLModelManager modelManager) {
+        this.modelManager = checkNotNull(modelManager);
+    }
+
+    /**
+     * Generates and applies changes.  This must be called on the event dispatch thread.
+     * @param message The message that is shown in the progress dialog.
+     * @param changeGenerator Generates the changes.  This is called on a background thread.
+     * @return The number of changes that were applied.
+     */
+    public int applyChanges(@Nonnull String message,
+                            @Nonnull Supplier<List<? extends OWLOntologyChange>> changeGenerator) {
+        checkNotNull(changeGenerator);
+        BulkChangeApplier applier = new BulkChangeApplier(modelManager, ProgressRunner::invokeAndWait);
+        return new ProgressRunner(message, true).run("Apply Changes", progress -> {
+            progress.setSubMessage("Finding changes");
+            List<? extends OWLOntologyChange> changes = changeGenerator.get();
+            return applier.applyChanges(changes, new BulkChangeApplier.ProgressListener() {
+                @Override
+                public void progressChanged(int appliedCount, int totalCount) {
+                    progress.setSubMessage(String.format("Applied %,d of %,d changes", appliedCount, totalCount));
+                    progress.setProgress(appliedCount, totalCount);
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return progress.isCancelled();
+                }
+            });
+        });
+    }
+}
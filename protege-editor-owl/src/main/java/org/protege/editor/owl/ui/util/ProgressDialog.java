@@ -16,18 +16,37 @@ public class ProgressDialog {
 
     private final ProgressView view = new ProgressViewImpl();
 
+    private final JPanel contentPane = new JPanel();
+
     /**
      * Constructs a ProgressDialog.  A ProgressDialog contains a message and an optional sub-message.
      */
     public ProgressDialog() {
         dlg.setUndecorated(true);
-        JPanel contentPane = new JPanel();
         contentPane.setBorder(BorderFactory.createMatteBorder(1, 1, 1, 1, Color.LIGHT_GRAY));
         dlg.setContentPane(contentPane);
         contentPane.setLayout(new BorderLayout());
         contentPane.add(view.asJComponent(), BorderLayout.NORTH);
     }
 
+    /**
+     * Adds a cancel button to the progress dialog.  This should be called before the dialog is made visible.
+     * The button is disabled once it has been pressed.
+     * @param cancelAction The action that is run, on the event dispatch thread, when the button is pressed.
+     */
+    public void setCancelAction(Runnable cancelAction) {
+        checkNotNull(cancelAction);
+        JButton cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> {
+            cancelButton.setEnabled(false);
+            view.setSubMessage("Cancelling...");
+            cancelAction.run();
+        });
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttonPanel.add(cancelButton);
+        contentPane.add(buttonPanel, BorderLayout.SOUTH);
+    }
+
     /**
      * Sets the visibility of the progress dialog.  Note that the progress dialog is modal - it will block the
      * event dispatch thread when it is shown.
@@ -113,4 +132,22 @@ public class ProgressDialog {
         }
     }
 
+    /**
+     * Sets the progress that is displayed in the progress dialog.
+     * Note that this method may be called from a thread other than the event dispatch thread.  The implementation
+     * will check to see whether the calling thread is the event dispatch thread or not and, if necessary, will
+     * use SwingUtilities.invoke later.
+     * @param completed The number of units of work that have been completed.
+     * @param total The total number of units of work.
+     */
+    public void setProgress(int completed, int total) {
+        Runnable r = () -> view.setProgress(completed, total);
+        if(SwingUtilities.isEventDispatchThread()) {
+            r.run();
+        }
+        else {
+            SwingUtilities.invokeLater(r);
+        }
+    }
+
 }
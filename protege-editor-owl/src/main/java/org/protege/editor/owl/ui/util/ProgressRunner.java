@@ -0,0 +1,139 @@
+package org.protege.editor.owl.ui.util;
+
+import javax.annotation.Nonnull;
+import javax.swing.*;
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Runs a long task on a background thread whilst showing a (modal) {@link ProgressDialog}, and waits for the task to
+ * complete.  The task can update the sub-message and progress that the dialog shows and, if the runner is
+ * cancellable, find out whether the user has pressed the cancel button.  Tasks that change the model should apply
+ * their changes on the event dispatch thread, e.g. with {@link #invokeAndWait(Runnable)}.
+ */
+public class ProgressRunner {
+
+    private final String message;
+
+    private final boolean cancellable;
+
+    /**
+     * Creates a runner.
+     * @param message The message that is shown in the progress dialog.
+     * @param cancellable {@code true} if the dialog has a cancel button.
+     */
+    public ProgressRunner(@Nonnull String message, boolean cancellable) {
+        this.message = checkNotNull(message);
+        this.cancellable = cancellable;
+    }
+
+    /**
+     * Runs a task.  This must be called on the event dispatch thread.
+     * @param threadName The name of the thread that the task is run on.
+     * @param task The task.
+     * @return The result of the task.
+     * @throws RuntimeException if the task failed.  A {@link RuntimeException} that is thrown by the task is
+     * rethrown, and any other exception is wrapped.
+     */
+    public <T> T run(@Nonnull String threadName, @Nonnull Task<T> task) {
+        checkNotNull(task);
+        ProgressDialog dlg = new ProgressDialog();
+        dlg.setMessage(message);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        if (cancellable) {
+            dlg.setCancelAction(() -> cancelled.set(true));
+        }
+        Progress progress = new Progress() {
+            @Override
+            public void setSubMessage(@Nonnull String subMessage) {
+                dlg.setSubMessage(subMessage);
+            }
+
+            @Override
+            public void setProgress(int completed, int total) {
+                dlg.setProgress(completed, total);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled.get();
+            }
+        };
+        FutureTask<T> futureTask = new FutureTask<>(() -> {
+            try {
+                return task.run(progress);
+            } finally {
+                dlg.setVisible(false);
+            }
+        });
+        new Thread(futureTask, checkNotNull(threadName)).start();
+        dlg.setVisible(true);
+        try {
+            return futureTask.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new RuntimeException(message + " failed", cause);
+        }
+    }
+
+    /**
+     * Runs an update on the event dispatch thread and waits for it to complete.  This is intended to be used as the
+     * model updater of tasks that generate changes on the background thread.
+     * @param update The update.
+     */
+    public static void invokeAndWait(@Nonnull Runnable update) {
+        if (SwingUtilities.isEventDispatchThread()) {
+            update.run();
+            return;
+        }
+        try {
+            SwingUtilities.invokeAndWait(update);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (InvocationTargetException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * A task that is run by a {@link ProgressRunner}.
+     */
+    public interface Task<T> {
+
+        T run(@Nonnull Progress progress) throws Exception;
+    }
+
+    /**
+     * Reports the progress of a task.  The methods may be called on any thread.
+     */
+    public interface Progress {
+
+        void setSubMessage(@Nonnull String subMessage);
+
+        void setProgress(int completed, int total);
+
+        /**
+         * Determines whether the user has cancelled the task.  This is always {@code false} if the runner is not
+         * cancellable.
+         */
+        boolean isCancelled();
+    }
+}
@@ -17,6 +17,16 @@ public interface ProgressView {
 
     void clearSubMessage();
 
+    /**
+     * Sets the progress that is displayed by this view.
+     * @param completed The number of units of work that have been completed.
+     * @param total The total number of units of work.  If this is less than or equal to zero then the progress is
+     *              displayed as indeterminate.
+     */
+    default void setProgress(int completed, int total) {
+
+    }
+
     JComponent asJComponent();
 
 }
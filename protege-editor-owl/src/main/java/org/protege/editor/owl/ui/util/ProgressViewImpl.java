@@ -18,6 +18,8 @@ public class ProgressViewImpl extends JPanel implements ProgressView {
 
     private final JLabel subMessageLabel = new JLabel();
 
+    private final JProgressBar progressBar = new JProgressBar();
+
     public ProgressViewImpl() {
         setLayout(new BorderLayout());
         setBorder(BorderFactory.createEmptyBorder(20, 20, 20, 20));
@@ -51,7 +53,6 @@ public class ProgressViewImpl extends JPanel implements ProgressView {
                 insets,
                 0, 0));
 
-        JProgressBar progressBar = new JProgressBar();
         progressBar.setIndeterminate(true);
         holder.add(progressBar, new GridBagConstraints(
                 1, 2,
@@ -89,6 +90,19 @@ public class ProgressViewImpl extends JPanel implements ProgressView {
         );
     }
 
+    @Override
+    public void setProgress(int completed, int total) {
+        // Only show determinate progress when there is more than one thing to track
+        if(total <= 1) {
+            progressBar.setIndeterminate(true);
+        }
+        else {
+            progressBar.setIndeterminate(false);
+            progressBar.setMaximum(total);
+            progressBar.setValue(Math.min(completed, total));
+        }
+    }
+
     @Override
     public JComponent asJComponent() {
         return this;
@@ -3,6 +3,7 @@ package org.protege.editor.owl.ui.view;
 import org.protege.editor.owl.model.event.EventType;
 import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
 import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.protege.editor.owl.model.event.OntologyChangeDelivery;
 import org.semanticweb.owlapi.model.OWLOntology;
 import org.semanticweb.owlapi.model.OWLOntologyChange;
 import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
@@ -48,7 +49,7 @@ public abstract class AbstractActiveOntologyViewComponent extends AbstractOWLVie
                 }
             }
         };
-        getOWLModelManager().addOntologyChangeListener(owlOntologyChangeListener);
+        getOWLModelManager().addOntologyChangeListener(owlOntologyChangeListener, OntologyChangeDelivery.COALESCED);
 
         hierarchyListener = e -> markForUpdate();
 
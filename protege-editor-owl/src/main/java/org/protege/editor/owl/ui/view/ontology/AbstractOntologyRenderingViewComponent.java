@@ -1,8 +1,13 @@
 package org.protege.editor.owl.ui.view.ontology;
 
+import org.protege.editor.owl.model.event.OntologyChangeDelivery;
+import org.protege.editor.owl.model.selection.OWLSelectionModelListener;
 import org.protege.editor.owl.ui.view.AbstractActiveOntologyViewComponent;
 import org.protege.editor.owl.ui.view.AbstractOWLViewComponent;
+import org.semanticweb.owlapi.model.OWLEntity;
 import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -20,6 +25,10 @@ import java.io.IOException;
 import java.io.InterruptedIOException;
 import java.io.Writer;
 import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalInt;
 
 
 /**
@@ -31,16 +40,51 @@ import java.lang.reflect.InvocationTargetException;
 public abstract class AbstractOntologyRenderingViewComponent extends AbstractActiveOntologyViewComponent {
     private static final long serialVersionUID = 496671619048384054L;
     private static final Logger logger = LoggerFactory.getLogger(AbstractOWLViewComponent.class);
+
+    /**
+     * Ontologies with at least this many axioms are rendered on demand, if the view supports it, rather than being
+     * rendered into the text area in full.
+     */
+    public static final int VIRTUALISED_RENDERING_AXIOM_THRESHOLD = 50000;
+
     private JTextArea textArea;
+    private JList<String> sourceList;
+    private JScrollPane scrollPane;
+    private VirtualisedOntologySourceModel sourceModel;
     private Thread renderThread;
 
+    /**
+     * Changes that have been applied while a virtualised model is being built on the render thread.  These are
+     * replayed onto the model before it is installed.  Only accessed on the event dispatch thread.
+     */
+    private List<OWLOntologyChange> changesDuringBuild;
+
+    private final OWLOntologyChangeListener sourceModelUpdater = changes -> {
+        if (sourceModel != null) {
+            sourceModel.handleChanges(changes);
+        }
+        else if (changesDuringBuild != null) {
+            changesDuringBuild.addAll(changes);
+        }
+    };
+
+    private final OWLSelectionModelListener selectionListener = this::scrollToSelectedEntity;
+
 
     protected void initialiseOntologyView() throws Exception {
         setLayout(new BorderLayout());
         textArea = new JTextArea();
-        add(new JScrollPane(textArea));
+        scrollPane = new JScrollPane(textArea);
+        add(scrollPane);
         textArea.setFont(new Font("monospaced", Font.PLAIN, 12));
         textArea.setEditable(false);
+        sourceList = new JList<>();
+        sourceList.setFont(textArea.getFont());
+        // A fixed cell size means that only the rows that are scrolled into view are ever rendered
+        sourceList.setFixedCellHeight(sourceList.getFontMetrics(sourceList.getFont()).getHeight());
+        sourceList.setFixedCellWidth(2000);
+        getOWLModelManager().addOntologyChangeListener(sourceModelUpdater, OntologyChangeDelivery.COALESCED);
+        getOWLWorkspace().getOWLSelectionModel().addListener(selectionListener);
 
         /*
          *  Since the rendered text for an  ontology can use so much memory, , monitor the text area to for changes
@@ -50,8 +94,8 @@ public abstract class AbstractOntologyRenderingViewComponent extends AbstractAct
          */
         HierarchyListener hell = e -> {
             if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
-                logger.trace("textArea.isShowing() = " + textArea.isShowing());
-                if (!textArea.isShowing()) {
+                logger.trace("scrollPane.isShowing() = " + scrollPane.isShowing());
+                if (!scrollPane.isShowing()) {
                     synchronized (textArea) {
                         if (renderThread != null) {
                             renderThread.interrupt();
@@ -72,20 +116,24 @@ public abstract class AbstractOntologyRenderingViewComponent extends AbstractAct
             }
         };
 
-        textArea.addHierarchyListener(hell);
+        scrollPane.addHierarchyListener(hell);
         setText(getOWLModelManager().getActiveOntology());
 
     }
 
 
     protected void disposeOntologyView() {
-
+        getOWLModelManager().removeOntologyChangeListener(sourceModelUpdater);
+        getOWLWorkspace().getOWLSelectionModel().removeListener(selectionListener);
     }
 
 
     protected void updateView(OWLOntology activeOntology) throws Exception {
         logger.debug("update view called");
         //setText(activeOntology);
+        if (sourceModel != null && !sourceModel.getOntology().equals(activeOntology)) {
+            setText(activeOntology);
+        }
     }
 
     /**
@@ -107,8 +155,23 @@ public abstract class AbstractOntologyRenderingViewComponent extends AbstractAct
         final Cursor oldCursor = getCursor();
         textArea.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
         clearText();
+        boolean virtualise = activeOntology.getAxiomCount() >= VIRTUALISED_RENDERING_AXIOM_THRESHOLD;
+        List<OWLOntologyChange> buildChanges = virtualise ? new ArrayList<>() : null;
+        changesDuringBuild = buildChanges;
         renderThread = new Thread() {
             public void run() {
+                if (virtualise) {
+                    Optional<VirtualisedOntologySourceModel> model = createVirtualisedModel(activeOntology);
+                    if (model.isPresent()) {
+                        showVirtualisedModel(this, model.get(), oldCursor);
+                        return;
+                    }
+                    SwingUtilities.invokeLater(() -> {
+                        if (changesDuringBuild == buildChanges) {
+                            changesDuringBuild = null;
+                        }
+                    });
+                }
                 int estimatedTextSize = estimateRenderedTextLength(activeOntology);
                 TextAreaWriter textAreaWriter = new TextAreaWriter(this, textArea, estimatedTextSize);
                 Writer w = new BufferedWriter(textAreaWriter);
@@ -141,6 +204,60 @@ public abstract class AbstractOntologyRenderingViewComponent extends AbstractAct
         logger.debug("returning from set text");
     }
 
+    /**
+     * Display a model that was built by the specified render thread, provided that the rendering has not since been
+     * cancelled.
+     */
+    private void showVirtualisedModel(Thread thread, VirtualisedOntologySourceModel model, Cursor oldCursor) {
+        try {
+            SwingUtilities.invokeAndWait(() -> {
+                synchronized (textArea) {
+                    if (renderThread != thread || thread.isInterrupted()) {
+                        return;
+                    }
+                    renderThread = null;
+                }
+                // Changes that were applied after the model took its snapshot of the ontology
+                if (changesDuringBuild != null) {
+                    model.handleChanges(changesDuringBuild);
+                    changesDuringBuild = null;
+                }
+                sourceModel = model;
+                sourceList.setModel(model);
+                scrollPane.setViewportView(sourceList);
+                textArea.setCursor(oldCursor);
+                scrollToSelectedEntity();
+            });
+        } catch (InterruptedException | InvocationTargetException e) {
+            logger.debug("Virtualised rendering interrupted", e);
+        }
+    }
+
+    /**
+     * If the ontology is being rendered on demand then scroll to the first axiom about the selected entity.
+     */
+    private void scrollToSelectedEntity() {
+        OWLEntity entity = getOWLWorkspace().getOWLSelectionModel().getSelectedEntity();
+        if (sourceModel != null && entity != null) {
+            OptionalInt row = sourceModel.getFirstRow(entity);
+            if (row.isPresent()) {
+                sourceList.setSelectedIndex(row.getAsInt());
+                sourceList.ensureIndexIsVisible(row.getAsInt());
+            }
+        }
+    }
+
+    /**
+     * Creates a model that renders the ontology on demand, one axiom per row.  This is used, instead of rendering
+     * the whole ontology into a text area, for ontologies that have at least
+     * {@link #VIRTUALISED_RENDERING_AXIOM_THRESHOLD} axioms.  This method is called on a background thread.
+     * The default implementation returns an empty value, which means that the whole ontology is always rendered.
+     * @param ontology The ontology to be rendered.
+     */
+    protected Optional<VirtualisedOntologySourceModel> createVirtualisedModel(OWLOntology ontology) {
+        return Optional.empty();
+    }
+
     /**
      * Estimate the size, in characters,  of the rendered ontology
      * @param activeOntology
@@ -154,6 +271,12 @@ public abstract class AbstractOntologyRenderingViewComponent extends AbstractAct
      * Replace the existing document with a place-holder.
      */
     private void clearText() {
+        changesDuringBuild = null;
+        if (sourceModel != null) {
+            sourceModel = null;
+            sourceList.setModel(new DefaultListModel<>());
+            scrollPane.setViewportView(textArea);
+        }
         Document newDoc = new PlainDocument();
         textArea.setDocument(newDoc);
         textArea.setText("Ontology Not Rendered");
@@ -1,9 +1,18 @@
 package org.protege.editor.owl.ui.view.ontology;
 
+import org.protege.editor.owl.model.io.FunctionalSyntaxHeaderWriter;
+import org.semanticweb.owlapi.functional.renderer.FunctionalSyntaxObjectRenderer;
 import org.semanticweb.owlapi.functional.renderer.OWLFunctionalSyntaxRenderer;
-import org.semanticweb.owlapi.model.OWLOntology;
+import org.semanticweb.owlapi.model.*;
 
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
 
 
 /**
@@ -19,4 +28,30 @@ public class OWLFunctionalSyntaxRenderingViewComponent extends AbstractOntologyR
         OWLFunctionalSyntaxRenderer ren = new OWLFunctionalSyntaxRenderer();
         ren.render(ontology, writer);
     }
+
+    @Override
+    protected Optional<VirtualisedOntologySourceModel> createVirtualisedModel(OWLOntology ontology) {
+        // A single renderer, writing into a reusable buffer, renders each axiom as a single line
+        StringWriter axiomBuffer = new StringWriter();
+        FunctionalSyntaxObjectRenderer axiomRenderer = new FunctionalSyntaxObjectRenderer(ontology, axiomBuffer);
+        return Optional.of(new VirtualisedOntologySourceModel(
+                ontology,
+                OWLFunctionalSyntaxRenderingViewComponent::renderHeader,
+                axiom -> {
+                    axiomBuffer.getBuffer().setLength(0);
+                    axiom.accept(axiomRenderer);
+                    return axiomBuffer.toString().trim();
+                }));
+    }
+
+    private static List<String> renderHeader(OWLOntology ontology) {
+        StringWriter writer = new StringWriter();
+        try {
+            FunctionalSyntaxHeaderWriter.writeHeader(ontology, writer);
+        } catch (IOException e) {
+            // A StringWriter does not throw IOExceptions
+            throw new UncheckedIOException(e);
+        }
+        return new ArrayList<>(Arrays.asList(writer.toString().split("\n", -1)));
+    }
 }
@@ -0,0 +1,363 @@
+package org.protege.editor.owl.ui.view.ontology;
+
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.AxiomSubjectProvider;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.swing.*;
+import java.util.*;
+import java.util.function.Function;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * A list model that presents the source of an ontology as one row per axiom, without rendering the whole ontology
+ * up front.
+ * <p>
+ * The axioms of the ontology are sorted by subject, so that the axioms about an entity are adjacent, and are held
+ * in chunks.  The subject of each axiom is computed once, when the axiom enters the model, and is kept alongside it.
+ * The text of a chunk is rendered when one of its rows is first requested (i.e. when it is scrolled into view) and
+ * is kept in a small LRU cache.  Axiom changes only re-render the chunk that they fall in, and are reported to
+ * listeners as the insertion or removal of a single row.  The sorted chunks also serve as an index from an entity to
+ * the row of its first axiom, which is found by binary search.
+ * <p>
+ * Changes are applied as set operations (adding an axiom that is already present, or removing one that is absent,
+ * has no effect), so changes that were applied to the ontology while the model was being built may safely be
+ * passed to {@link #handleChanges(List)} once it has been built.
+ * <p>
+ * Apart from construction, which may be performed on any thread, instances should only be accessed on the event
+ * dispatch thread.
+ */
+class VirtualisedOntologySourceModel extends AbstractListModel<String> {
+
+    private static final int CHUNK_SIZE = 512;
+
+    private static final int MAX_CACHED_CHUNKS = 64;
+
+    private static final Comparator<Row> ROW_ORDER = Comparator
+            .comparing((Row row) -> row.subject, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparing(row -> row.axiom);
+
+    private final OWLOntology ontology;
+
+    private final Function<OWLAxiom, String> axiomRenderer;
+
+    private final Function<OWLOntology, List<String>> headerRenderer;
+
+    private final AxiomSubjectProvider subjectProvider = new AxiomSubjectProvider();
+
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private List<String> header;
+
+    private final Map<Chunk, String[]> renderedChunks = new LinkedHashMap<Chunk, String[]>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Chunk, String[]> eldest) {
+            return size() > MAX_CACHED_CHUNKS;
+        }
+    };
+
+    private int axiomCount = 0;
+
+    /**
+     * Creates a model for the specified ontology.  This sorts the axioms in the ontology, which may take some time
+     * for large ontologies, but does not render any of them.
+     * @param ontology The ontology.
+     * @param headerRenderer Renders the lines that precede the axioms (prefixes, ontology header etc.)
+     * @param axiomRenderer Renders an axiom as a single line.
+     */
+    VirtualisedOntologySourceModel(@Nonnull OWLOntology ontology,
+                                   @Nonnull Function<OWLOntology, List<String>> headerRenderer,
+                                   @Nonnull Function<OWLAxiom, String> axiomRenderer) {
+        this.ontology = checkNotNull(ontology);
+        this.headerRenderer = checkNotNull(headerRenderer);
+        this.axiomRenderer = checkNotNull(axiomRenderer);
+        this.header = headerRenderer.apply(ontology);
+        List<Row> rows = new ArrayList<>(ontology.getAxiomCount());
+        for(OWLAxiom axiom : ontology.getAxioms()) {
+            rows.add(toRow(axiom));
+        }
+        rows.sort(ROW_ORDER);
+        for(int start = 0; start < rows.size(); start += CHUNK_SIZE) {
+            int end = Math.min(rows.size(), start + CHUNK_SIZE);
+            chunks.add(new Chunk(new ArrayList<>(rows.subList(start, end))));
+        }
+        axiomCount = rows.size();
+        updateChunkOffsets();
+    }
+
+    @Nonnull
+    public OWLOntology getOntology() {
+        return ontology;
+    }
+
+    @Override
+    public int getSize() {
+        // Header, axioms and the closing bracket
+        return header.size() + axiomCount + 1;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        if(index < header.size()) {
+            return header.get(index);
+        }
+        int axiomIndex = index - header.size();
+        if(axiomIndex >= axiomCount) {
+            return ")";
+        }
+        Chunk chunk = chunks.get(getChunkIndex(axiomIndex));
+        String[] lines = renderedChunks.get(chunk);
+        if(lines == null) {
+            lines = new String[chunk.rows.size()];
+            for(int i = 0; i < lines.length; i++) {
+                lines[i] = axiomRenderer.apply(chunk.rows.get(i).axiom);
+            }
+            renderedChunks.put(chunk, lines);
+        }
+        return lines[axiomIndex - chunk.firstAxiomIndex];
+    }
+
+    /**
+     * Gets the row of the first axiom whose subject is the specified entity.
+     * @param entity The entity.
+     * @return The row, or an empty value if there are no axioms about the entity.
+     */
+    @Nonnull
+    public OptionalInt getFirstRow(@Nonnull OWLEntity entity) {
+        IRI iri = entity.getIRI();
+        // Find the first chunk whose last axiom is not before the entity
+        int lo = 0;
+        int hi = chunks.size();
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            List<Row> rows = chunks.get(mid).rows;
+            if(compareSubject(rows.get(rows.size() - 1), iri) < 0) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        if(lo == chunks.size()) {
+            return OptionalInt.empty();
+        }
+        Chunk chunk = chunks.get(lo);
+        for(int i = 0; i < chunk.rows.size(); i++) {
+            int cmp = compareSubject(chunk.rows.get(i), iri);
+            if(cmp == 0) {
+                return OptionalInt.of(header.size() + chunk.firstAxiomIndex + i);
+            }
+            if(cmp > 0) {
+                break;
+            }
+        }
+        return OptionalInt.empty();
+    }
+
+    /**
+     * Updates the model to reflect the specified changes.  Changes to other ontologies are ignored.  Only the chunks
+     * that contain added or removed axioms are re-rendered, and listeners are told about each added or removed row.
+     */
+    public void handleChanges(@Nonnull List<? extends OWLOntologyChange> changes) {
+        boolean headerChanged = false;
+        for(OWLOntologyChange change : changes) {
+            if(!change.getOntology().equals(ontology)) {
+                continue;
+            }
+            if(change.isAxiomChange()) {
+                if(change.isAddAxiom()) {
+                    int axiomIndex = addAxiom(change.getAxiom());
+                    if(axiomIndex != -1) {
+                        int row = header.size() + axiomIndex;
+                        fireIntervalAdded(this, row, row);
+                    }
+                }
+                else {
+                    int axiomIndex = removeAxiom(change.getAxiom());
+                    if(axiomIndex != -1) {
+                        int row = header.size() + axiomIndex;
+                        fireIntervalRemoved(this, row, row);
+                    }
+                }
+            }
+            else {
+                headerChanged = true;
+            }
+        }
+        if(headerChanged) {
+            updateHeader();
+        }
+    }
+
+    private void updateHeader() {
+        int oldSize = header.size();
+        header = headerRenderer.apply(ontology);
+        int newSize = header.size();
+        if(newSize > oldSize) {
+            fireIntervalAdded(this, oldSize, newSize - 1);
+        }
+        else if(newSize < oldSize) {
+            fireIntervalRemoved(this, newSize, oldSize - 1);
+        }
+        int commonRowCount = Math.min(oldSize, newSize);
+        if(commonRowCount > 0) {
+            fireContentsChanged(this, 0, commonRowCount - 1);
+        }
+    }
+
+    /**
+     * Adds an axiom to the model.
+     * @return The index of the axiom amongst the axioms in the model, or -1 if the model already contained the axiom.
+     */
+    private int addAxiom(OWLAxiom axiom) {
+        Row row = toRow(axiom);
+        if(chunks.isEmpty()) {
+            chunks.add(new Chunk(new ArrayList<>(Collections.singletonList(row))));
+            axiomCount++;
+            return 0;
+        }
+        int chunkIndex = findChunkFor(row);
+        Chunk chunk = chunks.get(chunkIndex);
+        int pos = Collections.binarySearch(chunk.rows, row, ROW_ORDER);
+        if(pos >= 0) {
+            return -1;
+        }
+        int insertionPos = -pos - 1;
+        chunk.rows.add(insertionPos, row);
+        renderedChunks.remove(chunk);
+        axiomCount++;
+        shiftChunkOffsets(chunkIndex + 1, 1);
+        if(chunk.rows.size() > 2 * CHUNK_SIZE) {
+            List<Row> tail = chunk.rows.subList(CHUNK_SIZE, chunk.rows.size());
+            Chunk split = new Chunk(new ArrayList<>(tail));
+            tail.clear();
+            split.firstAxiomIndex = chunk.firstAxiomIndex + CHUNK_SIZE;
+            chunks.add(chunkIndex + 1, split);
+        }
+        return chunk.firstAxiomIndex + insertionPos;
+    }
+
+    /**
+     * Removes an axiom from the model.
+     * @return The index that the axiom had amongst the axioms in the model, or -1 if the model did not contain the
+     * axiom.
+     */
+    private int removeAxiom(OWLAxiom axiom) {
+        if(chunks.isEmpty()) {
+            return -1;
+        }
+        Row row = toRow(axiom);
+        int chunkIndex = findChunkFor(row);
+        Chunk chunk = chunks.get(chunkIndex);
+        int pos = Collections.binarySearch(chunk.rows, row, ROW_ORDER);
+        if(pos < 0) {
+            return -1;
+        }
+        chunk.rows.remove(pos);
+        renderedChunks.remove(chunk);
+        axiomCount--;
+        shiftChunkOffsets(chunkIndex + 1, -1);
+        if(chunk.rows.isEmpty()) {
+            chunks.remove(chunkIndex);
+        }
+        return chunk.firstAxiomIndex + pos;
+    }
+
+    /**
+     * Finds the index of the chunk that the specified row belongs in: the first chunk whose last row is not
+     * before the row, or the last chunk.
+     */
+    private int findChunkFor(Row row) {
+        int lo = 0;
+        int hi = chunks.size() - 1;
+        while(lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            List<Row> rows = chunks.get(mid).rows;
+            if(ROW_ORDER.compare(rows.get(rows.size() - 1), row) < 0) {
+                lo = mid + 1;
+            }
+            else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+
+    private int getChunkIndex(int axiomIndex) {
+        int lo = 0;
+        int hi = chunks.size() - 1;
+        while(lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if(chunks.get(mid).firstAxiomIndex <= axiomIndex) {
+                lo = mid;
+            }
+            else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private void updateChunkOffsets() {
+        int offset = 0;
+        for(Chunk chunk : chunks) {
+            chunk.firstAxiomIndex = offset;
+            offset += chunk.rows.size();
+        }
+    }
+
+    private void shiftChunkOffsets(int fromChunkIndex, int delta) {
+        for(int i = fromChunkIndex; i < chunks.size(); i++) {
+            chunks.get(i).firstAxiomIndex += delta;
+        }
+    }
+
+    private Row toRow(OWLAxiom axiom) {
+        OWLObject subject = subjectProvider.getSubject(axiom);
+        if(subject instanceof OWLEntity) {
+            return new Row(((OWLEntity) subject).getIRI(), axiom);
+        }
+        else if(subject instanceof IRI) {
+            return new Row((IRI) subject, axiom);
+        }
+        else {
+            return new Row(null, axiom);
+        }
+    }
+
+    private static int compareSubject(Row row, IRI iri) {
+        if(row.subject == null) {
+            return 1;
+        }
+        return row.subject.compareTo(iri);
+    }
+
+    /**
+     * An axiom and its subject, which is what the axioms are sorted by.
+     */
+    private static final class Row {
+
+        @Nullable
+        private final IRI subject;
+
+        private final OWLAxiom axiom;
+
+        private Row(@Nullable IRI subject, OWLAxiom axiom) {
+            this.subject = subject;
+            this.axiom = axiom;
+        }
+    }
+
+    private static final class Chunk {
+
+        private final List<Row> rows;
+
+        private int firstAxiomIndex;
+
+        private Chunk(List<Row> rows) {
+            this.rows = rows;
+        }
+    }
+}
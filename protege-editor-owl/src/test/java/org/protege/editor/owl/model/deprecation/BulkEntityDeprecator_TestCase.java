@@ -0,0 +1,97 @@
+package org.protege.editor.owl.model.deprecation;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.entity.HomeOntologySupplier;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkEntityDeprecator_TestCase {
+
+    @Mock
+    private DeprecationProfile deprecationProfile;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ont;
+
+    private OWLClass deprecatedA, deprecatedB, replacementA, replacementB, user, superCls;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        PrefixManager pm = new DefaultPrefixManager();
+        pm.setDefaultPrefix("http://the.ontology/ont/");
+        deprecatedA = Class("DeprecatedA", pm);
+        deprecatedB = Class("DeprecatedB", pm);
+        replacementA = Class("ReplacementA", pm);
+        replacementB = Class("ReplacementB", pm);
+        user = Class("User", pm);
+        superCls = Class("SuperCls", pm);
+        ont = Ontology(manager,
+                       SubClassOf(user, ObjectIntersectionOf(deprecatedA, deprecatedB)),
+                       SubClassOf(deprecatedB, deprecatedA),
+                       SubClassOf(deprecatedA, superCls));
+        when(deprecationProfile.shouldRemoveLogicalDefinition()).thenReturn(true);
+        when(deprecationProfile.getDeprecatedEntityLabelPrefix()).thenReturn("");
+        when(deprecationProfile.getPreservedAnnotationValuePrefix()).thenReturn("");
+        when(deprecationProfile.getPreservedAnnotationValuePropertiesIris()).thenReturn(Collections.emptySet());
+        when(deprecationProfile.getReplacedByAnnotationPropertyIri()).thenReturn(Optional.empty());
+        when(deprecationProfile.getDeprecationTextualReasonAnnotationPropertyIri()).thenReturn(Optional.empty());
+        when(deprecationProfile.getAlternateEntityAnnotationPropertyIri()).thenReturn(Optional.empty());
+        when(deprecationProfile.getDeprecatedClassParentIri()).thenReturn(Optional.empty());
+        when(deprecationProfile.getDeprecationCode()).thenReturn(Optional.empty());
+    }
+
+    private void performDeprecation() {
+        BulkEntityDeprecator<OWLClass> deprecator = new BulkEntityDeprecator<>(
+                Arrays.asList(info(deprecatedA, replacementA), info(deprecatedB, replacementB)),
+                deprecationProfile,
+                Collections.singleton(ont),
+                new HomeOntologySupplier(),
+                dataFactory);
+        ont.getOWLOntologyManager().applyChanges(deprecator.getChanges());
+    }
+
+    private DeprecateEntityInfo<OWLClass> info(OWLClass entity, OWLClass replacement) {
+        return new DeprecateEntityInfo<>(entity, replacement, "", Collections.emptySet(), null);
+    }
+
+    @Test
+    public void shouldDeprecateAllEntities() {
+        performDeprecation();
+        assertThat(ont.containsAxiom(AnnotationAssertion(dataFactory.getOWLDeprecated(), deprecatedA.getIRI(), Literal(true))), is(true));
+        assertThat(ont.containsAxiom(AnnotationAssertion(dataFactory.getOWLDeprecated(), deprecatedB.getIRI(), Literal(true))), is(true));
+    }
+
+    @Test
+    public void shouldReplaceUsageOfAllEntitiesInOneAxiom() {
+        performDeprecation();
+        assertThat(ont.containsAxiom(SubClassOf(user, ObjectIntersectionOf(replacementA, replacementB))), is(true));
+        assertThat(ont.containsAxiom(SubClassOf(user, ObjectIntersectionOf(deprecatedA, deprecatedB))), is(false));
+        assertThat(ont.getAxioms(AxiomType.SUBCLASS_OF).size(), is(1));
+    }
+
+    @Test
+    public void shouldNotReplaceUsageInRemovedDefinitions() {
+        performDeprecation();
+        assertThat(ont.containsAxiom(SubClassOf(deprecatedB, deprecatedA)), is(false));
+        assertThat(ont.containsAxiom(SubClassOf(deprecatedB, replacementA)), is(false));
+        assertThat(ont.containsAxiom(SubClassOf(deprecatedA, superCls)), is(false));
+    }
+}
@@ -0,0 +1,123 @@
+package org.protege.editor.owl.model.entity;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.idrange.IdRange;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class NumericIdIndex_TestCase {
+
+    private static final String PREFIX = "http://example.org/onto#ID_";
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ontology;
+
+    private NumericIdIndex index;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology();
+        declare("ID_0000001", "ID_0000002", "ID_0000003", "ID_0000005", "ID_abc", "Other_0000004");
+        index = new NumericIdIndex(() -> Collections.singleton(ontology));
+    }
+
+    @Test
+    public void shouldSkipUsedIds() {
+        assertThat(index.getNextFreeId(PREFIX, "", 1), is(4L));
+        assertThat(index.getNextFreeId(PREFIX, "", 5), is(6L));
+    }
+
+    @Test
+    public void shouldReturnUnusedId() {
+        assertThat(index.getNextFreeId(PREFIX, "", 0), is(0L));
+        assertThat(index.getNextFreeId(PREFIX, "", 4), is(4L));
+    }
+
+    @Test
+    public void shouldSkipLongRunOfUsedIds() {
+        for (int id = 10; id < 200; id++) {
+            declare(String.format("ID_%07d", id));
+        }
+        assertThat(index.getNextFreeId(PREFIX, "", 10), is(200L));
+        assertThat(index.getNextFreeId(PREFIX, "", 150), is(200L));
+        assertThat(index.getNextFreeId(PREFIX, "", 6), is(6L));
+    }
+
+    @Test
+    public void shouldMarkIdsOfAddedAxiomsAsUsed() {
+        index.getNextFreeId(PREFIX, "", 1);
+        List<OWLOntologyChange> changes = declare("ID_0000004");
+        index.handleOntologyChanges(changes);
+        assertThat(index.getNextFreeId(PREFIX, "", 1), is(6L));
+    }
+
+    @Test
+    public void shouldRebuildIndexWhenInvalidated() {
+        index.getNextFreeId(PREFIX, "", 1);
+        declare("ID_0000004");
+        index.invalidate();
+        assertThat(index.getNextFreeId(PREFIX, "", 1), is(6L));
+    }
+
+    @Test
+    public void shouldMarkIdsBeforeEndOfIndexAsUsed() {
+        index.getNextFreeId(PREFIX, "", 1);
+        index.handleOntologyChanges(declare("ID_0000004", "ID_0000009"));
+        index.handleOntologyChanges(declare("ID_0000006"));
+        assertThat(index.getNextFreeId(PREFIX, "", 1), is(7L));
+        assertThat(index.getNextFreeId(PREFIX, "", 9), is(10L));
+    }
+
+    @Test
+    public void shouldFindFreeIdInRange() {
+        assertThat(index.getNextFreeId(PREFIX, "", IdRange.getIdRange(2, 9), 0), is(4L));
+        assertThat(index.getNextFreeId(PREFIX, "", IdRange.getIdRange(2, 9), 5), is(6L));
+    }
+
+    @Test
+    public void shouldReturnIdAfterRangeWhenRangeIsUsed() {
+        assertThat(index.getNextFreeId(PREFIX, "", IdRange.getIdRange(1, 3), 1), is(4L));
+        assertThat(index.getNextFreeId(PREFIX, "", IdRange.getIdRange(5, 5), 1), is(6L));
+    }
+
+    @Test
+    public void shouldReserveFreeIdsInRange() {
+        assertThat(index.reserveIds(PREFIX, "", IdRange.getIdRange(2, 9), 3), is(Arrays.asList(4L, 6L, 7L)));
+        assertThat(index.getNextFreeId(PREFIX, "", 1), is(8L));
+    }
+
+    @Test
+    public void shouldReserveNoMoreIdsThanRangeHolds() {
+        assertThat(index.reserveIds(PREFIX, "", IdRange.getIdRange(1, 5), 3), is(Collections.singletonList(4L)));
+    }
+
+    @Test
+    public void shouldIndexIdsPerPrefixAndSuffix() {
+        assertThat(index.getNextFreeId("http://example.org/onto#Other_", "", 4), is(5L));
+        assertThat(index.getNextFreeId(PREFIX, "_x", 1), is(1L));
+    }
+
+    private List<OWLOntologyChange> declare(String... fragments) {
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        for (String fragment : fragments) {
+            OWLClass cls = dataFactory.getOWLClass(IRI.create("http://example.org/onto#" + fragment));
+            changes.add(new AddAxiom(ontology, dataFactory.getOWLDeclarationAxiom(cls)));
+        }
+        manager.applyChanges(changes);
+        return changes;
+    }
+}
@@ -0,0 +1,103 @@
+package org.protege.editor.owl.model.event;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.util.ListenerManager;
+import org.semanticweb.owlapi.model.OWLOntologyChange;
+import org.semanticweb.owlapi.model.OWLOntologyChangeListener;
+
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OntologyChangeDispatcher_TestCase {
+
+    private OntologyChangeDispatcher dispatcher;
+
+    private ListenerManager<OWLOntologyChangeListener> listenerManager;
+
+    private final List<List<? extends OWLOntologyChange>> synchronousDeliveries = new ArrayList<>();
+
+    private final List<List<? extends OWLOntologyChange>> coalescedDeliveries = new ArrayList<>();
+
+    private final OWLOntologyChangeListener synchronousListener = synchronousDeliveries::add;
+
+    private final OWLOntologyChangeListener coalescedListener = coalescedDeliveries::add;
+
+    @Mock
+    private OWLOntologyChange changeA, changeB;
+
+    @Before
+    public void setUp() {
+        listenerManager = new ListenerManager<>();
+        // Use a long window so that deliveries are only made by composite changes or explicit flushes
+        dispatcher = new OntologyChangeDispatcher(listenerManager, 60000);
+        dispatcher.addListener(synchronousListener, OntologyChangeDelivery.SYNCHRONOUS);
+        dispatcher.addListener(coalescedListener, OntologyChangeDelivery.COALESCED);
+    }
+
+    @After
+    public void tearDown() {
+        dispatcher.dispose();
+    }
+
+    @Test
+    public void shouldDeliverEachChangeListToSynchronousListeners() {
+        dispatcher.ontologiesChanged(Collections.singletonList(changeA));
+        dispatcher.ontologiesChanged(Collections.singletonList(changeB));
+        assertThat(synchronousDeliveries.size(), is(2));
+        assertThat(coalescedDeliveries.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldCoalesceChangeListsUntilFlushed() throws Exception {
+        dispatcher.ontologiesChanged(Collections.singletonList(changeA));
+        dispatcher.ontologiesChanged(Collections.singletonList(changeB));
+        SwingUtilities.invokeAndWait(dispatcher::flush);
+        assertThat(coalescedDeliveries.size(), is(1));
+        assertThat(coalescedDeliveries.get(0), is(Arrays.asList(changeA, changeB)));
+    }
+
+    @Test
+    public void shouldDeliverCoalescedChangesAtEndOfOutermostCompositeChange() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            dispatcher.startCompositeChange();
+            dispatcher.startCompositeChange();
+            dispatcher.ontologiesChanged(Collections.singletonList(changeA));
+            dispatcher.endCompositeChange();
+            dispatcher.ontologiesChanged(Collections.singletonList(changeB));
+            assertThat(coalescedDeliveries.isEmpty(), is(true));
+            dispatcher.endCompositeChange();
+        });
+        assertThat(coalescedDeliveries.size(), is(1));
+        assertThat(coalescedDeliveries.get(0), is(Arrays.asList(changeA, changeB)));
+    }
+
+    @Test
+    public void shouldNotDeliverToRemovedListener() throws Exception {
+        dispatcher.removeListener(coalescedListener);
+        dispatcher.removeListener(synchronousListener);
+        dispatcher.ontologiesChanged(Collections.singletonList(changeA));
+        SwingUtilities.invokeAndWait(dispatcher::flush);
+        assertThat(synchronousDeliveries.isEmpty(), is(true));
+        assertThat(coalescedDeliveries.isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldRecordListenerTimings() {
+        dispatcher.ontologiesChanged(Collections.singletonList(changeA));
+        List<ListenerManager.ListenerTiming> timings = listenerManager.getListenerTimings();
+        assertThat(timings.size(), is(1));
+        assertThat(timings.get(0).getCount(), is(1L));
+    }
+}
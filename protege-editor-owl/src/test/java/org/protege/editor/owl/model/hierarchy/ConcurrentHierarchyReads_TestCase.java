@@ -0,0 +1,153 @@
+package org.protege.editor.owl.model.hierarchy;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.IntFunction;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+/**
+ * Runs many readers against hierarchy providers whilst a writer changes the ontology.  The writer only adds and
+ * removes leaves, so the ancestors of the fixed entities must be the same whenever they are read.
+ */
+public class ConcurrentHierarchyReads_TestCase {
+
+    private static final int ENTITY_COUNT = 100;
+
+    private static final int READER_COUNT = 6;
+
+    private static final int WRITE_COUNT = 400;
+
+    private final PrefixManager pm = new DefaultPrefixManager(null, null, "http://www.ontologies.com/ontology/");
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ontology;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createConcurrentOWLOntologyManager();
+        ontology = manager.createOntology();
+        executor = Executors.newFixedThreadPool(READER_COUNT + 1);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void shouldReadClassHierarchyWhilstItIsChanged() throws Exception {
+        // A binary tree of classes: C(i) is a sub class of C((i - 1) / 2)
+        for (int i = 1; i < ENTITY_COUNT; i++) {
+            manager.addAxiom(ontology, SubClassOf(cls(i), cls((i - 1) / 2)));
+        }
+        AssertedClassHierarchyProvider provider = new AssertedClassHierarchyProvider(manager);
+        provider.setOntologies(Collections.singleton(ontology));
+        OWLClass thing = OWLThing();
+        runReadersAndWriter(
+                () -> {
+                    for (int i = 1; i < ENTITY_COUNT; i++) {
+                        Set<OWLClass> ancestors = provider.getAncestors(cls(i));
+                        assertThat(ancestors, hasItems(cls(0), cls((i - 1) / 2), thing));
+                        assertThat(provider.getChildren(thing), not(hasItem(cls(i))));
+                        provider.getChildren(cls(i));
+                        provider.getPathsToRoot(cls(i));
+                    }
+                },
+                k -> SubClassOf(Class("Leaf" + k, pm), cls(k % ENTITY_COUNT)));
+        assertThat(provider.getChildren(thing), contains(cls(0)));
+        assertThat(provider.getDescendants(cls(0)).size(), is(ENTITY_COUNT - 1));
+        provider.dispose();
+    }
+
+    @Test
+    public void shouldReadObjectPropertyHierarchyWhilstItIsChanged() throws Exception {
+        for (int i = 1; i < ENTITY_COUNT; i++) {
+            manager.addAxiom(ontology, SubObjectPropertyOf(prop(i), prop((i - 1) / 2)));
+        }
+        OWLObjectPropertyHierarchyProvider provider = new OWLObjectPropertyHierarchyProvider(manager);
+        provider.setOntologies(Collections.singleton(ontology));
+        OWLObjectProperty top = manager.getOWLDataFactory().getOWLTopObjectProperty();
+        runReadersAndWriter(
+                () -> {
+                    for (int i = 1; i < ENTITY_COUNT; i++) {
+                        Set<OWLObjectProperty> ancestors = provider.getAncestors(prop(i));
+                        assertThat(ancestors, hasItems(prop(0), prop((i - 1) / 2), top));
+                        assertThat(provider.getChildren(top), not(hasItem(prop(i))));
+                        provider.getChildren(prop(i));
+                    }
+                },
+                k -> SubObjectPropertyOf(ObjectProperty("leaf" + k, pm), prop(k % ENTITY_COUNT)));
+        assertThat(provider.getChildren(top), contains(prop(0)));
+        assertThat(provider.getDescendants(prop(0)).size(), is(ENTITY_COUNT - 1));
+        provider.dispose();
+    }
+
+    /**
+     * Runs the readers until the writer has added (and then removed) the given number of leaf axioms, and rethrows
+     * the first error that any of them failed with.
+     */
+    private void runReadersAndWriter(Runnable reader, IntFunction<OWLAxiom> leafAxiomFactory) throws Exception {
+        AtomicBoolean writing = new AtomicBoolean(true);
+        List<Future<?>> readers = new ArrayList<>();
+        for (int r = 0; r < READER_COUNT; r++) {
+            readers.add(executor.submit(() -> {
+                while (writing.get()) {
+                    reader.run();
+                }
+                return null;
+            }));
+        }
+        Future<?> writer = executor.submit(() -> {
+            try {
+                Deque<OWLAxiom> added = new ArrayDeque<>();
+                for (int k = 0; k < WRITE_COUNT; k++) {
+                    OWLAxiom ax = leafAxiomFactory.apply(k);
+                    manager.addAxiom(ontology, ax);
+                    added.add(ax);
+                    if (k % 2 == 1) {
+                        manager.removeAxiom(ontology, added.removeFirst());
+                    }
+                }
+                while (!added.isEmpty()) {
+                    manager.removeAxiom(ontology, added.removeFirst());
+                }
+            } finally {
+                writing.set(false);
+            }
+            return null;
+        });
+        writer.get(60, TimeUnit.SECONDS);
+        for (Future<?> future : readers) {
+            try {
+                future.get(60, TimeUnit.SECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof AssertionError) {
+                    throw (AssertionError) e.getCause();
+                }
+                throw e;
+            }
+        }
+    }
+
+    private OWLClass cls(int i) {
+        return Class("C" + i, pm);
+    }
+
+    private OWLObjectProperty prop(int i) {
+        return ObjectProperty("p" + i, pm);
+    }
+}
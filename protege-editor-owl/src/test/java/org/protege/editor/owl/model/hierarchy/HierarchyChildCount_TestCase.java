@@ -0,0 +1,150 @@
+package org.protege.editor.owl.model.hierarchy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+public class HierarchyChildCount_TestCase {
+
+    private final PrefixManager pm = new DefaultPrefixManager(null, null, "http://www.ontologies.com/ontology/");
+
+    private final OWLClass a = Class("A", pm), b = Class("B", pm), c = Class("C", pm), d = Class("D", pm);
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ontology;
+
+    private AssertedClassHierarchyProvider provider;
+
+    private final Set<OWLClass> changedNodes = new HashSet<>();
+
+    private final Map<OWLClass, Integer> publishedChildCounts = new HashMap<>();
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        ontology = Ontology(manager, Declaration(c), SubClassOf(b, a), SubClassOf(c, a));
+        provider = new AssertedClassHierarchyProvider(manager);
+        provider.setOntologies(Collections.singleton(ontology));
+        provider.addListener(new OWLObjectHierarchyProviderListener<OWLClass>() {
+            @Override
+            public void nodeChanged(OWLClass node) {
+                changedNodes.add(node);
+            }
+
+            @Override
+            public void nodeChanged(OWLClass node, int childCount) {
+                publishedChildCounts.put(node, childCount);
+                nodeChanged(node);
+            }
+
+            @Override
+            public void hierarchyChanged() {
+            }
+        });
+    }
+
+    @Test
+    public void shouldCountChildren() {
+        assertThat(provider.getChildCount(a), is(2));
+        assertThat(provider.hasChildren(a), is(true));
+        assertThat(provider.getChildCount(b), is(0));
+        assertThat(provider.hasChildren(b), is(false));
+        assertThat(provider.getChildCount(OWLThing()), is(1));
+    }
+
+    @Test
+    public void shouldUpdateCountWhenChildAdded() {
+        assertThat(provider.getChildCount(a), is(2));
+        manager.addAxiom(ontology, SubClassOf(d, a));
+        assertThat(provider.getChildCount(a), is(3));
+        assertThat(changedNodes.contains(a), is(true));
+    }
+
+    @Test
+    public void shouldPublishCountWithNodeChange() {
+        manager.addAxiom(ontology, SubClassOf(d, a));
+        assertThat(publishedChildCounts.get(a), is(3));
+        manager.removeAxiom(ontology, SubClassOf(b, a));
+        assertThat(publishedChildCounts.get(a), is(2));
+    }
+
+    @Test
+    public void shouldUpdateCountWhenChildRemoved() {
+        assertThat(provider.getChildCount(a), is(2));
+        manager.removeAxiom(ontology, SubClassOf(c, a));
+        assertThat(provider.getChildCount(a), is(1));
+        assertThat(changedNodes.contains(a), is(true));
+        assertThat(provider.getChildCount(OWLThing()), is(2));
+    }
+
+    @Test
+    public void shouldUpdateParentCountWhenChildGainsNamedEquivalent() {
+        assertThat(provider.getChildCount(a), is(2));
+        manager.addAxiom(ontology, EquivalentClasses(b, d));
+        assertThat(provider.getChildCount(a), is(3));
+        assertThat(changedNodes.contains(a), is(true));
+    }
+
+    @Test
+    public void shouldUpdateCountWhenFilterChanges() {
+        assertThat(provider.getChildCount(a), is(2));
+        provider.setFilter(cls -> !cls.equals(c));
+        assertThat(provider.getChildCount(a), is(1));
+        provider.clearFilter();
+        assertThat(provider.getChildCount(a), is(2));
+    }
+
+    @Test
+    public void shouldUpdateFilteredCountWhenChildIsDeprecated() {
+        provider.setFilter(cls -> !ontology.containsAxiom(deprecated(cls)));
+        assertThat(provider.getChildCount(a), is(2));
+        manager.addAxiom(ontology, deprecated(c));
+        assertThat(changedNodes.contains(a), is(true));
+        assertThat(provider.getChildCount(a), is(1));
+        manager.removeAxiom(ontology, deprecated(c));
+        assertThat(provider.getChildCount(a), is(2));
+    }
+
+    @Test
+    public void shouldUpdateFilteredObjectPropertyCountWhenSubPropertyIsDeprecated() {
+        OWLObjectProperty p = ObjectProperty("p", pm), q = ObjectProperty("q", pm);
+        manager.addAxiom(ontology, SubObjectPropertyOf(q, p));
+        OWLObjectPropertyHierarchyProvider propertyProvider = new OWLObjectPropertyHierarchyProvider(manager);
+        propertyProvider.setOntologies(Collections.singleton(ontology));
+        propertyProvider.setFilter(prop -> !ontology.containsAxiom(deprecated(prop)));
+        assertThat(propertyProvider.getChildCount(p), is(1));
+        manager.addAxiom(ontology, deprecated(q));
+        assertThat(propertyProvider.getChildCount(p), is(0));
+        propertyProvider.dispose();
+    }
+
+    @Test
+    public void shouldUpdateObjectPropertyCountWhenSubPropertyAdded() {
+        OWLObjectProperty p = ObjectProperty("p", pm), q = ObjectProperty("q", pm), r = ObjectProperty("r", pm);
+        manager.addAxiom(ontology, SubObjectPropertyOf(q, p));
+        OWLObjectPropertyHierarchyProvider propertyProvider = new OWLObjectPropertyHierarchyProvider(manager);
+        propertyProvider.setOntologies(Collections.singleton(ontology));
+        assertThat(propertyProvider.getChildCount(p), is(1));
+        manager.addAxiom(ontology, SubObjectPropertyOf(r, p));
+        assertThat(propertyProvider.getChildCount(p), is(2));
+        propertyProvider.dispose();
+    }
+
+    private OWLAnnotationAssertionAxiom deprecated(OWLEntity entity) {
+        OWLDataFactory df = manager.getOWLDataFactory();
+        return df.getDeprecatedOWLAnnotationAssertionAxiom(entity.getIRI());
+    }
+}
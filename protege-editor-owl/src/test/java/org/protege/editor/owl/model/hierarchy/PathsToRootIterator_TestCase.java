@@ -0,0 +1,112 @@
+package org.protege.editor.owl.model.hierarchy;
+
+import com.google.common.collect.HashMultimap;
+import com.google.common.collect.SetMultimap;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class PathsToRootIterator_TestCase {
+
+    @Mock
+    private OWLObjectHierarchyProvider<OWLClass> provider;
+
+    private final OWLDataFactory df = OWLManager.getOWLDataFactory();
+
+    private final SetMultimap<OWLClass, OWLClass> parents = HashMultimap.create();
+
+    private OWLClass root;
+
+    @Before
+    public void setUp() {
+        root = cls("Root");
+        when(provider.getRoots()).thenReturn(Collections.singleton(root));
+        when(provider.getParents(any(OWLClass.class))).thenAnswer(
+                invocation -> parents.get((OWLClass) invocation.getArguments()[0]));
+    }
+
+    @Test
+    public void shouldGetSinglePathForRoot() {
+        assertThat(pathsTo(root), is(Collections.singletonList(Collections.singletonList(root))));
+    }
+
+    @Test
+    public void shouldGetShortestPathFirst() {
+        OWLClass a = cls("A"), b = cls("B"), c = cls("C"), x = cls("X");
+        // Root -> A -> B -> C -> X and Root -> X
+        parents.put(a, root);
+        parents.put(b, a);
+        parents.put(c, b);
+        parents.put(x, c);
+        parents.put(x, root);
+        List<List<OWLClass>> paths = pathsTo(x);
+        assertThat(paths.size(), is(2));
+        assertThat(paths.get(0), is(Arrays.asList(root, x)));
+        assertThat(paths.get(1), is(Arrays.asList(root, a, b, c, x)));
+    }
+
+    @Test
+    public void shouldGetFirstPathsOfExponentialPolyhierarchyLazily() {
+        // A chain of 40 diamonds has 2^40 paths from the root to its bottom
+        OWLClass top = root;
+        for (int i = 0; i < 40; i++) {
+            OWLClass left = cls("L" + i), right = cls("R" + i), bottom = cls("B" + i);
+            parents.put(left, top);
+            parents.put(right, top);
+            parents.put(bottom, left);
+            parents.put(bottom, right);
+            top = bottom;
+        }
+        PathsToRootIterator<OWLClass> iterator = new PathsToRootIterator<>(provider, top);
+        Set<List<OWLClass>> paths = new HashSet<>();
+        for (int i = 0; i < 10; i++) {
+            List<OWLClass> path = iterator.next();
+            assertThat(path.size(), is(81));
+            assertThat(path.get(0), is(root));
+            assertThat(path.get(80), is(top));
+            paths.add(path);
+        }
+        assertThat(paths.size(), is(10));
+        assertThat(iterator.hasNext(), is(true));
+    }
+
+    @Test
+    public void shouldNotFollowCycles() {
+        OWLClass a = cls("A"), b = cls("B");
+        parents.put(a, b);
+        parents.put(b, a);
+        parents.put(b, root);
+        assertThat(pathsTo(a), is(Collections.singletonList(Arrays.asList(root, b, a))));
+    }
+
+    @Test
+    public void shouldGetNoPathsForObjectThatCannotReachRoot() {
+        OWLClass a = cls("A"), b = cls("B");
+        parents.put(a, b);
+        assertThat(pathsTo(a).isEmpty(), is(true));
+    }
+
+    private List<List<OWLClass>> pathsTo(OWLClass cls) {
+        List<List<OWLClass>> paths = new ArrayList<>();
+        new PathsToRootIterator<>(provider, cls).forEachRemaining(paths::add);
+        return paths;
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create("http://ont.org/" + name));
+    }
+}
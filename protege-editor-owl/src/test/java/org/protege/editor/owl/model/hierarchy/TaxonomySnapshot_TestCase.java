@@ -0,0 +1,97 @@
+package org.protege.editor.owl.model.hierarchy;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class TaxonomySnapshot_TestCase {
+
+    private OWLDataFactory df;
+
+    private OWLClass a, b, c, d, e, unsat;
+
+    private TaxonomySnapshot<OWLClass> snapshot;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        a = getCls("A");
+        b = getCls("B");
+        c = getCls("C");
+        d = getCls("D");
+        e = getCls("E");
+        unsat = getCls("Unsat");
+        // Thing -> {A, B}, A -> C == E, B -> D, Unsat == Nothing
+        OWLOntology ontology = manager.createOntology(new HashSet<>(Arrays.asList(
+                df.getOWLSubClassOfAxiom(c, a),
+                df.getOWLSubClassOfAxiom(d, b),
+                df.getOWLEquivalentClassesAxiom(c, e),
+                df.getOWLDeclarationAxiom(b),
+                df.getOWLEquivalentClassesAxiom(unsat, df.getOWLNothing())
+        )));
+        OWLReasoner reasoner = new StructuralReasonerFactory().createReasoner(ontology);
+        snapshot = TaxonomySnapshot.capture(reasoner.getTopClassNode(),
+                                            reasoner.getBottomClassNode(),
+                                            cls -> reasoner.getSubClasses(cls, true));
+    }
+
+    private OWLClass getCls(String name) {
+        return df.getOWLClass(IRI.create("http://ont.org/" + name));
+    }
+
+    @Test
+    public void shouldGetDirectSubs() {
+        assertThat(snapshot.getDirectSubs(df.getOWLThing()), is(new HashSet<>(Arrays.asList(a, b))));
+        assertThat(snapshot.getDirectSubs(a), is(new HashSet<>(Arrays.asList(c, e))));
+    }
+
+    @Test
+    public void shouldGetDirectSupers() {
+        assertThat(snapshot.getDirectSupers(d), is(Collections.singleton(b)));
+        assertThat(snapshot.getDirectSupers(e), is(Collections.singleton(a)));
+    }
+
+    @Test
+    public void shouldGetTransitiveSupersAndSubs() {
+        assertThat(snapshot.getSupers(c), is(new HashSet<>(Arrays.asList(a, df.getOWLThing()))));
+        assertThat(snapshot.getSubs(b), is(new HashSet<>(Arrays.asList(d, unsat, df.getOWLNothing()))));
+    }
+
+    @Test
+    public void shouldGetEquivalents() {
+        assertThat(snapshot.getEquivalents(c), is(new HashSet<>(Arrays.asList(c, e))));
+    }
+
+    @Test
+    public void shouldGetUnsatisfiable() {
+        assertThat(snapshot.isUnsatisfiable(unsat), is(true));
+        assertThat(snapshot.isUnsatisfiable(a), is(false));
+        assertThat(snapshot.getUnsatisfiable(), is(new HashSet<>(Arrays.asList(unsat, df.getOWLNothing()))));
+    }
+
+    @Test
+    public void shouldReturnEmptySetsForUnknownObjects() {
+        OWLClass unknown = getCls("Unknown");
+        assertThat(snapshot.contains(unknown), is(false));
+        assertThat(snapshot.getDirectSubs(unknown).isEmpty(), is(true));
+        assertThat(snapshot.getSupers(unknown).isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldReturnEmptySetsWhenInconsistent() {
+        TaxonomySnapshot<OWLClass> inconsistent = TaxonomySnapshot.inconsistent();
+        assertThat(inconsistent.isConsistent(), is(false));
+        assertThat(inconsistent.getDirectSubs(df.getOWLThing()).isEmpty(), is(true));
+    }
+}
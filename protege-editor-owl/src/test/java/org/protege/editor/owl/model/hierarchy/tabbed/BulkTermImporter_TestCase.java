@@ -0,0 +1,205 @@
+package org.protege.editor.owl.model.hierarchy.tabbed;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.entity.OWLEntityCreationSet;
+import org.protege.editor.owl.model.entity.OWLEntityFactory;
+import org.protege.editor.owl.model.find.OWLEntityFinder;
+import org.protege.editor.owl.model.history.HistoryManagerImpl;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.semanticweb.owlapi.model.EntityType.CLASS;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkTermImporter_TestCase {
+
+    private static final String NS = "http://the.ontology/ont/";
+
+    private static final String TERMS = "name\tsynonyms\tparents\n" +
+            "A\tA1|A2\tB\n" +
+            "B\t\t\n" +
+            "C\t\tB|D\n" +
+            "D\t\t\n";
+
+    @Mock
+    private OWLModelManager modelManager;
+
+    @Mock
+    private OWLEntityFinder entityFinder;
+
+    @Mock
+    private OWLEntityFactory entityFactory;
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory df;
+
+    private OWLOntology ontology;
+
+    private HistoryManagerImpl historyManager;
+
+    private OWLAnnotationProperty synonymProperty;
+
+    private BulkTermImporter<OWLClass> importer;
+
+    private int appliedChunkCount;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create("http://the.ontology"));
+        historyManager = new HistoryManagerImpl(manager);
+        manager.addOntologyChangeListener(historyManager::logChanges);
+        synonymProperty = df.getOWLAnnotationProperty(IRI.create(NS + "synonym"));
+        when(modelManager.getHistoryManager()).thenReturn(historyManager);
+        doAnswer(invocation -> {
+            historyManager.startCompositeChange();
+            return null;
+        }).when(modelManager).startCompositeChange();
+        doAnswer(invocation -> {
+            historyManager.endCompositeChange();
+            return null;
+        }).when(modelManager).endCompositeChange();
+        when(modelManager.getOWLDataFactory()).thenReturn(df);
+        doAnswer(invocation -> {
+            appliedChunkCount++;
+            return manager.applyChanges((List<OWLOntologyChange>) invocation.getArguments()[0]);
+        }).when(modelManager).applyChanges(any(List.class));
+        when(entityFinder.getOWLEntity(eq(CLASS), any(String.class))).thenReturn(Optional.empty());
+        when(entityFactory.createOWLEntity(eq(CLASS), any(String.class), eq(Optional.empty()))).thenAnswer(invocation -> {
+            OWLClass cls = cls((String) invocation.getArguments()[1]);
+            return new OWLEntityCreationSet<>(cls, Collections.singletonList(
+                    new AddAxiom(ontology, df.getOWLDeclarationAxiom(cls))));
+        });
+        importer = new BulkTermImporter<>(
+                modelManager,
+                new HierarchyNodeCreator<>(df.getOWLThing(), CLASS, entityFinder, entityFactory),
+                (child, parent) -> parent.isOWLThing() ? Optional.empty() : Optional.of(df.getOWLSubClassOfAxiom(child, parent)),
+                synonymProperty,
+                ontology,
+                Runnable::run);
+    }
+
+    @After
+    public void tearDown() {
+        historyManager.dispose();
+    }
+
+    @Test
+    public void shouldImportTermsWithSynonymsAndParents() throws IOException {
+        int imported = importer.importTerms(parser(), progress(false));
+        assertThat(imported, is(4));
+        assertThat(ontology.containsAxiom(df.getOWLSubClassOfAxiom(cls("A"), cls("B"))), is(true));
+        assertThat(ontology.containsAxiom(df.getOWLSubClassOfAxiom(cls("C"), cls("B"))), is(true));
+        assertThat(ontology.containsAxiom(df.getOWLSubClassOfAxiom(cls("C"), cls("D"))), is(true));
+        assertThat(ontology.containsAxiom(synonym("A", "A1")), is(true));
+        assertThat(ontology.containsAxiom(synonym("A", "A2")), is(true));
+        assertThat(ontology.getClassesInSignature().size(), is(4));
+    }
+
+    @Test
+    public void shouldApplyChangesInChunks() throws IOException {
+        importer.setChunkSize(2);
+        importer.importTerms(parser(), progress(false));
+        assertThat(appliedChunkCount, is(2));
+    }
+
+    @Test
+    public void shouldReserveIdsForFreshEntitiesOfEachChunk() throws IOException {
+        importer.setChunkSize(2);
+        importer.importTerms(parser(), progress(false));
+        verify(entityFactory, times(2)).reserveIds(CLASS, 2);
+    }
+
+    @Test
+    public void shouldUndoImportAsOneChange() throws IOException {
+        importer.setChunkSize(1);
+        importer.importTerms(parser(), progress(false));
+        historyManager.undo();
+        assertThat(ontology.getAxiomCount(), is(0));
+        assertThat(historyManager.canUndo(), is(false));
+    }
+
+    @Test
+    public void shouldStopWhenCancelled() throws IOException {
+        importer.setChunkSize(1);
+        int imported = importer.importTerms(parser(), progress(true));
+        assertThat(imported, is(0));
+        assertThat(ontology.getAxiomCount(), is(0));
+    }
+
+    @Test
+    public void shouldResolveNamesInModelUpdater() throws IOException {
+        boolean[] inUpdater = {false};
+        List<Boolean> resolvedInUpdater = new ArrayList<>();
+        when(entityFinder.getOWLEntity(eq(CLASS), any(String.class))).thenAnswer(invocation -> {
+            resolvedInUpdater.add(inUpdater[0]);
+            return Optional.empty();
+        });
+        BulkTermImporter<OWLClass> updaterImporter = new BulkTermImporter<>(
+                modelManager,
+                new HierarchyNodeCreator<>(df.getOWLThing(), CLASS, entityFinder, entityFactory),
+                (child, parent) -> Optional.empty(),
+                synonymProperty,
+                ontology,
+                update -> {
+                    inUpdater[0] = true;
+                    try {
+                        update.run();
+                    } finally {
+                        inUpdater[0] = false;
+                    }
+                });
+        updaterImporter.importTerms(parser(), progress(false));
+        assertThat(resolvedInUpdater.isEmpty(), is(false));
+        assertThat(resolvedInUpdater.contains(false), is(false));
+    }
+
+    private TermListParser parser() {
+        return new TermListParser(new StringReader(TERMS), TermListParser.TAB);
+    }
+
+    private OWLClass cls(String name) {
+        return df.getOWLClass(IRI.create(NS + name));
+    }
+
+    private OWLAxiom synonym(String name, String synonym) {
+        return df.getOWLAnnotationAssertionAxiom(synonymProperty, cls(name).getIRI(), df.getOWLLiteral(synonym));
+    }
+
+    private static BulkTermImporter.ProgressListener progress(boolean cancelled) {
+        return new BulkTermImporter.ProgressListener() {
+            @Override
+            public void progressChanged(int importedCount) {
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return cancelled;
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package org.protege.editor.owl.model.hierarchy.tabbed;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class TermListParser_TestCase {
+
+    @Test
+    public void shouldParseTabSeparatedRows() throws IOException {
+        TermListParser parser = parser("name\tsynonyms\tparents\n" +
+                                       "A\tA1|A2\tB\n" +
+                                       "B\t\t\n", TermListParser.TAB);
+        assertThat(parser.readRow(), is(new TermRow(2, "A", Arrays.asList("A1", "A2"), Collections.singletonList("B"))));
+        assertThat(parser.readRow(), is(new TermRow(3, "B", Collections.emptyList(), Collections.emptyList())));
+        assertThat(parser.readRow(), is(nullValue()));
+    }
+
+    @Test
+    public void shouldParseQuotedCommaSeparatedFields() throws IOException {
+        TermListParser parser = parser("Parents,Label\n" +
+                                       "\"B, the second\",\"A \"\"quoted\"\" name\"\n", TermListParser.COMMA);
+        assertThat(parser.readRow(), is(new TermRow(2, "A \"quoted\" name", Collections.emptyList(), Collections.singletonList("B, the second"))));
+    }
+
+    @Test
+    public void shouldSkipBlankLinesAndMissingColumns() throws IOException {
+        TermListParser parser = parser("name\tparents\n\nA\n", TermListParser.TAB);
+        assertThat(parser.readRow(), is(new TermRow(3, "A", Collections.emptyList(), Collections.emptyList())));
+        assertThat(parser.readRow(), is(nullValue()));
+    }
+
+    @Test(expected = IOException.class)
+    public void shouldRequireNameColumn() throws IOException {
+        parser("synonyms\tparents\nA\tB\n", TermListParser.TAB).readRow();
+    }
+
+    @Test
+    public void shouldChooseDelimiterFromFileName() {
+        assertThat(TermListParser.getDelimiter("terms.CSV"), is(TermListParser.COMMA));
+        assertThat(TermListParser.getDelimiter("terms.tsv"), is(TermListParser.TAB));
+    }
+
+    private static TermListParser parser(String text, char delimiter) {
+        return new TermListParser(new StringReader(text), delimiter);
+    }
+}
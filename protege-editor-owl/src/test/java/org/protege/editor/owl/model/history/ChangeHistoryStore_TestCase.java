@@ -0,0 +1,94 @@
+package org.protege.editor.owl.model.history;
+
+import com.google.common.base.Optional;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+
+public class ChangeHistoryStore_TestCase {
+
+    private static final String NS = "http://protege.org/ontologies/Store.owl";
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory dataFactory;
+
+    private OWLOntology ontology;
+
+    private ChangeHistoryStore store;
+
+    @Before
+    public void setUp() throws OWLOntologyCreationException {
+        manager = OWLManager.createOWLOntologyManager();
+        dataFactory = manager.getOWLDataFactory();
+        ontology = manager.createOntology(IRI.create(NS));
+        store = new ChangeHistoryStore(manager, 0, 1);
+    }
+
+    @After
+    public void tearDown() {
+        store.dispose();
+    }
+
+    @Test
+    public void shouldSpillOnBackgroundWriterAndReadBack() {
+        List<OWLOntologyChange> changes = addAxiomChanges("A", "B");
+        store.pushUndo(changes);
+        store.awaitPendingWrites();
+        assertThat(store.getMetrics().getSpilledEntries(), is(1));
+        assertThat(store.getMetrics().getEstimatedMemoryBytes(), is(0L));
+        assertThat(store.popUndo(), is(changes));
+    }
+
+    @Test
+    public void shouldCompactSpillFileOnceMostOfItIsDead() {
+        List<OWLOntologyChange> first = addAxiomChanges("A", "B");
+        store.pushUndo(first);
+        store.pushUndo(addAxiomChanges("C", "D"));
+        store.pushUndo(addAxiomChanges("E", "F"));
+        store.awaitPendingWrites();
+        long fullLength = store.getSpillFileLength();
+        store.popUndo();
+        store.popUndo();
+        store.awaitPendingWrites();
+        assertThat(store.getSpillFileLength(), is(lessThan(fullLength)));
+        assertThat(store.getSpillFileLength(), is(store.getMetrics().getSpilledBytes()));
+        assertThat(store.popUndo(), is(first));
+    }
+
+    @Test
+    public void shouldDecodeAgainstRenamedOntology() {
+        List<OWLOntologyChange> changes = addAxiomChanges("A", "B");
+        store.pushUndo(changes);
+        store.awaitPendingWrites();
+        OWLOntologyID newId = new OWLOntologyID(Optional.of(IRI.create(NS + "/renamed")), Optional.absent());
+        List<OWLOntologyChange> rename = Collections.singletonList(new SetOntologyID(ontology, newId));
+        manager.applyChanges(rename);
+        store.ontologyIdsChanged(rename);
+        List<OWLOntologyChange> popped = store.popUndo();
+        assertThat(popped, is(changes));
+        assertThat(popped.get(0).getOntology(), is(sameInstance(ontology)));
+    }
+
+    @Test
+    public void shouldDropChangesToOntologiesThatAreNoLongerLoaded() {
+        store.pushUndo(addAxiomChanges("A", "B"));
+        store.awaitPendingWrites();
+        manager.removeOntology(ontology);
+        assertThat(store.popUndo(), is(empty()));
+    }
+
+    private List<OWLOntologyChange> addAxiomChanges(String sub, String sup) {
+        OWLClass subCls = dataFactory.getOWLClass(IRI.create(NS + "#" + sub));
+        OWLClass supCls = dataFactory.getOWLClass(IRI.create(NS + "#" + sup));
+        return Collections.singletonList(new AddAxiom(ontology, dataFactory.getOWLSubClassOfAxiom(subCls, supCls)));
+    }
+}
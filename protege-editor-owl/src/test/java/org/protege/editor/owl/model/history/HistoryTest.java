@@ -8,6 +8,7 @@ import org.semanticweb.owlapi.model.*;
 import java.util.ArrayList;
 import java.util.List;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -202,4 +203,92 @@ public class HistoryTest {
         
     }
 
+    @Test
+    public void testUndoAndRedoOfSpilledHistory() {
+        HistoryManagerImpl spillingHistoryManager = new HistoryManagerImpl(manager, 0);
+        manager.addOntologyChangeListener(spillingHistoryManager::logChanges);
+        try {
+            OWLAxiom axiom3 = factory.getOWLSubClassOfAxiom(D, A);
+            OWLAxiom axiom4 = factory.getOWLSubClassOfAxiom(E, D);
+            manager.addAxiom(ontology1, axiom3);
+            manager.addAxiom(ontology2, axiom4);
+            spillingHistoryManager.awaitPendingWrites();
+
+            HistoryMetrics metrics = spillingHistoryManager.getMetrics();
+            assertEquals(2, metrics.getSpilledEntries());
+            assertEquals(0, metrics.getEstimatedMemoryBytes());
+            assertTrue(metrics.getSpilledBytes() > 0);
+            assertEquals(2, spillingHistoryManager.getLoggedChanges().size());
+
+            spillingHistoryManager.undo();
+            spillingHistoryManager.undo();
+            assertFalse(ontology1.containsAxiom(axiom3));
+            assertFalse(ontology2.containsAxiom(axiom4));
+
+            spillingHistoryManager.redo();
+            spillingHistoryManager.redo();
+            assertTrue(ontology1.containsAxiom(axiom3));
+            assertTrue(ontology2.containsAxiom(axiom4));
+            assertEquals(2, spillingHistoryManager.getMetrics().getChangeCount());
+        } finally {
+            spillingHistoryManager.dispose();
+        }
+    }
+
+    @Test
+    public void testUndoOfCompositeChange() {
+        OWLAxiom axiom3 = factory.getOWLSubClassOfAxiom(D, A);
+        OWLAxiom axiom4 = factory.getOWLSubClassOfAxiom(E, D);
+        OWLAxiom axiom5 = factory.getOWLSubClassOfAxiom(F, E);
+        historyManager.startCompositeChange();
+        manager.addAxiom(ontology1, axiom3);
+        historyManager.startCompositeChange();
+        manager.addAxiom(ontology2, axiom4);
+        historyManager.endCompositeChange();
+        assertFalse(historyManager.canUndo());
+        manager.addAxiom(ontology1, axiom5);
+        historyManager.endCompositeChange();
+
+        historyManager.undo();
+        assertFalse(ontology1.containsAxiom(axiom3));
+        assertFalse(ontology2.containsAxiom(axiom4));
+        assertFalse(ontology1.containsAxiom(axiom5));
+        assertFalse(historyManager.canUndo());
+
+        historyManager.redo();
+        assertTrue(ontology1.containsAxiom(axiom3));
+        assertTrue(ontology2.containsAxiom(axiom4));
+        assertTrue(ontology1.containsAxiom(axiom5));
+    }
+
+    @Test
+    public void testUndoOfCompositeChangeSpilledWhilstInProgress() {
+        HistoryManagerImpl spillingHistoryManager = new HistoryManagerImpl(manager, 0);
+        manager.addOntologyChangeListener(spillingHistoryManager::logChanges);
+        try {
+            OWLAxiom axiom3 = factory.getOWLSubClassOfAxiom(D, A);
+            OWLAxiom axiom4 = factory.getOWLSubClassOfAxiom(E, D);
+            spillingHistoryManager.startCompositeChange();
+            manager.addAxiom(ontology1, axiom3);
+            spillingHistoryManager.awaitPendingWrites();
+            assertEquals(1, spillingHistoryManager.getMetrics().getSpilledEntries());
+            manager.addAxiom(ontology2, axiom4);
+            spillingHistoryManager.endCompositeChange();
+            assertEquals(1, spillingHistoryManager.getLoggedChanges().size());
+
+            spillingHistoryManager.undo();
+            assertFalse(ontology1.containsAxiom(axiom3));
+            assertFalse(ontology2.containsAxiom(axiom4));
+            assertFalse(spillingHistoryManager.canUndo());
+
+            spillingHistoryManager.redo();
+            assertTrue(ontology1.containsAxiom(axiom3));
+            assertTrue(ontology2.containsAxiom(axiom4));
+            assertFalse(spillingHistoryManager.canRedo());
+            assertEquals(1, spillingHistoryManager.getLoggedChanges().size());
+        } finally {
+            spillingHistoryManager.dispose();
+        }
+    }
+
 }
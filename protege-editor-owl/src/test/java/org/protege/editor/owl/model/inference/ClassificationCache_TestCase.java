@@ -0,0 +1,133 @@
+package org.protege.editor.owl.model.inference;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.InferenceType;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+public class ClassificationCache_TestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory df;
+
+    private OWLOntology ontology;
+
+    private OWLClass a, b, c, unsat;
+
+    private OWLNamedIndividual i;
+
+    private ClassificationCache cache;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        a = df.getOWLClass(IRI.create("http://ont.org/A"));
+        b = df.getOWLClass(IRI.create("http://ont.org/B"));
+        c = df.getOWLClass(IRI.create("http://ont.org/C"));
+        unsat = df.getOWLClass(IRI.create("http://ont.org/Unsat"));
+        i = df.getOWLNamedIndividual(IRI.create("http://ont.org/i"));
+        ontology = manager.createOntology(new HashSet<>(Arrays.asList(
+                df.getOWLSubClassOfAxiom(b, a),
+                df.getOWLEquivalentClassesAxiom(b, c),
+                df.getOWLEquivalentClassesAxiom(unsat, df.getOWLNothing()),
+                df.getOWLClassAssertionAxiom(b, i)
+        )));
+        cache = new ClassificationCache(folder.getRoot().toPath());
+    }
+
+    private String getKey() {
+        return ClassificationCache.computeKey("structural", "1.0", ontology);
+    }
+
+    private CachedInferences classify() {
+        OWLReasoner reasoner = new StructuralReasonerFactory().createReasoner(ontology);
+        return CachedInferences.capture(reasoner, EnumSet.of(InferenceType.CLASS_HIERARCHY,
+                                                             InferenceType.CLASS_ASSERTIONS));
+    }
+
+    @Test
+    public void shouldComputeSameKeyForSameContent() {
+        assertThat(getKey(), is(getKey()));
+    }
+
+    @Test
+    public void shouldComputeDifferentKeyForDifferentReasonerVersion() {
+        assertThat(ClassificationCache.computeKey("structural", "2.0", ontology), is(not(getKey())));
+    }
+
+    @Test
+    public void shouldComputeSameKeyFromIncrementallyUpdatedDigest() {
+        AxiomDigest digest = AxiomDigest.compute(ontology);
+        OWLAxiom added = df.getOWLSubClassOfAxiom(c, a);
+        OWLAxiom removed = df.getOWLSubClassOfAxiom(b, a);
+        manager.addAxiom(ontology, added);
+        digest.axiomAdded(added);
+        manager.removeAxiom(ontology, removed);
+        digest.axiomRemoved(removed);
+        assertThat(ClassificationCache.computeKey("structural", "1.0", digest), is(getKey()));
+    }
+
+    @Test
+    public void shouldComputeDifferentKeyAfterLogicalChange() {
+        String key = getKey();
+        manager.addAxiom(ontology, df.getOWLSubClassOfAxiom(a, unsat));
+        assertThat(getKey(), is(not(key)));
+    }
+
+    @Test
+    public void shouldComputeSameKeyAfterAnnotationChange() {
+        String key = getKey();
+        manager.addAxiom(ontology, df.getOWLAnnotationAssertionAxiom(df.getRDFSLabel(), a.getIRI(), df.getOWLLiteral("A")));
+        assertThat(getKey(), is(key));
+    }
+
+    @Test
+    public void shouldReturnEmptyForMissingKey() {
+        assertThat(cache.load(getKey(), df), is(Optional.empty()));
+    }
+
+    @Test
+    public void shouldRestoreStoredInferences() throws Exception {
+        cache.store(getKey(), classify());
+        CachedInferences restored = cache.load(getKey(), df).get();
+        CachedInferencesReasoner reasoner = new CachedInferencesReasoner(ontology, df, restored);
+        assertThat(reasoner.isConsistent(), is(true));
+        assertThat(reasoner.isPrecomputed(InferenceType.CLASS_HIERARCHY), is(true));
+        assertThat(reasoner.getSubClasses(a, true).getFlattened(), is(new HashSet<>(Arrays.asList(b, c))));
+        assertThat(reasoner.getEquivalentClasses(b).getEntities(), is(new HashSet<>(Arrays.asList(b, c))));
+        assertThat(reasoner.getUnsatisfiableClasses().getEntities(),
+                   is(new HashSet<>(Arrays.asList(unsat, df.getOWLNothing()))));
+        assertThat(reasoner.getTypes(i, true).getFlattened(), is(new HashSet<>(Arrays.asList(b, c))));
+        assertThat(reasoner.getInstances(a, false).getFlattened(), is(Collections.singleton(i)));
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedEntries() throws Exception {
+        ClassificationCache smallCache = new ClassificationCache(folder.getRoot().toPath(), 1);
+        CachedInferences inferences = classify();
+        smallCache.store("first", inferences);
+        smallCache.store("second", inferences);
+        assertThat(smallCache.load("first", df).isPresent(), is(false));
+        assertThat(smallCache.load("second", df).isPresent(), is(true));
+    }
+}
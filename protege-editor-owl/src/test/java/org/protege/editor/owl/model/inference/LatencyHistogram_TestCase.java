@@ -0,0 +1,57 @@
+package org.protege.editor.owl.model.inference;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+
+public class LatencyHistogram_TestCase {
+
+    private LatencyHistogram histogram;
+
+    @Before
+    public void setUp() {
+        histogram = new LatencyHistogram();
+    }
+
+    @Test
+    public void shouldBeEmptyInitially() {
+        assertThat(histogram.getCount(), is(0L));
+        assertThat(histogram.getMeanNanos(), is(0L));
+        assertThat(histogram.getPercentileNanos(50), is(0L));
+    }
+
+    @Test
+    public void shouldRecordCountTotalAndMax() {
+        histogram.record(100);
+        histogram.record(300);
+        assertThat(histogram.getCount(), is(2L));
+        assertThat(histogram.getTotalNanos(), is(400L));
+        assertThat(histogram.getMeanNanos(), is(200L));
+        assertThat(histogram.getMaxNanos(), is(300L));
+    }
+
+    @Test
+    public void shouldBoundPercentilesWithinAFactorOfTwo() {
+        for (int i = 0; i < 99; i++) {
+            histogram.record(1000);
+        }
+        histogram.record(1_000_000);
+        long median = histogram.getPercentileNanos(50);
+        assertThat(median, is(greaterThanOrEqualTo(1000L)));
+        assertThat(median, is(lessThanOrEqualTo(2000L)));
+        assertThat(histogram.getPercentileNanos(100), is(1_000_000L));
+    }
+
+    @Test
+    public void shouldNotChangeCopy() {
+        histogram.record(10);
+        LatencyHistogram copy = histogram.copy();
+        histogram.record(20);
+        assertThat(copy.getCount(), is(1L));
+        assertThat(copy.getMaxNanos(), is(10L));
+    }
+}
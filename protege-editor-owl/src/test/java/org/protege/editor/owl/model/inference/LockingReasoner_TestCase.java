@@ -0,0 +1,93 @@
+package org.protege.editor.owl.model.inference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import javax.swing.*;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class LockingReasoner_TestCase {
+
+    @Mock
+    private OWLReasoner delegate;
+
+    @Mock
+    private OWLReasoner fallback;
+
+    @Mock
+    private OWLClass cls;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final CountDownLatch releaseLock = new CountDownLatch(1);
+
+    private LockingReasoner reasoner;
+
+    @Before
+    public void setUp() {
+        when(delegate.isSatisfiable(cls)).thenReturn(true);
+        when(fallback.isSatisfiable(cls)).thenReturn(false);
+        reasoner = new LockingReasoner(delegate, lock, () -> Optional.of(fallback));
+    }
+
+    @After
+    public void tearDown() {
+        releaseLock.countDown();
+    }
+
+    @Test
+    public void shouldAskDelegateOnEventDispatchThreadWhenLockIsFree() throws Exception {
+        AtomicBoolean satisfiable = new AtomicBoolean();
+        SwingUtilities.invokeAndWait(() -> satisfiable.set(reasoner.isSatisfiable(cls)));
+        assertThat(satisfiable.get(), is(true));
+        verify(fallback, never()).isSatisfiable(cls);
+    }
+
+    @Test
+    public void shouldAskFallbackOnEventDispatchThreadWhenLockIsHeld() throws Exception {
+        holdLockOnAnotherThread();
+        AtomicBoolean satisfiable = new AtomicBoolean(true);
+        SwingUtilities.invokeAndWait(() -> satisfiable.set(reasoner.isSatisfiable(cls)));
+        assertThat(satisfiable.get(), is(false));
+        verify(delegate, never()).isSatisfiable(cls);
+    }
+
+    @Test
+    public void shouldAskDelegateOffEventDispatchThread() {
+        assertThat(reasoner.isSatisfiable(cls), is(true));
+        verify(fallback, never()).isSatisfiable(cls);
+    }
+
+    private void holdLockOnAnotherThread() throws InterruptedException {
+        CountDownLatch locked = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            lock.lock();
+            try {
+                locked.countDown();
+                releaseLock.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                lock.unlock();
+            }
+        });
+        holder.setDaemon(true);
+        holder.start();
+        locked.await(10, TimeUnit.SECONDS);
+    }
+}
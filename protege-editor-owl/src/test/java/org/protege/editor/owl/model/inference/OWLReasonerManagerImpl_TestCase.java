@@ -0,0 +1,188 @@
+package org.protege.editor.owl.model.inference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.reasoner.*;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasoner;
+import org.semanticweb.owlapi.reasoner.structural.StructuralReasonerFactory;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+
+@RunWith(MockitoJUnitRunner.class)
+public class OWLReasonerManagerImpl_TestCase {
+
+    private static final String REASONER_ID = "org.protege.editor.owl.test.BlockingReasoner";
+
+    private static final String NS = "http://protege.org/ontologies/Reasoner.owl";
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private OWLModelManager modelManager;
+
+    @Mock
+    private ProtegeOWLReasonerPlugin plugin;
+
+    private final CountDownLatch flushStarted = new CountDownLatch(1);
+
+    private final CountDownLatch releaseFlush = new CountDownLatch(1);
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ontology;
+
+    private OWLReasonerManagerImpl reasonerManager;
+
+    private String previousReasonerId;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        ontology = manager.createOntology(IRI.create(NS));
+        when(modelManager.getActiveOntology()).thenReturn(ontology);
+        when(modelManager.getOWLOntologyManager()).thenReturn(manager);
+        when(modelManager.getOWLDataFactory()).thenReturn(manager.getOWLDataFactory());
+        BlockingReasonerInfo info = new BlockingReasonerInfo();
+        info.setup(manager, REASONER_ID, "Blocking Reasoner");
+        when(plugin.newInstance()).thenReturn(info);
+        previousReasonerId = new ReasonerPreferences().getDefaultReasonerId();
+        reasonerManager = new OWLReasonerManagerImpl(modelManager,
+                                                     Collections.singleton(plugin),
+                                                     new ClassificationCache(temporaryFolder.getRoot().toPath()));
+        reasonerManager.setCurrentReasonerFactoryId(REASONER_ID);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        releaseFlush.countDown();
+        reasonerManager.setCurrentReasonerFactoryId(previousReasonerId);
+        reasonerManager.dispose();
+    }
+
+    @Test
+    public void shouldKeepInstalledReasonerDuringAutomaticClassification() throws Exception {
+        reasonerManager.classifyAsynchronously(EnumSet.of(InferenceType.CLASS_HIERARCHY));
+        OWLReasoner installed = awaitInstalledReasoner();
+        addAxiom("A", "B");
+        reset(modelManager);
+        when(modelManager.getActiveOntology()).thenReturn(ontology);
+
+        reasonerManager.classify(EnumSet.of(InferenceType.CLASS_HIERARCHY), true);
+        assertThat(flushStarted.await(10, TimeUnit.SECONDS), is(true));
+
+        assertThat(getDelegate(reasonerManager.getCurrentReasoner()), is(sameInstance(installed)));
+        verify(modelManager, never()).fireEvent(EventType.ABOUT_TO_CLASSIFY);
+
+        releaseFlush.countDown();
+        awaitInstalledReasoner();
+        assertThat(getDelegate(reasonerManager.getCurrentReasoner()), is(sameInstance(installed)));
+        assertThat(installed.getPendingChanges(), is(empty()));
+    }
+
+    @Test
+    public void shouldInstallNoOpReasonerDuringClassificationStartedByUser() throws Exception {
+        reasonerManager.classifyAsynchronously(EnumSet.of(InferenceType.CLASS_HIERARCHY));
+        awaitInstalledReasoner();
+        addAxiom("A", "B");
+
+        reasonerManager.classifyAsynchronously(EnumSet.of(InferenceType.CLASS_HIERARCHY));
+        assertThat(flushStarted.await(10, TimeUnit.SECONDS), is(true));
+
+        assertThat(reasonerManager.getCurrentReasoner(), is(instanceOf(NoOpReasoner.class)));
+        verify(modelManager, times(2)).fireEvent(EventType.ABOUT_TO_CLASSIFY);
+    }
+
+    @Test
+    public void shouldPublishInferencesWithInstalledReasoner() throws Exception {
+        addAxiom("A", "B");
+        assertThat(reasonerManager.getCurrentInferences().isPresent(), is(false));
+        releaseFlush.countDown();
+
+        reasonerManager.classifyAsynchronously(EnumSet.of(InferenceType.CLASS_HIERARCHY));
+        awaitInstalledReasoner();
+
+        CachedInferences inferences = reasonerManager.getCurrentInferences().get();
+        assertThat(inferences.getClassTaxonomy().getDirectSubs(getOWLClass("B")), contains(getOWLClass("A")));
+    }
+
+    private OWLClass getOWLClass(String name) {
+        return manager.getOWLDataFactory().getOWLClass(IRI.create(NS + "#" + name));
+    }
+
+    private void addAxiom(String sub, String sup) {
+        manager.addAxiom(ontology, manager.getOWLDataFactory().getOWLSubClassOfAxiom(getOWLClass(sub), getOWLClass(sup)));
+    }
+
+    private OWLReasoner awaitInstalledReasoner() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (reasonerManager.getReasonerStatus() == ReasonerStatus.INITIALIZATION_IN_PROGRESS
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        OWLReasoner reasoner = getDelegate(reasonerManager.getCurrentReasoner());
+        assertThat(reasoner, is(instanceOf(BlockingReasoner.class)));
+        return reasoner;
+    }
+
+    private static OWLReasoner getDelegate(OWLReasoner reasoner) {
+        assertThat(reasoner, is(instanceOf(LockingReasoner.class)));
+        return ((LockingReasoner) reasoner).getDelegate();
+    }
+
+    private class BlockingReasonerInfo extends AbstractProtegeOWLReasonerInfo {
+
+        @Override
+        public OWLReasonerFactory getReasonerFactory() {
+            return new StructuralReasonerFactory() {
+                @Override
+                public OWLReasoner createReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+                    return new BlockingReasoner(ontology, config);
+                }
+            };
+        }
+
+        @Override
+        public BufferingMode getRecommendedBuffering() {
+            return BufferingMode.BUFFERING;
+        }
+    }
+
+    /**
+     * A buffering reasoner whose flush blocks until the test releases it.
+     */
+    private class BlockingReasoner extends StructuralReasoner {
+
+        BlockingReasoner(OWLOntology ontology, OWLReasonerConfiguration config) {
+            super(ontology, config, BufferingMode.BUFFERING);
+        }
+
+        @Override
+        public void flush() {
+            flushStarted.countDown();
+            try {
+                releaseFlush.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.flush();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.protege.editor.owl.model.inference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.event.EventType;
+import org.protege.editor.owl.model.event.OWLModelManagerChangeEvent;
+import org.protege.editor.owl.model.event.OWLModelManagerListener;
+import org.semanticweb.owlapi.model.OWLClass;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReasonerQueryCache_TestCase {
+
+    private ReasonerQueryCache cache;
+
+    @Mock
+    private OWLModelManager modelManager;
+
+    @Mock
+    private OWLReasonerManager reasonerManager;
+
+    @Mock
+    private OWLReasoner reasoner;
+
+    @Mock
+    private OWLClass cls;
+
+    private final ReentrantLock reasonerLock = new ReentrantLock();
+
+    private final AtomicInteger queryCount = new AtomicInteger();
+
+    private final Function<OWLReasoner, Integer> query = r -> queryCount.incrementAndGet();
+
+    @Before
+    public void setUp() {
+        when(modelManager.getOWLReasonerManager()).thenReturn(reasonerManager);
+        when(reasonerManager.getQueryProfiler()).thenReturn(new ReasonerQueryProfiler());
+        when(reasonerManager.getCurrentReasoner()).thenReturn(reasoner);
+        when(reasonerManager.getReasonerLock()).thenReturn(reasonerLock);
+        cache = new ReasonerQueryCache(modelManager);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        cache.dispose();
+    }
+
+    private Integer getAnswer() throws Exception {
+        return cache.getAnswer("Query", cls, query).get(10, TimeUnit.SECONDS);
+    }
+
+    @Test
+    public void shouldMemoiseAnswer() throws Exception {
+        assertThat(getAnswer(), is(1));
+        assertThat(getAnswer(), is(1));
+        assertThat(queryCount.get(), is(1));
+    }
+
+    @Test
+    public void shouldRecomputeAnswerAfterClear() throws Exception {
+        getAnswer();
+        cache.clear();
+        assertThat(getAnswer(), is(2));
+    }
+
+    @Test
+    public void shouldRecomputeAnswerAfterClassification() throws Exception {
+        ArgumentCaptor<OWLModelManagerListener> listenerCaptor = ArgumentCaptor.forClass(OWLModelManagerListener.class);
+        verify(modelManager).addListener(listenerCaptor.capture());
+        getAnswer();
+        OWLModelManagerChangeEvent event = mock(OWLModelManagerChangeEvent.class);
+        when(event.isType(EventType.ONTOLOGY_CLASSIFIED)).thenReturn(true);
+        listenerCaptor.getValue().handleChange(event);
+        assertThat(getAnswer(), is(2));
+    }
+
+    @Test
+    public void shouldRecomputeAnswerWhenClassificationStarts() throws Exception {
+        ArgumentCaptor<OWLModelManagerListener> listenerCaptor = ArgumentCaptor.forClass(OWLModelManagerListener.class);
+        verify(modelManager).addListener(listenerCaptor.capture());
+        getAnswer();
+        OWLModelManagerChangeEvent event = mock(OWLModelManagerChangeEvent.class);
+        when(event.isType(EventType.ABOUT_TO_CLASSIFY)).thenReturn(true);
+        listenerCaptor.getValue().handleChange(event);
+        assertThat(getAnswer(), is(2));
+    }
+
+    @Test
+    public void shouldHoldReasonerLockWhilstQuerying() throws Exception {
+        boolean held = cache.getAnswer("Query", cls, r -> reasonerLock.isHeldByCurrentThread()).get(10, TimeUnit.SECONDS);
+        assertThat(held, is(true));
+    }
+
+    @Test
+    public void shouldNotMemoiseFailures() throws Exception {
+        try {
+            cache.getAnswer("Query", cls, r -> {
+                throw new IllegalStateException();
+            }).get(10, TimeUnit.SECONDS);
+        } catch (java.util.concurrent.ExecutionException expected) {
+            // Expected
+        }
+        assertThat(getAnswer(), is(1));
+    }
+
+    @Test
+    public void shouldAnswerImmediatelyForNoOpReasoner() {
+        when(reasonerManager.getCurrentReasoner()).thenReturn(mock(NoOpReasoner.class));
+        assertThat(cache.getAnswer("Query", cls, query).isDone(), is(true));
+    }
+}
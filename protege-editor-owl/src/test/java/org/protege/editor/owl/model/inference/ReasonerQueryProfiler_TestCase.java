@@ -0,0 +1,76 @@
+package org.protege.editor.owl.model.inference;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.semanticweb.owlapi.model.ClassExpressionType;
+import org.semanticweb.owlapi.model.OWLClassExpression;
+import org.semanticweb.owlapi.reasoner.OWLReasoner;
+
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ReasonerQueryProfiler_TestCase {
+
+    private ReasonerQueryProfiler profiler;
+
+    @Mock
+    private OWLReasoner delegate;
+
+    @Mock
+    private OWLClassExpression classExpression;
+
+    private TracingReasoner tracingReasoner;
+
+    @Before
+    public void setUp() {
+        profiler = new ReasonerQueryProfiler();
+        profiler.setEnabled(true);
+        tracingReasoner = new TracingReasoner(delegate, profiler);
+        when(classExpression.getClassExpressionType()).thenReturn(ClassExpressionType.OBJECT_SOME_VALUES_FROM);
+        when(delegate.isSatisfiable(classExpression)).thenReturn(true);
+    }
+
+    @Test
+    public void shouldRecordQueriesByMethodAndArgumentType() {
+        assertThat(tracingReasoner.isSatisfiable(classExpression), is(true));
+        tracingReasoner.isSatisfiable(classExpression);
+        List<ReasonerQueryProfiler.Statistics> statistics = profiler.getQueryStatistics();
+        assertThat(statistics.size(), is(1));
+        assertThat(statistics.get(0).getName(), is("isSatisfiable(ObjectSomeValuesFrom)"));
+        assertThat(statistics.get(0).getCount(), is(2L));
+    }
+
+    @Test
+    public void shouldAttributeInnerClassesToOutermostClass() {
+        Runnable lambda = () -> {};
+        assertThat(ReasonerQueryProfiler.getCallerName(lambda.getClass()), is("ReasonerQueryProfiler_TestCase"));
+    }
+
+    @Test
+    public void shouldAttributeQueriesToExplicitCaller() {
+        profiler.callAs("SomeView", () -> tracingReasoner.isSatisfiable(classExpression));
+        assertThat(profiler.getCallerStatistics().get(0).getName(), is("SomeView"));
+    }
+
+    @Test
+    public void shouldNotRecordWhenDisabled() {
+        profiler.setEnabled(false);
+        tracingReasoner.isSatisfiable(classExpression);
+        assertThat(profiler.getQueryStatistics().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldDiscardStatisticsOnReset() {
+        tracingReasoner.isSatisfiable(classExpression);
+        profiler.reset();
+        assertThat(profiler.getQueryStatistics().isEmpty(), is(true));
+        assertThat(profiler.getCallerStatistics().isEmpty(), is(true));
+    }
+}
@@ -0,0 +1,70 @@
+package org.protege.editor.owl.model.io;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLOntology;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assume.assumeTrue;
+
+public class OntologySaver_TestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OWLOntology ontology;
+
+    @Before
+    public void setUp() throws Exception {
+        ontology = OWLManager.createOWLOntologyManager().createOntology(IRI.create("http://the.ontology/saved"));
+    }
+
+    @Test
+    public void shouldKeepPermissionsOfReplacedFile() throws Exception {
+        Path file = folder.newFile("ont.owl").toPath();
+        assumeTrue(Files.getFileStore(file).supportsFileAttributeView("posix"));
+        Set<PosixFilePermission> permissions = PosixFilePermissions.fromString("rw-r--r--");
+        Files.setPosixFilePermissions(file, permissions);
+        OntologySaver.saveToFile(ontology, new FunctionalSyntaxDocumentFormat(), file);
+        assertThat(Files.getPosixFilePermissions(file), is(permissions));
+        assertThat(new String(Files.readAllBytes(file), "UTF-8"), containsString("http://the.ontology/saved"));
+    }
+
+    @Test
+    public void shouldGiveNewFileDefaultPermissions() throws Exception {
+        Path directory = folder.getRoot().toPath();
+        assumeTrue(Files.getFileStore(directory).supportsFileAttributeView("posix"));
+        Set<PosixFilePermission> defaultPermissions = Files.getPosixFilePermissions(folder.newFile("other.owl").toPath());
+        Path file = directory.resolve("ont.owl");
+        OntologySaver.saveToFile(ontology, new FunctionalSyntaxDocumentFormat(), file);
+        assertThat(Files.getPosixFilePermissions(file), is(defaultPermissions));
+        assertThat(folder.getRoot().list().length, is(2));
+    }
+
+    @Test
+    public void shouldReplaceTargetOfSymbolicLink() throws Exception {
+        Path target = folder.newFile("target.owl").toPath();
+        Path link = folder.getRoot().toPath().resolve("link.owl");
+        try {
+            Files.createSymbolicLink(link, target);
+        } catch (UnsupportedOperationException e) {
+            assumeTrue(false);
+        }
+        OntologySaver.saveToFile(ontology, new FunctionalSyntaxDocumentFormat(), link);
+        assertThat(Files.isSymbolicLink(link), is(true));
+        assertThat(new String(Files.readAllBytes(target), "UTF-8"), containsString("http://the.ontology/saved"));
+    }
+}
@@ -0,0 +1,139 @@
+package org.protege.editor.owl.model.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.io.IOListenerEvent;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class ChangeJournalManager_TestCase {
+
+    private static final IRI ONTOLOGY_IRI = IRI.create("http://the.ontology/a");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    @Mock
+    private OWLModelManager modelManager;
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ont;
+
+    private OWLAxiom axiom;
+
+    private File document;
+
+    private Path journalDirectory;
+
+    private ChangeJournalManager journalManager;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        OWLDataFactory df = manager.getOWLDataFactory();
+        axiom = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create("http://the.ontology/A")), df.getOWLThing());
+        document = temporaryFolder.newFile("ont.owl");
+        journalDirectory = temporaryFolder.getRoot().toPath().resolve("journal");
+        ont = manager.createOntology(ONTOLOGY_IRI);
+        save(ont, document);
+        when(modelManager.getOWLOntologyManager()).thenReturn(manager);
+        journalManager = new ChangeJournalManager(modelManager, journalDirectory);
+    }
+
+    @After
+    public void tearDown() {
+        journalManager.dispose();
+    }
+
+    @Test
+    public void shouldRecoverJournaledChanges() throws Exception {
+        journalChange();
+        Set<OWLOntology> recovered = recoverInNewSession(document);
+        assertThat(recovered.size(), is(1));
+        assertThat(recovered.iterator().next().containsAxiom(axiom), is(true));
+    }
+
+    @Test
+    public void shouldNotRecoverChangesAfterSave() throws Exception {
+        journalChange();
+        save(ont, document);
+        journalManager.afterSave(new IOListenerEvent(ont.getOntologyID(), document.toURI()));
+        journalManager.flush();
+        assertThat(recoverInNewSession(document), is(empty()));
+    }
+
+    @Test
+    public void shouldNotRecoverChangesToOldDocumentAfterSaveAs() throws Exception {
+        journalChange();
+        File newDocument = temporaryFolder.newFile("ont-copy.owl");
+        save(ont, newDocument);
+        journalManager.afterSave(new IOListenerEvent(ont.getOntologyID(), newDocument.toURI()));
+        journalManager.flush();
+        assertThat(recoverInNewSession(document), is(empty()));
+    }
+
+    @Test
+    public void shouldNotRecoverChangesIfDocumentWasModified() throws Exception {
+        journalChange();
+        OWLOntologyManager otherManager = OWLManager.createOWLOntologyManager();
+        OWLOntology other = otherManager.createOntology(ONTOLOGY_IRI);
+        otherManager.addAxiom(other, otherManager.getOWLDataFactory().getOWLDeclarationAxiom(
+                otherManager.getOWLDataFactory().getOWLClass(IRI.create("http://the.ontology/B"))));
+        otherManager.saveOntology(other, IRI.create(document));
+        assertThat(recoverInNewSession(document), is(empty()));
+    }
+
+    private void journalChange() {
+        List<OWLOntologyChange> changes = Collections.singletonList(new AddAxiom(ont, axiom));
+        manager.applyChanges(changes);
+        journalManager.handleChanges(changes);
+        journalManager.flush();
+    }
+
+    /**
+     * Loads a document with a new manager, as a new session would after the current session ended abnormally
+     */
+    @SuppressWarnings("unchecked")
+    private Set<OWLOntology> recoverInNewSession(File document) throws Exception {
+        OWLOntologyManager newManager = OWLManager.createOWLOntologyManager();
+        OWLOntology loaded = newManager.loadOntologyFromOntologyDocument(document);
+        OWLModelManager newModelManager = mock(OWLModelManager.class);
+        when(newModelManager.getOWLOntologyManager()).thenReturn(newManager);
+        doAnswer(invocation -> newManager.applyChanges((List<OWLOntologyChange>) invocation.getArguments()[0]))
+                .when(newModelManager).applyChanges(any(List.class));
+        ChangeJournalManager newJournalManager = new ChangeJournalManager(newModelManager, journalDirectory);
+        try {
+            return newJournalManager.recoverUnsavedChanges(Collections.singleton(loaded));
+        } finally {
+            newJournalManager.dispose();
+        }
+    }
+
+    private void save(OWLOntology ontology, File file) throws OWLOntologyStorageException {
+        ontology.getOWLOntologyManager().saveOntology(ontology, IRI.create(file));
+        ontology.getOWLOntologyManager().setOntologyDocumentIRI(ontology, IRI.create(file));
+    }
+}
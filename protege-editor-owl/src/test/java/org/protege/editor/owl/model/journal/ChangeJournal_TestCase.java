@@ -0,0 +1,113 @@
+package org.protege.editor.owl.model.journal;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.change.AddAxiomData;
+import org.semanticweb.owlapi.change.OWLOntologyChangeData;
+import org.semanticweb.owlapi.change.RemoveAxiomData;
+import org.semanticweb.owlapi.model.IRI;
+import org.semanticweb.owlapi.model.OWLAxiom;
+import org.semanticweb.owlapi.model.OWLDataFactory;
+
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class ChangeJournal_TestCase {
+
+    private static final ChangeJournal.DocumentStamp STAMP = new ChangeJournal.DocumentStamp(100, 200);
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private Path file;
+
+    private ChangeJournal journal;
+
+    private OWLOntologyChangeData addA, addB, removeA;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLDataFactory df = OWLManager.getOWLDataFactory();
+        OWLAxiom axiomA = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create("http://ont.org/A")), df.getOWLThing());
+        OWLAxiom axiomB = df.getOWLSubClassOfAxiom(df.getOWLClass(IRI.create("http://ont.org/B")), df.getOWLThing());
+        addA = new AddAxiomData(axiomA);
+        addB = new AddAxiomData(axiomB);
+        removeA = new RemoveAxiomData(axiomA);
+        file = temporaryFolder.getRoot().toPath().resolve("test.journal");
+        journal = ChangeJournal.create(file, STAMP);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        journal.close();
+    }
+
+    @Test
+    public void shouldBeEmptyAfterCreation() throws Exception {
+        assertThat(journal.isEmpty(), is(true));
+        Optional<ChangeJournal.Contents> contents = ChangeJournal.read(file);
+        assertThat(contents.isPresent(), is(true));
+        assertThat(contents.get().getDocumentStamp(), is(STAMP));
+        assertThat(contents.get().getBatches().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldReadAppendedBatchesInOrder() throws Exception {
+        journal.append(Arrays.asList(addA, addB));
+        journal.append(Collections.singletonList(removeA));
+        journal.sync();
+        ChangeJournal.Contents contents = ChangeJournal.read(file).get();
+        assertThat(contents.getBatches().size(), is(2));
+        assertThat(contents.getChanges(), is(Arrays.asList(addA, addB, removeA)));
+    }
+
+    @Test
+    public void shouldIgnoreTornRecordAtEnd() throws Exception {
+        journal.append(Collections.singletonList(addA));
+        long sizeAfterFirstRecord = journal.size();
+        journal.append(Collections.singletonList(addB));
+        journal.sync();
+        try(FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(journal.size() - 3);
+        }
+        List<OWLOntologyChangeData> changes = ChangeJournal.read(file).get().getChanges();
+        assertThat(changes, is(Collections.singletonList(addA)));
+        assertThat(sizeAfterFirstRecord < journal.size(), is(true));
+    }
+
+    @Test
+    public void shouldDiscardChangesOnReset() throws Exception {
+        journal.append(Collections.singletonList(addA));
+        ChangeJournal.DocumentStamp newStamp = new ChangeJournal.DocumentStamp(300, 400);
+        journal.reset(newStamp);
+        ChangeJournal.Contents contents = ChangeJournal.read(file).get();
+        assertThat(contents.getDocumentStamp(), is(newStamp));
+        assertThat(contents.getChanges().isEmpty(), is(true));
+    }
+
+    @Test
+    public void shouldAppendAfterRewrite() throws Exception {
+        journal.append(Arrays.asList(addA, addB, removeA));
+        journal.rewrite(STAMP, Collections.singletonList(addB));
+        journal.append(Collections.singletonList(addA));
+        List<OWLOntologyChangeData> changes = ChangeJournal.read(file).get().getChanges();
+        assertThat(changes, is(Arrays.asList(addB, addA)));
+    }
+
+    @Test
+    public void shouldNotReadMissingJournal() throws Exception {
+        assertThat(ChangeJournal.read(file.resolveSibling("missing.journal")).isPresent(), is(false));
+    }
+}
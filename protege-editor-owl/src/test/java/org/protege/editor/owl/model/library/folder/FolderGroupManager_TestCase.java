@@ -0,0 +1,90 @@
+package org.protege.editor.owl.model.library.folder;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.protege.editor.owl.model.library.OntologyCatalogManager;
+import org.protege.xmlcatalog.CatalogUtilities;
+import org.protege.xmlcatalog.XMLCatalog;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FolderGroupManager_TestCase {
+
+    private static final URI ONTOLOGY_A = URI.create("http://example.org/a.owl");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private final AtomicInteger examinedFileCount = new AtomicInteger();
+
+    private File folder;
+
+    private OntologyCatalogManager catalogManager;
+
+    @Before
+    public void setUp() throws Exception {
+        folder = temporaryFolder.newFolder();
+        write("a.owl", "a");
+        write("b.owl", "b");
+        FolderGroupManager folderGroupManager = new FolderGroupManager();
+        folderGroupManager.setAlgorithms(new CountingAlgorithm());
+        catalogManager = new OntologyCatalogManager(Collections.singletonList(folderGroupManager));
+    }
+
+    @Test
+    public void shouldMapSuggestedLocations() throws Exception {
+        XMLCatalog catalog = catalogManager.ensureCatalogExists(folder);
+        assertThat(CatalogUtilities.getRedirect(ONTOLOGY_A, catalog), is(new File(folder, "a.owl").toURI()));
+    }
+
+    @Test
+    public void shouldNotExamineUnchangedFilesAgain() throws Exception {
+        catalogManager.ensureCatalogExists(folder);
+        assertThat(examinedFileCount.get(), is(2));
+        catalogManager.ensureCatalogExists(folder);
+        assertThat(examinedFileCount.get(), is(2));
+    }
+
+    @Test
+    public void shouldExamineChangedFileAgain() throws Exception {
+        catalogManager.ensureCatalogExists(folder);
+        write("b.owl", "changed");
+        catalogManager.ensureCatalogExists(folder);
+        assertThat(examinedFileCount.get(), is(3));
+    }
+
+    @Test
+    public void shouldExamineNewFile() throws Exception {
+        catalogManager.ensureCatalogExists(folder);
+        write("c.owl", "c");
+        catalogManager.ensureCatalogExists(folder);
+        assertThat(examinedFileCount.get(), is(3));
+    }
+
+    private void write(String name, String content) throws Exception {
+        Files.write(new File(folder, name).toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private class CountingAlgorithm implements Algorithm {
+
+        @Override
+        public Set<URI> getSuggestions(File f) {
+            examinedFileCount.incrementAndGet();
+            if (f.getName().equals("a.owl")) {
+                return Collections.singleton(ONTOLOGY_A);
+            }
+            return Collections.emptySet();
+        }
+    }
+}
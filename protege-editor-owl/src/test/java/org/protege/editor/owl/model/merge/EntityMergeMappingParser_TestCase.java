@@ -0,0 +1,71 @@
+package org.protege.editor.owl.model.merge;
+
+import com.google.common.collect.ImmutableMap;
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collections;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+
+public class EntityMergeMappingParser_TestCase {
+
+    private static final String NS = "http://ontology.org/";
+
+    private final OWLClass a = Class(IRI.create(NS + "A")), b = Class(IRI.create(NS + "B")),
+            c = Class(IRI.create(NS + "C")), d = Class(IRI.create(NS + "D"));
+
+    private final OWLObjectProperty p = ObjectProperty(IRI.create(NS + "p"));
+
+    private EntityMergeMappingParser parser;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntology ontology = Ontology(manager, Declaration(a), Declaration(b), Declaration(c), Declaration(d),
+                                        Declaration(p));
+        parser = new EntityMergeMappingParser(Collections.singleton(ontology), manager.getOWLDataFactory());
+    }
+
+    @Test
+    public void shouldParseMapping() throws IOException {
+        ImmutableMap<OWLEntity, OWLEntity> mapping = parse(NS + "A\t" + NS + "B\n<" + NS + "C>\t<" + NS + "D>\n");
+        assertThat(mapping, is(ImmutableMap.<OWLEntity, OWLEntity>of(a, b, c, d)));
+        assertThat(parser.getSkippedLineCount(), is(0));
+    }
+
+    @Test
+    public void shouldSkipBlankAndCommentLines() throws IOException {
+        ImmutableMap<OWLEntity, OWLEntity> mapping = parse("# source\ttarget\n\n" + NS + "A\t" + NS + "B\n");
+        assertThat(mapping, is(ImmutableMap.<OWLEntity, OWLEntity>of(a, b)));
+        assertThat(parser.getSkippedLineCount(), is(0));
+    }
+
+    @Test
+    public void shouldSkipLinesThatDoNotMapEntitiesOfTheSameType() throws IOException {
+        ImmutableMap<OWLEntity, OWLEntity> mapping = parse("source\ttarget\n" +
+                                                                   NS + "A\t" + NS + "p\n" +
+                                                                   NS + "A\t" + NS + "X\n" +
+                                                                   NS + "C\t" + NS + "D\n");
+        assertThat(mapping, is(ImmutableMap.<OWLEntity, OWLEntity>of(c, d)));
+        assertThat(parser.getSkippedLineCount(), is(3));
+    }
+
+    @Test
+    public void shouldSkipSecondMappingOfSourceEntity() throws IOException {
+        ImmutableMap<OWLEntity, OWLEntity> mapping = parse(NS + "A\t" + NS + "B\n" + NS + "A\t" + NS + "C\n");
+        assertThat(mapping, is(ImmutableMap.<OWLEntity, OWLEntity>of(a, b)));
+        assertThat(parser.getSkippedLineCount(), is(1));
+    }
+
+    private ImmutableMap<OWLEntity, OWLEntity> parse(String mapping) throws IOException {
+        return parser.parse(new StringReader(mapping), '\t');
+    }
+}
@@ -1,5 +1,6 @@
 package org.protege.editor.owl.model.merge;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import org.coode.owlapi.obo12.parser.OBOVocabulary;
 import org.junit.Before;
@@ -151,5 +152,30 @@ public class MergeEntitiesChangeListGenerator_TestCase {
 
         assertThat(rootOntology.containsAxiom(AnnotationAssertion(oboAlternateId, targetEntity.getIRI(), idValue)), is(true));
     }
+
+    @Test
+    public void shouldMergeManySourcesIntoTheirTargets() {
+        OWLClass otherSourceEntity = Class(IRI.create("http://ontology.org/D"));
+        OWLClass otherTargetEntity = Class(IRI.create("http://ontology.org/E"));
+        manager.applyChange(new AddAxiom(rootOntology, SubClassOf(otherSourceEntity, sourceEntity)));
+        MergeEntitiesChangeListGenerator gen = new MergeEntitiesChangeListGenerator(
+                rootOntology,
+                dataFactory,
+                ImmutableMap.of(sourceEntity, targetEntity, otherSourceEntity, otherTargetEntity),
+                MergeStrategy.DELETE_SOURCE_ENTITY);
+        manager.applyChanges(gen.generateChanges());
+        assertThat(rootOntology.containsEntityInSignature(sourceEntity), is(false));
+        assertThat(rootOntology.containsEntityInSignature(otherSourceEntity), is(false));
+        assertThat(rootOntology.containsAxiom(SubClassOf(otherTargetEntity, targetEntity)), is(true));
+        assertThat(rootOntology.containsAxiom(AnnotationAssertion(skosAltLabel, targetEntity.getIRI(), hello)), is(true));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void shouldNotMergeIntoAnEntityThatIsItselfMerged() {
+        new MergeEntitiesChangeListGenerator(rootOntology,
+                                             dataFactory,
+                                             ImmutableMap.of(sourceEntity, targetEntity, targetEntity, clsC),
+                                             MergeStrategy.DELETE_SOURCE_ENTITY);
+    }
 }
 
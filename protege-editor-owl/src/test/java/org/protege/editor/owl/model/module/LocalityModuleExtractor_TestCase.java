@@ -0,0 +1,104 @@
+package org.protege.editor.owl.model.module;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+import uk.ac.manchester.cs.owlapi.modularity.ModuleType;
+import uk.ac.manchester.cs.owlapi.modularity.SyntacticLocalityModuleExtractor;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+public class LocalityModuleExtractor_TestCase {
+
+    private OWLOntologyManager manager;
+
+    private OWLOntology ontology;
+
+    private OWLClass clsA, clsB, clsC, clsD, clsE, clsF, clsG;
+
+    private OWLObjectProperty propP;
+
+    private LocalityModuleExtractor extractor;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        PrefixManager pm = new DefaultPrefixManager();
+        pm.setDefaultPrefix("http://the.ontology/ont/");
+        clsA = Class("A", pm);
+        clsB = Class("B", pm);
+        clsC = Class("C", pm);
+        clsD = Class("D", pm);
+        clsE = Class("E", pm);
+        clsF = Class("F", pm);
+        clsG = Class("G", pm);
+        propP = ObjectProperty("p", pm);
+        ontology = manager.createOntology(IRI.create("http://the.ontology/ont"));
+        manager.addAxiom(ontology, SubClassOf(clsA, clsB));
+        manager.addAxiom(ontology, SubClassOf(clsB, clsC));
+        manager.addAxiom(ontology, SubClassOf(clsD, clsA));
+        manager.addAxiom(ontology, SubClassOf(clsB, ObjectSomeValuesFrom(propP, clsE)));
+        manager.addAxiom(ontology, EquivalentClasses(clsE, ObjectIntersectionOf(clsC, clsD)));
+        manager.addAxiom(ontology, DisjointClasses(clsC, clsD));
+        manager.addAxiom(ontology, SubClassOf(clsF, clsG));
+        manager.addAxiom(ontology, Declaration(clsA));
+        manager.addAxiom(ontology, AnnotationAssertion(RDFSLabel(), clsA.getIRI(), Literal("A")));
+        manager.addAxiom(ontology, AnnotationAssertion(RDFSLabel(), clsF.getIRI(), Literal("F")));
+        extractor = new LocalityModuleExtractor(Collections.singleton(ontology));
+    }
+
+    @Test
+    public void shouldExtractSameBottomModuleAsReferenceExtractor() {
+        assertSameLogicalAxiomsAsReference(Collections.singleton(clsA), ModuleType.BOT);
+    }
+
+    @Test
+    public void shouldExtractSameTopModuleAsReferenceExtractor() {
+        assertSameLogicalAxiomsAsReference(Collections.singleton(clsA), ModuleType.TOP);
+    }
+
+    @Test
+    public void shouldExtractSameStarModuleAsReferenceExtractor() {
+        assertSameLogicalAxiomsAsReference(Collections.singleton(clsA), ModuleType.STAR);
+        assertSameLogicalAxiomsAsReference(Collections.singleton(clsE), ModuleType.STAR);
+    }
+
+    @Test
+    public void shouldIncludeSuperClassesInBottomModule() {
+        Set<OWLAxiom> module = extractor.extract(Collections.singleton(clsA), ModuleType.BOT);
+        assertThat(module, hasItem(SubClassOf(clsA, clsB)));
+        assertThat(module, hasItem(SubClassOf(clsB, clsC)));
+        assertThat(module, not(hasItem(SubClassOf(clsF, clsG))));
+    }
+
+    @Test
+    public void shouldIncludeDeclarationsAndAnnotationsOfModuleSignature() {
+        Set<OWLAxiom> module = extractor.extract(Collections.singleton(clsA), ModuleType.BOT);
+        assertThat(module, hasItem(Declaration(clsA)));
+        assertThat(module, hasItem(AnnotationAssertion(RDFSLabel(), clsA.getIRI(), Literal("A"))));
+        assertThat(module, not(hasItem(AnnotationAssertion(RDFSLabel(), clsF.getIRI(), Literal("F")))));
+    }
+
+    private void assertSameLogicalAxiomsAsReference(Set<OWLEntity> signature, ModuleType moduleType) {
+        Set<OWLAxiom> expected = new SyntacticLocalityModuleExtractor(manager, ontology, moduleType)
+                .extract(signature)
+                .stream()
+                .filter(OWLAxiom::isLogicalAxiom)
+                .collect(Collectors.toSet());
+        Set<OWLAxiom> actual = extractor.extract(signature, moduleType)
+                .stream()
+                .filter(OWLAxiom::isLogicalAxiom)
+                .collect(Collectors.toSet());
+        assertThat(actual, is(expected));
+    }
+}
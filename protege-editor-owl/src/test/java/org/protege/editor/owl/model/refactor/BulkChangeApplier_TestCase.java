@@ -0,0 +1,159 @@
+package org.protege.editor.owl.model.refactor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.history.HistoryManagerImpl;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkChangeApplier_TestCase {
+
+    @Mock
+    private OWLModelManager modelManager;
+
+    private OWLOntologyManager manager;
+
+    private HistoryManagerImpl historyManager;
+
+    private OWLOntology ont;
+
+    private OWLSubClassOfAxiom aSubB, bSubC, cSubD;
+
+    private BulkChangeApplier applier;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        PrefixManager pm = new DefaultPrefixManager();
+        pm.setDefaultPrefix("http://the.ontology/ont/");
+        aSubB = SubClassOf(Class("A", pm), Class("B", pm));
+        bSubC = SubClassOf(Class("B", pm), Class("C", pm));
+        cSubD = SubClassOf(Class("C", pm), Class("D", pm));
+        ont = manager.createOntology(IRI.create("http://the.ontology/a"));
+        manager.addAxiom(ont, aSubB);
+        historyManager = new HistoryManagerImpl(manager);
+        manager.addOntologyChangeListener(historyManager::logChanges);
+        when(modelManager.getHistoryManager()).thenReturn(historyManager);
+        doAnswer(invocation -> {
+            historyManager.startCompositeChange();
+            return null;
+        }).when(modelManager).startCompositeChange();
+        doAnswer(invocation -> {
+            historyManager.endCompositeChange();
+            return null;
+        }).when(modelManager).endCompositeChange();
+        doAnswer(invocation -> manager.applyChanges((List<OWLOntologyChange>) invocation.getArguments()[0]))
+                .when(modelManager).applyChanges(any(List.class));
+        applier = new BulkChangeApplier(modelManager);
+    }
+
+    @After
+    public void tearDown() {
+        historyManager.dispose();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void shouldApplyChangesInChunks() {
+        applier.setChunkSize(2);
+        int applied = applier.applyChanges(Arrays.asList(new RemoveAxiom(ont, aSubB),
+                                                         new AddAxiom(ont, bSubC),
+                                                         new AddAxiom(ont, cSubD)));
+        assertThat(applied, is(3));
+        assertThat(ont.containsAxiom(aSubB), is(false));
+        assertThat(ont.containsAxiom(bSubC), is(true));
+        assertThat(ont.containsAxiom(cSubD), is(true));
+        verify(modelManager, times(2)).applyChanges(any(List.class));
+        verify(modelManager, times(1)).startCompositeChange();
+        verify(modelManager, times(1)).endCompositeChange();
+    }
+
+    @Test
+    public void shouldMinimiseChangesAcrossChunks() {
+        applier.setChunkSize(1);
+        int applied = applier.applyChanges(Arrays.asList(new AddAxiom(ont, bSubC),
+                                                         new AddAxiom(ont, cSubD),
+                                                         new RemoveAxiom(ont, bSubC)));
+        assertThat(applied, is(1));
+        assertThat(ont.containsAxiom(bSubC), is(false));
+        assertThat(ont.containsAxiom(cSubD), is(true));
+    }
+
+    @Test
+    public void shouldUndoAllChunksAsOneChange() {
+        applier.setChunkSize(1);
+        applier.applyChanges(Arrays.asList(new RemoveAxiom(ont, aSubB),
+                                           new AddAxiom(ont, bSubC),
+                                           new AddAxiom(ont, cSubD)));
+        historyManager.undo();
+        assertThat(ont.getAxiomCount(), is(1));
+        assertThat(ont.containsAxiom(aSubB), is(true));
+        assertThat(historyManager.canUndo(), is(false));
+    }
+
+    @Test
+    public void shouldStopApplyingWhenCancelled() {
+        applier.setChunkSize(1);
+        int applied = applier.applyChanges(Arrays.asList(new AddAxiom(ont, bSubC),
+                                                         new AddAxiom(ont, cSubD)),
+                                           new BulkChangeApplier.ProgressListener() {
+                                               private int appliedCount;
+
+                                               @Override
+                                               public void progressChanged(int appliedCount, int totalCount) {
+                                                   this.appliedCount = appliedCount;
+                                               }
+
+                                               @Override
+                                               public boolean isCancelled() {
+                                                   return appliedCount == 1;
+                                               }
+                                           });
+        assertThat(applied, is(1));
+        assertThat(ont.containsAxiom(bSubC), is(true));
+        assertThat(ont.containsAxiom(cSubD), is(false));
+    }
+
+    @Test
+    public void shouldNotSeparateRemovalFromFollowingAdditionWhenCancelled() {
+        applier.setChunkSize(1);
+        int applied = applier.applyChanges(Arrays.asList(new RemoveAxiom(ont, aSubB),
+                                                         new AddAxiom(ont, bSubC),
+                                                         new AddAxiom(ont, cSubD)),
+                                           new BulkChangeApplier.ProgressListener() {
+                                               private int appliedCount;
+
+                                               @Override
+                                               public void progressChanged(int appliedCount, int totalCount) {
+                                                   this.appliedCount = appliedCount;
+                                               }
+
+                                               @Override
+                                               public boolean isCancelled() {
+                                                   return appliedCount > 0;
+                                               }
+                                           });
+        assertThat(applied, is(2));
+        assertThat(ont.containsAxiom(aSubB), is(false));
+        assertThat(ont.containsAxiom(bSubC), is(true));
+        assertThat(ont.containsAxiom(cSubD), is(false));
+    }
+}
@@ -0,0 +1,162 @@
+package org.protege.editor.owl.model.refactor;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.protege.editor.owl.model.history.HistoryManagerImpl;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import java.util.*;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.Class;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.SubClassOf;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BulkEntityRenamer_TestCase {
+
+    @Mock
+    private OWLModelManager modelManager;
+
+    private OWLOntologyManager manager;
+
+    private HistoryManagerImpl historyManager;
+
+    private OWLOntology ontA, ontB;
+
+    private OWLClass clsA, clsB, clsC, clsD;
+
+    private OWLSubClassOfAxiom aSubB, cSubD;
+
+    private Map<OWLEntity, IRI> renames;
+
+    private BulkEntityRenamer renamer;
+
+    @Before
+    @SuppressWarnings("unchecked")
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        PrefixManager pm = new DefaultPrefixManager();
+        pm.setDefaultPrefix("http://the.ontology/ont/");
+        clsA = Class("A", pm);
+        clsB = Class("B", pm);
+        clsC = Class("C", pm);
+        clsD = Class("D", pm);
+        aSubB = SubClassOf(clsA, clsB);
+        cSubD = SubClassOf(clsC, clsD);
+        ontA = manager.createOntology(IRI.create("http://the.ontology/a"));
+        ontB = manager.createOntology(IRI.create("http://the.ontology/b"));
+        manager.addAxiom(ontA, aSubB);
+        manager.addAxiom(ontB, aSubB);
+        manager.addAxiom(ontB, cSubD);
+        historyManager = new HistoryManagerImpl(manager);
+        manager.addOntologyChangeListener(historyManager::logChanges);
+        when(modelManager.getHistoryManager()).thenReturn(historyManager);
+        doAnswer(invocation -> {
+            historyManager.startCompositeChange();
+            return null;
+        }).when(modelManager).startCompositeChange();
+        doAnswer(invocation -> {
+            historyManager.endCompositeChange();
+            return null;
+        }).when(modelManager).endCompositeChange();
+        doAnswer(invocation -> manager.applyChanges((List<OWLOntologyChange>) invocation.getArguments()[0]))
+                .when(modelManager).applyChanges(any(List.class));
+        renames = new LinkedHashMap<>();
+        renames.put(clsA, IRI.create("http://the.ontology/ont/A2"));
+        renames.put(clsB, IRI.create("http://the.ontology/ont/B2"));
+        renames.put(clsC, IRI.create("http://the.ontology/ont/C2"));
+        renamer = new BulkEntityRenamer(modelManager, new HashSet<>(Arrays.asList(ontA, ontB)));
+    }
+
+    @After
+    public void tearDown() {
+        historyManager.dispose();
+    }
+
+    @Test
+    public void shouldRenameEntitiesInAllOntologies() {
+        int renamed = renamer.rename(renames);
+        assertThat(renamed, is(3));
+        OWLSubClassOfAxiom renamedAxiom = SubClassOf(Class(renames.get(clsA)), Class(renames.get(clsB)));
+        assertThat(ontA.getAxioms(AxiomType.SUBCLASS_OF), is(Collections.singleton(renamedAxiom)));
+        assertThat(ontB.containsAxiom(renamedAxiom), is(true));
+        assertThat(ontB.containsAxiom(SubClassOf(Class(renames.get(clsC)), clsD)), is(true));
+        assertThat(ontB.getAxiomCount(), is(2));
+    }
+
+    @Test
+    public void shouldRenameEntitiesOfAxiomInDifferentChunks() {
+        renamer.setChunkSize(1);
+        renamer.rename(renames);
+        OWLSubClassOfAxiom renamedAxiom = SubClassOf(Class(renames.get(clsA)), Class(renames.get(clsB)));
+        assertThat(ontA.getAxioms(AxiomType.SUBCLASS_OF), is(Collections.singleton(renamedAxiom)));
+        assertThat(ontB.getAxiomCount(), is(2));
+    }
+
+    @Test
+    public void shouldUndoAllChunksAsOneChange() {
+        renamer.setChunkSize(1);
+        renamer.rename(renames);
+        historyManager.undo();
+        assertThat(ontA.getAxioms(AxiomType.SUBCLASS_OF), is(Collections.singleton(aSubB)));
+        assertThat(ontB.containsAxiom(aSubB), is(true));
+        assertThat(ontB.containsAxiom(cSubD), is(true));
+        assertThat(historyManager.canUndo(), is(false));
+    }
+
+    @Test
+    public void shouldRenameChainedEntitiesAcrossChunks() {
+        renamer.setChunkSize(1);
+        Map<OWLEntity, IRI> chain = new LinkedHashMap<>();
+        IRI b3 = IRI.create("http://the.ontology/ont/B3");
+        chain.put(clsA, clsB.getIRI());
+        chain.put(clsB, b3);
+        int renamed = renamer.rename(chain);
+        assertThat(renamed, is(2));
+        assertThat(ontA.getAxioms(AxiomType.SUBCLASS_OF), is(Collections.singleton(SubClassOf(clsB, Class(b3)))));
+        assertThat(ontB.containsAxiom(SubClassOf(clsB, Class(b3))), is(true));
+        assertThat(ontB.containsAxiom(cSubD), is(true));
+    }
+
+    @Test
+    public void shouldSwapEntitiesAcrossChunks() {
+        renamer.setChunkSize(1);
+        Map<OWLEntity, IRI> swap = new LinkedHashMap<>();
+        swap.put(clsA, clsB.getIRI());
+        swap.put(clsB, clsA.getIRI());
+        renamer.rename(swap);
+        assertThat(ontA.getAxioms(AxiomType.SUBCLASS_OF), is(Collections.singleton(SubClassOf(clsB, clsA))));
+    }
+
+    @Test
+    public void shouldStopRenamingWhenCancelled() {
+        renamer.setChunkSize(1);
+        List<Integer> progress = new ArrayList<>();
+        int renamed = renamer.rename(renames, new BulkEntityRenamer.ProgressListener() {
+            @Override
+            public void progressChanged(int renamedCount, int totalCount) {
+                progress.add(renamedCount);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return progress.size() > 1;
+            }
+        });
+        assertThat(renamed, is(1));
+        assertThat(progress, is(Arrays.asList(0, 1)));
+        assertThat(ontB.containsAxiom(cSubD), is(true));
+        assertThat(historyManager.canUndo(), is(true));
+    }
+}
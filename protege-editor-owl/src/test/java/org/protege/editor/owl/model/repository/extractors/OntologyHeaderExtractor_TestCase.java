@@ -0,0 +1,167 @@
+package org.protege.editor.owl.model.repository.extractors;
+
+import com.google.common.base.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.*;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class OntologyHeaderExtractor_TestCase {
+
+    private static final IRI ONTOLOGY_IRI = IRI.create("http://example.org/ontologies/test.owl");
+
+    private static final IRI VERSION_IRI = IRI.create("http://example.org/ontologies/1.0/test.owl");
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private OntologyHeaderExtractor extractor;
+
+    @Before
+    public void setUp() {
+        extractor = new OntologyHeaderExtractor();
+    }
+
+    @Test
+    public void shouldExtractIdFromRdfXml() throws Exception {
+        assertExtracted(new RDFXMLDocumentFormat());
+    }
+
+    @Test
+    public void shouldExtractIdFromOwlXml() throws Exception {
+        assertExtracted(new OWLXMLDocumentFormat());
+    }
+
+    @Test
+    public void shouldExtractIdFromTurtle() throws Exception {
+        assertExtracted(new TurtleDocumentFormat());
+    }
+
+    @Test
+    public void shouldExtractIdFromFunctionalSyntax() throws Exception {
+        assertExtracted(new FunctionalSyntaxDocumentFormat());
+    }
+
+    @Test
+    public void shouldExtractIdFromManchesterSyntax() throws Exception {
+        assertExtracted(new ManchesterSyntaxDocumentFormat());
+    }
+
+    @Test
+    public void shouldExtractAnonymousIdFromFunctionalSyntax() throws Exception {
+        File file = write("anonymous.ofn", "Prefix(:=<http://example.org/>)\nOntology(\nDeclaration(Class(:A))\n)\n");
+        Optional<OWLOntologyID> id = extractor.getOntologyId(file.toURI());
+        assertThat(id.isPresent(), is(true));
+        assertThat(id.get().isAnonymous(), is(true));
+    }
+
+    @Test
+    public void shouldReadVersionIriThatFollowsChunkBoundary() throws Exception {
+        String header = "Prefix(:=<http://example.org/>)\nOntology(<" + ONTOLOGY_IRI + "> ";
+        Reader reader = new ChunkedReader(header, "<" + VERSION_IRI + ">\nDeclaration(Class(:A))\n)\n");
+        Optional<OWLOntologyID> id = new TextOntologyHeaderExtractor().getOntologyId(reader);
+        assertThat(id, is(Optional.of(new OWLOntologyID(Optional.of(ONTOLOGY_IRI), Optional.of(VERSION_IRI)))));
+    }
+
+    @Test
+    public void shouldReadVersionIriThatIsSplitByChunkBoundary() throws Exception {
+        String version = "<" + VERSION_IRI + ">";
+        Reader reader = new ChunkedReader("Ontology: <" + ONTOLOGY_IRI + ">\n    " + version.substring(0, 10),
+                                          version.substring(10) + "\n\nClass: <http://example.org/A>\n");
+        Optional<OWLOntologyID> id = new TextOntologyHeaderExtractor().getOntologyId(reader);
+        assertThat(id, is(Optional.of(new OWLOntologyID(Optional.of(ONTOLOGY_IRI), Optional.of(VERSION_IRI)))));
+    }
+
+    @Test
+    public void shouldExtractIdFromObo() throws Exception {
+        File file = write("test.obo", "format-version: 1.2\ndata-version: 2017-01-01\nontology: go\n\n[Term]\nid: GO:0000001\n");
+        OWLOntologyID expected = new OWLOntologyID(
+                Optional.of(IRI.create("http://purl.obolibrary.org/obo/go.owl")),
+                Optional.of(IRI.create("http://purl.obolibrary.org/obo/go/2017-01-01/go.owl")));
+        assertThat(extractor.getOntologyId(file.toURI()), is(Optional.of(expected)));
+    }
+
+    @Test
+    public void shouldResolveRdfXmlOntologyIriAgainstXmlBase() throws Exception {
+        File file = write("base.owl",
+                          "<?xml version=\"1.0\"?>\n" +
+                                  "<rdf:RDF xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n" +
+                                  "         xmlns:owl=\"http://www.w3.org/2002/07/owl#\"\n" +
+                                  "         xml:base=\"http://example.org/ontologies/test.owl\">\n" +
+                                  "    <owl:Ontology rdf:about=\"\"/>\n" +
+                                  "</rdf:RDF>\n");
+        assertThat(extractor.getOntologyId(file.toURI()), is(Optional.of(new OWLOntologyID(Optional.of(ONTOLOGY_IRI), Optional.absent()))));
+    }
+
+    @Test
+    public void shouldReturnAbsentForDocumentWithoutHeader() throws Exception {
+        File file = write("notes.txt", "These are not the ontologies you are looking for.\n");
+        assertThat(extractor.getOntologyId(file.toURI()).isPresent(), is(false));
+    }
+
+    /**
+     * A reader that returns each of its chunks from a separate read, as a reader might at a buffer boundary.
+     */
+    private static class ChunkedReader extends Reader {
+
+        private final Deque<String> chunks;
+
+        private ChunkedReader(String... chunks) {
+            this.chunks = new ArrayDeque<>(Arrays.asList(chunks));
+        }
+
+        @Override
+        public int read(char[] cbuf, int off, int len) {
+            if (chunks.isEmpty()) {
+                return -1;
+            }
+            String chunk = chunks.poll();
+            int count = Math.min(len, chunk.length());
+            chunk.getChars(0, count, cbuf, off);
+            if (count < chunk.length()) {
+                chunks.push(chunk.substring(count));
+            }
+            return count;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    private void assertExtracted(OWLDocumentFormat format) throws Exception {
+        OWLOntologyManager manager = OWLManager.createOWLOntologyManager();
+        OWLOntologyID id = new OWLOntologyID(Optional.of(ONTOLOGY_IRI), Optional.of(VERSION_IRI));
+        OWLOntology ontology = manager.createOntology(id);
+        OWLDataFactory df = manager.getOWLDataFactory();
+        OWLClass cls = df.getOWLClass(IRI.create("http://example.org/ontologies/test.owl#A"));
+        manager.addAxiom(ontology, df.getOWLDeclarationAxiom(cls));
+        File file = temporaryFolder.newFile();
+        try (OutputStream os = new FileOutputStream(file)) {
+            manager.saveOntology(ontology, format, os);
+        }
+        assertThat(extractor.getOntologyId(file.toURI()), is(Optional.of(id)));
+    }
+
+    private File write(String name, String content) throws Exception {
+        File file = temporaryFolder.newFile(name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+}
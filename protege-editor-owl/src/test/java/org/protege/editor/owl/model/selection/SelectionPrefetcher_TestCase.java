@@ -0,0 +1,102 @@
+package org.protege.editor.owl.model.selection;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.protege.editor.owl.model.OWLModelManager;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+import org.semanticweb.owlapi.util.DefaultPrefixManager;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.semanticweb.owlapi.apibinding.OWLFunctionalSyntaxFactory.*;
+
+public class SelectionPrefetcher_TestCase {
+
+    private final PrefixManager pm = new DefaultPrefixManager(null, null, "http://www.ontologies.com/ontology/");
+
+    private final OWLClass a = Class("A", pm), b = Class("B", pm), c = Class("C", pm);
+
+    private final OWLAnnotationProperty seeAlso = AnnotationProperty("seeAlso", pm);
+
+    private OWLModelManager modelManager;
+
+    private SelectionPrefetcher prefetcher;
+
+    @Before
+    public void setUp() throws Exception {
+        OWLOntology ontology = Ontology(OWLManager.createOWLOntologyManager(),
+                                        SubClassOf(b, a),
+                                        SubClassOf(c, b),
+                                        AnnotationAssertion(seeAlso, c.getIRI(), a.getIRI()));
+        modelManager = mock(OWLModelManager.class);
+        when(modelManager.getActiveOntologies()).thenReturn(Collections.singleton(ontology));
+        prefetcher = new SelectionPrefetcher(modelManager);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        prefetcher.dispose();
+    }
+
+    @Test
+    public void shouldIncludeAxiomsWhoseAnnotationValueIsTheEntityIRI() {
+        assertThat(prefetcher.getUsage(a), containsInAnyOrder(
+                SubClassOf(b, a),
+                AnnotationAssertion(seeAlso, c.getIRI(), a.getIRI())));
+    }
+
+    @Test
+    public void shouldNotRecomputeCachedUsage() {
+        prefetcher.getUsage(b);
+        assertThat(prefetcher.getUsage(b), containsInAnyOrder(SubClassOf(b, a), SubClassOf(c, b)));
+        verify(modelManager, times(1)).getActiveOntologies();
+    }
+
+    @Test
+    public void shouldPrefetchUsageOfAllEntitiesInOnePass() throws Exception {
+        prefetcher.prefetch(Arrays.asList(a, b)).get(10, TimeUnit.SECONDS);
+        verify(modelManager, times(1)).getActiveOntologies();
+        assertThat(prefetcher.getUsage(a), containsInAnyOrder(
+                SubClassOf(b, a),
+                AnnotationAssertion(seeAlso, c.getIRI(), a.getIRI())));
+        assertThat(prefetcher.getUsage(b), containsInAnyOrder(SubClassOf(b, a), SubClassOf(c, b)));
+        verify(modelManager, times(1)).getActiveOntologies();
+    }
+
+    @Test
+    public void shouldComputeUsageOfSeveralEntities() {
+        Map<OWLEntity, ImmutableSet<OWLAxiom>> usage = SelectionPrefetcher.computeUsage(
+                Arrays.asList(a, c), modelManager.getActiveOntologies());
+        assertThat(usage.get(a), containsInAnyOrder(
+                SubClassOf(b, a),
+                AnnotationAssertion(seeAlso, c.getIRI(), a.getIRI())));
+        assertThat(usage.get(c), containsInAnyOrder(
+                SubClassOf(c, b),
+                AnnotationAssertion(seeAlso, c.getIRI(), a.getIRI())));
+    }
+
+    @Test
+    public void shouldRecomputeUsageWhenCleared() {
+        prefetcher.getUsage(a);
+        prefetcher.clear();
+        prefetcher.getUsage(a);
+        verify(modelManager, times(2)).getActiveOntologies();
+    }
+
+    @Test
+    public void shouldOrderNeighbouringEntitiesNearestFirst() {
+        List<Object> rows = Arrays.asList(a, "Not an entity", b, c, OWLThing());
+        List<OWLEntity> entities = SelectionPrefetcher.getNeighbouringEntities(2, rows.size(), rows::get);
+        assertThat(entities, contains(b, c, OWLThing(), a));
+    }
+}
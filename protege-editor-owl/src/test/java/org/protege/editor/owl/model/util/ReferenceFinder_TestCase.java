@@ -1,5 +1,6 @@
 package org.protege.editor.owl.model.util;
 
+import com.google.common.collect.ImmutableList;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -8,10 +9,12 @@ import org.mockito.runners.MockitoJUnitRunner;
 import org.semanticweb.owlapi.model.*;
 import org.semanticweb.owlapi.model.parameters.Imports;
 
+import java.util.Arrays;
 import java.util.Collections;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.hasItem;
+import static org.hamcrest.Matchers.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
@@ -97,6 +100,21 @@ public class ReferenceFinder_TestCase {
         assertThat(referenceSet.getReferencingOntologyAnnotations(), hasItem(ontologyAnnotation));
     }
 
+    @Test
+    public void shouldRetrieveReferenceSetForEachOntology() {
+        OWLOntology otherOntology = mock(OWLOntology.class);
+        when(ontology.getReferencingAxioms(entity, Imports.EXCLUDED)).thenReturn(Collections.singleton(axiom));
+
+        ImmutableList<ReferenceFinder.ReferenceSet> referenceSets = referenceFinder.getReferenceSets(
+                Collections.singleton(entity),
+                Arrays.asList(ontology, otherOntology));
+        assertThat(referenceSets.size(), is(2));
+        assertThat(referenceSets.get(0).getOntology(), is(ontology));
+        assertThat(referenceSets.get(0).getReferencingAxioms(), hasItem(axiom));
+        assertThat(referenceSets.get(1).getOntology(), is(otherOntology));
+        assertThat(referenceSets.get(1).getReferencingAxioms().isEmpty(), is(true));
+    }
+
     /**
      * Convenience method to get the ReferenceSet for the entity an ontology.
      * @return  The ReferenceSet.
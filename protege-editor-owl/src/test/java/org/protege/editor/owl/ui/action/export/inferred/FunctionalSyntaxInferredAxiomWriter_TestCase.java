@@ -0,0 +1,105 @@
+package org.protege.editor.owl.ui.action.export.inferred;
+
+import com.google.common.base.Optional;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.formats.FunctionalSyntaxDocumentFormat;
+import org.semanticweb.owlapi.io.StringDocumentSource;
+import org.semanticweb.owlapi.model.*;
+
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class FunctionalSyntaxInferredAxiomWriter_TestCase {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private OWLDataFactory df;
+
+    private OWLClass a, b, c;
+
+    private OWLAnnotation ontologyAnnotation;
+
+    private OWLOntologyID ontologyID;
+
+    @Before
+    public void setUp() {
+        df = OWLManager.getOWLDataFactory();
+        a = df.getOWLClass(IRI.create("http://ont.org/A"));
+        b = df.getOWLClass(IRI.create("http://ont.org/B"));
+        c = df.getOWLClass(IRI.create("http://ont.org/C"));
+        ontologyAnnotation = df.getOWLAnnotation(df.getRDFSComment(), df.getOWLLiteral("Inferred"));
+        ontologyID = new OWLOntologyID(Optional.of(IRI.create("http://ont.org/inferred")), Optional.absent());
+    }
+
+    private OWLOntology writeAndParse(Set<OWLAxiom> axioms) throws Exception {
+        StringWriter output = new StringWriter();
+        FunctionalSyntaxInferredAxiomWriter writer = new FunctionalSyntaxInferredAxiomWriter(
+                ontologyID,
+                Collections.singleton(ontologyAnnotation),
+                new FunctionalSyntaxDocumentFormat(),
+                output);
+        writer.writeAxioms(axioms);
+        writer.finish();
+        return OWLManager.createOWLOntologyManager()
+                         .loadOntologyFromOntologyDocument(new StringDocumentSource(output.toString()));
+    }
+
+    @Test
+    public void shouldWriteAxiomsAndHeader() throws Exception {
+        Set<OWLAxiom> axioms = new HashSet<>(Arrays.asList(
+                df.getOWLSubClassOfAxiom(b, a),
+                df.getOWLEquivalentClassesAxiom(b, c)
+        ));
+        OWLOntology ontology = writeAndParse(axioms);
+        assertThat(ontology.getOntologyID(), is(ontologyID));
+        assertThat(ontology.getAnnotations(), is(Collections.singleton(ontologyAnnotation)));
+        assertThat(ontology.getLogicalAxioms(), is(axioms));
+    }
+
+    @Test
+    public void shouldDeclareEntitiesInSignature() throws Exception {
+        OWLOntology ontology = writeAndParse(Collections.singleton(df.getOWLSubClassOfAxiom(b, a)));
+        assertThat(ontology.getAxioms(AxiomType.DECLARATION), is(new HashSet<>(Arrays.asList(
+                df.getOWLDeclarationAxiom(a),
+                df.getOWLDeclarationAxiom(b)
+        ))));
+    }
+
+    @Test
+    public void shouldReplaceFileWhenFinished() throws Exception {
+        Path file = folder.newFile("inferred.ofn").toPath();
+        try (FunctionalSyntaxInferredAxiomWriter writer = FunctionalSyntaxInferredAxiomWriter.toFile(
+                ontologyID, Collections.emptySet(), new FunctionalSyntaxDocumentFormat(), file)) {
+            writer.writeAxioms(Collections.singleton(df.getOWLSubClassOfAxiom(b, a)));
+            writer.finish();
+        }
+        OWLOntology ontology = OWLManager.createOWLOntologyManager().loadOntologyFromOntologyDocument(file.toFile());
+        assertThat(ontology.getLogicalAxioms(), is(Collections.singleton(df.getOWLSubClassOfAxiom(b, a))));
+        assertThat(folder.getRoot().list().length, is(1));
+    }
+
+    @Test
+    public void shouldLeaveFileUntouchedWhenClosedBeforeFinished() throws Exception {
+        Path file = folder.newFile("inferred.ofn").toPath();
+        Files.write(file, "Original".getBytes("UTF-8"));
+        try (FunctionalSyntaxInferredAxiomWriter writer = FunctionalSyntaxInferredAxiomWriter.toFile(
+                ontologyID, Collections.emptySet(), new FunctionalSyntaxDocumentFormat(), file)) {
+            writer.writeAxioms(Collections.singleton(df.getOWLSubClassOfAxiom(b, a)));
+        }
+        assertThat(new String(Files.readAllBytes(file), "UTF-8"), is("Original"));
+        assertThat(folder.getRoot().list().length, is(1));
+    }
+}
@@ -0,0 +1,85 @@
+package org.protege.editor.owl.ui.renderer.layout;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.swing.*;
+import java.awt.image.BufferedImage;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+
+public class PageCache_TestCase {
+
+    private PageCache cache;
+
+    private Page pageA, pageB, pageC;
+
+    private PageCacheKey keyA, keyB, keyC;
+
+    @Before
+    public void setUp() {
+        cache = new PageCache();
+        pageA = createPage(10);
+        pageB = createPage(20);
+        pageC = createPage(30);
+        keyA = new PageCacheKey("A", false, false);
+        keyB = new PageCacheKey("B", false, false);
+        keyC = new PageCacheKey("C", false, false);
+    }
+
+    @Test
+    public void shouldEvictLeastRecentlyUsedPage() {
+        cache.setCacheSize(2);
+        cache.put(keyA, pageA);
+        cache.put(keyB, pageB);
+        cache.getPage(keyA);
+        cache.put(keyC, pageC);
+        assertThat(cache.getPage(keyA), is(pageA));
+        assertThat(cache.getPage(keyB), is(nullValue()));
+        assertThat(cache.getPage(keyC), is(pageC));
+    }
+
+    @Test
+    public void shouldEvictPagesToStayWithinMaxSize() {
+        cache.setMaxSizeInBytes(pageB.getEstimatedSizeInBytes() + pageC.getEstimatedSizeInBytes());
+        cache.put(keyA, pageA);
+        cache.put(keyB, pageB);
+        cache.put(keyC, pageC);
+        assertThat(cache.getPageCount(), is(2));
+        assertThat(cache.getPage(keyA), is(nullValue()));
+        assertThat(cache.getSizeInBytes(), is(pageB.getEstimatedSizeInBytes() + pageC.getEstimatedSizeInBytes()));
+    }
+
+    @Test
+    public void shouldEstimateLargerImagesAsLarger() {
+        assertThat(pageB.getEstimatedSizeInBytes() > pageA.getEstimatedSizeInBytes(), is(true));
+    }
+
+    @Test
+    public void shouldKeepMostRecentPageLargerThanCache() {
+        cache.setMaxSizeInBytes(1);
+        cache.put(keyA, pageA);
+        assertThat(cache.getPage(keyA), is(pageA));
+    }
+
+    @Test
+    public void shouldNotAddPageFilledBeforeInvalidation() {
+        long generation = cache.getGeneration();
+        cache.put(keyA, pageA);
+        cache.invalidate();
+        assertThat(cache.getPage(keyA), is(nullValue()));
+        assertThat(cache.getSizeInBytes(), is(0L));
+        assertThat(cache.putIfAbsent(keyB, pageB, generation), is(false));
+        assertThat(cache.putIfAbsent(keyB, pageB, cache.getGeneration()), is(true));
+        assertThat(cache.putIfAbsent(keyB, pageC, cache.getGeneration()), is(false));
+        assertThat(cache.getPage(keyB), is(pageB));
+    }
+
+    private static Page createPage(int imageSize) {
+        Page page = new Page();
+        page.add(new IconBox(new ImageIcon(new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_ARGB))));
+        return page;
+    }
+}
@@ -0,0 +1,147 @@
+package org.protege.editor.owl.ui.view.ontology;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.semanticweb.owlapi.apibinding.OWLManager;
+import org.semanticweb.owlapi.model.*;
+
+import javax.swing.event.ListDataEvent;
+import javax.swing.event.ListDataListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.OptionalInt;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+
+public class VirtualisedOntologySourceModel_TestCase {
+
+    private static final int CLASS_COUNT = 2000;
+
+    private OWLOntologyManager manager;
+
+    private OWLDataFactory df;
+
+    private OWLOntology ontology;
+
+    private VirtualisedOntologySourceModel model;
+
+    private final List<OWLAxiom> renderedAxioms = new ArrayList<>();
+
+    @Before
+    public void setUp() throws Exception {
+        manager = OWLManager.createOWLOntologyManager();
+        df = manager.getOWLDataFactory();
+        ontology = manager.createOntology();
+        for(int i = 0; i < CLASS_COUNT; i++) {
+            manager.addAxiom(ontology, df.getOWLDeclarationAxiom(getCls(i)));
+        }
+        model = new VirtualisedOntologySourceModel(ontology,
+                                                   ont -> Collections.singletonList("Ontology("),
+                                                   axiom -> {
+                                                       renderedAxioms.add(axiom);
+                                                       return axiom.toString();
+                                                   });
+    }
+
+    private OWLClass getCls(int i) {
+        return df.getOWLClass(IRI.create(String.format("http://ont.org/C%05d", i)));
+    }
+
+    @Test
+    public void shouldHaveOneRowPerAxiomPlusHeaderAndFooter() {
+        assertThat(model.getSize(), is(CLASS_COUNT + 2));
+        assertThat(model.getElementAt(0), is("Ontology("));
+        assertThat(model.getElementAt(CLASS_COUNT + 1), is(")"));
+    }
+
+    @Test
+    public void shouldNotRenderAxiomsUntilRequested() {
+        assertThat(renderedAxioms.isEmpty(), is(true));
+        model.getElementAt(1);
+        assertThat(renderedAxioms.size() < CLASS_COUNT, is(true));
+    }
+
+    @Test
+    public void shouldFindFirstRowOfEntity() {
+        OptionalInt row = model.getFirstRow(getCls(1500));
+        assertThat(row.isPresent(), is(true));
+        assertThat(model.getElementAt(row.getAsInt()), is(df.getOWLDeclarationAxiom(getCls(1500)).toString()));
+    }
+
+    @Test
+    public void shouldReflectAddedAndRemovedAxioms() {
+        OWLAxiom added = df.getOWLSubClassOfAxiom(getCls(700), getCls(1));
+        OWLAxiom removed = df.getOWLDeclarationAxiom(getCls(3));
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        changes.add(new AddAxiom(ontology, added));
+        changes.add(new RemoveAxiom(ontology, removed));
+        manager.applyChanges(changes);
+        model.handleChanges(changes);
+        assertThat(model.getSize(), is(CLASS_COUNT + 2));
+        assertThat(model.getFirstRow(getCls(3)).isPresent(), is(false));
+        int row = model.getFirstRow(getCls(700)).getAsInt();
+        List<String> rows = new ArrayList<>();
+        rows.add(model.getElementAt(row));
+        rows.add(model.getElementAt(row + 1));
+        assertThat(rows.contains(added.toString()), is(true));
+    }
+
+    @Test
+    public void shouldFireRangedEventsForChangedRows() {
+        List<ListDataEvent> events = new ArrayList<>();
+        model.addListDataListener(new ListDataListener() {
+            @Override
+            public void intervalAdded(ListDataEvent e) {
+                events.add(e);
+            }
+
+            @Override
+            public void intervalRemoved(ListDataEvent e) {
+                events.add(e);
+            }
+
+            @Override
+            public void contentsChanged(ListDataEvent e) {
+                events.add(e);
+            }
+        });
+        OWLAxiom removed = df.getOWLDeclarationAxiom(getCls(3));
+        int removedRow = model.getFirstRow(getCls(3)).getAsInt();
+        OWLAxiom added = df.getOWLSubClassOfAxiom(getCls(1200), getCls(1));
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        changes.add(new RemoveAxiom(ontology, removed));
+        changes.add(new AddAxiom(ontology, added));
+        manager.applyChanges(changes);
+        model.handleChanges(changes);
+        assertThat(events.size(), is(2));
+        assertThat(events.get(0).getType(), is(ListDataEvent.INTERVAL_REMOVED));
+        assertThat(events.get(0).getIndex0(), is(removedRow));
+        assertThat(events.get(0).getIndex1(), is(removedRow));
+        int addedRow = events.get(1).getIndex0();
+        assertThat(events.get(1).getType(), is(ListDataEvent.INTERVAL_ADDED));
+        assertThat(events.get(1).getIndex1(), is(addedRow));
+        assertThat(model.getElementAt(addedRow), is(added.toString()));
+    }
+
+    @Test
+    public void shouldIgnoreChangesThatAreAlreadyReflected() {
+        OWLAxiom added = df.getOWLSubClassOfAxiom(getCls(700), getCls(1));
+        OWLAxiom removed = df.getOWLDeclarationAxiom(getCls(3));
+        List<OWLOntologyChange> changes = new ArrayList<>();
+        changes.add(new AddAxiom(ontology, added));
+        changes.add(new RemoveAxiom(ontology, removed));
+        manager.applyChanges(changes);
+        // A model built after the changes were applied, which are then replayed onto it
+        VirtualisedOntologySourceModel laterModel = new VirtualisedOntologySourceModel(ontology,
+                                                                                       ont -> Collections.emptyList(),
+                                                                                       OWLAxiom::toString);
+        int size = laterModel.getSize();
+        laterModel.handleChanges(changes);
+        assertThat(laterModel.getSize(), is(size));
+        assertThat(laterModel.getFirstRow(getCls(3)).isPresent(), is(false));
+        assertThat(laterModel.getFirstRow(getCls(700)).isPresent(), is(true));
+    }
+}
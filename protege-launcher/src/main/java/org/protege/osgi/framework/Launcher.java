@@ -1,9 +1,7 @@
 package org.protege.osgi.framework;
 
-import org.osgi.framework.Bundle;
-import org.osgi.framework.BundleContext;
-import org.osgi.framework.BundleException;
-import org.osgi.framework.Constants;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import org.osgi.framework.*;
 import org.osgi.framework.launch.Framework;
 import org.osgi.framework.launch.FrameworkFactory;
 import org.osgi.framework.startlevel.BundleStartLevel;
@@ -14,8 +12,14 @@ import org.xml.sax.SAXException;
 
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.*;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
 import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 
 public class Launcher {
@@ -40,6 +44,8 @@ public class Launcher {
 
     private final String factoryClass;
 
+    private final StartupTimeline timeline = new StartupTimeline();
+
     private Framework framework;
 
 
@@ -103,15 +109,44 @@ public class Launcher {
         FrameworkFactory factory = (FrameworkFactory) Class.forName(factoryClass).newInstance();
 
         framework = factory.newFramework(frameworkProperties);
-        framework.init();
+        timeline.time("framework-init", null, framework::init);
         logger.info("The OSGi framework has been initialised");
         BundleContext context = framework.getBundleContext();
         List<Bundle> bundles = new ArrayList<>();
-        int startLevel = 1;
-        for (BundleSearchPath searchPath : searchPaths) {
-            bundles.addAll(installBundles(context, searchPath, startLevel++));
+        ExecutorService installExecutor = Executors.newFixedThreadPool(
+                Runtime.getRuntime().availableProcessors(),
+                new ThreadFactoryBuilder()
+                        .setNameFormat("Bundle Installer %d")
+                        .setDaemon(true)
+                        .build());
+        try {
+            int startLevel = 1;
+            for (BundleSearchPath searchPath : searchPaths) {
+                int level = startLevel++;
+                timeline.time("install-level-" + level, null,
+                              () -> bundles.addAll(installBundles(context, searchPath, level, installExecutor)));
+            }
+        } finally {
+            installExecutor.shutdown();
         }
-        startBundles(bundles);
+        timeline.time("start-bundles", null, () -> startBundles(bundles));
+        // Bundles are activated by the framework as it moves through the start levels.  The timeline is written
+        // when the framework reports that it has started, which is before the STARTED event reaches any bundle.
+        BundleActivationTimer activationTimer = new BundleActivationTimer();
+        context.addBundleListener(activationTimer);
+        long frameworkStartTime = System.currentTimeMillis();
+        long frameworkStart = System.nanoTime();
+        context.addFrameworkListener(new FrameworkListener() {
+            @Override
+            public void frameworkEvent(FrameworkEvent event) {
+                if (event.getType() == FrameworkEvent.STARTED) {
+                    context.removeFrameworkListener(this);
+                    context.removeBundleListener(activationTimer);
+                    timeline.record("framework-start", null, frameworkStartTime, System.nanoTime() - frameworkStart);
+                    writeTimeline();
+                }
+            }
+        });
         try {
             framework.start();
             logger.info("The OSGi framework has been started");
@@ -156,24 +191,45 @@ public class Launcher {
         shutdownThread.start();
     }
 
-    private List<Bundle> installBundles(BundleContext context, BundleSearchPath searchPath, int startLevel) throws BundleException {
+    /**
+     * Installs the bundles that are found on the specified search path.  The bundles are installed concurrently (the
+     * framework allows this) but they are returned in search path order, which is the order in which they are
+     * started.
+     */
+    private List<Bundle> installBundles(BundleContext context,
+                                        BundleSearchPath searchPath,
+                                        int startLevel,
+                                        ExecutorService installExecutor) throws InterruptedException {
         Collection<File> bundles = searchPath.search();
-        List<Bundle> core = new ArrayList<>();
+        List<Future<Bundle>> installations = new ArrayList<>();
         for (File bundleFile : bundles) {
+            installations.add(installExecutor.submit(() -> installBundle(context, bundleFile, startLevel)));
+        }
+        List<Bundle> core = new ArrayList<>();
+        Iterator<File> bundleFiles = bundles.iterator();
+        for (Future<Bundle> installation : installations) {
+            File bundleFile = bundleFiles.next();
             try {
-                String bundleURI = bundleFile.getAbsoluteFile().toURI().toString();
-                logger.debug("Installing bundle.  StartLevel: {}; Bundle: {}", startLevel, bundleFile.getAbsolutePath());
-                Bundle newBundle = context.installBundle(bundleURI);
-                // the cast to BundleStartLevel is not needed in Java 6 but it is in Java 7
-                ((BundleStartLevel) newBundle.adapt(BundleStartLevel.class)).setStartLevel(startLevel);
-                core.add(newBundle);
-            } catch (Throwable t) {
-                logger.warn("Bundle {} failed to install: {}", bundleFile, t);
+                core.add(installation.get());
+            } catch (ExecutionException e) {
+                logger.warn("Bundle {} failed to install: {}", bundleFile, e.getCause());
             }
         }
         return core;
     }
 
+    private Bundle installBundle(BundleContext context, File bundleFile, int startLevel) throws BundleException {
+        String bundleURI = bundleFile.getAbsoluteFile().toURI().toString();
+        logger.debug("Installing bundle.  StartLevel: {}; Bundle: {}", startLevel, bundleFile.getAbsolutePath());
+        long startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
+        Bundle newBundle = context.installBundle(bundleURI);
+        // the cast to BundleStartLevel is not needed in Java 6 but it is in Java 7
+        ((BundleStartLevel) newBundle.adapt(BundleStartLevel.class)).setStartLevel(startLevel);
+        timeline.record("install-level-" + startLevel, bundleFile.getName(), startTime, System.nanoTime() - start);
+        return newBundle;
+    }
+
     private void startBundles(List<Bundle> bundles) throws BundleException {
         logger.info("------------------------------- Starting Bundles -------------------------------");
         for (Bundle b : bundles) {
@@ -192,6 +248,44 @@ public class Launcher {
         logger.debug("-------------------------------------------------------------------------------");
     }
 
+    private void writeTimeline() {
+        timeline.log(logger, 5);
+        String timelineFile = System.getProperty(StartupTimeline.TIMELINE_FILE_PROPERTY);
+        Path file = timelineFile != null ? Paths.get(timelineFile) : StartupTimeline.getDefaultTimelineFile();
+        try {
+            timeline.write(file);
+            // Later phases of startup append to the same file
+            System.setProperty(StartupTimeline.TIMELINE_FILE_PROPERTY, file.toString());
+        } catch (IOException e) {
+            logger.warn("The startup timeline could not be written to {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Records the time that the framework takes to activate each bundle.
+     */
+    private class BundleActivationTimer implements SynchronousBundleListener {
+
+        private final Map<Long, Long> startTimes = new HashMap<>();
+
+        private final Map<Long, Long> starts = new HashMap<>();
+
+        @Override
+        public synchronized void bundleChanged(BundleEvent event) {
+            long bundleId = event.getBundle().getBundleId();
+            if (event.getType() == BundleEvent.STARTING) {
+                startTimes.put(bundleId, System.currentTimeMillis());
+                starts.put(bundleId, System.nanoTime());
+            }
+            else if (event.getType() == BundleEvent.STARTED && starts.containsKey(bundleId)) {
+                timeline.record("framework-start",
+                                event.getBundle().getSymbolicName(),
+                                startTimes.remove(bundleId),
+                                System.nanoTime() - starts.remove(bundleId));
+            }
+        }
+    }
+
     private static boolean isFragmentBundle(Bundle b) {
         return (b.adapt(BundleRevision.class).getTypes() & BundleRevision.TYPE_FRAGMENT) != 0;
     }
@@ -0,0 +1,209 @@
+package org.protege.osgi.framework;
+
+import org.slf4j.Logger;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+/**
+ * Records how long each phase of startup takes so that startup regressions can be tracked.
+ * <p>
+ * Each entry records a phase (e.g. "install"), an optional item that the phase applies to (e.g. a bundle), the
+ * offset of its start from the start of the JVM, and its duration.  Entries may be recorded from any thread.  The
+ * timeline can be written to the log and to a tab separated file with a header row, one entry per line.  The
+ * launcher writes its entries to the file that is named by the {@link #TIMELINE_FILE_PROPERTY} system property;
+ * later phases of startup may append their entries to the same file, in the same format.
+ */
+public class StartupTimeline {
+
+    /**
+     * The system property that names the file that the startup timeline is written to.
+     */
+    public static final String TIMELINE_FILE_PROPERTY = "org.protege.startup.timeline.file";
+
+    public static final String DEFAULT_TIMELINE_FILE_NAME = "startup-timeline.tsv";
+
+    public static final String HEADER = "offset_ms\tduration_ms\tphase\titem\tthread";
+
+    private final long jvmStartTime = ManagementFactory.getRuntimeMXBean().getStartTime();
+
+    private final List<Entry> entries = new ArrayList<>();
+
+    /**
+     * Records an entry.
+     * @param phase The phase.
+     * @param item The item that the phase applies to, or {@code null} if the entry is for the phase as a whole.
+     * @param startTime The time, in milliseconds since the epoch, at which the phase started.
+     * @param durationNanos The duration of the phase in nanoseconds.
+     */
+    public void record(@Nonnull String phase, @Nullable String item, long startTime, long durationNanos) {
+        Entry entry = new Entry(checkNotNull(phase),
+                                item,
+                                startTime - jvmStartTime,
+                                TimeUnit.NANOSECONDS.toMillis(durationNanos),
+                                Thread.currentThread().getName());
+        synchronized (entries) {
+            entries.add(entry);
+        }
+    }
+
+    /**
+     * Runs the specified task and records its duration.
+     */
+    public <E extends Exception> void time(@Nonnull String phase, @Nullable String item, @Nonnull Task<E> task) throws E {
+        long startTime = System.currentTimeMillis();
+        long start = System.nanoTime();
+        try {
+            task.run();
+        } finally {
+            record(phase, item, startTime, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gets the recorded entries, ordered by their offsets.
+     */
+    @Nonnull
+    public List<Entry> getEntries() {
+        List<Entry> result;
+        synchronized (entries) {
+            result = new ArrayList<>(entries);
+        }
+        result.sort(Comparator.comparingLong(Entry::getOffsetMillis));
+        return result;
+    }
+
+    /**
+     * Logs the entries for whole phases, together with the slowest items of each phase.
+     * @param logger The logger.
+     * @param slowestItemCount The maximum number of items to log for each phase.
+     */
+    public void log(@Nonnull Logger logger, int slowestItemCount) {
+        List<Entry> all = getEntries();
+        for (Entry phaseEntry : all) {
+            if (phaseEntry.getItem() != null) {
+                continue;
+            }
+            logger.info("Startup phase {} took {} ms (started at {} ms)",
+                        phaseEntry.getPhase(), phaseEntry.getDurationMillis(), phaseEntry.getOffsetMillis());
+            all.stream()
+               .filter(e -> e.getItem() != null && e.getPhase().equals(phaseEntry.getPhase()))
+               .sorted(Comparator.comparingLong(Entry::getDurationMillis).reversed())
+               .limit(slowestItemCount)
+               .forEach(e -> logger.info("        {} ms: {}", e.getDurationMillis(), e.getItem()));
+        }
+    }
+
+    /**
+     * Writes the entries to the specified file, replacing its contents.
+     */
+    public void write(@Nonnull Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write(HEADER);
+            writer.newLine();
+            for (Entry entry : getEntries()) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Appends the entries to the specified file, writing a header row first if the file does not exist.
+     */
+    public void append(@Nonnull Path file) throws IOException {
+        if (!Files.exists(file)) {
+            write(file);
+            return;
+        }
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.APPEND)) {
+            for (Entry entry : getEntries()) {
+                writer.write(entry.toLine());
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Gets the default location of the timeline file, which is in the logs directory of the Protege data directory.
+     */
+    @Nonnull
+    public static Path getDefaultTimelineFile() {
+        String dataDirectory = System.getProperty("protege.data.dir",
+                                                  System.getProperty("user.home") + File.separator + ".Protege");
+        return new File(new File(dataDirectory, "logs"), DEFAULT_TIMELINE_FILE_NAME).toPath();
+    }
+
+    public interface Task<E extends Exception> {
+
+        void run() throws E;
+    }
+
+    public static final class Entry {
+
+        private final String phase;
+
+        private final String item;
+
+        private final long offsetMillis;
+
+        private final long durationMillis;
+
+        private final String thread;
+
+        private Entry(String phase, String item, long offsetMillis, long durationMillis, String thread) {
+            this.phase = phase;
+            this.item = item;
+            this.offsetMillis = offsetMillis;
+            this.durationMillis = durationMillis;
+            this.thread = thread;
+        }
+
+        @Nonnull
+        public String getPhase() {
+            return phase;
+        }
+
+        @Nullable
+        public String getItem() {
+            return item;
+        }
+
+        public long getOffsetMillis() {
+            return offsetMillis;
+        }
+
+        public long getDurationMillis() {
+            return durationMillis;
+        }
+
+        @Nonnull
+        public String getThread() {
+            return thread;
+        }
+
+        private String toLine() {
+            return offsetMillis + "\t" + durationMillis + "\t" + clean(phase) + "\t"
+                    + (item == null ? "" : clean(item)) + "\t" + clean(thread);
+        }
+
+        private static String clean(String value) {
+            return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+        }
+    }
+}
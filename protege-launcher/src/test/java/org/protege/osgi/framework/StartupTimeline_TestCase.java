@@ -0,0 +1,84 @@
+package org.protege.osgi.framework;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+
+public class StartupTimeline_TestCase {
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private StartupTimeline timeline;
+
+    @Before
+    public void setUp() {
+        timeline = new StartupTimeline();
+    }
+
+    @Test
+    public void shouldOrderEntriesByOffset() {
+        long now = System.currentTimeMillis();
+        timeline.record("install-level-1", "b.jar", now + 10, TimeUnit.MILLISECONDS.toNanos(5));
+        timeline.record("install-level-1", null, now, TimeUnit.MILLISECONDS.toNanos(20));
+        List<StartupTimeline.Entry> entries = timeline.getEntries();
+        assertThat(entries.size(), is(2));
+        assertThat(entries.get(0).getItem(), is(nullValue()));
+        assertThat(entries.get(0).getDurationMillis(), is(20L));
+        assertThat(entries.get(1).getItem(), is("b.jar"));
+        assertThat(entries.get(1).getOffsetMillis() - entries.get(0).getOffsetMillis(), is(10L));
+    }
+
+    @Test
+    public void shouldWriteHeaderAndOneLinePerEntry() throws Exception {
+        timeline.record("framework-start", "org.protege\tcommon", System.currentTimeMillis(), 0);
+        Path file = temporaryFolder.getRoot().toPath().resolve("logs").resolve("timeline.tsv");
+        timeline.write(file);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines.size(), is(2));
+        assertThat(lines.get(0), is(StartupTimeline.HEADER));
+        String[] columns = lines.get(1).split("\t", -1);
+        assertThat(columns.length, is(5));
+        assertThat(columns[2], is("framework-start"));
+        assertThat(columns[3], is("org.protege common"));
+    }
+
+    @Test
+    public void shouldAppendWithoutRepeatingHeader() throws Exception {
+        Path file = temporaryFolder.getRoot().toPath().resolve("timeline.tsv");
+        timeline.record("framework-init", null, System.currentTimeMillis(), 0);
+        timeline.write(file);
+        StartupTimeline later = new StartupTimeline();
+        later.record("look-and-feel", null, System.currentTimeMillis(), 0);
+        later.append(file);
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertThat(lines.size(), is(3));
+        assertThat(lines.get(0), is(StartupTimeline.HEADER));
+        assertThat(lines.get(2).split("\t")[2], startsWith("look-and-feel"));
+    }
+
+    @Test
+    public void shouldRecordTimedTaskWhenItFails() {
+        try {
+            timeline.time("failing", null, () -> {
+                throw new IllegalStateException();
+            });
+        } catch (IllegalStateException e) {
+            // Expected
+        }
+        assertThat(timeline.getEntries().size(), is(1));
+        assertThat(timeline.getEntries().get(0).getPhase(), is("failing"));
+    }
+}